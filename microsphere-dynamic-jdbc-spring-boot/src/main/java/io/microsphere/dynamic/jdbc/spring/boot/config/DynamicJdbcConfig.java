@@ -243,6 +243,16 @@ public class DynamicJdbcConfig implements BeanFactoryAware {
         return dataSourcePropertiesList;
     }
 
+    /**
+     * Get the datasource properties lists of all zones declared in 'ha-datasource' module
+     *
+     * @return the unmodifiable {@link Map} with the zones as the keys, or empty if no 'ha-datasource' module
+     */
+    @JsonIgnore
+    public Map<String, List<Map<String, String>>> getHighAvailabilityDataSourcePropertiesMap() {
+        return highAvailabilityDataSourcePropertiesMap == null ? emptyMap() : highAvailabilityDataSourcePropertiesMap;
+    }
+
     @JsonIgnore
     public Map<String, Map<String, String>> getDataSourcePropertiesMap() {
         if (!hasDataSource() && !hasHighAvailabilityDataSource()) {
@@ -72,6 +72,8 @@ public interface DynamicJdbcConstants {
 
     String BEAN_CLASSES_PROPERTY_NAME = "bean-classes";
 
+    String CONFIG_CHANGED_EVENT_PROPERTY_NAME = "config-changed-event";
+
     String AUTO_CONFIGURATION_BASE_PACKAGES_PROPERTY_NAME = AUTO_CONFIGURATION_PROPERTY_NAME + PROPERTY_NAME_SEPARATOR + BASE_PACKAGES_PROPERTY_NAME;
 
     String AUTO_CONFIGURATION_BANNED_MODULES_PROPERTY_NAME =
@@ -96,6 +98,34 @@ public interface DynamicJdbcConstants {
     String MULTIPLE_CONTEXT_PRIMARY_BEAN_CLASSES_PROPERTY_NAME =
             MULTIPLE_CONTEXT_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + BEAN_CLASSES_PROPERTY_NAME + PROPERTY_NAME_SEPARATOR + PRIMARY_PROPERTY_NAME;
 
+    String MULTIPLE_CONTEXT_ON_DEMAND_PROPERTY_NAME_PREFIX = MULTIPLE_CONTEXT_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "on-demand";
+
+    // Whether the Child Contexts are created on first use rather than at startup, false by default
+    String MULTIPLE_CONTEXT_ON_DEMAND_ENABLED_PROPERTY_NAME =
+            MULTIPLE_CONTEXT_ON_DEMAND_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + ENABLED_PROPERTY_NAME;
+
+    // The max count of the live Child Contexts created on demand, the least recently used ones will be evicted, zero means no limit
+    String MULTIPLE_CONTEXT_ON_DEMAND_MAX_LIVE_CONTEXTS_PROPERTY_NAME =
+            MULTIPLE_CONTEXT_ON_DEMAND_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "max-live-contexts";
+
+    // The duration that the Child Context created on demand could be idle before it's evicted, zero means never
+    String MULTIPLE_CONTEXT_ON_DEMAND_IDLE_TIMEOUT_PROPERTY_NAME =
+            MULTIPLE_CONTEXT_ON_DEMAND_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "idle-timeout";
+
+    String DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_PROPERTY_NAME_PREFIX =
+            DYNAMIC_JDBC_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + CONFIG_CHANGED_EVENT_PROPERTY_NAME;
+
+    // The debounce window per property name, zero means disabled
+    String DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_DEBOUNCE_WINDOW_PROPERTY_NAME =
+            DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "debounce-window";
+
+    // The duration that the changed zone must be kept before publishing, zero means disabled
+    String DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_ZONE_HYSTERESIS_PROPERTY_NAME =
+            DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "zone-hysteresis";
+
+    // The max duration that a burst could postpone the publication, zero means ten times the debounce window or zone hysteresis
+    String DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_MAX_WAIT_PROPERTY_NAME =
+            DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "max-wait";
 
     // Resource
 
@@ -5,6 +5,7 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ApplicationContextEvent;
 import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.util.StringUtils;
@@ -25,12 +26,14 @@ import static io.microsphere.spring.util.SpringFactoriesLoaderUtils.loadFactorie
  * <ul>
  * <li>On {@link ContextRefreshedEvent} : To register The Dynamic JDBC Beans from Child Context to
  * Parent Context</li>
+ * <li>On {@link ContextRefreshedEvent} : To register Child Context to be closed with Parent Context</li>
+ * <li>On {@link ContextClosedEvent} : To unregister Child Context from Parent Context</li>
  * </ul>
  *
  * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
  * @since 1.0.0
  */
-class DynamicJdbcChildContextRefreshedListener implements ApplicationListener<ContextRefreshedEvent> {
+class DynamicJdbcChildContextRefreshedListener implements ApplicationListener<ApplicationContextEvent> {
 
     private final DynamicJdbcConfig dynamicJdbcConfig;
 
@@ -61,16 +64,25 @@ class DynamicJdbcChildContextRefreshedListener implements ApplicationListener<Co
     }
 
     @Override
-    public void onApplicationEvent(ContextRefreshedEvent event) {
+    public void onApplicationEvent(ApplicationContextEvent event) {
         ConfigurableApplicationContext childContext = (ConfigurableApplicationContext) event.getApplicationContext();
-        registerParentContextClosedEventListener(childContext);
-        registerParentBeansFromChildContext(childContext);
+        if (event instanceof ContextRefreshedEvent) {
+            registerParentContextClosedEventListener(childContext);
+            registerParentBeansFromChildContext(childContext);
+        } else if (event instanceof ContextClosedEvent) {
+            unregisterParentContextClosedEventListener(childContext);
+        }
     }
 
     private void registerParentContextClosedEventListener(ConfigurableApplicationContext childContext) {
-        parentContext.addApplicationListener((ApplicationListener<ContextClosedEvent>) e -> {
-            childContext.close();
-        });
+        DynamicJdbcChildContextsClosingListener.get(parentContext).register(childContext);
+    }
+
+    private void unregisterParentContextClosedEventListener(ConfigurableApplicationContext childContext) {
+        DynamicJdbcChildContextsClosingListener listener = DynamicJdbcChildContextsClosingListener.find(parentContext);
+        if (listener != null) {
+            listener.unregister(childContext);
+        }
     }
 
     private void registerParentBeansFromChildContext(ConfigurableApplicationContext childContext) {
@@ -0,0 +1,554 @@
+package io.microsphere.dynamic.jdbc.spring.boot.context;
+
+import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getMultipleContextOnDemandIdleTimeout;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getMultipleContextOnDemandMaxLiveContexts;
+import static io.microsphere.text.FormatUtils.format;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+
+/**
+ * The registry of the Dynamic JDBC Child Contexts created on demand, which replaces the eager ones of the multiple
+ * DynamicJdbcConfigs when "microsphere.dynamic.jdbc.multiple-context.on-demand.enabled" is true, e.g. the thousands
+ * of the tenant databases. The Child Context is created and refreshed on its first use, and closed with its pools once
+ * it has been idle for the idle timeout, or it's the least recently used one when the count of the live Child Contexts
+ * exceeds the max. The evicted Child Contexts are closed on the scheduler of the registry, thus the caller that
+ * triggers the eviction is not blocked by the closing of the pools.
+ * <p>
+ * The beans of the Child Contexts are not registered into the Parent Context, they should be got from this registry
+ * on each use rather than cached, the {@link BorrowedChildContext BorrowedChildContexts} got from
+ * {@link #getChildContext(String)} and the {@link Connection connections} got from {@link #getConnection(String)} keep
+ * their Child Context from being evicted until they are closed.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicJdbcContextApplicationListener
+ * @see DynamicJdbcChildContext
+ * @since 1.0.0
+ */
+public class DynamicJdbcChildContextRegistry implements ApplicationListener<DynamicJdbcConfigChangedEvent>, DisposableBean {
+
+    /**
+     * The bean name of {@link DynamicJdbcChildContextRegistry}
+     */
+    public static final String BEAN_NAME = "dynamicJdbcChildContextRegistry";
+
+    private static final Logger logger = LoggerFactory.getLogger(DynamicJdbcChildContextRegistry.class);
+
+    private static final Class<?>[] PROXY_INTERFACES = new Class[]{Connection.class};
+
+    private final ConfigurableApplicationContext parentContext;
+
+    /**
+     * The property name of DynamicJdbcConfig as the key
+     */
+    private final Map<String, DynamicJdbcConfig> dynamicJdbcConfigs = new ConcurrentHashMap<>();
+
+    /**
+     * The name of DynamicJdbcConfig as the key, the property name as the value
+     */
+    private final Map<String, String> dynamicJdbcConfigPropertyNames = new ConcurrentHashMap<>();
+
+    private final int maxLiveContexts;
+
+    private final long idleTimeout;
+
+    /**
+     * The live Child Contexts in the order of the last access, guarded by itself
+     */
+    private final LinkedHashMap<String, LiveChildContext> liveChildContexts = new LinkedHashMap<>();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * The scheduler of the evictions, which closes the evicted Child Contexts as well
+     */
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean destroyed;
+
+    /**
+     * @param parentContext      the Parent Context
+     * @param dynamicJdbcConfigs the {@link DynamicJdbcConfig DynamicJdbcConfigs} with their property names as the keys
+     * @param maxLiveContexts    the max count of the live Child Contexts, 0 means no limit
+     * @param idleTimeout        the duration that the Child Context could be idle, zero means never evicted for idle
+     */
+    public DynamicJdbcChildContextRegistry(ConfigurableApplicationContext parentContext, Map<String, DynamicJdbcConfig> dynamicJdbcConfigs,
+                                           int maxLiveContexts, Duration idleTimeout) {
+        this.parentContext = parentContext;
+        this.maxLiveContexts = Math.max(0, maxLiveContexts);
+        this.idleTimeout = Math.max(0, idleTimeout.toNanos());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("DynamicJdbcChildContextRegistry-");
+        threadFactory.setDaemon(true);
+        // The thread is started on the first task
+        this.scheduler = newSingleThreadScheduledExecutor(threadFactory);
+        dynamicJdbcConfigs.forEach(this::putDynamicJdbcConfig);
+    }
+
+    /**
+     * Register the {@link DynamicJdbcChildContextRegistry} into the Parent Context and start evicting the idle Child
+     * Contexts
+     *
+     * @param parentContext      the Parent Context
+     * @param dynamicJdbcConfigs the {@link DynamicJdbcConfig DynamicJdbcConfigs} with their property names as the keys
+     * @return non-null
+     */
+    static DynamicJdbcChildContextRegistry register(ConfigurableApplicationContext parentContext,
+                                                    Map<String, DynamicJdbcConfig> dynamicJdbcConfigs) {
+        Environment environment = parentContext.getEnvironment();
+        DynamicJdbcChildContextRegistry registry = new DynamicJdbcChildContextRegistry(parentContext, dynamicJdbcConfigs,
+                getMultipleContextOnDemandMaxLiveContexts(environment), getMultipleContextOnDemandIdleTimeout(environment));
+        ConfigurableListableBeanFactory beanFactory = parentContext.getBeanFactory();
+        beanFactory.registerSingleton(BEAN_NAME, registry);
+        if (beanFactory instanceof DefaultSingletonBeanRegistry) {
+            // Close the live Child Contexts when the Parent Context is closing
+            ((DefaultSingletonBeanRegistry) beanFactory).registerDisposableBean(BEAN_NAME, registry);
+        }
+        parentContext.addApplicationListener(registry);
+        registry.start();
+        return registry;
+    }
+
+    /**
+     * Borrow the Child Context of the DynamicJdbcConfig, which is created and refreshed if it's not live, the Child
+     * Context will not be evicted until the {@link BorrowedChildContext} is closed
+     *
+     * @param name the name or the property name of DynamicJdbcConfig
+     * @return non-null
+     * @throws IllegalArgumentException if no such DynamicJdbcConfig
+     * @throws IllegalStateException    if the registry has been destroyed
+     */
+    public BorrowedChildContext getChildContext(String name) {
+        return new BorrowedChildContext(acquire(name));
+    }
+
+    /**
+     * Get the {@link Connection} from the {@link DataSource} of the Child Context of the DynamicJdbcConfig, the Child
+     * Context will not be evicted until the {@link Connection} is closed
+     *
+     * @param name the name or the property name of DynamicJdbcConfig
+     * @return non-null
+     * @throws SQLException if failed
+     */
+    public Connection getConnection(String name) throws SQLException {
+        LiveChildContext liveChildContext = acquire(name);
+        Connection connection = null;
+        try {
+            connection = liveChildContext.getChildContext().getBean(DataSource.class).getConnection();
+        } finally {
+            if (connection == null) {
+                liveChildContext.release();
+            }
+        }
+        ClassLoader classLoader = DynamicJdbcChildContextRegistry.class.getClassLoader();
+        InvocationHandler invocationHandler = new BorrowedConnectionInvocationHandler(connection, liveChildContext);
+        return (Connection) Proxy.newProxyInstance(classLoader, PROXY_INTERFACES, invocationHandler);
+    }
+
+    /**
+     * Get the property names of the DynamicJdbcConfigs whose Child Contexts are live, from the least recently used one
+     *
+     * @return non-null
+     */
+    public Set<String> getLiveChildContextPropertyNames() {
+        synchronized (liveChildContexts) {
+            return unmodifiableSet(new LinkedHashSet<>(liveChildContexts.keySet()));
+        }
+    }
+
+    /**
+     * @return the count of the evicted Child Contexts
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Create and refresh the Child Context, subclass could override it
+     *
+     * @param dynamicJdbcConfig             {@link DynamicJdbcConfig}
+     * @param dynamicJdbcConfigPropertyName the property name of DynamicJdbcConfig
+     * @return non-null
+     */
+    protected DynamicJdbcChildContext createChildContext(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName) {
+        DynamicJdbcChildContext childContext = new DynamicJdbcChildContext(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext);
+        // Merge Parent Environment
+        childContext.mergeParentEnvironment();
+        // Refresh Context
+        childContext.refresh();
+        return childContext;
+    }
+
+    @Override
+    public void onApplicationEvent(DynamicJdbcConfigChangedEvent event) {
+        if (event.getSource() != parentContext) {
+            return;
+        }
+        String propertyName = event.getPropertyName();
+        DynamicJdbcConfig dynamicJdbcConfig = event.getDynamicJdbcConfig();
+        if (dynamicJdbcConfig != null) {
+            // The Child Context to be created will use the latest one
+            putDynamicJdbcConfig(propertyName, dynamicJdbcConfig);
+        }
+        LiveChildContext liveChildContext;
+        synchronized (liveChildContexts) {
+            liveChildContext = liveChildContexts.get(propertyName);
+        }
+        DynamicJdbcChildContext childContext = liveChildContext == null ? null : liveChildContext.getChildContextIfReady();
+        if (childContext != null) {
+            // Propagate to the DynamicDataSource of the live Child Context
+            childContext.publishEvent(event);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        List<LiveChildContext> liveChildContexts;
+        synchronized (this.liveChildContexts) {
+            destroyed = true;
+            liveChildContexts = new ArrayList<>(this.liveChildContexts.values());
+            this.liveChildContexts.clear();
+        }
+        // The pending evictions are still executed, but the idle evictions are cancelled
+        scheduler.shutdown();
+        liveChildContexts.forEach(LiveChildContext::close);
+    }
+
+    /**
+     * Evict the Child Contexts that have been idle for the idle timeout
+     */
+    void evictIdleChildContexts() {
+        List<LiveChildContext> evictedChildContexts = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (liveChildContexts) {
+            Iterator<LiveChildContext> iterator = liveChildContexts.values().iterator();
+            while (iterator.hasNext()) {
+                LiveChildContext liveChildContext = iterator.next();
+                if (liveChildContext.isEvictable() && now - liveChildContext.lastAccessTime >= idleTimeout) {
+                    iterator.remove();
+                    evictedChildContexts.add(liveChildContext);
+                }
+            }
+        }
+        evict(evictedChildContexts, "idle");
+    }
+
+    private void start() {
+        if (idleTimeout > 0) {
+            long period = Math.max(TimeUnit.SECONDS.toNanos(1), idleTimeout / 2);
+            scheduler.scheduleAtFixedRate(this::evictIdleChildContexts, period, period, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Acquire the live Child Context and borrow it, which must be released by the caller
+     */
+    private LiveChildContext acquire(String name) {
+        String propertyName = resolvePropertyName(name);
+        LiveChildContext liveChildContext;
+        boolean creating = false;
+        List<LiveChildContext> evictedChildContexts;
+        synchronized (liveChildContexts) {
+            if (destroyed) {
+                throw new IllegalStateException(format("The DynamicJdbcChildContextRegistry of the Parent Context[id : '{}'] has been destroyed",
+                        parentContext.getId()));
+            }
+            liveChildContext = liveChildContexts.remove(propertyName);
+            if (liveChildContext == null) {
+                liveChildContext = new LiveChildContext(propertyName);
+                creating = true;
+            }
+            // Move to the tail as the most recently used one
+            liveChildContexts.put(propertyName, liveChildContext);
+            liveChildContext.touch();
+            // Borrowed before the lock is released, thus it can't be evicted once it's handed out
+            liveChildContext.borrowed.incrementAndGet();
+            evictedChildContexts = creating ? evictLeastRecentlyUsedChildContexts() : emptyList();
+        }
+        if (!evictedChildContexts.isEmpty()) {
+            // Close them off the caller, which is waiting for its Child Context
+            List<LiveChildContext> lruChildContexts = evictedChildContexts;
+            try {
+                scheduler.execute(() -> evict(lruChildContexts, "least recently used"));
+            } catch (RejectedExecutionException e) {
+                // destroy() has missed them
+                evict(lruChildContexts, "destroyed");
+            }
+        }
+        if (creating) {
+            create(liveChildContext);
+        }
+        try {
+            liveChildContext.awaitChildContext();
+            if (destroyed) {
+                // The Child Context has been or will be closed by destroy()
+                throw new IllegalStateException(format("The DynamicJdbcChildContextRegistry of the Parent Context[id : '{}'] has been destroyed",
+                        parentContext.getId()));
+            }
+        } catch (RuntimeException e) {
+            liveChildContext.release();
+            throw e;
+        }
+        return liveChildContext;
+    }
+
+    private void create(LiveChildContext liveChildContext) {
+        String propertyName = liveChildContext.propertyName;
+        try {
+            DynamicJdbcChildContext childContext = createChildContext(dynamicJdbcConfigs.get(propertyName), propertyName);
+            liveChildContext.future.complete(childContext);
+            logger.info("The Child Context[id : '{}'] was created on demand , live Child Contexts : {}", childContext.getId(),
+                    getLiveChildContextPropertyNames().size());
+        } catch (Throwable e) {
+            synchronized (liveChildContexts) {
+                liveChildContexts.remove(propertyName, liveChildContext);
+            }
+            liveChildContext.future.completeExceptionally(e);
+            logger.error("The Child Context of DynamicJdbcConfig[property name : '{}'] can't be created", propertyName, e);
+        }
+        if (destroyed) {
+            // destroy() may miss the Child Context being created
+            liveChildContext.close();
+        }
+    }
+
+    private List<LiveChildContext> evictLeastRecentlyUsedChildContexts() {
+        int excess = maxLiveContexts > 0 ? liveChildContexts.size() - maxLiveContexts : 0;
+        if (excess < 1) {
+            return emptyList();
+        }
+        List<LiveChildContext> evictedChildContexts = new ArrayList<>(excess);
+        Iterator<LiveChildContext> iterator = liveChildContexts.values().iterator();
+        while (iterator.hasNext() && evictedChildContexts.size() < excess) {
+            LiveChildContext liveChildContext = iterator.next();
+            if (liveChildContext.isEvictable()) {
+                iterator.remove();
+                evictedChildContexts.add(liveChildContext);
+            }
+        }
+        if (evictedChildContexts.size() < excess) {
+            logger.warn("The live Child Contexts[count : {}] exceed the max : {} , the others are in use", liveChildContexts.size(), maxLiveContexts);
+        }
+        return evictedChildContexts;
+    }
+
+    private void evict(List<LiveChildContext> evictedChildContexts, String reason) {
+        for (LiveChildContext liveChildContext : evictedChildContexts) {
+            logger.info("The Child Context of DynamicJdbcConfig[property name : '{}'] is being evicted , reason : {}",
+                    liveChildContext.propertyName, reason);
+            evictions.incrementAndGet();
+            try {
+                liveChildContext.close();
+            } catch (RuntimeException e) {
+                logger.warn("The Child Context of DynamicJdbcConfig[property name : '{}'] failed to be closed", liveChildContext.propertyName, e);
+            }
+        }
+    }
+
+    private String resolvePropertyName(String name) {
+        if (dynamicJdbcConfigs.containsKey(name)) {
+            return name;
+        }
+        String propertyName = dynamicJdbcConfigPropertyNames.get(name);
+        if (propertyName == null) {
+            throw new IllegalArgumentException(format("No DynamicJdbcConfig[name : '{}'] was configured", name));
+        }
+        return propertyName;
+    }
+
+    private void putDynamicJdbcConfig(String propertyName, DynamicJdbcConfig dynamicJdbcConfig) {
+        dynamicJdbcConfigs.put(propertyName, dynamicJdbcConfig);
+        String name = dynamicJdbcConfig.getName();
+        if (name != null) {
+            dynamicJdbcConfigPropertyNames.put(name, propertyName);
+        }
+    }
+
+    /**
+     * The live Child Context, which may be being created
+     */
+    private static class LiveChildContext {
+
+        private final String propertyName;
+
+        private final CompletableFuture<DynamicJdbcChildContext> future = new CompletableFuture<>();
+
+        private final AtomicInteger borrowed = new AtomicInteger();
+
+        private volatile long lastAccessTime;
+
+        private LiveChildContext(String propertyName) {
+            this.propertyName = propertyName;
+        }
+
+        private void touch() {
+            lastAccessTime = System.nanoTime();
+        }
+
+        private void release() {
+            touch();
+            borrowed.decrementAndGet();
+        }
+
+        private boolean isEvictable() {
+            return future.isDone() && borrowed.get() == 0;
+        }
+
+        private void awaitChildContext() {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+
+        private DynamicJdbcChildContext getChildContext() {
+            return future.join();
+        }
+
+        private DynamicJdbcChildContext getChildContextIfReady() {
+            return future.isDone() && !future.isCompletedExceptionally() ? future.join() : null;
+        }
+
+        private void close() {
+            DynamicJdbcChildContext childContext = getChildContextIfReady();
+            if (childContext != null) {
+                childContext.close();
+            }
+        }
+    }
+
+    /**
+     * The Child Context borrowed from {@link DynamicJdbcChildContextRegistry}, which is kept from being evicted until
+     * it's closed
+     */
+    public static class BorrowedChildContext implements AutoCloseable {
+
+        private final LiveChildContext liveChildContext;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private BorrowedChildContext(LiveChildContext liveChildContext) {
+            this.liveChildContext = liveChildContext;
+        }
+
+        /**
+         * @return the borrowed Child Context
+         * @throws IllegalStateException if it has been closed
+         */
+        public DynamicJdbcChildContext getChildContext() {
+            if (released.get()) {
+                throw new IllegalStateException(format("The borrowed Child Context of DynamicJdbcConfig[property name : '{}'] has been closed",
+                        liveChildContext.propertyName));
+            }
+            return liveChildContext.getChildContext();
+        }
+
+        /**
+         * Get the bean of the borrowed Child Context, which should not be used after this is closed
+         *
+         * @param beanType the type of bean
+         * @param <T>      the type of bean
+         * @return non-null
+         * @throws IllegalStateException if it has been closed
+         */
+        public <T> T getBean(Class<T> beanType) {
+            return getChildContext().getBean(beanType);
+        }
+
+        /**
+         * Return the Child Context to the registry, it's idempotent
+         */
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                liveChildContext.release();
+            }
+        }
+    }
+
+    /**
+     * {@link InvocationHandler} for the {@link Connection} that keeps its Child Context from being evicted until it's
+     * closed
+     */
+    private static class BorrowedConnectionInvocationHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        private final LiveChildContext liveChildContext;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private BorrowedConnectionInvocationHandler(Connection target, LiveChildContext liveChildContext) {
+            this.target = target;
+            this.liveChildContext = liveChildContext;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "OnDemandConnection[config property name : '" + liveChildContext.propertyName + "' , target : " + target + "]";
+                case "close":
+                    if (released.compareAndSet(false, true)) {
+                        try {
+                            target.close();
+                        } finally {
+                            liveChildContext.release();
+                        }
+                    }
+                    return null;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package io.microsphere.dynamic.jdbc.spring.boot.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Collections.newSetFromMap;
+
+/**
+ * The only {@link ApplicationListener} of the Parent Context that closes the live Dynamic JDBC Child Contexts when
+ * the Parent Context is closing, the Child Context is registered after it's refreshed and unregistered after it's
+ * closed, thus the Parent Context does not retain the closed Child Contexts, e.g. the ones retired by
+ * the DynamicDataSource.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicJdbcChildContextRefreshedListener
+ * @since 1.0.0
+ */
+class DynamicJdbcChildContextsClosingListener implements ApplicationListener<ContextClosedEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(DynamicJdbcChildContextsClosingListener.class);
+
+    public static final String BEAN_NAME = "dynamicJdbcChildContextsClosingListener";
+
+    private final ConfigurableApplicationContext parentContext;
+
+    private final Set<ConfigurableApplicationContext> childContexts = newSetFromMap(new ConcurrentHashMap<>());
+
+    private DynamicJdbcChildContextsClosingListener(ConfigurableApplicationContext parentContext) {
+        this.parentContext = parentContext;
+    }
+
+    /**
+     * Get or register the {@link DynamicJdbcChildContextsClosingListener} of the Parent Context
+     *
+     * @param parentContext the Parent Context
+     * @return non-null
+     */
+    static DynamicJdbcChildContextsClosingListener get(ConfigurableApplicationContext parentContext) {
+        ConfigurableListableBeanFactory beanFactory = parentContext.getBeanFactory();
+        synchronized (parentContext) {
+            if (beanFactory.containsSingleton(BEAN_NAME)) {
+                return (DynamicJdbcChildContextsClosingListener) beanFactory.getSingleton(BEAN_NAME);
+            }
+            DynamicJdbcChildContextsClosingListener listener = new DynamicJdbcChildContextsClosingListener(parentContext);
+            parentContext.addApplicationListener(listener);
+            beanFactory.registerSingleton(BEAN_NAME, listener);
+            return listener;
+        }
+    }
+
+    /**
+     * Find the registered {@link DynamicJdbcChildContextsClosingListener} of the Parent Context
+     *
+     * @param parentContext the Parent Context
+     * @return <code>null</code> if not registered or the Parent Context has been closed
+     */
+    static DynamicJdbcChildContextsClosingListener find(ConfigurableApplicationContext parentContext) {
+        ConfigurableListableBeanFactory beanFactory;
+        try {
+            beanFactory = parentContext.getBeanFactory();
+        } catch (IllegalStateException e) {
+            // The BeanFactory of refreshable context is not accessible after closed
+            return null;
+        }
+        return beanFactory.containsSingleton(BEAN_NAME) ? (DynamicJdbcChildContextsClosingListener) beanFactory.getSingleton(BEAN_NAME) : null;
+    }
+
+    void register(ConfigurableApplicationContext childContext) {
+        if (childContexts.add(childContext)) {
+            logger.debug("The Child Context[id : '{}'] was registered , live Child Contexts : {}", childContext.getId(), childContexts.size());
+        }
+    }
+
+    void unregister(ConfigurableApplicationContext childContext) {
+        if (childContexts.remove(childContext)) {
+            logger.debug("The Child Context[id : '{}'] was unregistered , live Child Contexts : {}", childContext.getId(), childContexts.size());
+        }
+    }
+
+    @Override
+    public void onApplicationEvent(ContextClosedEvent event) {
+        if (event.getApplicationContext() != parentContext) {
+            // The event was propagated from another child of the Parent Context
+            return;
+        }
+        List<ConfigurableApplicationContext> childContexts = new ArrayList<>(this.childContexts);
+        for (ConfigurableApplicationContext childContext : childContexts) {
+            childContext.close();
+        }
+        this.childContexts.clear();
+    }
+
+    /**
+     * @return the count of the live Child Contexts
+     */
+    int getChildContextsCount() {
+        return childContexts.size();
+    }
+}
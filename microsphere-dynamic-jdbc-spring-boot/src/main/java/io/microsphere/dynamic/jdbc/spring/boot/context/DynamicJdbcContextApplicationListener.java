@@ -22,12 +22,16 @@ import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtil
 import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getAllModulesAutoConfigurationClassNames;
 import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getMultipleContextExclusionAutoConfigurationClassNames;
 import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isDynamicJdbcEnabled;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isMultipleContextOnDemandEnabled;
 import static io.microsphere.spring.boot.autoconfigure.ConfigurableAutoConfigurationImportFilter.addExcludedAutoConfigurationClasses;
 import static java.util.concurrent.Executors.newFixedThreadPool;
 
 /**
  * {@link ApplicationPreparedEvent} {@link ApplicationListener} to prepare for Dynamic JDBC
  * {@link ApplicationContext context} environment
+ * <p>
+ * The Child Contexts of the multiple DynamicJdbcConfigs are refreshed eagerly, or created on demand by
+ * {@link DynamicJdbcChildContextRegistry} if "microsphere.dynamic.jdbc.multiple-context.on-demand.enabled" is true.
  *
  * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
  * @since 1.0.0
@@ -77,7 +81,12 @@ public class DynamicJdbcContextApplicationListener extends OnceMainApplicationPr
 
         boolean multiple = dynamicJdbcConfigSize > 1;
 
-        if (multiple) {
+        if (multiple && isMultipleContextOnDemandEnabled(environment)) {
+            logger.info("{} DynamicJdbcConfigs were found, Current ApplicationContext[id : {}] will create DynamicJdbcChildContexts on demand!",
+                    dynamicJdbcConfigSize, context.getId());
+            DynamicJdbcChildContextRegistry.register(context, dynamicJdbcConfigs);
+            appendExclusionAutoConfigurationProperty(context);
+        } else if (multiple) {
             logger.info("{} DynamicJdbcConfigs were found, Current ApplicationContext[id : {}] will create DynamicJdbcChildContexts individually!",
                     dynamicJdbcConfigSize, context.getId());
             processDynamicJdbcChildContexts(dynamicJdbcConfigs.entrySet(), context);
@@ -93,7 +102,11 @@ public class DynamicJdbcContextApplicationListener extends OnceMainApplicationPr
 
     private void registerPropagatingDynamicJdbcConfigChangedEventListener(Map<String, DynamicJdbcConfig> dynamicJdbcConfigs,
                                                                           ConfigurableApplicationContext context) {
-        context.addApplicationListener(new PropagatingDynamicJdbcConfigChangedEventListener(dynamicJdbcConfigs.keySet(), context));
+        PropagatingDynamicJdbcConfigChangedEventListener listener =
+                new PropagatingDynamicJdbcConfigChangedEventListener(dynamicJdbcConfigs.keySet(), context);
+        context.addApplicationListener(listener);
+        // Expose the listener for its coalesced event counter
+        context.getBeanFactory().registerSingleton(PropagatingDynamicJdbcConfigChangedEventListener.BEAN_NAME, listener);
     }
 
     private void registerSyncExecutionShutdownHookApplicationListener(Map<String, DynamicJdbcConfig> dynamicJdbcConfigs,
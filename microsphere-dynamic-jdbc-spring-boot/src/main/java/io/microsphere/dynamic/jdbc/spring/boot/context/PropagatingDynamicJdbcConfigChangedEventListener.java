@@ -8,19 +8,53 @@ import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.SmartApplicationListener;
 import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 import java.beans.PropertyChangeEvent;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.PASSWORD_NAME_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.USER_NAME_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils.getDataSourceUrl;
 import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils.getDynamicJdbcConfig;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicJdbcConfigChangedEventDebounceWindow;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicJdbcConfigChangedEventMaxWait;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicJdbcConfigChangedEventZoneHysteresis;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcUtils.resolveDBClusterId;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcUtils.resolveDatabaseHost;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.springframework.util.StringUtils.hasText;
 
 
 /**
  * An {@link ApplicationListener} listening on {@link PropertySourcesChangedEvent} or {@link ZoneContextChangedEvent}
- * to propagate the {@link DynamicJdbcConfigChangedEvent}
+ * to propagate the {@link DynamicJdbcConfigChangedEvent}.
+ * <p>
+ * If the debounce window is configured, the changes of the same property name in a burst will be coalesced into one
+ * {@link DynamicJdbcConfigChangedEvent} carrying the latest {@link DynamicJdbcConfig}, and if the zone hysteresis is
+ * configured, the zone flapping back within it will not propagate any {@link DynamicJdbcConfigChangedEvent}. A burst
+ * can't postpone the publication longer than the max wait since its first change.
+ * <p>
+ * The changes of the cluster credential properties, e.g. "${spring.application.name}.${database cluster id}.password",
+ * also propagate the {@link DynamicJdbcConfigChangedEvent} for the {@link DynamicJdbcConfig} whose DataSource belongs to
+ * that database cluster.
  *
  * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
  * @see PropertySourcesChangedEvent
@@ -28,7 +62,12 @@ import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtil
  * @see DynamicJdbcConfigChangedEvent
  * @since 1.0.0
  */
-class PropagatingDynamicJdbcConfigChangedEventListener implements SmartApplicationListener {
+public class PropagatingDynamicJdbcConfigChangedEventListener implements SmartApplicationListener {
+
+    /**
+     * The bean name of {@link PropagatingDynamicJdbcConfigChangedEventListener}
+     */
+    public static final String BEAN_NAME = "propagatingDynamicJdbcConfigChangedEventListener";
 
     private static final Logger logger = LoggerFactory.getLogger(PropagatingDynamicJdbcConfigChangedEventListener.class);
 
@@ -38,20 +77,46 @@ class PropagatingDynamicJdbcConfigChangedEventListener implements SmartApplicati
 
     private final ConfigurableEnvironment environment;
 
+    private final long debounceWindow;
+
+    private final long zoneHysteresis;
+
+    private final long maxWait;
+
+    private final Map<String, PendingPublication> pendingPublications = new ConcurrentHashMap<>();
+
+    private final AtomicLong coalescedEventCount = new AtomicLong();
+
+    private final Map<String, String> publishedZones = new ConcurrentHashMap<>();
+
+    private volatile ScheduledExecutorService scheduler;
+
+    private volatile String latestZone;
+
     public PropagatingDynamicJdbcConfigChangedEventListener(Set<String> dynamicJdbcConfigPropertyNames, ConfigurableApplicationContext context) {
         this.dynamicJdbcConfigPropertyNames = dynamicJdbcConfigPropertyNames;
         this.context = context;
         this.environment = context.getEnvironment();
-        logger.info("Context[id : '{}'] associates the property names of DynamicJdbcConfig : {}", context.getId(), dynamicJdbcConfigPropertyNames);
+        this.debounceWindow = toMillis(getDynamicJdbcConfigChangedEventDebounceWindow(environment));
+        this.zoneHysteresis = toMillis(getDynamicJdbcConfigChangedEventZoneHysteresis(environment));
+        long maxWait = toMillis(getDynamicJdbcConfigChangedEventMaxWait(environment));
+        this.maxWait = maxWait > 0 ? maxWait : 10 * max(debounceWindow, zoneHysteresis);
+        logger.info("Context[id : '{}'] associates the property names of DynamicJdbcConfig : {} , debounce window : {} ms , zone hysteresis : {} ms , max wait : {} ms",
+                context.getId(), dynamicJdbcConfigPropertyNames, debounceWindow, zoneHysteresis, this.maxWait);
     }
 
     @Override
     public boolean supportsEventType(Class<? extends ApplicationEvent> eventType) {
-        return eventType.equals(PropertySourcesChangedEvent.class) || eventType.equals(ZoneContextChangedEvent.class);
+        return eventType.equals(PropertySourcesChangedEvent.class) || eventType.equals(ZoneContextChangedEvent.class)
+                || eventType.equals(ContextClosedEvent.class);
     }
 
     @Override
     public void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof ContextClosedEvent) {
+            onContextClosedEvent((ContextClosedEvent) event);
+            return;
+        }
         logger.info("Context[id : '{}'] receives event : {}", context.getId(), event);
         if (event instanceof PropertySourcesChangedEvent) {
             onPropertySourcesChangedEvent((PropertySourcesChangedEvent) event);
@@ -60,40 +125,198 @@ class PropagatingDynamicJdbcConfigChangedEventListener implements SmartApplicati
         }
     }
 
+    /**
+     * Get the count of the {@link DynamicJdbcConfigChangedEvent events} that were coalesced or suppressed, a zone
+     * flapping back is counted once
+     *
+     * @return non-negative
+     */
+    public long getCoalescedEventCount() {
+        return coalescedEventCount.get();
+    }
+
     private void onPropertySourcesChangedEvent(PropertySourcesChangedEvent event) {
         Set<String> keys = event.getChangedProperties().keySet();
+        Set<String> changedPropertyNames = new LinkedHashSet<>();
+        // The cluster credential property names of each DynamicJdbcConfig, which are resolved once per event
+        Map<String, Set<String>> clusterCredentialPropertyNames = null;
         for (String key : keys) {
             if (dynamicJdbcConfigPropertyNames.contains(key)) {
                 logger.info("The key['{}'] of PropertySourcesChangedEvent[context : '{}'] matches the property names of DynamicJdbcConfig : {}", key,
                         context.getId(), dynamicJdbcConfigPropertyNames);
-                publishDynamicJdbcConfigChangedEvent(key);
+                changedPropertyNames.add(key);
+            } else if (isClusterCredentialPropertyName(key)) {
+                if (clusterCredentialPropertyNames == null) {
+                    clusterCredentialPropertyNames = resolveClusterCredentialPropertyNames();
+                }
+                for (Map.Entry<String, Set<String>> entry : clusterCredentialPropertyNames.entrySet()) {
+                    String propertyName = entry.getKey();
+                    if (entry.getValue().contains(key)) {
+                        logger.info("The cluster credential key['{}'] of PropertySourcesChangedEvent[context : '{}'] matches the DynamicJdbcConfig[property name : '{}']",
+                                key, context.getId(), propertyName);
+                        changedPropertyNames.add(propertyName);
+                    }
+                }
             }
         }
+        changedPropertyNames.forEach(propertyName -> schedulePublication(propertyName, true, debounceWindow));
     }
 
-    private void onZoneContextChangedEvent(ZoneContextChangedEvent event) {
-        if (isZoneChanged(event)) {
-            // Publish DynamicJdbcConfigChangedEvent if the DynamicJdbcConfig has tge High Availability
-            // DataSource
-            dynamicJdbcConfigPropertyNames.forEach(propertyName -> {
-                DynamicJdbcConfig dynamicJdbcConfig = getDynamicJdbcConfig(environment, propertyName);
-                if (dynamicJdbcConfig.hasHighAvailabilityDataSource()) {
-                    publishDynamicJdbcConfigChangedEvent(dynamicJdbcConfig, propertyName);
+    /**
+     * Whether the key looks like a cluster credential property name :
+     * "${spring.application.name}.${database cluster id}.(username|password)"
+     *
+     * @param key the property name
+     * @return <code>true</code> if matched
+     */
+    private boolean isClusterCredentialPropertyName(String key) {
+        String serviceName = environment.getProperty("spring.application.name");
+        if (!hasText(serviceName) || !key.startsWith(serviceName + ".")) {
+            return false;
+        }
+        return key.endsWith("." + USER_NAME_PROPERTY_NAME) || key.endsWith("." + PASSWORD_NAME_PROPERTY_NAME);
+    }
+
+    /**
+     * Resolve the cluster credential property names of each {@link DynamicJdbcConfig}, which is parsed only once
+     *
+     * @return the map whose keys are the property names of {@link DynamicJdbcConfig}
+     */
+    private Map<String, Set<String>> resolveClusterCredentialPropertyNames() {
+        Map<String, Set<String>> clusterCredentialPropertyNames = new LinkedHashMap<>();
+        String serviceName = environment.getProperty("spring.application.name");
+        for (String propertyName : dynamicJdbcConfigPropertyNames) {
+            DynamicJdbcConfig dynamicJdbcConfig = getDynamicJdbcConfig(environment, propertyName);
+            List<Map<String, String>> dataSourcePropertiesList = dynamicJdbcConfig.getDataSourcePropertiesList();
+            Set<String> credentialPropertyNames = new HashSet<>();
+            if (dataSourcePropertiesList != null) {
+                for (Map<String, String> dataSourceProperties : dataSourcePropertiesList) {
+                    String databaseHost = resolveDatabaseHost(getDataSourceUrl(dataSourceProperties));
+                    String databaseClusterId = resolveDBClusterId(databaseHost);
+                    if (databaseClusterId != null) {
+                        String prefix = serviceName + "." + databaseClusterId + ".";
+                        credentialPropertyNames.add(prefix + USER_NAME_PROPERTY_NAME);
+                        credentialPropertyNames.add(prefix + PASSWORD_NAME_PROPERTY_NAME);
+                    }
                 }
-            });
+            }
+            clusterCredentialPropertyNames.put(propertyName, credentialPropertyNames);
+        }
+        return clusterCredentialPropertyNames;
+    }
+
+    private void onZoneContextChangedEvent(ZoneContextChangedEvent event) {
+        PropertyChangeEvent zoneChangeEvent = findZoneChangeEvent(event);
+        if (zoneChangeEvent != null) {
+            onZoneChanged(String.valueOf(zoneChangeEvent.getOldValue()), String.valueOf(zoneChangeEvent.getNewValue()));
         }
     }
 
-    private boolean isZoneChanged(ZoneContextChangedEvent event) {
-        boolean zoneChanged = false;
+    void onZoneChanged(String previousZone, String zone) {
+        latestZone = zone;
+        // Publish DynamicJdbcConfigChangedEvent if the DynamicJdbcConfig has the High Availability
+        // DataSource
+        long delay = max(debounceWindow, zoneHysteresis);
+        dynamicJdbcConfigPropertyNames.forEach(propertyName -> {
+            DynamicJdbcConfig dynamicJdbcConfig = getDynamicJdbcConfig(environment, propertyName);
+            if (dynamicJdbcConfig.hasHighAvailabilityDataSource()) {
+                publishedZones.putIfAbsent(propertyName, previousZone);
+                schedulePublication(propertyName, false, delay);
+            }
+        });
+    }
+
+    private PropertyChangeEvent findZoneChangeEvent(ZoneContextChangedEvent event) {
         List<PropertyChangeEvent> propertyChangeEvents = event.getPropertyChangeEvents();
         for (PropertyChangeEvent propertyChangeEvent : propertyChangeEvents) {
             if ("zone".equals(propertyChangeEvent.getPropertyName())) {
-                zoneChanged = true;
-                break;
+                return propertyChangeEvent;
+            }
+        }
+        return null;
+    }
+
+    private void onContextClosedEvent(ContextClosedEvent event) {
+        if (event.getApplicationContext() != context) {
+            return;
+        }
+        ScheduledExecutorService scheduler = this.scheduler;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        pendingPublications.clear();
+    }
+
+    /**
+     * Schedule the publication of {@link DynamicJdbcConfigChangedEvent}
+     *
+     * @param propertyName  the property name of {@link DynamicJdbcConfig}
+     * @param configChanged <code>true</code> if the {@link DynamicJdbcConfig} was changed, <code>false</code> if
+     *                      the zone was changed only
+     * @param delay         the delay in milliseconds
+     */
+    private void schedulePublication(String propertyName, boolean configChanged, long delay) {
+        if (delay < 1) {
+            publish(propertyName, configChanged, false);
+            return;
+        }
+        pendingPublications.compute(propertyName, (key, pendingPublication) -> {
+            long now = System.nanoTime();
+            long firstRequestTime = now;
+            boolean changed = configChanged;
+            boolean coalesced = false;
+            if (pendingPublication != null && pendingPublication.cancel()) {
+                long count = coalescedEventCount.incrementAndGet();
+                logger.info("The DynamicJdbcConfigChangedEvent[property name : '{}'] was coalesced , total : {}", propertyName, count);
+                firstRequestTime = pendingPublication.firstRequestTime;
+                changed |= pendingPublication.configChanged;
+                coalesced = true;
             }
+            // The burst can't postpone the publication beyond the max wait since its first change
+            long remainingWait = maxWait - TimeUnit.NANOSECONDS.toMillis(now - firstRequestTime);
+            long actualDelay = max(0, min(delay, remainingWait));
+            PendingPublication latestPublication = new PendingPublication(propertyName, changed, coalesced, firstRequestTime);
+            latestPublication.future = getScheduler().schedule(latestPublication, actualDelay, TimeUnit.MILLISECONDS);
+            return latestPublication;
+        });
+    }
+
+    /**
+     * Publish the {@link DynamicJdbcConfigChangedEvent} unless the zone flapped back
+     *
+     * @param propertyName  the property name of {@link DynamicJdbcConfig}
+     * @param configChanged <code>true</code> if the {@link DynamicJdbcConfig} was changed
+     * @param coalesced     <code>true</code> if the publication has coalesced other ones, which were counted already
+     */
+    private void publish(String propertyName, boolean configChanged, boolean coalesced) {
+        String latestZone = this.latestZone;
+        if (!configChanged && Objects.equals(latestZone, publishedZones.get(propertyName))) {
+            // The flapping back was counted when the pending publication was coalesced
+            long count = coalesced ? coalescedEventCount.get() : coalescedEventCount.incrementAndGet();
+            logger.info("The zone flapped back to '{}' , the DynamicJdbcConfigChangedEvent[property name : '{}'] was suppressed , total : {}",
+                    latestZone, propertyName, count);
+            return;
+        }
+        if (latestZone != null) {
+            publishedZones.put(propertyName, latestZone);
         }
-        return zoneChanged;
+        publishDynamicJdbcConfigChangedEvent(propertyName);
+    }
+
+    private ScheduledExecutorService getScheduler() {
+        ScheduledExecutorService scheduler = this.scheduler;
+        if (scheduler == null) {
+            synchronized (this) {
+                scheduler = this.scheduler;
+                if (scheduler == null) {
+                    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("DynamicJdbcConfigChangedEvent-Debouncer-");
+                    threadFactory.setDaemon(true);
+                    scheduler = newSingleThreadScheduledExecutor(threadFactory);
+                    this.scheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
     }
 
     private void publishDynamicJdbcConfigChangedEvent(String propertyName) {
@@ -105,4 +328,45 @@ class PropagatingDynamicJdbcConfigChangedEventListener implements SmartApplicati
         context.publishEvent(new DynamicJdbcConfigChangedEvent(context, dynamicJdbcConfig, propertyName));
         logger.info("Context[id : '{}']  published a DynamicJdbcConfigChangedEvent[ property name : {}]", context.getId(), propertyName);
     }
+
+    private static long toMillis(Duration duration) {
+        return duration == null ? 0 : duration.toMillis();
+    }
+
+    private class PendingPublication implements Runnable {
+
+        private final String propertyName;
+
+        private final boolean configChanged;
+
+        private final boolean coalesced;
+
+        private final long firstRequestTime;
+
+        private volatile ScheduledFuture<?> future;
+
+        private PendingPublication(String propertyName, boolean configChanged, boolean coalesced, long firstRequestTime) {
+            this.propertyName = propertyName;
+            this.configChanged = configChanged;
+            this.coalesced = coalesced;
+            this.firstRequestTime = firstRequestTime;
+        }
+
+        private boolean cancel() {
+            ScheduledFuture<?> future = this.future;
+            return future != null && future.cancel(false);
+        }
+
+        @Override
+        public void run() {
+            if (pendingPublications.remove(propertyName, this)) {
+                try {
+                    publish(propertyName, configChanged, coalesced);
+                } catch (Throwable e) {
+                    logger.error("Context[id : '{}'] failed to publish the DynamicJdbcConfigChangedEvent[ property name : {}]",
+                            context.getId(), propertyName, e);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,29 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import java.sql.Connection;
+
+/**
+ * The {@link Connection} handed out by {@link DynamicDataSource}, which is tagged with the generation of
+ * the delegate {@link javax.sql.DataSource} it was borrowed from
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicDataSource
+ * @since 1.0.0
+ */
+public interface DynamicConnection extends Connection {
+
+    /**
+     * Get the generation of the delegate {@link javax.sql.DataSource} that the current {@link Connection}
+     * was borrowed from
+     *
+     * @return the generation number, starts with 1
+     */
+    long getGeneration();
+
+    /**
+     * Get the target {@link Connection} from the delegate {@link javax.sql.DataSource}
+     *
+     * @return non-null
+     */
+    Connection getTargetConnection();
+}
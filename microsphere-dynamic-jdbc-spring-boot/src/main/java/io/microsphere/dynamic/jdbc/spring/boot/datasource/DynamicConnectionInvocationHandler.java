@@ -0,0 +1,127 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.deadline.QueryDeadline;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link InvocationHandler} for {@link DynamicConnection} proxy, which releases the
+ * {@link DynamicDataSourceGeneration} and runs the close callback, e.g. releasing the workload lane, once the
+ * {@link Connection} is closed. The {@link Statement statements} created by the {@link Connection} are proxied by
+ * {@link DynamicStatementInvocationHandler}, which applies the default query timeout and the remaining time budget of
+ * {@link QueryDeadline} at the execution.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicConnection
+ * @see DynamicDataSourceGeneration
+ * @since 1.0.0
+ */
+class DynamicConnectionInvocationHandler implements InvocationHandler {
+
+    private static final Class<?>[] PROXY_INTERFACES = new Class[]{DynamicConnection.class};
+
+    private final Connection target;
+
+    private final DynamicDataSourceGeneration generation;
+
+    private final Runnable onClose;
+
+    private final Duration queryTimeout;
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    DynamicConnectionInvocationHandler(Connection target, DynamicDataSourceGeneration generation, Runnable onClose,
+                                       Duration queryTimeout) {
+        this.target = target;
+        this.generation = generation;
+        this.onClose = onClose;
+        this.queryTimeout = queryTimeout;
+    }
+
+    static DynamicConnection newProxy(Connection target, DynamicDataSourceGeneration generation, Runnable onClose,
+                                      Duration queryTimeout) {
+        ClassLoader classLoader = DynamicConnection.class.getClassLoader();
+        InvocationHandler invocationHandler = new DynamicConnectionInvocationHandler(target, generation, onClose, queryTimeout);
+        return (DynamicConnection) Proxy.newProxyInstance(classLoader, PROXY_INTERFACES, invocationHandler);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String methodName = method.getName();
+        switch (methodName) {
+            case "getGeneration":
+                return generation.getId();
+            case "getTargetConnection":
+                return target;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "DynamicConnection[generation : " + generation.getId() + " , target : " + target + "]";
+            case "isClosed":
+                if (released.get()) {
+                    return true;
+                }
+                break;
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                break;
+            case "isWrapperFor":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return true;
+                }
+                break;
+            case "close":
+                close();
+                return null;
+            case "createStatement":
+            case "prepareStatement":
+            case "prepareCall":
+                return createStatement(proxy, method, args);
+            default:
+                break;
+        }
+        return invokeTarget(method, args);
+    }
+
+    private void close() throws Throwable {
+        if (released.compareAndSet(false, true)) {
+            try {
+                target.close();
+            } finally {
+                try {
+                    generation.release();
+                } finally {
+                    if (onClose != null) {
+                        onClose.run();
+                    }
+                }
+            }
+        }
+    }
+
+    private Object createStatement(Object proxy, Method method, Object[] args) throws Throwable {
+        // The caller has given up
+        QueryDeadline.check();
+        Statement statement = (Statement) invokeTarget(method, args);
+        return DynamicStatementInvocationHandler.newProxy(statement, method.getReturnType(), (Connection) proxy, queryTimeout);
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -4,6 +4,10 @@ import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
 import io.microsphere.dynamic.jdbc.spring.boot.context.DynamicJdbcChildContext;
 import io.microsphere.dynamic.jdbc.spring.boot.context.DynamicJdbcChildContextIdGenerator;
 import io.microsphere.dynamic.jdbc.spring.boot.context.DynamicJdbcConfigChangedEvent;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.deadline.QueryDeadline;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.lane.WorkloadLane;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.lane.WorkloadLaneMeterBinder;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.lane.WorkloadLanes;
 import io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,6 +19,8 @@ import org.springframework.beans.factory.InitializingBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 
 import javax.sql.DataSource;
 import java.io.PrintWriter;
@@ -22,25 +28,49 @@ import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceChildContextCloseDelay;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceInitializationTimeout;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceStatementQueryTimeout;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isDynamicDataSourceLazyConnectionEnabled;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isMultipleContextOnDemandEnabled;
 import static io.microsphere.text.FormatUtils.format;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.newSetFromMap;
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.springframework.util.ClassUtils.isPresent;
 
 /**
- * General Dynamic {@link DataSource}
+ * General Dynamic {@link DataSource}, which delegates to the {@link DataSource} built in a
+ * {@link DynamicJdbcChildContext}, and refreshes it when the {@link DynamicJdbcConfig} is changed.
  *
  * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicDataSourceRefreshedEvent
  * @since 1.0.0
  */
 public class DynamicDataSource implements DataSource, InitializingBean, DisposableBean, BeanFactoryAware {
 
     private static final Logger logger = LoggerFactory.getLogger(DynamicDataSource.class);
 
+    private static final String METER_REGISTRY_CLASS_NAME = "io.micrometer.core.instrument.MeterRegistry";
+
     private static final DynamicJdbcChildContextIdGenerator idGenerator = new DynamicJdbcChildContextIdGenerator() {
 
         public String generate(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName,
@@ -49,8 +79,6 @@ public class DynamicDataSource implements DataSource, InitializingBean, Disposab
         }
     };
 
-    private final Object mutex = new Object();
-
     private final DynamicJdbcConfig dynamicJdbcConfig;
 
     private final String dynamicJdbcConfigPropertyName;
@@ -61,11 +89,37 @@ public class DynamicDataSource implements DataSource, InitializingBean, Disposab
 
     private final Duration dynamicDataSourceChildContextCloseDelay;
 
+    private final DynamicDataSourceTuner tuner;
+
+    private final DynamicDataSourceRefresher refresher;
+
+    private final Duration initializationTimeout;
+
+    private final WorkloadLanes workloadLanes;
+
+    private final Duration queryTimeout;
+
+    /**
+     * The proxy handing out the logical connections that acquire the physical ones on the first use, <code>null</code>
+     * if the lazy connection mode is disabled
+     */
+    private final LazyConnectionDataSourceProxy lazyConnectionDataSource;
+
+    private final AtomicReference<CompletableFuture<DynamicDataSourceGeneration>> initialization = new AtomicReference<>();
+
+    private final AtomicLong generationSequence = new AtomicLong();
+
+    private final Set<DynamicDataSourceGeneration> retiringGenerations = newSetFromMap(new ConcurrentHashMap<>());
+
     private volatile boolean initialized;
 
-    private volatile DataSource delegate;
+    private volatile boolean destroyed;
 
-    private volatile DynamicJdbcChildContext dynamicDataSourceChildContext;
+    /**
+     * The immutable snapshot of the delegate {@link DataSource}, its {@link DynamicJdbcChildContext} and generation
+     * number, which is swapped by CAS
+     */
+    private final AtomicReference<DynamicDataSourceGeneration> generation = new AtomicReference<>();
 
     private BeanFactory beanFactory;
 
@@ -76,6 +130,14 @@ public class DynamicDataSource implements DataSource, InitializingBean, Disposab
         this.context = context;
         this.closeScheduler = newSingleThreadScheduledExecutor();
         this.dynamicDataSourceChildContextCloseDelay = getDynamicDataSourceChildContextCloseDelay(context.getEnvironment());
+        this.tuner = new DynamicDataSourceTuner(this, context.getEnvironment(), closeScheduler);
+        this.refresher = new DynamicDataSourceRefresher(this, dynamicJdbcConfig.getName(), dynamicJdbcConfigPropertyName, context,
+                closeScheduler, tuner);
+        this.initializationTimeout = getDynamicDataSourceInitializationTimeout(context.getEnvironment());
+        this.workloadLanes = WorkloadLanes.of(context.getEnvironment(), dynamicJdbcConfig.getName());
+        this.queryTimeout = getDynamicDataSourceStatementQueryTimeout(context.getEnvironment(), dynamicJdbcConfig.getName());
+        this.lazyConnectionDataSource = isDynamicDataSourceLazyConnectionEnabled(context.getEnvironment(), dynamicJdbcConfig.getName()) ?
+                newLazyConnectionDataSource() : null;
     }
 
     @Override
@@ -86,27 +148,42 @@ public class DynamicDataSource implements DataSource, InitializingBean, Disposab
             return;
         }
         initializeApplicationListeners();
+        initializeWorkloadLaneMetrics();
         // MultiChildContext dynamic datasource will be initialized twice.
-        if (null == this.delegate) {
-            initializeDataSource();
-        }
+        getGeneration();
         initialized = true;
     }
 
     @Override
     public void destroy() {
-        closeDynamicDataSourceChildContext(dynamicDataSourceChildContext, false);
+        destroyed = true;
+        refresher.shutdown();
+        DynamicDataSourceGeneration generation = this.generation.get();
+        if (generation != null) {
+            generation.retire();
+            generation.close();
+        }
+        tuner.cancelConnectionEvictor();
+        // Close the retiring generations without waiting for their borrowed connections
+        retiringGenerations.forEach(DynamicDataSourceGeneration::close);
         shutdownScheduler(closeScheduler);
+        workloadLanes.close();
     }
 
     @Override
     public Connection getConnection() throws SQLException {
-        return getDelegate().getConnection();
+        if (lazyConnectionDataSource != null) {
+            return lazyConnectionDataSource.getConnection();
+        }
+        return getConnection(DataSource::getConnection);
     }
 
     @Override
     public Connection getConnection(String username, String password) throws SQLException {
-        return getDelegate().getConnection(username, password);
+        if (lazyConnectionDataSource != null) {
+            return lazyConnectionDataSource.getConnection(username, password);
+        }
+        return getConnection(dataSource -> dataSource.getConnection(username, password));
     }
 
     @Override
@@ -145,14 +222,181 @@ public class DynamicDataSource implements DataSource, InitializingBean, Disposab
     }
 
     protected DataSource getDelegate() {
-        DataSource dataSource = this.delegate;
-        if (dataSource == null) {
-            dataSource = initializeDataSource();
+        return getGeneration().getDataSource();
+    }
+
+    /**
+     * Get the generation of current delegate {@link DataSource}
+     *
+     * @return the generation number, starts with 1
+     */
+    public long getDelegateGeneration() {
+        return getGeneration().getId();
+    }
+
+    /**
+     * Get the {@link WorkloadLanes workload lanes} of current {@link DynamicJdbcConfig}
+     *
+     * @return non-null
+     */
+    public WorkloadLanes getWorkloadLanes() {
+        return workloadLanes;
+    }
+
+    /**
+     * Create the {@link LazyConnectionDataSourceProxy} whose physical connections are acquired from this, the defaults
+     * of the physical connections are learned from the first acquired one rather than at the creation
+     */
+    private LazyConnectionDataSourceProxy newLazyConnectionDataSource() {
+        LazyConnectionDataSourceProxy lazyConnectionDataSource = new LazyConnectionDataSourceProxy();
+        lazyConnectionDataSource.setTargetDataSource(new PhysicalConnectionDataSource());
+        return lazyConnectionDataSource;
+    }
+
+    private Connection getConnection(ConnectionFactory connectionFactory) throws SQLException {
+        // The caller has given up
+        QueryDeadline.check();
+        WorkloadLane lane = workloadLanes.acquire();
+        boolean admitted = false;
+        try {
+            Connection connection = getConnection(connectionFactory, lane);
+            admitted = true;
+            return connection;
+        } finally {
+            if (lane != null && !admitted) {
+                lane.release();
+            }
+        }
+    }
+
+    private Connection getConnection(ConnectionFactory connectionFactory, WorkloadLane lane) throws SQLException {
+        while (true) {
+            DynamicDataSourceCanary canary = refresher.getCanary();
+            DynamicDataSourceGeneration generation = canary == null ? getGeneration() : canary.select();
+            if (generation.borrow()) {
+                boolean sampling = canary != null && canary.isCanary(generation);
+                long startTime = sampling ? System.nanoTime() : 0L;
+                Connection connection = null;
+                try {
+                    connection = connectionFactory.getConnection(generation.getDataSource());
+                } finally {
+                    if (sampling) {
+                        canary.record(System.nanoTime() - startTime, connection == null);
+                    }
+                    if (connection == null) {
+                        generation.release();
+                    }
+                }
+                return generation.wrap(connection, lane == null ? null : lane::release, queryTimeout);
+            }
+            if (generation == this.generation.get()) {
+                throw new SQLException(format("DynamicDataSource[config property name : '{}'] has been destroyed",
+                        dynamicJdbcConfigPropertyName));
+            }
+            // The generation was retired concurrently, try again with the latest one
+        }
+    }
+
+    /**
+     * Refresh the delegate {@link DataSource} with the specified {@link DynamicJdbcConfig}, the previous delegate
+     * keeps serving until the new one is ready.
+     *
+     * @param dynamicJdbcConfig the latest {@link DynamicJdbcConfig}
+     * @return the completion handle of the latest delegate {@link DataSource}, in {@link DynamicDataSourceRefreshMode#SYNC}
+     * mode, it has been completed when returned unless the swap jitter is configured
+     * @see DynamicDataSourceRefreshedEvent
+     */
+    public CompletableFuture<DataSource> refresh(DynamicJdbcConfig dynamicJdbcConfig) {
+        ConfigurableApplicationContext parentContext = getGeneration().getChildContext().getParentContext();
+        return refresher.refresh(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext);
+    }
+
+    /**
+     * Get current generation without waiting for the initialization
+     *
+     * @return <code>null</code> if not initialized
+     */
+    DynamicDataSourceGeneration getCurrentGeneration() {
+        return generation.get();
+    }
+
+    boolean isDestroyed() {
+        return destroyed;
+    }
+
+    private DynamicDataSourceGeneration getGeneration() {
+        DynamicDataSourceGeneration generation = this.generation.get();
+        if (generation == null) {
+            generation = awaitInitialization();
+        }
+        return generation;
+    }
+
+    /**
+     * Initialize the delegate {@link DataSource} lazily in single flight, the concurrent callers wait for the
+     * in-progress initialization until the timeout.
+     *
+     * @return the initialized {@link DynamicDataSourceGeneration}
+     */
+    private DynamicDataSourceGeneration awaitInitialization() {
+        while (true) {
+            DynamicDataSourceGeneration generation = this.generation.get();
+            if (generation != null) {
+                return generation;
+            }
+            CompletableFuture<DynamicDataSourceGeneration> future = initialization.get();
+            if (future == null) {
+                future = new CompletableFuture<>();
+                if (initialization.compareAndSet(null, future)) {
+                    return initializeDataSource(future);
+                }
+                // Another caller is initializing
+                continue;
+            }
+            return waitForInitialization(future);
+        }
+    }
+
+    private DynamicDataSourceGeneration initializeDataSource(CompletableFuture<DynamicDataSourceGeneration> future) {
+        try {
+            DynamicDataSourceGeneration generation = this.generation.get();
+            if (generation == null) {
+                generation = initializeDataSource();
+            }
+            future.complete(generation);
+            return generation;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Allow to retry if failed
+            initialization.compareAndSet(future, null);
+        }
+    }
+
+    private DynamicDataSourceGeneration waitForInitialization(CompletableFuture<DynamicDataSourceGeneration> future) {
+        long timeout = initializationTimeout.toMillis();
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException(format("DynamicDataSource[config property name : '{}'] is not initialized in {} ms",
+                    dynamicJdbcConfigPropertyName, timeout), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(format("DynamicDataSource[config property name : '{}'] was interrupted while waiting for the initialization",
+                    dynamicJdbcConfigPropertyName), e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
         }
-        return dataSource;
     }
 
-    private DataSource initializeDataSource() {
+    private DynamicDataSourceGeneration initializeDataSource() {
         return initializeDataSource(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, context);
     }
 
@@ -160,9 +404,16 @@ public class DynamicDataSource implements DataSource, InitializingBean, Disposab
         initializeRefreshingDynamicDataSourceListener();
     }
 
+    private void initializeWorkloadLaneMetrics() {
+        if (beanFactory != null && !workloadLanes.isEmpty() && isPresent(METER_REGISTRY_CLASS_NAME, getClass().getClassLoader())) {
+            WorkloadLaneMeterBinder.bind(workloadLanes, dynamicJdbcConfig.getName(), beanFactory);
+        }
+    }
+
     private void initializeRefreshingDynamicDataSourceListener() {
         ConfigurableApplicationContext context = this.context;
-        if (context instanceof DynamicJdbcChildContext) {
+        // The Child Context created on demand is evictable, the events are propagated to it by DynamicJdbcChildContextRegistry
+        if (context instanceof DynamicJdbcChildContext && !isMultipleContextOnDemandEnabled(context.getEnvironment())) {
             DynamicJdbcChildContext childContext = (DynamicJdbcChildContext) context;
             ConfigurableApplicationContext parentContext = childContext.getParentContext();
             parentContext.addApplicationListener(new RefreshingDynamicDataSourceListener());
@@ -171,38 +422,92 @@ public class DynamicDataSource implements DataSource, InitializingBean, Disposab
         }
     }
 
-    private DataSource initializeDataSource(DynamicJdbcConfig dynamicJdbcConfig,
-                                            String dynamicJdbcConfigPropertyName, ConfigurableApplicationContext context) {
-        DataSource latestDataSource = null;
+    private DynamicDataSourceGeneration initializeDataSource(DynamicJdbcConfig dynamicJdbcConfig,
+                                                            String dynamicJdbcConfigPropertyName, ConfigurableApplicationContext context) {
+        DynamicDataSourceGeneration latestGeneration = buildGeneration(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, context);
+        return swapGeneration(latestGeneration);
+    }
+
+    /**
+     * Build the generation of the delegate {@link DataSource} in a new {@link DynamicJdbcChildContext}
+     */
+    DynamicDataSourceGeneration buildGeneration(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName,
+                                                        ConfigurableApplicationContext context) {
         DynamicJdbcConfig dynamicDataSourceConfig = createDynamicDataSourceConfig(dynamicJdbcConfig);
+        DynamicJdbcChildContext dynamicDataSourceChildContext = createDynamicDataSourceChildContext(dynamicDataSourceConfig,
+                dynamicJdbcConfigPropertyName, context);
+        // Get the DataSource Bean from Child Context
+        DataSource latestDataSource = getDataSource(dynamicDataSourceChildContext);
+        DynamicDataSourceGeneration latestGeneration = new DynamicDataSourceGeneration(generationSequence.incrementAndGet(),
+                latestDataSource, dynamicDataSourceChildContext, retiringGenerations::remove);
+        // The DataSource properties have been post-processed during the refresh of child context
+        latestGeneration.setDataSourcePropertiesList(copyDataSourcePropertiesList(dynamicDataSourceConfig));
+        return latestGeneration;
+    }
+
+    /**
+     * Swap current generation with the latest one by CAS, the newer generation always wins if they are built
+     * concurrently, and the loser will be retired.
+     *
+     * @param latestGeneration the latest {@link DynamicDataSourceGeneration}
+     * @return current {@link DynamicDataSourceGeneration} after swapping
+     */
+    DynamicDataSourceGeneration swapGeneration(DynamicDataSourceGeneration latestGeneration) {
+        while (true) {
+            if (destroyed) {
+                retireGeneration(latestGeneration);
+                throw new IllegalStateException(format("DynamicDataSource[config property name : '{}'] has been destroyed",
+                        dynamicJdbcConfigPropertyName));
+            }
+            DynamicDataSourceGeneration previousGeneration = this.generation.get();
+            if (previousGeneration != null && previousGeneration.getId() > latestGeneration.getId()) {
+                logger.info("DynamicDataSourceGeneration Current : {} is newer than {}", previousGeneration, latestGeneration);
+                retireGeneration(latestGeneration);
+                return previousGeneration;
+            }
+            if (this.generation.compareAndSet(previousGeneration, latestGeneration)) {
+                tuner.cancelConnectionEvictor();
+                // The in-flight canary is superseded by the latest generation
+                refresher.abortCanary("superseded");
+                logger.info("DynamicDataSourceGeneration Previous : {} , Current : {}", previousGeneration, latestGeneration);
+                retireGeneration(previousGeneration);
+                if (destroyed) {
+                    // destroy() may miss the latest generation
+                    latestGeneration.retire();
+                    latestGeneration.close();
+                }
+                return latestGeneration;
+            }
+        }
+    }
+
+    /**
+     * Create and refresh the {@link DynamicJdbcChildContext} for the delegate {@link DataSource}
+     *
+     * @param dynamicDataSourceConfig       the {@link DynamicJdbcConfig} for the delegate {@link DataSource}
+     * @param dynamicJdbcConfigPropertyName the property name of {@link DynamicJdbcConfig}
+     * @param parentContext                 the parent context
+     * @return the refreshed {@link DynamicJdbcChildContext}
+     */
+    protected DynamicJdbcChildContext createDynamicDataSourceChildContext(DynamicJdbcConfig dynamicDataSourceConfig,
+                                                                          String dynamicJdbcConfigPropertyName,
+                                                                          ConfigurableApplicationContext parentContext) {
         DynamicJdbcChildContext dynamicDataSourceChildContext = new DynamicJdbcChildContext(
-                dynamicDataSourceConfig, dynamicJdbcConfigPropertyName, context, idGenerator);
+                dynamicDataSourceConfig, dynamicJdbcConfigPropertyName, parentContext, idGenerator);
         // Merge Parent Environment
         dynamicDataSourceChildContext.mergeParentEnvironment();
         // Refresh Context
         dynamicDataSourceChildContext.refresh();
-        // Get the DataSource Bean from Child Context
-        latestDataSource = getDataSource(dynamicDataSourceChildContext);
-        synchronized (mutex) {
-            // Set DataSource
-            DataSource previousDataSource = DynamicDataSource.this.delegate;
-            DynamicDataSource.this.delegate = latestDataSource;
-            // Exchange
-            ConfigurableApplicationContext previousDynamicDataSourceChildContext =
-                    DynamicDataSource.this.dynamicDataSourceChildContext;
-            DynamicDataSource.this.dynamicDataSourceChildContext = dynamicDataSourceChildContext;
-            logger.info("DataSource Previous : {} , Current : {}", previousDataSource, latestDataSource);
-            logger.info("DynamicDataSourceChildContext Previous : {} , Current : {}",
-                    previousDynamicDataSourceChildContext, dynamicDataSourceChildContext);
-            closeDynamicDataSourceChildContext(previousDynamicDataSourceChildContext, true);
-        }
-
-        return latestDataSource;
+        return dynamicDataSourceChildContext;
     }
 
     private DataSource getDataSource(ApplicationContext childContext) {
         Map<String, DataSource> dataSourceMap = childContext.getBeansOfType(DataSource.class);
         int size = dataSourceMap.size();
+        if (size == 0) {
+            // The multiple datasource entries are routed by the RoutingDataSource Bean
+            throw new IllegalStateException(format("No DataSource Bean was found in the {}", childContext.getId()));
+        }
         if (size > 1) {
             throw new IllegalStateException(format("There are {} DataSource Beans[{}] in the {}", size, dataSourceMap, childContext.getId()));
         }
@@ -213,6 +518,16 @@ public class DynamicDataSource implements DataSource, InitializingBean, Disposab
         return dataSource;
     }
 
+    static List<Map<String, String>> copyDataSourcePropertiesList(DynamicJdbcConfig dynamicJdbcConfig) {
+        List<Map<String, String>> dataSourcePropertiesList = dynamicJdbcConfig.getDataSourcePropertiesList();
+        if (dataSourcePropertiesList == null) {
+            return emptyList();
+        }
+        List<Map<String, String>> copy = new ArrayList<>(dataSourcePropertiesList.size());
+        dataSourcePropertiesList.forEach(dataSourceProperties -> copy.add(new LinkedHashMap<>(dataSourceProperties)));
+        return unmodifiableList(copy);
+    }
+
     protected DynamicJdbcConfig createDynamicDataSourceConfig(DynamicJdbcConfig dynamicJdbcConfig) {
         // Clone an instance from source
         DynamicJdbcConfig dynamicDataSourceConfig = DynamicJdbcConfigUtils.cloneDynamicJdbcConfig(dynamicJdbcConfig);
@@ -235,24 +550,30 @@ public class DynamicDataSource implements DataSource, InitializingBean, Disposab
     }
 
 
-    private void closeDynamicDataSourceChildContext(ConfigurableApplicationContext dynamicDataSourceChildContext,
-                                                    boolean async) {
-        if (dynamicDataSourceChildContext != null) {
-            if (async) {
-                long delay = dynamicDataSourceChildContextCloseDelay.toMillis();
-                logger.info("DynamicDataSourceChildContext[{}] will be closed after {} ms",
-                        dynamicDataSourceChildContext, delay);
-                closeScheduler.schedule(() -> closeContext(dynamicDataSourceChildContext), delay,
-                        TimeUnit.MILLISECONDS);
-            } else {
-                closeContext(dynamicDataSourceChildContext);
-            }
+    /**
+     * Retire the previous generation, its {@link DynamicJdbcChildContext} will be closed as soon as all borrowed
+     * connections are returned, or after the close delay as the hard deadline.
+     *
+     * @param generation the previous {@link DynamicDataSourceGeneration}
+     */
+    void retireGeneration(DynamicDataSourceGeneration generation) {
+        if (generation == null) {
+            return;
+        }
+        retiringGenerations.add(generation);
+        generation.retire();
+        if (generation.isClosed()) {
+            return;
+        }
+        long delay = dynamicDataSourceChildContextCloseDelay.toMillis();
+        logger.info("DynamicDataSourceChildContext[{}] will be closed when {} borrowed connections are returned or after {} ms",
+                generation.getChildContext(), generation.getBorrowed(), delay);
+        try {
+            closeScheduler.schedule(generation::close, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The DynamicDataSource has been destroyed
+            generation.close();
         }
-    }
-
-    private void closeContext(ConfigurableApplicationContext context) {
-        context.close();
-        logger.info("DynamicDataSourceChildContext[{}] has been closed", context);
     }
 
     @Override
@@ -260,14 +581,14 @@ public class DynamicDataSource implements DataSource, InitializingBean, Disposab
         this.beanFactory = beanFactory;
     }
 
-    private void shutdownScheduler(ScheduledExecutorService scheduler) {
+    private void shutdownScheduler(ExecutorService scheduler) {
         if (scheduler != null && !scheduler.isShutdown() && !scheduler.isTerminated()) {
             scheduler.shutdown();
         }
     }
 
     private ConfigurableApplicationContext findParentContext(ConfigurableApplicationContext eventSourceContext) {
-        DynamicJdbcChildContext dynamicDataSourceChildContext = this.dynamicDataSourceChildContext;
+        DynamicJdbcChildContext dynamicDataSourceChildContext = getGeneration().getChildContext();
         ConfigurableApplicationContext parentContext = dynamicDataSourceChildContext.getParentContext();
 
         if (Objects.equals(parentContext, eventSourceContext)) { // Single DynamicJdbcConfig
@@ -297,7 +618,7 @@ public class DynamicDataSource implements DataSource, InitializingBean, Disposab
             if (Objects.equals(DynamicDataSource.this.dynamicJdbcConfigPropertyName, dynamicJdbcConfigPropertyName)) {
                 ConfigurableApplicationContext parentContext = findParentContext(context);
                 if (parentContext != null) {
-                    initializeDataSource(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext);
+                    refresher.refresh(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext);
                 } else {
                     logger.debug("DynamicJdbcConfigChangedEvent source is DynamicJdbcChildContext , but : {}",
                             context);
@@ -305,4 +626,26 @@ public class DynamicDataSource implements DataSource, InitializingBean, Disposab
             }
         }
     }
+
+    /**
+     * The view of the physical connections for {@link LazyConnectionDataSourceProxy} in the lazy connection mode
+     */
+    private class PhysicalConnectionDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return DynamicDataSource.this.getConnection(DataSource::getConnection);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return DynamicDataSource.this.getConnection(dataSource -> dataSource.getConnection(username, password));
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionFactory {
+
+        Connection getConnection(DataSource dataSource) throws SQLException;
+    }
 }
@@ -0,0 +1,218 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceCanaryInitialPercentage;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceCanaryMaxAcquireLatency;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceCanaryMaxErrorRate;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceCanaryMaxHoldTime;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceCanaryMinSamples;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceCanaryStepInterval;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceCanaryStepPercentage;
+
+/**
+ * The canary cut-over from the stable {@link DynamicDataSourceGeneration} to the canary one, which sends a share of
+ * connection acquisitions to the canary, and ramps the share up step by step while the acquire latency and error rate
+ * of the canary stay within the thresholds. If the traffic is too low to collect the min samples within the max hold
+ * time, the canary is decided by the samples so far, it's promoted unless they exceed the thresholds.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicDataSourceSwapStrategy#CANARY
+ * @see DynamicDataSource
+ * @since 1.0.0
+ */
+class DynamicDataSourceCanary {
+
+    /**
+     * The decision of a step
+     */
+    enum Decision {
+
+        /**
+         * Not enough samples within the max hold time, keep current share
+         */
+        HOLD,
+
+        /**
+         * Ramp the share up
+         */
+        RAMP,
+
+        /**
+         * Promote the canary to serve all traffic
+         */
+        PROMOTE,
+
+        /**
+         * Abort back to the stable one
+         */
+        ABORT
+    }
+
+    private final DynamicDataSourceGeneration stable;
+
+    private final DynamicDataSourceGeneration canary;
+
+    private final CompletableFuture<DataSource> future;
+
+    private final int stepPercentage;
+
+    private final long stepInterval;
+
+    private final int minSamples;
+
+    private final double maxErrorRate;
+
+    private final long maxAcquireLatency;
+
+    private final long maxHoldTime;
+
+    private final LongAdder samples = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder acquireLatency = new LongAdder();
+
+    private volatile int percentage;
+
+    private volatile String abortReason;
+
+    private volatile long holdStartTime;
+
+    private volatile ScheduledFuture<?> stepFuture;
+
+    DynamicDataSourceCanary(DynamicDataSourceGeneration stable, DynamicDataSourceGeneration canary, Environment environment,
+                            CompletableFuture<DataSource> future) {
+        this.stable = stable;
+        this.canary = canary;
+        this.future = future;
+        this.percentage = clamp(getDynamicDataSourceCanaryInitialPercentage(environment));
+        this.stepPercentage = Math.max(1, getDynamicDataSourceCanaryStepPercentage(environment));
+        this.stepInterval = Math.max(1, getDynamicDataSourceCanaryStepInterval(environment).toMillis());
+        this.minSamples = Math.max(1, getDynamicDataSourceCanaryMinSamples(environment));
+        this.maxErrorRate = getDynamicDataSourceCanaryMaxErrorRate(environment);
+        this.maxAcquireLatency = getDynamicDataSourceCanaryMaxAcquireLatency(environment).toNanos();
+        long maxHoldTime = getDynamicDataSourceCanaryMaxHoldTime(environment).toNanos();
+        this.maxHoldTime = maxHoldTime > 0 ? maxHoldTime : TimeUnit.MILLISECONDS.toNanos(10 * stepInterval);
+        this.holdStartTime = System.nanoTime();
+    }
+
+    /**
+     * Select the {@link DynamicDataSourceGeneration} for current connection acquisition
+     *
+     * @return the canary or the stable one
+     */
+    DynamicDataSourceGeneration select() {
+        int percentage = this.percentage;
+        return percentage > 0 && ThreadLocalRandom.current().nextInt(100) < percentage ? canary : stable;
+    }
+
+    boolean isCanary(DynamicDataSourceGeneration generation) {
+        return generation == canary;
+    }
+
+    /**
+     * Record a connection acquisition from the canary
+     *
+     * @param latency the acquire latency in nanoseconds
+     * @param failed  whether the acquisition was failed
+     */
+    void record(long latency, boolean failed) {
+        acquireLatency.add(latency);
+        if (failed) {
+            errors.increment();
+        }
+        // Counted at last, thus the errors and latency of a counted sample are always visible to the step
+        samples.increment();
+    }
+
+    /**
+     * Evaluate the samples since last step, and move to the next step if possible
+     *
+     * @return {@link Decision}
+     */
+    Decision step() {
+        // The snapshot of the samples, both rates are computed from it
+        long samples = this.samples.sumThenReset();
+        boolean holdExpired = System.nanoTime() - holdStartTime >= maxHoldTime;
+        if (samples < minSamples && !holdExpired) {
+            // Keep collecting
+            this.samples.add(samples);
+            return Decision.HOLD;
+        }
+        long errors = Math.min(samples, this.errors.sumThenReset());
+        long acquireLatency = this.acquireLatency.sumThenReset();
+        if (samples > 0) {
+            double errorRate = (double) errors / samples;
+            long averageAcquireLatency = acquireLatency / samples;
+            if (errorRate > maxErrorRate) {
+                abortReason = "error rate " + errorRate + " exceeds " + maxErrorRate;
+                return Decision.ABORT;
+            }
+            if (averageAcquireLatency > maxAcquireLatency) {
+                abortReason = "average acquire latency " + averageAcquireLatency + " ns exceeds " + maxAcquireLatency + " ns";
+                return Decision.ABORT;
+            }
+        }
+        int nextPercentage = clamp(percentage + stepPercentage);
+        if (nextPercentage >= 100 || samples < minSamples) {
+            // Fully ramped, or held beyond the max hold time for the low traffic
+            return Decision.PROMOTE;
+        }
+        percentage = nextPercentage;
+        holdStartTime = System.nanoTime();
+        return Decision.RAMP;
+    }
+
+    void cancel() {
+        ScheduledFuture<?> stepFuture = this.stepFuture;
+        if (stepFuture != null) {
+            stepFuture.cancel(false);
+        }
+    }
+
+    void setStepFuture(ScheduledFuture<?> stepFuture) {
+        this.stepFuture = stepFuture;
+    }
+
+    DynamicDataSourceGeneration getStable() {
+        return stable;
+    }
+
+    DynamicDataSourceGeneration getCanary() {
+        return canary;
+    }
+
+    CompletableFuture<DataSource> getFuture() {
+        return future;
+    }
+
+    long getStepInterval() {
+        return stepInterval;
+    }
+
+    int getPercentage() {
+        return percentage;
+    }
+
+    String getAbortReason() {
+        return abortReason;
+    }
+
+    private static int clamp(int percentage) {
+        return Math.max(0, Math.min(100, percentage));
+    }
+
+    @Override
+    public String toString() {
+        return "DynamicDataSourceCanary[stable : " + stable.getId() + " , canary : " + canary.getId() + " , percentage : "
+                + percentage + "%]";
+    }
+}
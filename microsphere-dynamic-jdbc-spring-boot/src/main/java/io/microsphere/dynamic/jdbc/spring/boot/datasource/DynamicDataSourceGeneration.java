@@ -0,0 +1,182 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import io.microsphere.dynamic.jdbc.spring.boot.context.DynamicJdbcChildContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The generation of the delegate {@link DataSource} of {@link DynamicDataSource}, which tracks the count of
+ * the borrowed {@link Connection connections}, once it's retired, the {@link DynamicJdbcChildContext} will be
+ * closed as soon as all borrowed {@link Connection connections} are returned.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicDataSource
+ * @see DynamicConnection
+ * @since 1.0.0
+ */
+class DynamicDataSourceGeneration {
+
+    private static final Logger logger = LoggerFactory.getLogger(DynamicDataSourceGeneration.class);
+
+    private final long id;
+
+    private final DataSource dataSource;
+
+    private final DynamicJdbcChildContext childContext;
+
+    private final Consumer<DynamicDataSourceGeneration> closedCallback;
+
+    private final AtomicInteger borrowed = new AtomicInteger();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private volatile boolean retired;
+
+    private volatile List<Map<String, String>> dataSourcePropertiesList;
+
+    private volatile HikariPoolRamper poolRamper;
+
+    DynamicDataSourceGeneration(long id, DataSource dataSource, DynamicJdbcChildContext childContext,
+                                Consumer<DynamicDataSourceGeneration> closedCallback) {
+        this.id = id;
+        this.dataSource = dataSource;
+        this.childContext = childContext;
+        this.closedCallback = closedCallback;
+    }
+
+    /**
+     * Try to borrow from current generation
+     *
+     * @return <code>true</code> if borrowed, or <code>false</code> if current generation has been retired
+     */
+    boolean borrow() {
+        borrowed.incrementAndGet();
+        if (retired) {
+            release();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Release the borrowed one, the {@link DynamicJdbcChildContext} will be closed if current generation was
+     * retired and nothing is borrowed.
+     */
+    void release() {
+        if (borrowed.decrementAndGet() == 0 && retired) {
+            close();
+        }
+    }
+
+    /**
+     * Retire current generation, the {@link DynamicJdbcChildContext} will be closed immediately if nothing is
+     * borrowed.
+     */
+    void retire() {
+        retired = true;
+        if (borrowed.get() == 0) {
+            close();
+        }
+    }
+
+    /**
+     * Close the {@link DynamicJdbcChildContext} once
+     *
+     * @return <code>true</code> if closed by current invocation
+     */
+    boolean close() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        int borrowedCount = borrowed.get();
+        if (borrowedCount > 0) {
+            logger.warn("DynamicDataSourceChildContext[{}] of generation[{}] will be closed with {} borrowed connections",
+                    childContext, id, borrowedCount);
+        }
+        try {
+            childContext.close();
+            logger.info("DynamicDataSourceChildContext[{}] of generation[{}] has been closed", childContext, id);
+        } finally {
+            if (closedCallback != null) {
+                closedCallback.accept(this);
+            }
+        }
+        return true;
+    }
+
+    Connection wrap(Connection connection) {
+        return wrap(connection, null, null);
+    }
+
+    /**
+     * Wrap the borrowed {@link Connection}
+     *
+     * @param connection   the borrowed {@link Connection}
+     * @param onClose      the callback runs after the {@link Connection} is closed and current generation is released
+     * @param queryTimeout the default query timeout of the statements, <code>null</code> means none
+     * @return the proxy of {@link DynamicConnection}
+     */
+    Connection wrap(Connection connection, Runnable onClose, Duration queryTimeout) {
+        return DynamicConnectionInvocationHandler.newProxy(connection, this, onClose, queryTimeout);
+    }
+
+    long getId() {
+        return id;
+    }
+
+    DataSource getDataSource() {
+        return dataSource;
+    }
+
+    DynamicJdbcChildContext getChildContext() {
+        return childContext;
+    }
+
+    /**
+     * Get the processed DataSource properties list that current generation is built or tuned with
+     *
+     * @return <code>null</code> if unknown
+     */
+    List<Map<String, String>> getDataSourcePropertiesList() {
+        return dataSourcePropertiesList;
+    }
+
+    void setDataSourcePropertiesList(List<Map<String, String>> dataSourcePropertiesList) {
+        this.dataSourcePropertiesList = dataSourcePropertiesList;
+    }
+
+    HikariPoolRamper getPoolRamper() {
+        return poolRamper;
+    }
+
+    void setPoolRamper(HikariPoolRamper poolRamper) {
+        this.poolRamper = poolRamper;
+    }
+
+    int getBorrowed() {
+        return borrowed.get();
+    }
+
+    boolean isRetired() {
+        return retired;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DynamicDataSourceGeneration[id : " + id + " , borrowed : " + borrowed.get() + " , retired : " + retired
+                + " , closed : " + closed.get() + " , context : " + childContext + "]";
+    }
+}
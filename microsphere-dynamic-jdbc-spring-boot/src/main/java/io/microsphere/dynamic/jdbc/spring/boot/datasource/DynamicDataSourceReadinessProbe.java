@@ -0,0 +1,104 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import org.springframework.core.env.Environment;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceProbeBackoffMultiplier;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceProbeInitialBackoff;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceProbeMaxAttempts;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceProbeMaxBackoff;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceProbeTimeout;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceProbeValidationQuery;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isDynamicDataSourceProbeEnabled;
+import static io.microsphere.text.FormatUtils.format;
+
+/**
+ * The readiness probe of the new delegate {@link DataSource} before {@link DynamicDataSource} swaps to it, which
+ * acquires a {@link Connection} and validates it by the validation query or {@link Connection#isValid(int)} within the
+ * timeout.
+ * <p>
+ * The acquisition of {@link Connection} is bounded by the connection timeout of the pool, and the timeout of probe is
+ * applied to the validation and the total elapsed time.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicDataSourceReadinessProbedEvent
+ * @since 1.0.0
+ */
+class DynamicDataSourceReadinessProbe {
+
+    private final boolean enabled;
+
+    private final String validationQuery;
+
+    private final Duration timeout;
+
+    private final int maxAttempts;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    private final double backoffMultiplier;
+
+    DynamicDataSourceReadinessProbe(Environment environment) {
+        this.enabled = isDynamicDataSourceProbeEnabled(environment);
+        this.validationQuery = getDynamicDataSourceProbeValidationQuery(environment);
+        this.timeout = getDynamicDataSourceProbeTimeout(environment);
+        this.maxAttempts = Math.max(1, getDynamicDataSourceProbeMaxAttempts(environment));
+        this.initialBackoff = getDynamicDataSourceProbeInitialBackoff(environment);
+        this.maxBackoff = getDynamicDataSourceProbeMaxBackoff(environment);
+        this.backoffMultiplier = Math.max(1.0d, getDynamicDataSourceProbeBackoffMultiplier(environment));
+    }
+
+    /**
+     * Probe the {@link DataSource}
+     *
+     * @param dataSource {@link DataSource}
+     * @throws SQLException if the {@link DataSource} is not ready
+     */
+    void probe(DataSource dataSource) throws SQLException {
+        long startTime = System.nanoTime();
+        int timeoutSeconds = (int) Math.max(1, (timeout.toMillis() + 999) / 1000);
+        try (Connection connection = dataSource.getConnection()) {
+            if (StringUtils.hasText(validationQuery)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.setQueryTimeout(timeoutSeconds);
+                    statement.execute(validationQuery);
+                }
+            } else if (!connection.isValid(timeoutSeconds)) {
+                throw new SQLException(format("The Connection[{}] is not valid", connection));
+            }
+        }
+        long elapsed = System.nanoTime() - startTime;
+        if (elapsed > timeout.toNanos()) {
+            throw new SQLTimeoutException(format("The readiness probe took {} ms , exceeds the timeout {} ms",
+                    elapsed / 1000000, timeout.toMillis()));
+        }
+    }
+
+    /**
+     * Get the backoff before the next attempt
+     *
+     * @param attempt the failed attempt, starts with 1
+     * @return the backoff in milliseconds
+     */
+    long getBackoff(int attempt) {
+        double backoff = initialBackoff.toMillis() * Math.pow(backoffMultiplier, attempt - 1);
+        return (long) Math.min(backoff, maxBackoff.toMillis());
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    int getMaxAttempts() {
+        return enabled ? maxAttempts : 1;
+    }
+}
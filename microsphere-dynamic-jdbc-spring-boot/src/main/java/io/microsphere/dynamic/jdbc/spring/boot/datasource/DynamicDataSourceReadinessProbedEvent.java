@@ -0,0 +1,91 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.time.Duration;
+
+/**
+ * The event of each attempt that {@link DynamicDataSource} builds and probes the new delegate before swapping
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicDataSourceReadinessProbe
+ * @see DynamicDataSource
+ * @since 1.0.0
+ */
+public class DynamicDataSourceReadinessProbedEvent extends ApplicationEvent {
+
+    private final String dynamicJdbcConfigPropertyName;
+
+    private final long generation;
+
+    private final int attempt;
+
+    private final int maxAttempts;
+
+    private final Duration elapsed;
+
+    private final Throwable failure;
+
+    public DynamicDataSourceReadinessProbedEvent(DynamicDataSource source, String dynamicJdbcConfigPropertyName, long generation,
+                                                 int attempt, int maxAttempts, Duration elapsed, Throwable failure) {
+        super(source);
+        this.dynamicJdbcConfigPropertyName = dynamicJdbcConfigPropertyName;
+        this.generation = generation;
+        this.attempt = attempt;
+        this.maxAttempts = maxAttempts;
+        this.elapsed = elapsed;
+        this.failure = failure;
+    }
+
+    @Override
+    public DynamicDataSource getSource() {
+        return (DynamicDataSource) super.getSource();
+    }
+
+    public String getDynamicJdbcConfigPropertyName() {
+        return dynamicJdbcConfigPropertyName;
+    }
+
+    /**
+     * @return the generation of the probed delegate, or <code>0</code> if it failed to be built
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the attempt, starts with 1
+     */
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * @return the elapsed time of current attempt
+     */
+    public Duration getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return the failure of current attempt if failed, or <code>null</code>
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+
+    /**
+     * @return <code>true</code> if current attempt failed and no more attempt will be made
+     */
+    public boolean isExhausted() {
+        return failure != null && attempt >= maxAttempts;
+    }
+}
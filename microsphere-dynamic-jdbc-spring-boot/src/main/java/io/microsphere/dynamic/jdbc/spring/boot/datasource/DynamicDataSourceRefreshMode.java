@@ -0,0 +1,34 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+/**
+ * The refresh mode of {@link DynamicDataSource}
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicDataSource
+ * @since 1.0.0
+ */
+public enum DynamicDataSourceRefreshMode {
+
+    /**
+     * Rebuild the delegate on the thread publishing the change
+     */
+    SYNC,
+
+    /**
+     * Rebuild the delegate on the dedicated bounded executor, the previous delegate keeps serving until
+     * the new one is ready
+     */
+    ASYNC;
+
+    public static DynamicDataSourceRefreshMode resolve(String value, DynamicDataSourceRefreshMode defaultMode) {
+        if (value == null) {
+            return defaultMode;
+        }
+        for (DynamicDataSourceRefreshMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        return defaultMode;
+    }
+}
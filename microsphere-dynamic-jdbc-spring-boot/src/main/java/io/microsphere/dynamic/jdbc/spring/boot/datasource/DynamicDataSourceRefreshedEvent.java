@@ -0,0 +1,67 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import org.springframework.context.ApplicationEvent;
+
+import javax.sql.DataSource;
+
+/**
+ * The {@link ApplicationEvent event} published by {@link DynamicDataSource} when its refresh is done,
+ * whether it succeeded or not
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicDataSource
+ * @since 1.0.0
+ */
+public class DynamicDataSourceRefreshedEvent extends ApplicationEvent {
+
+    private final String dynamicJdbcConfigPropertyName;
+
+    private final long generation;
+
+    private final DataSource dataSource;
+
+    private final Throwable failure;
+
+    public DynamicDataSourceRefreshedEvent(DynamicDataSource source, String dynamicJdbcConfigPropertyName, long generation,
+                                           DataSource dataSource, Throwable failure) {
+        super(source);
+        this.dynamicJdbcConfigPropertyName = dynamicJdbcConfigPropertyName;
+        this.generation = generation;
+        this.dataSource = dataSource;
+        this.failure = failure;
+    }
+
+    @Override
+    public DynamicDataSource getSource() {
+        return (DynamicDataSource) super.getSource();
+    }
+
+    public String getDynamicJdbcConfigPropertyName() {
+        return dynamicJdbcConfigPropertyName;
+    }
+
+    /**
+     * @return the generation of the delegate {@link DataSource} after refreshing
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * @return the delegate {@link DataSource} after refreshing
+     */
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * @return the failure of refreshing if failed, or <code>null</code>
+     */
+    public Throwable getFailure() {
+        return failure;
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+}
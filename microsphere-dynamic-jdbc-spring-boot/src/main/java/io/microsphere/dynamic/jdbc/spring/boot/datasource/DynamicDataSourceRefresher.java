@@ -0,0 +1,434 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.DynamicDataSourceRefreshMode.ASYNC;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.DynamicDataSourceSwapStrategy.CANARY;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceRampUpInterval;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceRampUpStep;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceRefreshMode;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceRefreshQueueCapacity;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceSwapJitter;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceSwapStrategy;
+import static io.microsphere.text.FormatUtils.format;
+
+/**
+ * The refresh and cut-over policy of {@link DynamicDataSource}. The changes are tuned in place by
+ * {@link DynamicDataSourceTuner} if possible, otherwise the new delegate {@link DataSource} is rebuilt, synchronously
+ * or asynchronously according to {@link DynamicDataSourceRefreshMode}.
+ * <p>
+ * The new delegate takes over all traffic at once by default, or gradually if the swap strategy is
+ * {@link DynamicDataSourceSwapStrategy#CANARY}. If the readiness probe is enabled, the new delegate will not take over
+ * until it passes the probe, the refresh is retried with exponential backoff otherwise, and the last-known-good delegate
+ * keeps serving if all attempts failed.
+ * <p>
+ * In order to avoid the connection storm when a change reaches many instances at the same time, the refresh can be
+ * delayed by a random jitter, and the new Hikari pool can grow its idle connections toward minimumIdle step by step.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicDataSourceCanary
+ * @see DynamicDataSourceReadinessProbe
+ * @see DynamicDataSource
+ * @since 1.0.0
+ */
+class DynamicDataSourceRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DynamicDataSourceRefresher.class);
+
+    private final DynamicDataSource dynamicDataSource;
+
+    private final String dynamicJdbcConfigPropertyName;
+
+    private final ConfigurableApplicationContext context;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final DynamicDataSourceTuner tuner;
+
+    private final DynamicDataSourceRefreshMode refreshMode;
+
+    /**
+     * The executor of the asynchronous refreshes and the deferred ones, e.g. the retries, which keeps the rebuilding
+     * off the scheduler, its thread is started on demand in the synchronous mode
+     */
+    private final ThreadPoolExecutor refreshExecutor;
+
+    private final DynamicDataSourceSwapStrategy swapStrategy;
+
+    private final AtomicReference<DynamicDataSourceCanary> canary = new AtomicReference<>();
+
+    private final DynamicDataSourceReadinessProbe readinessProbe;
+
+    private final Duration swapJitter;
+
+    private final int rampUpStep;
+
+    private final Duration rampUpInterval;
+
+    private volatile CompletableFuture<DataSource> latestRefreshFuture;
+
+    DynamicDataSourceRefresher(DynamicDataSource dynamicDataSource, String dynamicJdbcConfigName, String dynamicJdbcConfigPropertyName,
+                               ConfigurableApplicationContext context, ScheduledExecutorService scheduler, DynamicDataSourceTuner tuner) {
+        Environment environment = context.getEnvironment();
+        this.dynamicDataSource = dynamicDataSource;
+        this.dynamicJdbcConfigPropertyName = dynamicJdbcConfigPropertyName;
+        this.context = context;
+        this.scheduler = scheduler;
+        this.tuner = tuner;
+        this.refreshMode = getDynamicDataSourceRefreshMode(environment);
+        this.refreshExecutor = newRefreshExecutor(environment);
+        this.swapStrategy = getDynamicDataSourceSwapStrategy(environment);
+        this.readinessProbe = new DynamicDataSourceReadinessProbe(environment);
+        this.swapJitter = getDynamicDataSourceSwapJitter(environment, dynamicJdbcConfigName);
+        this.rampUpStep = getDynamicDataSourceRampUpStep(environment, dynamicJdbcConfigName);
+        this.rampUpInterval = getDynamicDataSourceRampUpInterval(environment, dynamicJdbcConfigName);
+    }
+
+    /**
+     * Refresh the delegate {@link DataSource} with the specified {@link DynamicJdbcConfig}
+     *
+     * @return the completion handle of the latest delegate {@link DataSource}
+     * @see DynamicDataSource#refresh(DynamicJdbcConfig)
+     */
+    CompletableFuture<DataSource> refresh(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName,
+                                          ConfigurableApplicationContext parentContext) {
+        CompletableFuture<DataSource> future = new CompletableFuture<>();
+        this.latestRefreshFuture = future;
+        long jitter = swapJitter.toMillis();
+        if (jitter > 0) {
+            // Spread the refreshes of the instances receiving the same change, the superseded ones will be skipped
+            long delay = ThreadLocalRandom.current().nextLong(jitter + 1);
+            try {
+                scheduler.schedule(() -> executeRefresh(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext, future),
+                        delay, TimeUnit.MILLISECONDS);
+                logger.info("DynamicDataSource[config property name : '{}'] will refresh in {} ms", dynamicJdbcConfigPropertyName, delay);
+            } catch (RejectedExecutionException e) {
+                future.completeExceptionally(e);
+            }
+        } else if (refreshMode != ASYNC) {
+            Throwable failure = doRefresh(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext, future);
+            // Propagate the failure as before in sync mode
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure instanceof Error) {
+                throw (Error) failure;
+            } else if (failure != null) {
+                throw new IllegalStateException(failure);
+            }
+        } else {
+            executeRefresh(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext, future);
+        }
+        return future;
+    }
+
+    /**
+     * Get the in-flight canary
+     *
+     * @return <code>null</code> if absent
+     */
+    DynamicDataSourceCanary getCanary() {
+        return canary.get();
+    }
+
+    /**
+     * Abort the in-flight canary, e.g. it's superseded by the latest generation
+     *
+     * @param reason the reason
+     */
+    void abortCanary(String reason) {
+        abortCanary(canary.getAndSet(null), reason);
+    }
+
+    /**
+     * Abort the in-flight canary and stop the refreshes
+     */
+    void shutdown() {
+        abortCanary("destroyed");
+        if (!refreshExecutor.isShutdown() && !refreshExecutor.isTerminated()) {
+            refreshExecutor.shutdown();
+        }
+    }
+
+    private void executeRefresh(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName,
+                                ConfigurableApplicationContext parentContext, CompletableFuture<DataSource> future) {
+        try {
+            // The jittered refreshes are deferred in both modes, only the scheduling is on the scheduler
+            refreshExecutor.execute(() -> doRefresh(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext, future));
+        } catch (RejectedExecutionException e) {
+            logger.warn("DynamicDataSource[config property name : '{}'] rejected the refresh , the pending refreshes exceed the capacity",
+                    dynamicJdbcConfigPropertyName);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private Throwable doRefresh(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName,
+                                ConfigurableApplicationContext parentContext, CompletableFuture<DataSource> future) {
+        if (skipSupersededRefresh(future)) {
+            return null;
+        }
+        DynamicDataSourceGeneration tunedGeneration;
+        try {
+            tunedGeneration = tuner.tune(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext);
+        } catch (Throwable e) {
+            return failRefresh(null, future, e);
+        }
+        if (tunedGeneration != null) {
+            future.complete(tunedGeneration.getDataSource());
+            publishRefreshedEvent(tunedGeneration, null);
+            return null;
+        }
+        return attemptRefresh(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext, future, null, 1);
+    }
+
+    /**
+     * Build the new delegate if absent, probe its readiness if enabled, and swap to it if ready. Otherwise the
+     * previous delegate keeps serving, and the attempt will be retried with exponential backoff until the max attempts.
+     *
+     * @param builtGeneration the generation built by the previous attempt, or <code>null</code> if it has to be built
+     * @param attempt         current attempt, starts with 1
+     * @return the failure if the refresh failed finally, or <code>null</code>
+     */
+    private Throwable attemptRefresh(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName,
+                                     ConfigurableApplicationContext parentContext, CompletableFuture<DataSource> future,
+                                     DynamicDataSourceGeneration builtGeneration, int attempt) {
+        if (skipSupersededRefresh(future)) {
+            dynamicDataSource.retireGeneration(builtGeneration);
+            return null;
+        }
+        int maxAttempts = readinessProbe.getMaxAttempts();
+        long startTime = System.nanoTime();
+        Throwable failure = null;
+        try {
+            if (builtGeneration == null) {
+                builtGeneration = dynamicDataSource.buildGeneration(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext);
+                rampUp(builtGeneration);
+            }
+            if (readinessProbe.isEnabled()) {
+                readinessProbe.probe(builtGeneration.getDataSource());
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+        if (readinessProbe.isEnabled()) {
+            publishReadinessProbedEvent(builtGeneration, attempt, maxAttempts, Duration.ofNanos(System.nanoTime() - startTime), failure);
+        }
+        if (failure == null) {
+            return cutOver(builtGeneration, future);
+        }
+        if (attempt < maxAttempts && !dynamicDataSource.isDestroyed()) {
+            long backoff = readinessProbe.getBackoff(attempt);
+            logger.warn("DynamicDataSource[config property name : '{}'] is not ready at attempt {}/{} , retry in {} ms : {}",
+                    dynamicJdbcConfigPropertyName, attempt, maxAttempts, backoff, String.valueOf(failure));
+            DynamicDataSourceGeneration probedGeneration = builtGeneration;
+            try {
+                scheduler.schedule(() -> retryRefresh(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext,
+                        future, probedGeneration, attempt + 1), backoff, TimeUnit.MILLISECONDS);
+                return null;
+            } catch (RejectedExecutionException e) {
+                // The DynamicDataSource has been destroyed
+                failure.addSuppressed(e);
+            }
+        }
+        return failRefresh(builtGeneration, future, failure);
+    }
+
+    private void retryRefresh(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName,
+                              ConfigurableApplicationContext parentContext, CompletableFuture<DataSource> future,
+                              DynamicDataSourceGeneration builtGeneration, int attempt) {
+        Runnable retry = () -> attemptRefresh(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext, future,
+                builtGeneration, attempt);
+        try {
+            // Keep the building and probing off the scheduler in both modes
+            refreshExecutor.execute(retry);
+        } catch (RejectedExecutionException e) {
+            failRefresh(builtGeneration, future, e);
+        }
+    }
+
+    private Throwable cutOver(DynamicDataSourceGeneration builtGeneration, CompletableFuture<DataSource> future) {
+        DynamicDataSourceGeneration latestGeneration;
+        try {
+            if (swapStrategy == CANARY && dynamicDataSource.getCurrentGeneration() != null) {
+                // The future will be completed when the canary is promoted or aborted
+                startCanary(builtGeneration, future);
+                return null;
+            }
+            latestGeneration = dynamicDataSource.swapGeneration(builtGeneration);
+        } catch (Throwable e) {
+            return failRefresh(null, future, e);
+        }
+        future.complete(latestGeneration.getDataSource());
+        publishRefreshedEvent(latestGeneration, null);
+        return null;
+    }
+
+    /**
+     * Fail the refresh, the last-known-good delegate keeps serving
+     */
+    private Throwable failRefresh(DynamicDataSourceGeneration builtGeneration, CompletableFuture<DataSource> future, Throwable failure) {
+        dynamicDataSource.retireGeneration(builtGeneration);
+        logger.error("DynamicDataSource[config property name : '{}'] failed to refresh", dynamicJdbcConfigPropertyName, failure);
+        future.completeExceptionally(failure);
+        publishRefreshedEvent(null, failure);
+        return failure;
+    }
+
+    private boolean skipSupersededRefresh(CompletableFuture<DataSource> future) {
+        CompletableFuture<DataSource> latestRefreshFuture = this.latestRefreshFuture;
+        if (latestRefreshFuture == future) {
+            return false;
+        }
+        // A newer refresh was requested, current one is superseded
+        logger.info("DynamicDataSource[config property name : '{}'] skips the superseded refresh", dynamicJdbcConfigPropertyName);
+        latestRefreshFuture.whenComplete((dataSource, failure) -> {
+            if (failure == null) {
+                future.complete(dataSource);
+            } else {
+                future.completeExceptionally(failure);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Start the new pool with a few idle connections, and grow them toward the configured minimumIdle step by step
+     */
+    private void rampUp(DynamicDataSourceGeneration generation) {
+        if (rampUpStep < 1) {
+            return;
+        }
+        HikariDataSource hikariDataSource = HikariDataSourceTuner.findHikariDataSource(generation.getDataSource());
+        if (hikariDataSource == null) {
+            return;
+        }
+        try {
+            generation.setPoolRamper(HikariPoolRamper.schedule(hikariDataSource, scheduler, rampUpStep, rampUpInterval));
+        } catch (RejectedExecutionException e) {
+            // The DynamicDataSource has been destroyed
+            logger.debug("DynamicDataSource[config property name : '{}'] skips the ramp-up", dynamicJdbcConfigPropertyName);
+        }
+    }
+
+    private void startCanary(DynamicDataSourceGeneration canaryGeneration, CompletableFuture<DataSource> future) {
+        DynamicDataSourceCanary canary = new DynamicDataSourceCanary(dynamicDataSource.getCurrentGeneration(), canaryGeneration,
+                context.getEnvironment(), future);
+        abortCanary(this.canary.getAndSet(canary), "superseded");
+        long stepInterval = canary.getStepInterval();
+        try {
+            canary.setStepFuture(scheduler.scheduleWithFixedDelay(() -> stepCanary(canary), stepInterval, stepInterval, TimeUnit.MILLISECONDS));
+        } catch (RejectedExecutionException e) {
+            // The DynamicDataSource has been destroyed
+            abortCanary(canary, "destroyed");
+            return;
+        }
+        logger.info("DynamicDataSource[config property name : '{}'] started {} , step interval : {} ms",
+                dynamicJdbcConfigPropertyName, canary, stepInterval);
+    }
+
+    private void stepCanary(DynamicDataSourceCanary canary) {
+        if (this.canary.get() != canary) {
+            canary.cancel();
+            return;
+        }
+        try {
+            DynamicDataSourceCanary.Decision decision = canary.step();
+            switch (decision) {
+                case RAMP:
+                    logger.info("DynamicDataSource[config property name : '{}'] ramped up {}", dynamicJdbcConfigPropertyName, canary);
+                    break;
+                case PROMOTE:
+                    promoteCanary(canary);
+                    break;
+                case ABORT:
+                    if (this.canary.compareAndSet(canary, null)) {
+                        abortCanary(canary, canary.getAbortReason());
+                    }
+                    break;
+                default:
+                    logger.debug("DynamicDataSource[config property name : '{}'] holds {}", dynamicJdbcConfigPropertyName, canary);
+                    break;
+            }
+        } catch (Throwable e) {
+            logger.error("DynamicDataSource[config property name : '{}'] failed to step {}", dynamicJdbcConfigPropertyName, canary, e);
+            if (this.canary.compareAndSet(canary, null)) {
+                abortCanary(canary, String.valueOf(e));
+            }
+        }
+    }
+
+    private void promoteCanary(DynamicDataSourceCanary canary) {
+        if (!this.canary.compareAndSet(canary, null)) {
+            return;
+        }
+        canary.cancel();
+        DynamicDataSourceGeneration latestGeneration = dynamicDataSource.swapGeneration(canary.getCanary());
+        logger.info("DynamicDataSource[config property name : '{}'] promoted {}", dynamicJdbcConfigPropertyName, canary);
+        canary.getFuture().complete(latestGeneration.getDataSource());
+        publishRefreshedEvent(latestGeneration, null);
+    }
+
+    private void abortCanary(DynamicDataSourceCanary canary, String reason) {
+        if (canary == null) {
+            return;
+        }
+        canary.cancel();
+        dynamicDataSource.retireGeneration(canary.getCanary());
+        IllegalStateException failure = new IllegalStateException(format("DynamicDataSource[config property name : '{}'] aborted {} : {}",
+                dynamicJdbcConfigPropertyName, canary, reason));
+        logger.warn(failure.getMessage());
+        canary.getFuture().completeExceptionally(failure);
+        publishRefreshedEvent(null, failure);
+    }
+
+    private void publishRefreshedEvent(DynamicDataSourceGeneration generation, Throwable failure) {
+        DynamicDataSourceGeneration currentGeneration = generation == null ? dynamicDataSource.getCurrentGeneration() : generation;
+        long generationId = currentGeneration == null ? 0 : currentGeneration.getId();
+        DataSource dataSource = currentGeneration == null ? null : currentGeneration.getDataSource();
+        try {
+            context.publishEvent(new DynamicDataSourceRefreshedEvent(dynamicDataSource, dynamicJdbcConfigPropertyName, generationId,
+                    dataSource, failure));
+        } catch (Throwable e) {
+            logger.warn("DynamicDataSource[config property name : '{}'] failed to publish DynamicDataSourceRefreshedEvent",
+                    dynamicJdbcConfigPropertyName, e);
+        }
+    }
+
+    private void publishReadinessProbedEvent(DynamicDataSourceGeneration generation, int attempt, int maxAttempts,
+                                             Duration elapsed, Throwable failure) {
+        long generationId = generation == null ? 0 : generation.getId();
+        try {
+            context.publishEvent(new DynamicDataSourceReadinessProbedEvent(dynamicDataSource, dynamicJdbcConfigPropertyName,
+                    generationId, attempt, maxAttempts, elapsed, failure));
+        } catch (Throwable e) {
+            logger.warn("DynamicDataSource[config property name : '{}'] failed to publish DynamicDataSourceReadinessProbedEvent",
+                    dynamicJdbcConfigPropertyName, e);
+        }
+    }
+
+    private static ThreadPoolExecutor newRefreshExecutor(Environment environment) {
+        int capacity = getDynamicDataSourceRefreshQueueCapacity(environment);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("DynamicDataSource-Refresher-");
+        threadFactory.setDaemon(true);
+        ThreadPoolExecutor refreshExecutor = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(capacity), threadFactory);
+        // The thread is released when idle, the synchronous mode rarely uses it
+        refreshExecutor.allowCoreThreadTimeOut(true);
+        return refreshExecutor;
+    }
+}
@@ -0,0 +1,34 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+/**
+ * The strategy of {@link DynamicDataSource} to swap the delegate after refreshing
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicDataSource
+ * @since 1.0.0
+ */
+public enum DynamicDataSourceSwapStrategy {
+
+    /**
+     * Swap all traffic to the new delegate at once
+     */
+    IMMEDIATE,
+
+    /**
+     * Send a share of traffic to the new delegate, ramp it up step by step while the new delegate is healthy,
+     * or abort back to the previous delegate otherwise
+     */
+    CANARY;
+
+    public static DynamicDataSourceSwapStrategy resolve(String value, DynamicDataSourceSwapStrategy defaultStrategy) {
+        if (value == null) {
+            return defaultStrategy;
+        }
+        for (DynamicDataSourceSwapStrategy strategy : values()) {
+            if (strategy.name().equalsIgnoreCase(value.trim())) {
+                return strategy;
+            }
+        }
+        return defaultStrategy;
+    }
+}
@@ -0,0 +1,253 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.microsphere.dynamic.jdbc.spring.boot.config.ConfigPostProcessor;
+import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.HighAvailabilityDataSource;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.LoadBalancingDataSource;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.RoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.util.CollectionUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.DynamicDataSource.copyDataSourcePropertiesList;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.WEIGHT_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils.getDataSourceName;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceCredentialEvictionBatchSize;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceCredentialEvictionInterval;
+import static io.microsphere.multiple.active.zone.ZoneConstants.DEFAULT_ZONE;
+import static io.microsphere.spring.util.SpringFactoriesLoaderUtils.loadFactories;
+
+/**
+ * The in-place tuning of the delegate {@link javax.sql.DataSource} of {@link DynamicDataSource}, which applies the
+ * changes without rebuilding if only the tunable pool properties or the credentials of a single
+ * {@link HikariDataSource} are changed, so are the tunable pool properties of the multiple datasource entries and their
+ * weights of load balancing. If only the zone of 'ha-datasource' module is changed, the warm standby pool of the new
+ * zone is promoted in place.
+ * <p>
+ * The connections opened with the previous credentials are evicted gradually after the credentials are rotated.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see HikariDataSourceTuner
+ * @see DynamicDataSource
+ * @since 1.0.0
+ */
+class DynamicDataSourceTuner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DynamicDataSourceTuner.class);
+
+    private final DynamicDataSource dynamicDataSource;
+
+    private final ScheduledExecutorService scheduler;
+
+    private final Duration credentialEvictionInterval;
+
+    private final int credentialEvictionBatchSize;
+
+    private final AtomicReference<HikariConnectionEvictor> connectionEvictor = new AtomicReference<>();
+
+    DynamicDataSourceTuner(DynamicDataSource dynamicDataSource, Environment environment, ScheduledExecutorService scheduler) {
+        this.dynamicDataSource = dynamicDataSource;
+        this.scheduler = scheduler;
+        this.credentialEvictionInterval = getDynamicDataSourceCredentialEvictionInterval(environment);
+        this.credentialEvictionBatchSize = getDynamicDataSourceCredentialEvictionBatchSize(environment);
+    }
+
+    /**
+     * Try to apply the changes to current delegate {@link javax.sql.DataSource} in place
+     *
+     * @return current {@link DynamicDataSourceGeneration} if tuned, or <code>null</code> if it has to be rebuilt
+     */
+    DynamicDataSourceGeneration tune(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName,
+                                     ConfigurableApplicationContext parentContext) {
+        DynamicDataSourceGeneration generation = dynamicDataSource.getCurrentGeneration();
+        if (generation == null || dynamicJdbcConfig.hasShardingDataSource()) {
+            return null;
+        }
+        if (generation.getDataSource() instanceof HighAvailabilityDataSource) {
+            return promoteZone(generation, dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext);
+        }
+        List<Map<String, String>> previousDataSourcePropertiesList = generation.getDataSourcePropertiesList();
+        if (previousDataSourcePropertiesList == null || previousDataSourcePropertiesList.isEmpty()) {
+            return null;
+        }
+        if (previousDataSourcePropertiesList.size() > 1) {
+            return tuneRoutingDataSource(generation, previousDataSourcePropertiesList, dynamicJdbcConfig, dynamicJdbcConfigPropertyName,
+                    parentContext);
+        }
+        HikariDataSource hikariDataSource = HikariDataSourceTuner.findHikariDataSource(generation.getDataSource());
+        if (hikariDataSource == null) {
+            return null;
+        }
+        List<Map<String, String>> dataSourcePropertiesList = postProcessDataSourcePropertiesList(dynamicJdbcConfig,
+                dynamicJdbcConfigPropertyName, parentContext);
+        if (dataSourcePropertiesList.size() != 1) {
+            return null;
+        }
+        Map<String, String> changes = HikariDataSourceTuner.diff(previousDataSourcePropertiesList.get(0), dataSourcePropertiesList.get(0));
+        if (!HikariDataSourceTuner.isTunable(changes)) {
+            logger.debug("DynamicDataSource[config property name : '{}'] can't be tuned in place , changes : {}",
+                    dynamicJdbcConfigPropertyName, changes.keySet());
+            return null;
+        }
+        if (generation.isRetired()) {
+            // The generation was swapped concurrently
+            return null;
+        }
+        HikariPoolRamper poolRamper = generation.getPoolRamper();
+        if (poolRamper != null) {
+            // The tuned minimumIdle takes over
+            poolRamper.cancel();
+        }
+        HikariDataSourceTuner.tune(hikariDataSource, changes);
+        generation.setDataSourcePropertiesList(dataSourcePropertiesList);
+        if (HikariDataSourceTuner.hasCredentialChanges(changes)) {
+            // The new connections will use the rotated credentials, the existing ones are evicted gradually
+            HikariConnectionEvictor evictor = HikariConnectionEvictor.schedule(hikariDataSource, scheduler, credentialEvictionInterval,
+                    credentialEvictionBatchSize);
+            cancelConnectionEvictor(connectionEvictor.getAndSet(evictor));
+        }
+        logger.info("DynamicDataSource[config property name : '{}'] tuned the DataSource of generation[{}] in place : {}",
+                dynamicJdbcConfigPropertyName, generation.getId(), changes.keySet());
+        return generation;
+    }
+
+    /**
+     * Cancel the eviction of the connections opened with the previous credentials, e.g. the generation was swapped
+     */
+    void cancelConnectionEvictor() {
+        cancelConnectionEvictor(connectionEvictor.getAndSet(null));
+    }
+
+    /**
+     * Try to apply the tunable pool properties of the entries and the weights of {@link LoadBalancingDataSource} in
+     * place, the credentials are not tuned here since the connections of multiple pools would have to be evicted.
+     *
+     * @return current {@link DynamicDataSourceGeneration} if tuned, or <code>null</code> if it has to be rebuilt
+     */
+    private DynamicDataSourceGeneration tuneRoutingDataSource(DynamicDataSourceGeneration generation,
+                                                              List<Map<String, String>> previousDataSourcePropertiesList,
+                                                              DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName,
+                                                              ConfigurableApplicationContext parentContext) {
+        if (!(generation.getDataSource() instanceof RoutingDataSource)) {
+            return null;
+        }
+        RoutingDataSource routingDataSource = (RoutingDataSource) generation.getDataSource();
+        List<Map<String, String>> dataSourcePropertiesList = postProcessDataSourcePropertiesList(dynamicJdbcConfig,
+                dynamicJdbcConfigPropertyName, parentContext);
+        int size = dataSourcePropertiesList.size();
+        if (size != previousDataSourcePropertiesList.size()) {
+            return null;
+        }
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        Map<HikariDataSource, Map<String, String>> tunings = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            Map<String, String> dataSourceProperties = dataSourcePropertiesList.get(i);
+            Map<String, String> changes = HikariDataSourceTuner.diff(previousDataSourcePropertiesList.get(i), dataSourceProperties);
+            if (changes.isEmpty()) {
+                continue;
+            }
+            // The name is unchanged, otherwise it's not tunable
+            String name = getDataSourceName(dataSourceProperties);
+            if (!routingDataSource.getTargetDataSources().containsKey(name)) {
+                // The targets are not the datasource entries, e.g. the zones of HighAvailabilityDataSource
+                return null;
+            }
+            if (changes.containsKey(WEIGHT_PROPERTY_NAME)) {
+                Integer weight = LoadBalancingDataSource.parseWeight(changes.remove(WEIGHT_PROPERTY_NAME));
+                if (weight == null || !(routingDataSource instanceof LoadBalancingDataSource)) {
+                    return null;
+                }
+                weights.put(name, weight);
+            }
+            if (changes.isEmpty()) {
+                continue;
+            }
+            if (!HikariDataSourceTuner.isTunable(changes) || HikariDataSourceTuner.hasCredentialChanges(changes)) {
+                logger.debug("DynamicDataSource[config property name : '{}'] can't tune the datasource entry[name : '{}'] in place , changes : {}",
+                        dynamicJdbcConfigPropertyName, name, changes.keySet());
+                return null;
+            }
+            HikariDataSource hikariDataSource = HikariDataSourceTuner.findHikariDataSource(routingDataSource.getTargetDataSource(name));
+            if (hikariDataSource == null) {
+                return null;
+            }
+            tunings.put(hikariDataSource, changes);
+        }
+        if ((weights.isEmpty() && tunings.isEmpty()) || generation.isRetired()) {
+            return null;
+        }
+        tunings.forEach(HikariDataSourceTuner::tune);
+        if (!weights.isEmpty()) {
+            ((LoadBalancingDataSource) routingDataSource).setWeights(weights);
+        }
+        generation.setDataSourcePropertiesList(dataSourcePropertiesList);
+        logger.info("DynamicDataSource[config property name : '{}'] tuned the {} of generation[{}] in place , weights : {} , pools : {}",
+                dynamicJdbcConfigPropertyName, routingDataSource, generation.getId(), weights, tunings.size());
+        return generation;
+    }
+
+    /**
+     * Promote the warm pool of the current zone of {@link HighAvailabilityDataSource} in place if only the zone is
+     * changed, the datasource lists of the zones have to be unchanged.
+     *
+     * @return current {@link DynamicDataSourceGeneration} if promoted, or <code>null</code> if it has to be rebuilt
+     */
+    private DynamicDataSourceGeneration promoteZone(DynamicDataSourceGeneration generation, DynamicJdbcConfig dynamicJdbcConfig,
+                                                    String dynamicJdbcConfigPropertyName, ConfigurableApplicationContext parentContext) {
+        HighAvailabilityDataSource highAvailabilityDataSource = (HighAvailabilityDataSource) generation.getDataSource();
+        DynamicJdbcConfig dynamicDataSourceConfig = postProcessDynamicJdbcConfig(dynamicJdbcConfig, dynamicJdbcConfigPropertyName,
+                parentContext);
+        Map<String, List<Map<String, String>>> zoneDataSourcePropertiesMap = dynamicDataSourceConfig.getHighAvailabilityDataSourcePropertiesMap();
+        if (!highAvailabilityDataSource.getZoneDataSourcePropertiesMap().equals(zoneDataSourcePropertiesMap)) {
+            logger.debug("DynamicDataSource[config property name : '{}'] can't promote the zone in place since the datasource lists were changed",
+                    dynamicJdbcConfigPropertyName);
+            return null;
+        }
+        String zone = dynamicJdbcConfig.getZoneContext().getZone();
+        if (CollectionUtils.isEmpty(zoneDataSourcePropertiesMap.get(zone))) {
+            // As DynamicJdbcConfig does, the "defaultZone" is taken if the zone is not configured
+            zone = DEFAULT_ZONE;
+        }
+        if (generation.isRetired() || !highAvailabilityDataSource.promote(zone)) {
+            return null;
+        }
+        generation.setDataSourcePropertiesList(copyDataSourcePropertiesList(dynamicDataSourceConfig));
+        logger.info("DynamicDataSource[config property name : '{}'] promoted the zone '{}' of generation[{}] in place",
+                dynamicJdbcConfigPropertyName, zone, generation.getId());
+        return generation;
+    }
+
+    /**
+     * Post-process a copy of {@link DynamicJdbcConfig} as the DynamicJdbcChildContext does, in order to compare its
+     * DataSource properties with current ones.
+     */
+    private List<Map<String, String>> postProcessDataSourcePropertiesList(DynamicJdbcConfig dynamicJdbcConfig,
+                                                                          String dynamicJdbcConfigPropertyName,
+                                                                          ConfigurableApplicationContext parentContext) {
+        return copyDataSourcePropertiesList(postProcessDynamicJdbcConfig(dynamicJdbcConfig, dynamicJdbcConfigPropertyName, parentContext));
+    }
+
+    private DynamicJdbcConfig postProcessDynamicJdbcConfig(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName,
+                                                           ConfigurableApplicationContext parentContext) {
+        DynamicJdbcConfig dynamicDataSourceConfig = dynamicDataSource.createDynamicDataSourceConfig(dynamicJdbcConfig);
+        List<ConfigPostProcessor> configPostProcessors = loadFactories(parentContext, ConfigPostProcessor.class);
+        configPostProcessors.forEach(configPostProcessor -> configPostProcessor.postProcess(dynamicDataSourceConfig, dynamicJdbcConfigPropertyName));
+        return dynamicDataSourceConfig;
+    }
+
+    private void cancelConnectionEvictor(HikariConnectionEvictor connectionEvictor) {
+        if (connectionEvictor != null) {
+            connectionEvictor.cancel();
+        }
+    }
+}
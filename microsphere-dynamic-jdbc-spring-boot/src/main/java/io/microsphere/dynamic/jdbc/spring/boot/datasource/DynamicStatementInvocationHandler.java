@@ -0,0 +1,121 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.deadline.QueryDeadline;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * {@link InvocationHandler} for the {@link Statement} proxy of {@link DynamicConnection}, which applies the lesser one
+ * of the query timeout set on the {@link Statement}, the default query timeout and the remaining time budget of
+ * {@link QueryDeadline} right before each execution, thus the {@link Statement statements} that are prepared early
+ * or reused don't run with a stale budget. {@link Statement#getConnection()} returns the proxy of
+ * {@link DynamicConnection} rather than the target.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DynamicConnectionInvocationHandler
+ * @see QueryDeadline
+ * @since 1.0.0
+ */
+class DynamicStatementInvocationHandler implements InvocationHandler {
+
+    private static final String EXECUTE_METHOD_NAME_PREFIX = "execute";
+
+    private final Statement target;
+
+    private final Connection connection;
+
+    private final Duration queryTimeout;
+
+    /**
+     * The query timeout set on the {@link Statement} by the caller, 0 means none
+     */
+    private int requestedQueryTimeout;
+
+    /**
+     * The query timeout applied to the target, -1 means the target's own one
+     */
+    private int appliedQueryTimeout = -1;
+
+    DynamicStatementInvocationHandler(Statement target, Connection connection, Duration queryTimeout) {
+        this.target = target;
+        this.connection = connection;
+        this.queryTimeout = queryTimeout;
+    }
+
+    /**
+     * Create the proxy of {@link Statement}
+     *
+     * @param target         the target {@link Statement}
+     * @param statementClass the interface of {@link Statement}, e.g. {@link java.sql.PreparedStatement}
+     * @param connection     the proxy of {@link DynamicConnection} that created the {@link Statement}
+     * @param queryTimeout   the default query timeout, <code>null</code> means none
+     * @return the proxy of {@link Statement}
+     */
+    static Statement newProxy(Statement target, Class<?> statementClass, Connection connection, Duration queryTimeout) {
+        ClassLoader classLoader = DynamicConnection.class.getClassLoader();
+        InvocationHandler invocationHandler = new DynamicStatementInvocationHandler(target, connection, queryTimeout);
+        return (Statement) Proxy.newProxyInstance(classLoader, new Class[]{statementClass}, invocationHandler);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String methodName = method.getName();
+        switch (methodName) {
+            case "getConnection":
+                return connection;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "DynamicStatement[target : " + target + "]";
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                break;
+            case "isWrapperFor":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return true;
+                }
+                break;
+            case "setQueryTimeout":
+                invokeTarget(method, args);
+                requestedQueryTimeout = (Integer) args[0];
+                appliedQueryTimeout = requestedQueryTimeout;
+                return null;
+            default:
+                if (methodName.startsWith(EXECUTE_METHOD_NAME_PREFIX)) {
+                    applyQueryTimeout();
+                }
+                break;
+        }
+        return invokeTarget(method, args);
+    }
+
+    private void applyQueryTimeout() throws Throwable {
+        int timeout = QueryDeadline.getQueryTimeout(queryTimeout);
+        if (requestedQueryTimeout > 0 && (timeout == 0 || requestedQueryTimeout < timeout)) {
+            timeout = requestedQueryTimeout;
+        }
+        // The budget of the previous execution is reset if no timeout applies any more
+        if (timeout != appliedQueryTimeout && (timeout > 0 || appliedQueryTimeout > 0)) {
+            target.setQueryTimeout(timeout);
+            appliedQueryTimeout = timeout;
+        }
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.pool.HikariPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The evictor of {@link HikariDataSource} evicts the connections opened with the previous credentials gradually after
+ * the credentials are rotated : at most a batch of idle connections per interval, until as many connections as the
+ * pool had at the rotation are evicted. The pool replenishes them with the latest credentials, and the in-use
+ * connections are not interrupted, they are evicted once they are idle.
+ * <p>
+ * The first batch is delayed by a random jitter within the interval, so the pools whose credentials are rotated
+ * together don't reconnect at the same moment. The idle connections are borrowed without waiting, thus the scheduler
+ * is never blocked by an exhausted pool. Since the evictor never returns a connection to the pool, Hikari hands it the
+ * idle connections from the oldest one, which were opened with the previous credentials.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see HikariPool#evictConnection(Connection)
+ * @see HikariDataSourceTuner
+ * @since 1.0.0
+ */
+class HikariConnectionEvictor implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HikariConnectionEvictor.class);
+
+    private final HikariDataSource dataSource;
+
+    private final int batchSize;
+
+    private volatile int remaining;
+
+    private volatile ScheduledFuture<?> future;
+
+    private HikariConnectionEvictor(HikariDataSource dataSource, int batchSize, int remaining) {
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+        this.remaining = remaining;
+    }
+
+    /**
+     * Schedule to evict the current connections of {@link HikariDataSource} in batches at a fixed rate
+     *
+     * @param dataSource {@link HikariDataSource}
+     * @param scheduler  {@link ScheduledExecutorService}
+     * @param interval   the interval between two batches
+     * @param batchSize  the max count of the connections evicted per interval
+     * @return {@link HikariConnectionEvictor}
+     */
+    static HikariConnectionEvictor schedule(HikariDataSource dataSource, ScheduledExecutorService scheduler, Duration interval,
+                                            int batchSize) {
+        HikariPoolMXBean poolMXBean = dataSource.getHikariPoolMXBean();
+        int totalConnections = poolMXBean == null ? 0 : poolMXBean.getTotalConnections();
+        HikariConnectionEvictor evictor = new HikariConnectionEvictor(dataSource, Math.max(1, batchSize), totalConnections);
+        if (totalConnections > 0) {
+            long period = Math.max(1, interval.toMillis());
+            long delay = period + ThreadLocalRandom.current().nextLong(period);
+            evictor.future = scheduler.scheduleAtFixedRate(evictor, delay, period, TimeUnit.MILLISECONDS);
+            logger.info("HikariDataSource[pool name : '{}'] will evict {} connections in {} ms , {} connections every {} ms",
+                    dataSource.getPoolName(), totalConnections, delay, evictor.batchSize, period);
+        }
+        return evictor;
+    }
+
+    @Override
+    public void run() {
+        HikariPoolMXBean poolMXBean = dataSource.getHikariPoolMXBean();
+        if (remaining < 1 || dataSource.isClosed() || !(poolMXBean instanceof HikariPool)) {
+            cancel();
+            return;
+        }
+        HikariPool pool = (HikariPool) poolMXBean;
+        int evictions = Math.min(batchSize, remaining);
+        for (int i = 0; i < evictions; i++) {
+            if (pool.getIdleConnections() < 1) {
+                // All connections are in use, try again in the next interval
+                break;
+            }
+            try (Connection connection = pool.getConnection(0)) {
+                pool.evictConnection(connection);
+                remaining--;
+            } catch (SQLException e) {
+                // The idle connection was borrowed concurrently
+                logger.debug("HikariDataSource[pool name : '{}'] has no idle connection to evict", dataSource.getPoolName(), e);
+                break;
+            } catch (Throwable e) {
+                logger.warn("HikariDataSource[pool name : '{}'] failed to evict a connection", dataSource.getPoolName(), e);
+                break;
+            }
+        }
+        logger.debug("HikariDataSource[pool name : '{}'] evicted the connections , remaining : {}", dataSource.getPoolName(), remaining);
+        if (remaining < 1) {
+            cancel();
+            logger.info("HikariDataSource[pool name : '{}'] evicted the connections opened with the previous credentials",
+                    dataSource.getPoolName());
+        }
+    }
+
+    /**
+     * Cancel the remaining evictions
+     */
+    void cancel() {
+        ScheduledFuture<?> future = this.future;
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Get the count of the remaining evictions
+     *
+     * @return non-negative
+     */
+    int getRemaining() {
+        return remaining;
+    }
+}
@@ -0,0 +1,237 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+
+/**
+ * The tuner of {@link HikariDataSource} applies the changes of the pool properties and credentials at runtime via
+ * {@link HikariConfigMXBean}, which avoids rebuilding the whole pool.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see HikariConfigMXBean
+ * @see DynamicDataSource
+ * @since 1.0.0
+ */
+class HikariDataSourceTuner {
+
+    private static final Logger logger = LoggerFactory.getLogger(HikariDataSourceTuner.class);
+
+    static final String MAXIMUM_POOL_SIZE_PROPERTY_NAME = "maximumpoolsize";
+
+    static final String MINIMUM_IDLE_PROPERTY_NAME = "minimumidle";
+
+    static final String CONNECTION_TIMEOUT_PROPERTY_NAME = "connectiontimeout";
+
+    static final String IDLE_TIMEOUT_PROPERTY_NAME = "idletimeout";
+
+    static final String MAX_LIFETIME_PROPERTY_NAME = "maxlifetime";
+
+    static final String VALIDATION_TIMEOUT_PROPERTY_NAME = "validationtimeout";
+
+    static final String LEAK_DETECTION_THRESHOLD_PROPERTY_NAME = "leakdetectionthreshold";
+
+    static final String USER_NAME_PROPERTY_NAME = "username";
+
+    static final String PASSWORD_PROPERTY_NAME = "password";
+
+    /**
+     * The canonical names of the properties that could be changed via {@link HikariConfigMXBean}
+     */
+    static final Set<String> TUNABLE_PROPERTY_NAMES = Collections.unmodifiableSet(new HashSet<>(asList(
+            MAXIMUM_POOL_SIZE_PROPERTY_NAME, MINIMUM_IDLE_PROPERTY_NAME, CONNECTION_TIMEOUT_PROPERTY_NAME,
+            IDLE_TIMEOUT_PROPERTY_NAME, MAX_LIFETIME_PROPERTY_NAME, VALIDATION_TIMEOUT_PROPERTY_NAME,
+            LEAK_DETECTION_THRESHOLD_PROPERTY_NAME)));
+
+    /**
+     * The canonical names of the credential properties that could be changed via {@link HikariConfigMXBean}, the
+     * existing connections are not affected.
+     */
+    static final Set<String> CREDENTIAL_PROPERTY_NAMES = Collections.unmodifiableSet(new HashSet<>(asList(
+            USER_NAME_PROPERTY_NAME, PASSWORD_PROPERTY_NAME)));
+
+    private HikariDataSourceTuner() {
+    }
+
+    /**
+     * Find the changed properties between the previous and current DataSource properties
+     *
+     * @param previous the previous DataSource properties
+     * @param current  the current DataSource properties
+     * @return the changed properties whose keys are canonical and values are current, the removed property's value
+     * is <code>null</code>
+     */
+    static Map<String, String> diff(Map<String, String> previous, Map<String, String> current) {
+        Map<String, String> previousProperties = canonicalize(previous);
+        Map<String, String> currentProperties = canonicalize(current);
+        Map<String, String> changes = new LinkedHashMap<>();
+        currentProperties.forEach((name, value) -> {
+            if (!Objects.equals(value, previousProperties.get(name))) {
+                changes.put(name, value);
+            }
+        });
+        previousProperties.keySet().forEach(name -> {
+            if (!currentProperties.containsKey(name)) {
+                changes.put(name, null);
+            }
+        });
+        return changes;
+    }
+
+    /**
+     * Whether the changes could be applied to the {@link HikariDataSource} at runtime
+     *
+     * @param changes the changed properties from {@link #diff(Map, Map)}
+     * @return <code>true</code> if there are changes and all of them are tunable
+     */
+    static boolean isTunable(Map<String, String> changes) {
+        if (changes.isEmpty()) {
+            return false;
+        }
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            String name = change.getKey();
+            String value = change.getValue();
+            if (CREDENTIAL_PROPERTY_NAMES.contains(name)) {
+                if (value == null) {
+                    return false;
+                }
+            } else if (!TUNABLE_PROPERTY_NAMES.contains(name) || parseLong(value) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the changes contain any credential
+     *
+     * @param changes the changed properties from {@link #diff(Map, Map)}
+     * @return <code>true</code> if the user name or password is changed
+     */
+    static boolean hasCredentialChanges(Map<String, String> changes) {
+        for (String name : CREDENTIAL_PROPERTY_NAMES) {
+            if (changes.containsKey(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find the {@link HikariDataSource} from the specified {@link DataSource}
+     *
+     * @param dataSource {@link DataSource}
+     * @return <code>null</code> if not found
+     */
+    static HikariDataSource findHikariDataSource(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            return (HikariDataSource) dataSource;
+        }
+        try {
+            if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            logger.debug("The DataSource[{}] can't be unwrapped to be HikariDataSource", dataSource, e);
+        }
+        return null;
+    }
+
+    /**
+     * Apply the tunable changes to the {@link HikariDataSource}
+     *
+     * @param dataSource {@link HikariDataSource}
+     * @param changes    the tunable changes
+     * @see #isTunable(Map)
+     */
+    static void tune(HikariDataSource dataSource, Map<String, String> changes) {
+        HikariConfigMXBean configMXBean = dataSource.getHikariConfigMXBean();
+        Long maximumPoolSize = parseLong(changes.get(MAXIMUM_POOL_SIZE_PROPERTY_NAME));
+        Long minimumIdle = parseLong(changes.get(MINIMUM_IDLE_PROPERTY_NAME));
+        // Grow the maximum pool size first, and shrink it at last, in order to keep minimumIdle <= maximumPoolSize
+        boolean growing = maximumPoolSize != null && maximumPoolSize >= configMXBean.getMaximumPoolSize();
+        if (growing) {
+            configMXBean.setMaximumPoolSize(maximumPoolSize.intValue());
+        }
+        if (minimumIdle != null) {
+            configMXBean.setMinimumIdle(minimumIdle.intValue());
+        }
+        if (maximumPoolSize != null && !growing) {
+            configMXBean.setMaximumPoolSize(maximumPoolSize.intValue());
+        }
+        Long connectionTimeout = parseLong(changes.get(CONNECTION_TIMEOUT_PROPERTY_NAME));
+        if (connectionTimeout != null) {
+            configMXBean.setConnectionTimeout(connectionTimeout);
+        }
+        Long idleTimeout = parseLong(changes.get(IDLE_TIMEOUT_PROPERTY_NAME));
+        if (idleTimeout != null) {
+            configMXBean.setIdleTimeout(idleTimeout);
+        }
+        Long maxLifetime = parseLong(changes.get(MAX_LIFETIME_PROPERTY_NAME));
+        if (maxLifetime != null) {
+            configMXBean.setMaxLifetime(maxLifetime);
+        }
+        Long validationTimeout = parseLong(changes.get(VALIDATION_TIMEOUT_PROPERTY_NAME));
+        if (validationTimeout != null) {
+            configMXBean.setValidationTimeout(validationTimeout);
+        }
+        Long leakDetectionThreshold = parseLong(changes.get(LEAK_DETECTION_THRESHOLD_PROPERTY_NAME));
+        if (leakDetectionThreshold != null) {
+            configMXBean.setLeakDetectionThreshold(leakDetectionThreshold);
+        }
+        String userName = changes.get(USER_NAME_PROPERTY_NAME);
+        if (userName != null) {
+            configMXBean.setUsername(userName);
+        }
+        String password = changes.get(PASSWORD_PROPERTY_NAME);
+        if (password != null) {
+            configMXBean.setPassword(password);
+        }
+        logger.info("HikariDataSource[pool name : '{}'] has been tuned : {}", dataSource.getPoolName(), changes.keySet());
+    }
+
+    /**
+     * Canonicalize the property name, e.g. "maximum-pool-size" and "maximumPoolSize" are both "maximumpoolsize"
+     *
+     * @param propertyName the property name
+     * @return the canonical property name
+     */
+    static String canonicalize(String propertyName) {
+        StringBuilder builder = new StringBuilder(propertyName.length());
+        for (char c : propertyName.toCharArray()) {
+            if (c != '-' && c != '_') {
+                builder.append(Character.toLowerCase(c));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static Map<String, String> canonicalize(Map<String, String> properties) {
+        Map<String, String> canonicalProperties = new LinkedHashMap<>(properties.size());
+        properties.forEach((name, value) -> canonicalProperties.put(canonicalize(name), value));
+        return canonicalProperties;
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ramper of a new {@link HikariDataSource} lowers its minimumIdle before the pool fills, and raises it step by
+ * step toward the configured one, in order to bound the rate of the connections created by the idle filling when
+ * many instances rebuild their pools at the same time.
+ * <p>
+ * The idle connections are filled by the housekeeper of Hikari, thus the interval of steps should not be shorter
+ * than the housekeeping period (30 seconds by default). The connections created on demand by the traffic are not
+ * bounded.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see HikariDataSourceTuner
+ * @since 1.0.0
+ */
+class HikariPoolRamper implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HikariPoolRamper.class);
+
+    /**
+     * The default pool size of Hikari if neither maximumPoolSize nor minimumIdle is set
+     */
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final HikariDataSource dataSource;
+
+    private final int targetMinimumIdle;
+
+    private final int step;
+
+    private volatile ScheduledFuture<?> future;
+
+    private HikariPoolRamper(HikariDataSource dataSource, int targetMinimumIdle, int step) {
+        this.dataSource = dataSource;
+        this.targetMinimumIdle = targetMinimumIdle;
+        this.step = step;
+    }
+
+    /**
+     * Lower the minimumIdle of {@link HikariDataSource} to the step, and schedule to raise it by the step at a fixed
+     * rate until the configured one
+     *
+     * @param dataSource {@link HikariDataSource}
+     * @param scheduler  {@link ScheduledExecutorService}
+     * @param step       the count of idle connections to grow per step
+     * @param interval   the interval between two steps
+     * @return {@link HikariPoolRamper} if ramping, or <code>null</code> if the configured minimumIdle is not greater
+     * than the step
+     */
+    static HikariPoolRamper schedule(HikariDataSource dataSource, ScheduledExecutorService scheduler, int step, Duration interval) {
+        int targetMinimumIdle = resolveMinimumIdle(dataSource);
+        if (step < 1 || targetMinimumIdle <= step) {
+            return null;
+        }
+        HikariPoolRamper ramper = new HikariPoolRamper(dataSource, targetMinimumIdle, step);
+        dataSource.setMinimumIdle(step);
+        long period = Math.max(1, interval.toMillis());
+        ramper.future = scheduler.scheduleAtFixedRate(ramper, period, period, TimeUnit.MILLISECONDS);
+        logger.info("HikariDataSource[pool name : '{}'] will ramp minimumIdle up from {} to {} by {} every {} ms",
+                dataSource.getPoolName(), step, targetMinimumIdle, step, period);
+        return ramper;
+    }
+
+    @Override
+    public void run() {
+        if (dataSource.isClosed()) {
+            cancel();
+            return;
+        }
+        int minimumIdle = Math.min(targetMinimumIdle, dataSource.getHikariConfigMXBean().getMinimumIdle() + step);
+        dataSource.getHikariConfigMXBean().setMinimumIdle(minimumIdle);
+        logger.debug("HikariDataSource[pool name : '{}'] ramped minimumIdle up to {}/{}", dataSource.getPoolName(),
+                minimumIdle, targetMinimumIdle);
+        if (minimumIdle >= targetMinimumIdle) {
+            cancel();
+        }
+    }
+
+    /**
+     * Cancel the remaining steps, the current minimumIdle is kept
+     */
+    void cancel() {
+        ScheduledFuture<?> future = this.future;
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    int getTargetMinimumIdle() {
+        return targetMinimumIdle;
+    }
+
+    static int resolveMinimumIdle(HikariDataSource dataSource) {
+        int minimumIdle = dataSource.getMinimumIdle();
+        if (minimumIdle >= 0) {
+            return minimumIdle;
+        }
+        // The minimumIdle defaults to maximumPoolSize before the pool starts
+        int maximumPoolSize = dataSource.getMaximumPoolSize();
+        return maximumPoolSize > 0 ? maximumPoolSize : DEFAULT_POOL_SIZE;
+    }
+}
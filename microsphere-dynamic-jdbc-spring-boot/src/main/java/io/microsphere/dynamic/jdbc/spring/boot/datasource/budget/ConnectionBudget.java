@@ -0,0 +1,398 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.budget;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.microsphere.text.FormatUtils.format;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+
+/**
+ * The budget of the connections of all {@link HikariDataSource pools} built by Dynamic JDBC, which redistributes the
+ * budget among the pools periodically by resizing their maximumPoolSize :
+ * <ol>
+ *     <li>Each pool is granted its floor</li>
+ *     <li>The rest is granted to the demands above the floors, in proportion to the demands if it's not enough. The
+ *     demand of the pool with the threads awaiting the connections is its current maximumPoolSize plus the waiters,
+ *     or the active connections plus 25% headroom</li>
+ *     <li>The rest is spread up to the ceilings, thus the idle pools could burst before the next round</li>
+ * </ol>
+ * The sum of the maximumPoolSize of the pools is no more than the budget unless the floors exceed it. The minimumIdle
+ * of the pool is capped by its maximumPoolSize, and restored up to the configured one when it grows. The shrunk pool
+ * soft-evicts its connections if it holds more than the granted size, the idle ones are closed at once and the active
+ * ones on return, then it refills up to its minimumIdle. If the maximumPoolSize or the minimumIdle is changed out of
+ * the budget, e.g. by the HikariDataSourceTuner, it's taken as the configured one, the maximumPoolSize is the ceiling
+ * unless it's specified.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see ConnectionBudgetBeanPostProcessor
+ * @since 1.0.0
+ */
+public class ConnectionBudget implements Runnable, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionBudget.class);
+
+    public static final String BEAN_NAME = "connectionBudget";
+
+    /**
+     * The default maximumPoolSize of Hikari
+     */
+    private static final int DEFAULT_MAXIMUM_POOL_SIZE = 10;
+
+    private final int maxConnections;
+
+    private final long rebalanceInterval;
+
+    private final Map<HikariDataSource, Allocation> allocations = new LinkedHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    private ScheduledFuture<?> future;
+
+    private boolean destroyed;
+
+    public ConnectionBudget(int maxConnections, Duration rebalanceInterval) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException(format("The max connections of the budget must be positive : {}", maxConnections));
+        }
+        this.maxConnections = maxConnections;
+        this.rebalanceInterval = Math.max(1, rebalanceInterval.toMillis());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ConnectionBudget-");
+        threadFactory.setDaemon(true);
+        this.scheduler = newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    /**
+     * Get or register the {@link ConnectionBudget} of the {@link ConfigurableListableBeanFactory BeanFactory} of the
+     * Parent Context
+     *
+     * @param beanFactory       the {@link ConfigurableListableBeanFactory BeanFactory} of the Parent Context
+     * @param maxConnections    the max connections if it's registered
+     * @param rebalanceInterval the interval to rebalance if it's registered
+     * @return non-null
+     */
+    public static ConnectionBudget get(ConfigurableListableBeanFactory beanFactory, int maxConnections, Duration rebalanceInterval) {
+        synchronized (beanFactory) {
+            if (beanFactory.containsSingleton(BEAN_NAME)) {
+                return (ConnectionBudget) beanFactory.getSingleton(BEAN_NAME);
+            }
+            ConnectionBudget connectionBudget = new ConnectionBudget(maxConnections, rebalanceInterval);
+            beanFactory.registerSingleton(BEAN_NAME, connectionBudget);
+            if (beanFactory instanceof DefaultSingletonBeanRegistry) {
+                // Stop rebalancing when the Parent Context is closing
+                ((DefaultSingletonBeanRegistry) beanFactory).registerDisposableBean(BEAN_NAME, connectionBudget);
+            }
+            return connectionBudget;
+        }
+    }
+
+    /**
+     * Register the {@link HikariDataSource} to the budget, which is rebalanced at once
+     *
+     * @param dataSource            {@link HikariDataSource}
+     * @param dynamicJdbcConfigName the name of DynamicJdbcConfig
+     * @param floor                 the min maximumPoolSize of the pool
+     * @param ceiling               the max maximumPoolSize of the pool, 0 means its configured maximumPoolSize, which
+     *                              follows the changes out of the budget
+     */
+    public synchronized void register(HikariDataSource dataSource, String dynamicJdbcConfigName, int floor, int ceiling) {
+        if (destroyed) {
+            return;
+        }
+        Allocation allocation = allocations.get(dataSource);
+        if (allocation != null) {
+            // The shared pool is registered by each DynamicJdbcConfig that leases it
+            allocation.registrations++;
+            return;
+        }
+        int resolvedFloor = Math.max(1, floor);
+        int resolvedCeiling = Math.max(resolvedFloor, ceiling > 0 ? ceiling : configuredSize(dataSource));
+        allocations.put(dataSource, new Allocation(dynamicJdbcConfigName, resolvedFloor, resolvedCeiling, ceiling < 1,
+                dataSource.getMaximumPoolSize(), dataSource.getMinimumIdle()));
+        logger.debug("HikariDataSource[pool name : '{}'] of DynamicJdbcConfig[name : '{}'] was registered to the budget , floor : {} , ceiling : {}",
+                dataSource.getPoolName(), dynamicJdbcConfigName, resolvedFloor, resolvedCeiling);
+        rebalance();
+        start();
+    }
+
+    /**
+     * Unregister the {@link HikariDataSource}, its share is redistributed in the next round
+     *
+     * @param dataSource {@link HikariDataSource}
+     */
+    public synchronized void unregister(HikariDataSource dataSource) {
+        Allocation allocation = allocations.get(dataSource);
+        if (allocation != null && --allocation.registrations < 1) {
+            allocations.remove(dataSource);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            rebalance();
+        } catch (Throwable e) {
+            logger.warn("The connection budget failed to rebalance", e);
+        }
+    }
+
+    /**
+     * Redistribute the budget among the registered pools
+     */
+    public synchronized void rebalance() {
+        int size = allocations.size();
+        if (size == 0) {
+            return;
+        }
+        List<HikariDataSource> dataSources = new ArrayList<>(allocations.keySet());
+        int[] floors = new int[size];
+        int[] ceilings = new int[size];
+        int[] demands = new int[size];
+        for (int i = 0; i < size; i++) {
+            HikariDataSource dataSource = dataSources.get(i);
+            Allocation allocation = allocations.get(dataSource);
+            int maximumPoolSize = dataSource.getMaximumPoolSize();
+            if (allocation.configuredCeiling && maximumPoolSize != allocation.grantedSize) {
+                // Resized out of the budget since the last round, the ceiling follows the configured maximumPoolSize
+                allocation.ceiling = Math.max(allocation.floor, configuredSize(dataSource));
+                logger.debug("HikariDataSource[pool name : '{}'] of DynamicJdbcConfig[name : '{}'] was resized to {} out of the budget , ceiling : {}",
+                        dataSource.getPoolName(), allocation.dynamicJdbcConfigName, maximumPoolSize, allocation.ceiling);
+            }
+            floors[i] = allocation.floor;
+            ceilings[i] = allocation.ceiling;
+            demands[i] = demand(dataSource, allocation.floor);
+        }
+        int[] sizes = allocate(maxConnections, floors, ceilings, demands);
+        for (int i = 0; i < size; i++) {
+            HikariDataSource dataSource = dataSources.get(i);
+            Allocation allocation = allocations.get(dataSource);
+            int maximumPoolSize = sizes[i];
+            int previousSize = dataSource.getMaximumPoolSize();
+            if (dataSource.getMinimumIdle() != allocation.grantedMinimumIdle) {
+                // Changed out of the budget since the last round
+                allocation.configuredMinimumIdle = dataSource.getMinimumIdle();
+            }
+            int minimumIdle = allocation.configuredMinimumIdle < 0 ? maximumPoolSize :
+                    Math.min(allocation.configuredMinimumIdle, maximumPoolSize);
+            if (previousSize != maximumPoolSize) {
+                logger.debug("HikariDataSource[pool name : '{}'] of DynamicJdbcConfig[name : '{}'] resizes the maximumPoolSize from {} to {} , minimumIdle : {}",
+                        dataSource.getPoolName(), allocation.dynamicJdbcConfigName, previousSize, maximumPoolSize, minimumIdle);
+            }
+            // Applied via HikariConfigMXBean if the pool was started, the minimumIdle is lowered first when it shrinks
+            if (maximumPoolSize < previousSize) {
+                setMinimumIdle(dataSource, minimumIdle);
+                dataSource.setMaximumPoolSize(maximumPoolSize);
+                evictSurplus(dataSource, allocation, maximumPoolSize);
+            } else {
+                dataSource.setMaximumPoolSize(maximumPoolSize);
+                setMinimumIdle(dataSource, minimumIdle);
+            }
+            allocation.grantedSize = maximumPoolSize;
+            allocation.grantedMinimumIdle = minimumIdle;
+        }
+    }
+
+    private static void setMinimumIdle(HikariDataSource dataSource, int minimumIdle) {
+        if (dataSource.getMinimumIdle() != minimumIdle) {
+            dataSource.setMinimumIdle(minimumIdle);
+        }
+    }
+
+    /**
+     * Soft-evict the connections of the shrunk pool if it holds more than the granted size, since Hikari doesn't
+     * close the surplus connections while the minimumIdle is no less than the maximumPoolSize, or until they have been
+     * idle for the idleTimeout
+     */
+    private static void evictSurplus(HikariDataSource dataSource, Allocation allocation, int maximumPoolSize) {
+        HikariPoolMXBean poolMXBean = dataSource.getHikariPoolMXBean();
+        if (poolMXBean == null) {
+            // Not started
+            return;
+        }
+        int totalConnections = poolMXBean.getTotalConnections();
+        if (totalConnections > maximumPoolSize) {
+            logger.debug("HikariDataSource[pool name : '{}'] of DynamicJdbcConfig[name : '{}'] soft-evicts its {} connections above the maximumPoolSize {}",
+                    dataSource.getPoolName(), allocation.dynamicJdbcConfigName, totalConnections, maximumPoolSize);
+            poolMXBean.softEvictConnections();
+        }
+    }
+
+    /**
+     * Get the maximumPoolSize granted to the pool
+     *
+     * @param dataSource {@link HikariDataSource}
+     * @return -1 if it's not registered
+     */
+    public synchronized int getMaximumPoolSize(HikariDataSource dataSource) {
+        return allocations.containsKey(dataSource) ? dataSource.getMaximumPoolSize() : -1;
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        destroyed = true;
+        scheduler.shutdownNow();
+        allocations.clear();
+    }
+
+    private void start() {
+        if (future != null || destroyed) {
+            return;
+        }
+        try {
+            future = scheduler.scheduleWithFixedDelay(this, rebalanceInterval, rebalanceInterval, TimeUnit.MILLISECONDS);
+            logger.info("The connection budget started , max connections : {} , rebalance interval : {} ms", maxConnections,
+                    rebalanceInterval);
+        } catch (RejectedExecutionException e) {
+            logger.debug("The connection budget has been destroyed");
+        }
+    }
+
+    private static int configuredSize(HikariDataSource dataSource) {
+        int maximumPoolSize = dataSource.getMaximumPoolSize();
+        return maximumPoolSize < 1 ? DEFAULT_MAXIMUM_POOL_SIZE : maximumPoolSize;
+    }
+
+    /**
+     * The demand of the pool from its utilization and the threads awaiting the connections
+     */
+    static int demand(HikariDataSource dataSource, int floor) {
+        HikariPoolMXBean poolMXBean = dataSource.getHikariPoolMXBean();
+        if (poolMXBean == null) {
+            // Not started
+            return floor;
+        }
+        int pending = poolMXBean.getThreadsAwaitingConnection();
+        if (pending > 0) {
+            return dataSource.getMaximumPoolSize() + pending;
+        }
+        int active = poolMXBean.getActiveConnections();
+        return active + Math.max(1, (active + 3) / 4);
+    }
+
+    /**
+     * Allocate the budget to the pools
+     *
+     * @param budget   the budget
+     * @param floors   the floors of the pools
+     * @param ceilings the ceilings of the pools, which are no less than the floors
+     * @param demands  the demands of the pools
+     * @return the maximumPoolSize of the pools
+     */
+    static int[] allocate(int budget, int[] floors, int[] ceilings, int[] demands) {
+        int size = floors.length;
+        int[] sizes = floors.clone();
+        int remaining = budget;
+        int[] needs = new int[size];
+        int[] spares = new int[size];
+        for (int i = 0; i < size; i++) {
+            remaining -= floors[i];
+            needs[i] = Math.max(0, Math.min(demands[i], ceilings[i]) - floors[i]);
+        }
+        if (remaining < 0) {
+            logger.warn("The floors of the pools exceed the connection budget[{}] by {}", budget, -remaining);
+            return sizes;
+        }
+        remaining = grant(sizes, needs, remaining);
+        for (int i = 0; i < size; i++) {
+            spares[i] = ceilings[i] - sizes[i];
+        }
+        grant(sizes, spares, remaining);
+        return sizes;
+    }
+
+    /**
+     * Grant the amounts to the sizes, in proportion to the amounts if the remaining is not enough
+     *
+     * @return the remaining after granted
+     */
+    private static int grant(int[] sizes, int[] amounts, int remaining) {
+        long total = 0;
+        for (int amount : amounts) {
+            total += amount;
+        }
+        if (total <= remaining) {
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] += amounts[i];
+            }
+            return (int) (remaining - total);
+        }
+        int[] granted = new int[sizes.length];
+        int left = remaining;
+        for (int i = 0; i < sizes.length; i++) {
+            granted[i] = (int) (amounts[i] * (long) remaining / total);
+            left -= granted[i];
+        }
+        // The rounded-down rest goes to the ones with the unmet amounts in turn
+        for (int i = 0; left > 0; i = (i + 1) % sizes.length) {
+            if (granted[i] < amounts[i]) {
+                granted[i]++;
+                left--;
+            }
+        }
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] += granted[i];
+        }
+        return 0;
+    }
+
+    private static class Allocation {
+
+        private final String dynamicJdbcConfigName;
+
+        private final int floor;
+
+        /**
+         * Whether the ceiling is the configured maximumPoolSize
+         */
+        private final boolean configuredCeiling;
+
+        private int ceiling;
+
+        /**
+         * The maximumPoolSize granted by the last round, or the configured one before the first round
+         */
+        private int grantedSize;
+
+        /**
+         * The configured minimumIdle, -1 means it follows the maximumPoolSize
+         */
+        private int configuredMinimumIdle;
+
+        /**
+         * The minimumIdle set by the last round, or the configured one before the first round
+         */
+        private int grantedMinimumIdle;
+
+        private int registrations = 1;
+
+        private Allocation(String dynamicJdbcConfigName, int floor, int ceiling, boolean configuredCeiling, int grantedSize,
+                           int configuredMinimumIdle) {
+            this.dynamicJdbcConfigName = dynamicJdbcConfigName;
+            this.floor = floor;
+            this.ceiling = ceiling;
+            this.configuredCeiling = configuredCeiling;
+            this.grantedSize = grantedSize;
+            this.configuredMinimumIdle = configuredMinimumIdle;
+            this.grantedMinimumIdle = configuredMinimumIdle;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.budget;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.RoutingDataSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * {@link DestructionAwareBeanPostProcessor} of the Child Context registers the {@link HikariDataSource pools} of the
+ * {@link DataSource} Beans to the {@link ConnectionBudget} of the Parent Context with the floor and the ceiling of the
+ * DynamicJdbcConfig, including the targets of {@link RoutingDataSource}, and unregisters them when the Beans are
+ * destroyed.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see ConnectionBudget
+ * @since 1.0.0
+ */
+public class ConnectionBudgetBeanPostProcessor implements DestructionAwareBeanPostProcessor, BeanFactoryAware {
+
+    private final String dynamicJdbcConfigName;
+
+    private final int maxConnections;
+
+    private final Duration rebalanceInterval;
+
+    private final int floor;
+
+    private final int ceiling;
+
+    private ConnectionBudget connectionBudget;
+
+    public ConnectionBudgetBeanPostProcessor(String dynamicJdbcConfigName, int maxConnections, Duration rebalanceInterval, int floor,
+                                             int ceiling) {
+        this.dynamicJdbcConfigName = dynamicJdbcConfigName;
+        this.maxConnections = maxConnections;
+        this.rebalanceInterval = rebalanceInterval;
+        this.floor = floor;
+        this.ceiling = ceiling;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        BeanFactory parentBeanFactory = ((ConfigurableListableBeanFactory) beanFactory).getParentBeanFactory();
+        ConfigurableListableBeanFactory budgetBeanFactory = parentBeanFactory instanceof ConfigurableListableBeanFactory ?
+                (ConfigurableListableBeanFactory) parentBeanFactory : (ConfigurableListableBeanFactory) beanFactory;
+        this.connectionBudget = ConnectionBudget.get(budgetBeanFactory, maxConnections, rebalanceInterval);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof DataSource) {
+            RoutingDataSource.findHikariDataSources((DataSource) bean)
+                    .forEach(dataSource -> connectionBudget.register(dataSource, dynamicJdbcConfigName, floor, ceiling));
+        }
+        return bean;
+    }
+
+    @Override
+    public void postProcessBeforeDestruction(Object bean, String beanName) throws BeansException {
+        RoutingDataSource.findHikariDataSources((DataSource) bean).forEach(connectionBudget::unregister);
+    }
+
+    @Override
+    public boolean requiresDestruction(Object bean) {
+        return bean instanceof DataSource;
+    }
+}
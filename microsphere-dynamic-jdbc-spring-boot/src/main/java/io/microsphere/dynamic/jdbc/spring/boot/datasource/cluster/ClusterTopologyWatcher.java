@@ -0,0 +1,233 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.cluster;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcUtils.resolveDBClusterId;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcUtils.resolveDatabaseHost;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+
+/**
+ * The watcher of the topologies of the database clusters keyed by the cluster id, which checks the writer of each
+ * cluster periodically by {@link ClusterWriterResolver}, and soft-evicts the connections of the
+ * {@link HikariDataSource pools} to the cluster once its writer is changed : the idle connections are closed at once,
+ * and the in-use ones are closed when they are returned, thus the pools reconnect to the new writer without waiting
+ * for the connections to the demoted node to fail.
+ * <p>
+ * Only the pools to the Aurora-style cluster endpoints (e.g. "${cluster id}.cluster-${suffix}.${region}.rds.amazonaws.com")
+ * are watched, the reader endpoints ("cluster-ro-") are not.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see ClusterWriterResolver
+ * @see HikariPoolMXBean#softEvictConnections()
+ * @since 1.0.0
+ */
+public class ClusterTopologyWatcher implements Runnable, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterTopologyWatcher.class);
+
+    public static final String BEAN_NAME = "clusterTopologyWatcher";
+
+    private final ClusterWriterResolver clusterWriterResolver;
+
+    private final long checkInterval;
+
+    private final Map<String, ClusterTopology> clusterTopologies = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    private ScheduledFuture<?> future;
+
+    private volatile boolean destroyed;
+
+    public ClusterTopologyWatcher(ClusterWriterResolver clusterWriterResolver, Duration checkInterval) {
+        this.clusterWriterResolver = clusterWriterResolver;
+        this.checkInterval = Math.max(1, checkInterval.toMillis());
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ClusterTopologyWatcher-");
+        threadFactory.setDaemon(true);
+        this.scheduler = newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    /**
+     * Get or register the {@link ClusterTopologyWatcher} of the {@link ConfigurableListableBeanFactory BeanFactory} of
+     * the Parent Context, the {@link ClusterWriterResolver} Bean is used if present, or {@link DnsClusterWriterResolver}
+     *
+     * @param beanFactory   the {@link ConfigurableListableBeanFactory BeanFactory} of the Parent Context
+     * @param checkInterval the interval to check the writers if it's registered
+     * @return non-null
+     */
+    public static ClusterTopologyWatcher get(ConfigurableListableBeanFactory beanFactory, Duration checkInterval) {
+        synchronized (beanFactory) {
+            if (beanFactory.containsSingleton(BEAN_NAME)) {
+                return (ClusterTopologyWatcher) beanFactory.getSingleton(BEAN_NAME);
+            }
+            ClusterWriterResolver clusterWriterResolver = beanFactory.getBeanProvider(ClusterWriterResolver.class)
+                    .getIfAvailable(DnsClusterWriterResolver::new);
+            ClusterTopologyWatcher watcher = new ClusterTopologyWatcher(clusterWriterResolver, checkInterval);
+            beanFactory.registerSingleton(BEAN_NAME, watcher);
+            if (beanFactory instanceof DefaultSingletonBeanRegistry) {
+                // Stop watching when the Parent Context is closing
+                ((DefaultSingletonBeanRegistry) beanFactory).registerDisposableBean(BEAN_NAME, watcher);
+            }
+            return watcher;
+        }
+    }
+
+    /**
+     * Register the {@link HikariDataSource} if its JDBC URL points to the cluster endpoint
+     *
+     * @param dataSource {@link HikariDataSource}
+     * @return <code>true</code> if registered
+     */
+    public boolean register(HikariDataSource dataSource) {
+        String clusterEndpoint = resolveDatabaseHost(dataSource.getJdbcUrl());
+        if (destroyed || !isClusterEndpoint(clusterEndpoint)) {
+            return false;
+        }
+        String clusterId = resolveDBClusterId(clusterEndpoint);
+        clusterTopologies.compute(clusterId, (id, clusterTopology) -> {
+            if (clusterTopology == null) {
+                clusterTopology = new ClusterTopology(id, clusterEndpoint);
+            }
+            // The shared pool is registered by each DynamicJdbcConfig that leases it
+            clusterTopology.dataSources.merge(dataSource, 1, Integer::sum);
+            return clusterTopology;
+        });
+        logger.debug("HikariDataSource[pool name : '{}'] was registered to the cluster['{}']", dataSource.getPoolName(), clusterId);
+        start();
+        return true;
+    }
+
+    /**
+     * Unregister the {@link HikariDataSource}
+     *
+     * @param dataSource {@link HikariDataSource}
+     */
+    public void unregister(HikariDataSource dataSource) {
+        for (String clusterId : clusterTopologies.keySet()) {
+            clusterTopologies.computeIfPresent(clusterId, (id, clusterTopology) -> {
+                clusterTopology.dataSources.computeIfPresent(dataSource, (key, count) -> count > 1 ? count - 1 : null);
+                return clusterTopology.dataSources.isEmpty() ? null : clusterTopology;
+            });
+        }
+    }
+
+    @Override
+    public void run() {
+        clusterTopologies.values().forEach(this::check);
+    }
+
+    /**
+     * Check the writer of the cluster, and soft-evict the connections of its pools if the writer was changed
+     *
+     * @param clusterTopology {@link ClusterTopology}
+     */
+    private void check(ClusterTopology clusterTopology) {
+        String clusterId = clusterTopology.clusterId;
+        String writer;
+        try {
+            writer = clusterWriterResolver.resolveWriter(clusterId, clusterTopology.clusterEndpoint);
+        } catch (Throwable e) {
+            logger.debug("The writer of cluster['{}'] failed to be resolved", clusterId, e);
+            return;
+        }
+        if (writer == null) {
+            return;
+        }
+        String previousWriter = clusterTopology.writer;
+        clusterTopology.writer = writer;
+        if (previousWriter == null || previousWriter.equals(writer)) {
+            return;
+        }
+        logger.warn("The writer of cluster['{}'] was changed from '{}' to '{}' , the connections of {} pools will be soft-evicted",
+                clusterId, previousWriter, writer, clusterTopology.dataSources.size());
+        for (HikariDataSource dataSource : clusterTopology.dataSources.keySet()) {
+            HikariPoolMXBean poolMXBean = dataSource.getHikariPoolMXBean();
+            if (poolMXBean == null || dataSource.isClosed()) {
+                // Not started or closed
+                continue;
+            }
+            try {
+                poolMXBean.softEvictConnections();
+            } catch (Throwable e) {
+                logger.warn("HikariDataSource[pool name : '{}'] failed to soft-evict the connections", dataSource.getPoolName(), e);
+            }
+        }
+    }
+
+    /**
+     * Get the last resolved writer of the cluster
+     *
+     * @param clusterId the id of database cluster
+     * @return <code>null</code> if not resolved or the cluster is not watched
+     */
+    public String getWriter(String clusterId) {
+        ClusterTopology clusterTopology = clusterTopologies.get(clusterId);
+        return clusterTopology == null ? null : clusterTopology.writer;
+    }
+
+    /**
+     * Get the ids of the watched clusters
+     *
+     * @return non-null
+     */
+    public Set<String> getClusterIds() {
+        return clusterTopologies.keySet();
+    }
+
+    @Override
+    public void destroy() {
+        destroyed = true;
+        scheduler.shutdownNow();
+        clusterTopologies.clear();
+    }
+
+    private synchronized void start() {
+        if (future != null || destroyed) {
+            return;
+        }
+        try {
+            future = scheduler.scheduleWithFixedDelay(this, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+            logger.info("The cluster topology watcher started , check interval : {} ms , resolver : {}", checkInterval,
+                    clusterWriterResolver.getClass().getName());
+        } catch (RejectedExecutionException e) {
+            logger.debug("The cluster topology watcher has been destroyed");
+        }
+    }
+
+    static boolean isClusterEndpoint(String databaseHost) {
+        return resolveDBClusterId(databaseHost) != null && databaseHost.contains(".cluster-")
+                && !databaseHost.contains(".cluster-ro-");
+    }
+
+    private static class ClusterTopology {
+
+        private final String clusterId;
+
+        private final String clusterEndpoint;
+
+        private final Map<HikariDataSource, Integer> dataSources = new ConcurrentHashMap<>();
+
+        private volatile String writer;
+
+        private ClusterTopology(String clusterId, String clusterEndpoint) {
+            this.clusterId = clusterId;
+            this.clusterEndpoint = clusterEndpoint;
+        }
+    }
+}
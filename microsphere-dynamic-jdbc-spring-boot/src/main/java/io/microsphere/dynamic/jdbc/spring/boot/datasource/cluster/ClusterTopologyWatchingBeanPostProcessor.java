@@ -0,0 +1,58 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.cluster;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.RoutingDataSource;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.DestructionAwareBeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * {@link DestructionAwareBeanPostProcessor} of the Child Context registers the {@link HikariDataSource pools} of the
+ * {@link DataSource} Beans to the {@link ClusterTopologyWatcher} of the Parent Context, including the targets of
+ * {@link RoutingDataSource}, and unregisters them when the Beans are destroyed.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see ClusterTopologyWatcher
+ * @since 1.0.0
+ */
+public class ClusterTopologyWatchingBeanPostProcessor implements DestructionAwareBeanPostProcessor, BeanFactoryAware {
+
+    private final Duration checkInterval;
+
+    private ClusterTopologyWatcher clusterTopologyWatcher;
+
+    public ClusterTopologyWatchingBeanPostProcessor(Duration checkInterval) {
+        this.checkInterval = checkInterval;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        BeanFactory parentBeanFactory = ((ConfigurableListableBeanFactory) beanFactory).getParentBeanFactory();
+        ConfigurableListableBeanFactory watcherBeanFactory = parentBeanFactory instanceof ConfigurableListableBeanFactory ?
+                (ConfigurableListableBeanFactory) parentBeanFactory : (ConfigurableListableBeanFactory) beanFactory;
+        this.clusterTopologyWatcher = ClusterTopologyWatcher.get(watcherBeanFactory, checkInterval);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (bean instanceof DataSource) {
+            RoutingDataSource.findHikariDataSources((DataSource) bean).forEach(clusterTopologyWatcher::register);
+        }
+        return bean;
+    }
+
+    @Override
+    public void postProcessBeforeDestruction(Object bean, String beanName) throws BeansException {
+        RoutingDataSource.findHikariDataSources((DataSource) bean).forEach(clusterTopologyWatcher::unregister);
+    }
+
+    @Override
+    public boolean requiresDestruction(Object bean) {
+        return bean instanceof DataSource;
+    }
+}
@@ -0,0 +1,28 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.cluster;
+
+/**
+ * The resolver of the current writer of the database cluster, e.g. the addresses that the cluster endpoint of Aurora
+ * is resolved to, which are changed once the cluster fails over its writer.
+ * <p>
+ * The {@link ClusterWriterResolver} Bean of the Parent Context takes precedence over
+ * {@link DnsClusterWriterResolver}.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see ClusterTopologyWatcher
+ * @see DnsClusterWriterResolver
+ * @see StaticClusterWriterResolver
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface ClusterWriterResolver {
+
+    /**
+     * Resolve the current writer of the database cluster
+     *
+     * @param clusterId       the id of database cluster
+     * @param clusterEndpoint the host of the cluster endpoint
+     * @return the identity of the writer, or <code>null</code> if unknown
+     * @throws Exception if failed to resolve
+     */
+    String resolveWriter(String clusterId, String clusterEndpoint) throws Exception;
+}
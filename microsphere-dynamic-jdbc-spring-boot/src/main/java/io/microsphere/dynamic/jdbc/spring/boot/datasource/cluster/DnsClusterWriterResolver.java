@@ -0,0 +1,26 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.cluster;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+
+/**
+ * {@link ClusterWriterResolver} resolves the writer as the sorted addresses of the cluster endpoint by DNS, the cluster
+ * endpoint of Aurora is the CNAME of the instance endpoint of current writer.
+ * <p>
+ * The addresses are cached by the JVM for "networkaddress.cache.ttl" seconds, which should be less than the check
+ * interval of {@link ClusterTopologyWatcher}.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class DnsClusterWriterResolver implements ClusterWriterResolver {
+
+    @Override
+    public String resolveWriter(String clusterId, String clusterEndpoint) throws Exception {
+        String[] addresses = Arrays.stream(InetAddress.getAllByName(clusterEndpoint))
+                .map(InetAddress::getHostAddress)
+                .sorted()
+                .toArray(String[]::new);
+        return addresses.length == 0 ? null : String.join(",", addresses);
+    }
+}
@@ -0,0 +1,31 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.cluster;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The local stand-in {@link ClusterWriterResolver} whose writers are set manually, which simulates the failovers of
+ * the database clusters in the tests or the local environment.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class StaticClusterWriterResolver implements ClusterWriterResolver {
+
+    private final Map<String, String> writers = new ConcurrentHashMap<>();
+
+    @Override
+    public String resolveWriter(String clusterId, String clusterEndpoint) {
+        return writers.get(clusterId);
+    }
+
+    /**
+     * Set the writer of the database cluster
+     *
+     * @param clusterId the id of database cluster
+     * @param writer    the identity of the writer
+     */
+    public void setWriter(String clusterId, String writer) {
+        writers.put(clusterId, writer);
+    }
+}
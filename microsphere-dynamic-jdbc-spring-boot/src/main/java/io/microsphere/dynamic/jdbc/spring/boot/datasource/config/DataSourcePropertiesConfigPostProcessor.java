@@ -5,6 +5,7 @@ import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
 import io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants;
 import io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils;
 import io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils;
+import io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcUtils;
 import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.boot.jdbc.DatabaseDriver;
@@ -12,6 +13,7 @@ import org.springframework.context.EnvironmentAware;
 import org.springframework.core.env.ConfigurableEnvironment;
 import org.springframework.core.env.Environment;
 import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.util.HashMap;
@@ -50,6 +52,19 @@ public class DataSourcePropertiesConfigPostProcessor extends AbstractConfigPostP
             return;
         }
 
+        processDataSourcePropertiesList(dataSourcePropertiesList, dynamicJdbcConfig, shardingJdbcConfigPropertyName);
+
+        // The lists of the other zones are processed as well, they may be failed over or promoted at runtime
+        dynamicJdbcConfig.getHighAvailabilityDataSourcePropertiesMap().values().forEach(zoneDataSourcePropertiesList -> {
+            if (zoneDataSourcePropertiesList != dataSourcePropertiesList && !CollectionUtils.isEmpty(zoneDataSourcePropertiesList)) {
+                processDataSourcePropertiesList(zoneDataSourcePropertiesList, dynamicJdbcConfig, shardingJdbcConfigPropertyName);
+            }
+        });
+    }
+
+    private void processDataSourcePropertiesList(List<Map<String, String>> dataSourcePropertiesList, DynamicJdbcConfig dynamicJdbcConfig,
+                                                 String shardingJdbcConfigPropertyName) {
+        int size = dataSourcePropertiesList.size();
         for (int i = 0; i < size; i++) {
             Map<String, String> dataSourceProperties = dataSourcePropertiesList.get(i);
             // previousDataSourceProperties will be used to copy its properties to target DataSource
@@ -70,8 +85,9 @@ public class DataSourcePropertiesConfigPostProcessor extends AbstractConfigPostP
         processDataSourceType(dataSourceProperties, previousDataSourceProperties);
         String jdbcURL = processDataSourceUrl(dataSourceProperties);
         processDataSourceDriverClassName(dataSourceProperties, previousDataSourceProperties, jdbcURL);
-        processDataSourceUserName(dataSourceProperties, previousDataSourceProperties);
-        processDataSourcePassword(dataSourceProperties, previousDataSourceProperties);
+        String databaseClusterId = resolveDBClusterId(jdbcURL);
+        processDataSourceUserName(dataSourceProperties, previousDataSourceProperties, databaseClusterId);
+        processDataSourcePassword(dataSourceProperties, previousDataSourceProperties, databaseClusterId);
         processDataSourceOthers(dataSourceProperties, previousDataSourceProperties);
     }
 
@@ -121,8 +137,16 @@ public class DataSourcePropertiesConfigPostProcessor extends AbstractConfigPostP
         return driverClassName;
     }
 
-    private void processDataSourceUserName(Map<String, String> dataSourceProperties, Map<String, String> previousDataSourceProperties) {
+    private String resolveDBClusterId(String jdbcURL) {
+        String databaseHost = DynamicJdbcUtils.resolveDatabaseHost(jdbcURL);
+        return DynamicJdbcUtils.resolveDBClusterId(databaseHost);
+    }
+
+    private void processDataSourceUserName(Map<String, String> dataSourceProperties, Map<String, String> previousDataSourceProperties,
+                                           String databaseClusterId) {
         String propertyName = DataSourceConstants.USER_NAME_PROPERTY_NAME;
+        // The cluster user-name takes precedence over the previous one
+        setPropertyIfAbsent(dataSourceProperties, () -> DynamicJdbcPropertyUtils.getClusterDataSourceUserName(environment, databaseClusterId), propertyName);
         setPropertyIfAbsent(dataSourceProperties, previousDataSourceProperties, propertyName);
 
         // No user-name set, used default value
@@ -131,8 +155,11 @@ public class DataSourcePropertiesConfigPostProcessor extends AbstractConfigPostP
         }
     }
 
-    private void processDataSourcePassword(Map<String, String> dataSourceProperties, Map<String, String> previousDataSourceProperties) {
+    private void processDataSourcePassword(Map<String, String> dataSourceProperties, Map<String, String> previousDataSourceProperties,
+                                           String databaseClusterId) {
         String propertyName = DataSourceConstants.PASSWORD_NAME_PROPERTY_NAME;
+        // The cluster password takes precedence over the previous one
+        setPropertyIfAbsent(dataSourceProperties, () -> DynamicJdbcPropertyUtils.getClusterDataSourcePassword(environment, databaseClusterId), propertyName);
         setPropertyIfAbsent(dataSourceProperties, previousDataSourceProperties, propertyName);
 
         // No password set, used default value
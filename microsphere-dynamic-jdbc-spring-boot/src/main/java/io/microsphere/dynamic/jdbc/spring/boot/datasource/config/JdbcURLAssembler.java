@@ -6,10 +6,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 
 import java.net.URI;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Dynamic JDBC URL Assembler
@@ -63,6 +65,44 @@ public class JdbcURLAssembler {
         return url;
     }
 
+    /**
+     * Canonicalize the assembled JDBC URL as the identity of the database connection, the scheme and the hosts are
+     * lower-cased, and the query parameters are sorted by name, the opaque one (e.g. "jdbc:h2:mem:test") is trimmed
+     * only.
+     *
+     * @param jdbcURL the assembled JDBC URL
+     * @return the canonical JDBC URL
+     */
+    public static String canonicalize(String jdbcURL) {
+        if (StringUtils.isBlank(jdbcURL)) {
+            return jdbcURL;
+        }
+        String url = StringUtils.trim(jdbcURL);
+        if (!StringUtils.startsWith(url, JDBC_URL_PREFIX) || !StringUtils.contains(url, PROTOCOL_SEPARATOR)) {
+            return url;
+        }
+        URI uri;
+        try {
+            uri = URI.create(StringUtils.substring(url, JDBC_URL_PREFIX_LENGTH));
+        } catch (IllegalArgumentException e) {
+            logger.debug("The JDBC URL can't be canonicalized : {}", url, e);
+            return url;
+        }
+        if (uri.isOpaque() || uri.getRawAuthority() == null) {
+            return url;
+        }
+        MultiValueMap<String, String> queryParams = new LinkedMultiValueMap<>(new TreeMap<>(URLUtils.parseQueryParams(uri)));
+        StringBuilder canonicalURL = new StringBuilder(JDBC_URL_PREFIX)
+                .append(StringUtils.lowerCase(uri.getScheme()))
+                .append(':').append(PROTOCOL_SEPARATOR)
+                .append(StringUtils.lowerCase(uri.getRawAuthority()))
+                .append(StringUtils.defaultString(uri.getRawPath()));
+        if (!queryParams.isEmpty()) {
+            canonicalURL.append(URLUtils.QUERY_STRING_SEPARATOR).append(URLUtils.buildQueryString(queryParams));
+        }
+        return canonicalURL.toString();
+    }
+
     private String normalize(String rawJdbcURL) {
         String url = StringUtils.trim(rawJdbcURL);
         String protocol = StringUtils.substringBetween(url, JDBC_URL_PREFIX, PROTOCOL_SEPARATOR);
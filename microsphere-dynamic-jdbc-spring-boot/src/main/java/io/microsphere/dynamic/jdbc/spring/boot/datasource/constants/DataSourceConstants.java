@@ -33,6 +33,16 @@ public interface DataSourceConstants {
 
     String PASSWORD_NAME_PROPERTY_NAME = "password";
 
+    /**
+     * The role of the datasource entry, "primary" or "replica"
+     */
+    String ROLE_PROPERTY_NAME = "role";
+
+    /**
+     * The weight of the datasource entry in load balancing, the non-negative integer, 0 drains the entry
+     */
+    String WEIGHT_PROPERTY_NAME = "weight";
+
     String HIKARI_DATASOURCE_CLASS_NAME = "com.zaxxer.hikari.HikariDataSource";
 
     String DEFAULT_DRIVER_CLASS_NAME = "com.mysql.cj.jdbc.Driver";
@@ -65,7 +75,296 @@ public interface DataSourceConstants {
     String DATA_SOURCE_DEFAULT_PASSWORD_PROPERTY_NAME =
             DATA_SOURCE_MODULE_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + DEFAULT_PASSWORD_PROPERTY_NAME;
 
+    String DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_PROPERTY_NAME_PREFIX = DATA_SOURCE_MODULE_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR
+            + DYNAMIC_CONTEXT_PROPERTY_NAME;
+
     String DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_CLOSE_DELAY_PROPERTY_NAME = DATA_SOURCE_MODULE_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR
             + DYNAMIC_CONTEXT_PROPERTY_NAME + PROPERTY_NAME_SEPARATOR + "close-delay";
 
+    String DYNAMIC_DATA_SOURCE_REFRESH_MODE_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "refresh-mode";
+
+    String DYNAMIC_DATA_SOURCE_REFRESH_QUEUE_CAPACITY_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "refresh-queue-capacity";
+
+    int DEFAULT_DYNAMIC_DATA_SOURCE_REFRESH_QUEUE_CAPACITY = 16;
+
+    String DYNAMIC_DATA_SOURCE_CREDENTIAL_EVICTION_INTERVAL_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "credential-eviction-interval";
+
+    String DYNAMIC_DATA_SOURCE_CREDENTIAL_EVICTION_BATCH_SIZE_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "credential-eviction-batch-size";
+
+    int DEFAULT_DYNAMIC_DATA_SOURCE_CREDENTIAL_EVICTION_BATCH_SIZE = 1;
+
+    String DYNAMIC_DATA_SOURCE_INITIALIZATION_TIMEOUT_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "initialization-timeout";
+
+    String DYNAMIC_DATA_SOURCE_SWAP_STRATEGY_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "swap-strategy";
+
+    String DYNAMIC_DATA_SOURCE_CANARY_PROPERTY_NAME_PREFIX =
+            DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "canary";
+
+    String DYNAMIC_DATA_SOURCE_CANARY_INITIAL_PERCENTAGE_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_CANARY_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "initial-percentage";
+
+    String DYNAMIC_DATA_SOURCE_CANARY_STEP_PERCENTAGE_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_CANARY_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "step-percentage";
+
+    String DYNAMIC_DATA_SOURCE_CANARY_STEP_INTERVAL_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_CANARY_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "step-interval";
+
+    String DYNAMIC_DATA_SOURCE_CANARY_MIN_SAMPLES_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_CANARY_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "min-samples";
+
+    String DYNAMIC_DATA_SOURCE_CANARY_MAX_ERROR_RATE_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_CANARY_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "max-error-rate";
+
+    String DYNAMIC_DATA_SOURCE_CANARY_MAX_ACQUIRE_LATENCY_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_CANARY_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "max-acquire-latency";
+
+    // The max duration that the canary holds for the min samples, zero means ten times the step interval
+    String DYNAMIC_DATA_SOURCE_CANARY_MAX_HOLD_TIME_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_CANARY_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "max-hold-time";
+
+    String DYNAMIC_DATA_SOURCE_PROBE_PROPERTY_NAME_PREFIX =
+            DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "probe";
+
+    String DYNAMIC_DATA_SOURCE_PROBE_ENABLED_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_PROBE_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "enabled";
+
+    String DYNAMIC_DATA_SOURCE_PROBE_VALIDATION_QUERY_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_PROBE_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "validation-query";
+
+    String DYNAMIC_DATA_SOURCE_PROBE_TIMEOUT_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_PROBE_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "timeout";
+
+    String DYNAMIC_DATA_SOURCE_PROBE_MAX_ATTEMPTS_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_PROBE_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "max-attempts";
+
+    String DYNAMIC_DATA_SOURCE_PROBE_INITIAL_BACKOFF_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_PROBE_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "initial-backoff";
+
+    String DYNAMIC_DATA_SOURCE_PROBE_MAX_BACKOFF_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_PROBE_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "max-backoff";
+
+    String DYNAMIC_DATA_SOURCE_PROBE_BACKOFF_MULTIPLIER_PROPERTY_NAME =
+            DYNAMIC_DATA_SOURCE_PROBE_PROPERTY_NAME_PREFIX + PROPERTY_NAME_SEPARATOR + "backoff-multiplier";
+
+    /**
+     * The property name suffix of the max random delay before the refresh, which can be overridden per
+     * DynamicJdbcConfig by "dynamic-context.${name}.swap-jitter"
+     */
+    String DYNAMIC_DATA_SOURCE_SWAP_JITTER_PROPERTY_NAME_SUFFIX = "swap-jitter";
+
+    /**
+     * The property name suffix of the count of idle connections that a new pool grows per step toward its
+     * minimumIdle, which can be overridden per DynamicJdbcConfig by "dynamic-context.${name}.ramp-up-step"
+     */
+    String DYNAMIC_DATA_SOURCE_RAMP_UP_STEP_PROPERTY_NAME_SUFFIX = "ramp-up-step";
+
+    /**
+     * The property name suffix of the interval between two ramp-up steps, which can be overridden per
+     * DynamicJdbcConfig by "dynamic-context.${name}.ramp-up-interval"
+     */
+    String DYNAMIC_DATA_SOURCE_RAMP_UP_INTERVAL_PROPERTY_NAME_SUFFIX = "ramp-up-interval";
+
+    /**
+     * The property name suffix of the window after a write, in which the read-only connections of current thread are
+     * still routed to the primary, which can be overridden per DynamicJdbcConfig by
+     * "dynamic-context.${name}.read-your-writes-window"
+     */
+    String DYNAMIC_DATA_SOURCE_READ_YOUR_WRITES_WINDOW_PROPERTY_NAME_SUFFIX = "read-your-writes-window";
+
+    /**
+     * The property name suffix of the load balancing strategy across the datasource entries without roles, which
+     * can be overridden per DynamicJdbcConfig by "dynamic-context.${name}.load-balancing-strategy"
+     */
+    String DYNAMIC_DATA_SOURCE_LOAD_BALANCING_STRATEGY_PROPERTY_NAME_SUFFIX = "load-balancing-strategy";
+
+    /**
+     * The property name suffix of the flag whether the 'ha-datasource' module fails over from the active zone to
+     * "defaultZone" by the circuit breaker, which can be overridden per DynamicJdbcConfig by
+     * "dynamic-context.${name}.zone-failover.enabled"
+     */
+    String DYNAMIC_DATA_SOURCE_ZONE_FAILOVER_ENABLED_PROPERTY_NAME_SUFFIX = "zone-failover.enabled";
+
+    /**
+     * The property name suffix of the count of the consecutive connection acquisition failures that opens the
+     * circuit breaker of the active zone
+     */
+    String DYNAMIC_DATA_SOURCE_ZONE_FAILOVER_FAILURE_THRESHOLD_PROPERTY_NAME_SUFFIX = "zone-failover.failure-threshold";
+
+    /**
+     * The property name suffix of the interval to probe the active zone whose circuit breaker is open
+     */
+    String DYNAMIC_DATA_SOURCE_ZONE_FAILOVER_PROBE_INTERVAL_PROPERTY_NAME_SUFFIX = "zone-failover.probe-interval";
+
+    /**
+     * The property name suffix of the timeout to validate the connection of the probe
+     */
+    String DYNAMIC_DATA_SOURCE_ZONE_FAILOVER_PROBE_TIMEOUT_PROPERTY_NAME_SUFFIX = "zone-failover.probe-timeout";
+
+    /**
+     * The property name suffix of the flag whether the 'ha-datasource' module keeps the warm standby pools of the
+     * non-active zones, which can be overridden per DynamicJdbcConfig by "dynamic-context.${name}.zone-standby.enabled"
+     */
+    String DYNAMIC_DATA_SOURCE_ZONE_STANDBY_ENABLED_PROPERTY_NAME_SUFFIX = "zone-standby.enabled";
+
+    /**
+     * The property name suffix of the minimumIdle of the standby pools
+     */
+    String DYNAMIC_DATA_SOURCE_ZONE_STANDBY_MINIMUM_IDLE_PROPERTY_NAME_SUFFIX = "zone-standby.minimum-idle";
+
+    /**
+     * The property name suffix of the flag whether the 'ha-datasource' module routes to the fastest healthy zone by
+     * the probed round-trip times, which can be overridden per DynamicJdbcConfig by
+     * "dynamic-context.${name}.zone-latency.enabled"
+     */
+    String DYNAMIC_DATA_SOURCE_ZONE_LATENCY_ENABLED_PROPERTY_NAME_SUFFIX = "zone-latency.enabled";
+
+    /**
+     * The property name suffix of the interval to probe the round-trip times of the zones
+     */
+    String DYNAMIC_DATA_SOURCE_ZONE_LATENCY_PROBE_INTERVAL_PROPERTY_NAME_SUFFIX = "zone-latency.probe-interval";
+
+    /**
+     * The property name suffix of the weight of the latest round-trip time in the EWMA, in (0, 1]
+     */
+    String DYNAMIC_DATA_SOURCE_ZONE_LATENCY_ALPHA_PROPERTY_NAME_SUFFIX = "zone-latency.alpha";
+
+    /**
+     * The property name suffix of the ratio that another zone must be faster than the active zone by before the
+     * switch, in [0, 1)
+     */
+    String DYNAMIC_DATA_SOURCE_ZONE_LATENCY_TOLERANCE_PROPERTY_NAME_SUFFIX = "zone-latency.tolerance";
+
+    /**
+     * The property name suffix of the flag whether the replicas of the datasource list are excluded from the reads
+     * by the replication lag, which can be overridden per DynamicJdbcConfig by
+     * "dynamic-context.${name}.replication-lag.enabled"
+     */
+    String DYNAMIC_DATA_SOURCE_REPLICATION_LAG_ENABLED_PROPERTY_NAME_SUFFIX = "replication-lag.enabled";
+
+    /**
+     * The property name suffix of the query of the replication lag in seconds, e.g. the one of the heartbeat table
+     */
+    String DYNAMIC_DATA_SOURCE_REPLICATION_LAG_QUERY_PROPERTY_NAME_SUFFIX = "replication-lag.query";
+
+    /**
+     * The property name suffix of the column label of the replication lag in the result of the query
+     */
+    String DYNAMIC_DATA_SOURCE_REPLICATION_LAG_COLUMN_LABEL_PROPERTY_NAME_SUFFIX = "replication-lag.column-label";
+
+    /**
+     * The property name suffix of the max replication lag of the replicas that serve the reads
+     */
+    String DYNAMIC_DATA_SOURCE_REPLICATION_LAG_MAX_LAG_PROPERTY_NAME_SUFFIX = "replication-lag.max-lag";
+
+    /**
+     * The property name suffix of the interval to poll the replication lag
+     */
+    String DYNAMIC_DATA_SOURCE_REPLICATION_LAG_POLL_INTERVAL_PROPERTY_NAME_SUFFIX = "replication-lag.poll-interval";
+
+    /**
+     * The property name suffix of the timeout of the query of the replication lag
+     */
+    String DYNAMIC_DATA_SOURCE_REPLICATION_LAG_QUERY_TIMEOUT_PROPERTY_NAME_SUFFIX = "replication-lag.query-timeout";
+
+    /**
+     * The property name suffix of the flag whether the pools to the database cluster endpoints are watched by the
+     * writer of the cluster, which can be overridden per DynamicJdbcConfig by
+     * "dynamic-context.${name}.cluster-topology.enabled"
+     */
+    String DYNAMIC_DATA_SOURCE_CLUSTER_TOPOLOGY_ENABLED_PROPERTY_NAME_SUFFIX = "cluster-topology.enabled";
+
+    /**
+     * The property name suffix of the interval to check the writers of the database clusters, which is shared by all
+     * DynamicJdbcConfigs
+     */
+    String DYNAMIC_DATA_SOURCE_CLUSTER_TOPOLOGY_CHECK_INTERVAL_PROPERTY_NAME_SUFFIX = "cluster-topology.check-interval";
+
+    /**
+     * The property name suffix of the count of the striped sub-pools of the single datasource entry, which can be
+     * overridden per DynamicJdbcConfig by "dynamic-context.${name}.striped.stripes", 1 means not striped
+     */
+    String DYNAMIC_DATA_SOURCE_STRIPES_PROPERTY_NAME_SUFFIX = "striped.stripes";
+
+    /**
+     * The property name suffix of the flag whether the single datasource entry shares the physical pool with the
+     * other DynamicJdbcConfigs that target the same JDBC URL and user, which can be overridden per DynamicJdbcConfig by
+     * "dynamic-context.${name}.shared-pool.enabled"
+     */
+    String DYNAMIC_DATA_SOURCE_SHARED_POOL_ENABLED_PROPERTY_NAME_SUFFIX = "shared-pool.enabled";
+
+    /**
+     * The property name suffix of the max count of the connections of the shared pool that the DynamicJdbcConfig
+     * could hold at the same time, 0 means no limit
+     */
+    String DYNAMIC_DATA_SOURCE_SHARED_POOL_QUOTA_PROPERTY_NAME_SUFFIX = "shared-pool.quota";
+
+    /**
+     * The property name suffix of the max connections of all pools built by Dynamic JDBC, which is shared by all
+     * DynamicJdbcConfigs, 0 means no budget
+     */
+    String DYNAMIC_DATA_SOURCE_CONNECTION_BUDGET_MAX_CONNECTIONS_PROPERTY_NAME_SUFFIX = "connection-budget.max-connections";
+
+    /**
+     * The property name suffix of the interval to redistribute the connection budget among the pools
+     */
+    String DYNAMIC_DATA_SOURCE_CONNECTION_BUDGET_REBALANCE_INTERVAL_PROPERTY_NAME_SUFFIX = "connection-budget.rebalance-interval";
+
+    /**
+     * The property name suffix of the min maximumPoolSize of each pool of the DynamicJdbcConfig under the budget,
+     * which can be overridden per DynamicJdbcConfig by "dynamic-context.${name}.connection-budget.floor"
+     */
+    String DYNAMIC_DATA_SOURCE_CONNECTION_BUDGET_FLOOR_PROPERTY_NAME_SUFFIX = "connection-budget.floor";
+
+    /**
+     * The property name suffix of the max maximumPoolSize of each pool of the DynamicJdbcConfig under the budget,
+     * 0 means its configured maximumPoolSize
+     */
+    String DYNAMIC_DATA_SOURCE_CONNECTION_BUDGET_CEILING_PROPERTY_NAME_SUFFIX = "connection-budget.ceiling";
+
+    /**
+     * The property name suffix of the comma-delimited names of the workload lanes of the DynamicJdbcConfig, e.g.
+     * "oltp,batch", the lane "default" admits the connections out of any configured lane
+     */
+    String DYNAMIC_DATA_SOURCE_WORKLOAD_LANES_NAMES_PROPERTY_NAME_SUFFIX = "workload-lanes.names";
+
+    /**
+     * The property name suffix prefix of the workload lane, e.g. "workload-lanes.batch.max-concurrency"
+     */
+    String DYNAMIC_DATA_SOURCE_WORKLOAD_LANE_PROPERTY_NAME_SUFFIX_PREFIX = "workload-lanes";
+
+    /**
+     * The property name suffix of the max count of the connections held by the workload lane, 0 means no limit
+     */
+    String DYNAMIC_DATA_SOURCE_WORKLOAD_LANE_MAX_CONCURRENCY_PROPERTY_NAME_SUFFIX = "max-concurrency";
+
+    /**
+     * The property name suffix of the max count of the threads waiting for the workload lane, negative means no bound
+     */
+    String DYNAMIC_DATA_SOURCE_WORKLOAD_LANE_MAX_QUEUE_PROPERTY_NAME_SUFFIX = "max-queue";
+
+    /**
+     * The property name suffix of the max time to wait for the workload lane
+     */
+    String DYNAMIC_DATA_SOURCE_WORKLOAD_LANE_TIMEOUT_PROPERTY_NAME_SUFFIX = "timeout";
+
+    /**
+     * The property name suffix of the default query timeout of the statements created by the connections of
+     * DynamicDataSource, which can be overridden per DynamicJdbcConfig by "dynamic-context.${name}.statement.query-timeout",
+     * 0 means no timeout
+     */
+    String DYNAMIC_DATA_SOURCE_STATEMENT_QUERY_TIMEOUT_PROPERTY_NAME_SUFFIX = "statement.query-timeout";
+
+    /**
+     * The property name suffix of the flag whether DynamicDataSource hands out the logical connections that acquire
+     * the physical ones on the first use, which can be overridden per DynamicJdbcConfig by
+     * "dynamic-context.${name}.lazy-connection.enabled"
+     */
+    String DYNAMIC_DATA_SOURCE_LAZY_CONNECTION_ENABLED_PROPERTY_NAME_SUFFIX = "lazy-connection.enabled";
+
 }
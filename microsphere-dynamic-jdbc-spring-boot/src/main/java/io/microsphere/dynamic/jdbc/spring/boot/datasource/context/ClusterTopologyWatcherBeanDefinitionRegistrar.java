@@ -0,0 +1,49 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.context;
+
+import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
+import io.microsphere.dynamic.jdbc.spring.boot.context.AbstractConfigBeanDefinitionRegistrar;
+import io.microsphere.dynamic.jdbc.spring.boot.context.ConfigBeanDefinitionRegistrar;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.cluster.ClusterTopologyWatcher;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.cluster.ClusterTopologyWatchingBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+
+import java.time.Duration;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils.resolveSourceDynamicJdbcConfigName;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceClusterTopologyCheckInterval;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isDynamicDataSourceClusterTopologyEnabled;
+import static org.springframework.beans.factory.support.BeanDefinitionBuilder.genericBeanDefinition;
+
+/**
+ * {@link ConfigBeanDefinitionRegistrar} for {@link ClusterTopologyWatchingBeanPostProcessor} that registers the pools
+ * of the DataSource Beans to {@link ClusterTopologyWatcher} if the cluster topology is enabled
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see ClusterTopologyWatcher
+ * @since 1.0.0
+ */
+public class ClusterTopologyWatcherBeanDefinitionRegistrar extends AbstractConfigBeanDefinitionRegistrar {
+
+    public static final String BEAN_NAME = "clusterTopologyWatchingBeanPostProcessor";
+
+    @Override
+    public void register(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName, BeanDefinitionRegistry registry) {
+        if (dynamicJdbcConfig.isDynamic()) {
+            // The DataSource of dynamic config is built in its own child context
+            return;
+        }
+        String dynamicJdbcConfigName = resolveSourceDynamicJdbcConfigName(dynamicJdbcConfig);
+        if (!isDynamicDataSourceClusterTopologyEnabled(environment, dynamicJdbcConfigName)) {
+            return;
+        }
+        Duration checkInterval = getDynamicDataSourceClusterTopologyCheckInterval(environment);
+        AbstractBeanDefinition beanDefinition = genericBeanDefinition(ClusterTopologyWatchingBeanPostProcessor.class,
+                () -> new ClusterTopologyWatchingBeanPostProcessor(checkInterval))
+                .getBeanDefinition();
+        beanDefinition.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+        registry.registerBeanDefinition(BEAN_NAME, beanDefinition);
+        logger.debug("DynamicJdbcConfig[name : '{}'] registers the ClusterTopologyWatchingBeanPostProcessor", dynamicJdbcConfigName);
+    }
+}
@@ -0,0 +1,55 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.context;
+
+import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
+import io.microsphere.dynamic.jdbc.spring.boot.context.AbstractConfigBeanDefinitionRegistrar;
+import io.microsphere.dynamic.jdbc.spring.boot.context.ConfigBeanDefinitionRegistrar;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.budget.ConnectionBudget;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.budget.ConnectionBudgetBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+
+import java.time.Duration;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils.resolveSourceDynamicJdbcConfigName;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceConnectionBudgetCeiling;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceConnectionBudgetFloor;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceConnectionBudgetMaxConnections;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceConnectionBudgetRebalanceInterval;
+import static org.springframework.beans.factory.support.BeanDefinitionBuilder.genericBeanDefinition;
+
+/**
+ * {@link ConfigBeanDefinitionRegistrar} for {@link ConnectionBudgetBeanPostProcessor} that registers the pools of the
+ * DataSource Beans to {@link ConnectionBudget} if the max connections of the budget is configured
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see ConnectionBudget
+ * @since 1.0.0
+ */
+public class ConnectionBudgetBeanDefinitionRegistrar extends AbstractConfigBeanDefinitionRegistrar {
+
+    public static final String BEAN_NAME = "connectionBudgetBeanPostProcessor";
+
+    @Override
+    public void register(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName, BeanDefinitionRegistry registry) {
+        if (dynamicJdbcConfig.isDynamic()) {
+            // The DataSource of dynamic config is built in its own child context
+            return;
+        }
+        int maxConnections = getDynamicDataSourceConnectionBudgetMaxConnections(environment);
+        if (maxConnections < 1) {
+            return;
+        }
+        String dynamicJdbcConfigName = resolveSourceDynamicJdbcConfigName(dynamicJdbcConfig);
+        Duration rebalanceInterval = getDynamicDataSourceConnectionBudgetRebalanceInterval(environment);
+        int floor = getDynamicDataSourceConnectionBudgetFloor(environment, dynamicJdbcConfigName);
+        int ceiling = getDynamicDataSourceConnectionBudgetCeiling(environment, dynamicJdbcConfigName);
+        AbstractBeanDefinition beanDefinition = genericBeanDefinition(ConnectionBudgetBeanPostProcessor.class,
+                () -> new ConnectionBudgetBeanPostProcessor(dynamicJdbcConfigName, maxConnections, rebalanceInterval, floor, ceiling))
+                .getBeanDefinition();
+        beanDefinition.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+        registry.registerBeanDefinition(BEAN_NAME, beanDefinition);
+        logger.debug("DynamicJdbcConfig[name : '{}'] registers the ConnectionBudgetBeanPostProcessor , floor : {} , ceiling : {}",
+                dynamicJdbcConfigName, floor, ceiling);
+    }
+}
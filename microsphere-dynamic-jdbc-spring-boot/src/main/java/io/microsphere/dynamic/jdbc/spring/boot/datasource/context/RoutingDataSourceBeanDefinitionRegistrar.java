@@ -0,0 +1,169 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.context;
+
+import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
+import io.microsphere.dynamic.jdbc.spring.boot.context.AbstractConfigBeanDefinitionRegistrar;
+import io.microsphere.dynamic.jdbc.spring.boot.context.ConfigBeanDefinitionRegistrar;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.ReadWriteSplittingDataSource;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.ReplicationLagMeterBinder;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.ReplicationLagMonitor;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.RoutingDataSource;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.RoutingDataSourceFactory;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.sharing.SharedPoolDataSource;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.sharing.SharedPoolMeterBinder;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.sharing.SharedPoolRegistry;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils.resolveSourceDynamicJdbcConfigName;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceSharedPoolQuota;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceStripes;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isDynamicDataSourceSharedPoolEnabled;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isDynamicDataSourceZoneFailoverEnabled;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isDynamicDataSourceZoneLatencyEnabled;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isDynamicDataSourceZoneStandbyEnabled;
+import static org.springframework.beans.factory.support.BeanDefinitionBuilder.genericBeanDefinition;
+import static org.springframework.util.ClassUtils.isPresent;
+
+/**
+ * {@link ConfigBeanDefinitionRegistrar} for {@link RoutingDataSource} that routes the connections to the multiple
+ * entries of the datasource list without ShardingSphere, or to the zones of 'ha-datasource' module if the zone
+ * failover, standby or latency routing is enabled, or to the pool of the single entry shared with the other
+ * DynamicJdbcConfigs if "dynamic-context.${name}.shared-pool.enabled" is true, or to the striped sub-pools of the
+ * single entry if "dynamic-context.${name}.striped.stripes" is greater than 1
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see RoutingDataSourceFactory
+ * @since 1.0.0
+ */
+public class RoutingDataSourceBeanDefinitionRegistrar extends AbstractConfigBeanDefinitionRegistrar {
+
+    public static final String BEAN_NAME = "routingDataSource";
+
+    private static final String METER_REGISTRY_CLASS_NAME = "io.micrometer.core.instrument.MeterRegistry";
+
+    @Override
+    public void register(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName, BeanDefinitionRegistry registry) {
+        if (dynamicJdbcConfig.isDynamic() || dynamicJdbcConfig.hasShardingDataSource()) {
+            // The DataSource of dynamic config is built in its own child context
+            return;
+        }
+        String dynamicJdbcConfigName = resolveSourceDynamicJdbcConfigName(dynamicJdbcConfig);
+        if (dynamicJdbcConfig.hasHighAvailabilityDataSource() && (isDynamicDataSourceZoneFailoverEnabled(environment, dynamicJdbcConfigName)
+                || isDynamicDataSourceZoneStandbyEnabled(environment, dynamicJdbcConfigName)
+                || isDynamicDataSourceZoneLatencyEnabled(environment, dynamicJdbcConfigName))) {
+            registerHighAvailabilityDataSource(dynamicJdbcConfig, dynamicJdbcConfigName, registry);
+            return;
+        }
+        List<Map<String, String>> dataSourcePropertiesList = dynamicJdbcConfig.getDataSourcePropertiesList();
+        if (dataSourcePropertiesList == null || dataSourcePropertiesList.isEmpty()) {
+            return;
+        }
+        if (dataSourcePropertiesList.size() == 1) {
+            if (isDynamicDataSourceSharedPoolEnabled(environment, dynamicJdbcConfigName)) {
+                registerSharedPoolDataSource(dataSourcePropertiesList.get(0), dynamicJdbcConfigName, registry);
+            } else {
+                registerStripedDataSource(dataSourcePropertiesList.get(0), dynamicJdbcConfigName, registry);
+            }
+            return;
+        }
+        // Take a snapshot, the list of ha-datasource depends on current zone
+        List<Map<String, String>> snapshot = copy(dataSourcePropertiesList);
+        BeanDefinition beanDefinition = genericBeanDefinition(RoutingDataSource.class,
+                () -> bindMetrics(RoutingDataSourceFactory.create(snapshot, dynamicJdbcConfigName, environment, classLoader),
+                        dynamicJdbcConfigName))
+                .getBeanDefinition();
+        registry.registerBeanDefinition(BEAN_NAME, beanDefinition);
+        logger.debug("DynamicJdbcConfig[name : '{}'] registers the RoutingDataSource for {} datasource entries", dynamicJdbcConfigName,
+                snapshot.size());
+    }
+
+    private void registerHighAvailabilityDataSource(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigName,
+                                                    BeanDefinitionRegistry registry) {
+        Map<String, List<Map<String, String>>> snapshot = new LinkedHashMap<>();
+        dynamicJdbcConfig.getHighAvailabilityDataSourcePropertiesMap().forEach((zone, dataSourcePropertiesList) -> {
+            if (dataSourcePropertiesList != null) {
+                snapshot.put(zone, copy(dataSourcePropertiesList));
+            }
+        });
+        String activeZone = dynamicJdbcConfig.getZoneContext().getZone();
+        BeanDefinition beanDefinition = genericBeanDefinition(RoutingDataSource.class,
+                () -> RoutingDataSourceFactory.createHighAvailabilityDataSource(snapshot, activeZone, dynamicJdbcConfigName, environment,
+                        classLoader))
+                .getBeanDefinition();
+        registry.registerBeanDefinition(BEAN_NAME, beanDefinition);
+        logger.debug("DynamicJdbcConfig[name : '{}'] registers the HighAvailabilityDataSource with the active zone '{}' , zones : {}",
+                dynamicJdbcConfigName, activeZone, snapshot.keySet());
+    }
+
+    private void registerSharedPoolDataSource(Map<String, String> dataSourceProperties, String dynamicJdbcConfigName,
+                                              BeanDefinitionRegistry registry) {
+        int quota = getDynamicDataSourceSharedPoolQuota(environment, dynamicJdbcConfigName);
+        Map<String, String> snapshot = new LinkedHashMap<>(dataSourceProperties);
+        BeanDefinition beanDefinition = genericBeanDefinition(DataSource.class,
+                () -> bindMetrics(getSharedPoolRegistry().createDataSource(snapshot, dynamicJdbcConfigName, quota, classLoader)))
+                .getBeanDefinition();
+        registry.registerBeanDefinition(BEAN_NAME, beanDefinition);
+        logger.debug("DynamicJdbcConfig[name : '{}'] registers the SharedPoolDataSource with the quota {}", dynamicJdbcConfigName, quota);
+    }
+
+    private void registerStripedDataSource(Map<String, String> dataSourceProperties, String dynamicJdbcConfigName,
+                                           BeanDefinitionRegistry registry) {
+        int stripes = getDynamicDataSourceStripes(environment, dynamicJdbcConfigName);
+        if (stripes < 2) {
+            // The single datasource entry is built by Spring Boot
+            return;
+        }
+        Map<String, String> snapshot = new LinkedHashMap<>(dataSourceProperties);
+        BeanDefinition beanDefinition = genericBeanDefinition(RoutingDataSource.class,
+                () -> RoutingDataSourceFactory.createStripedDataSource(snapshot, dynamicJdbcConfigName, stripes, classLoader))
+                .getBeanDefinition();
+        registry.registerBeanDefinition(BEAN_NAME, beanDefinition);
+        logger.debug("DynamicJdbcConfig[name : '{}'] registers the StripedDataSource with {} stripes", dynamicJdbcConfigName, stripes);
+    }
+
+    /**
+     * Get the {@link SharedPoolRegistry} of the Parent Context, whose DynamicJdbcConfigs share the pools
+     */
+    private SharedPoolRegistry getSharedPoolRegistry() {
+        BeanFactory parentBeanFactory = beanFactory.getParentBeanFactory();
+        return SharedPoolRegistry.get(parentBeanFactory instanceof ConfigurableListableBeanFactory ?
+                (ConfigurableListableBeanFactory) parentBeanFactory : beanFactory);
+    }
+
+    /**
+     * Bind the metrics of {@link ReplicationLagMonitor} if Micrometer is present
+     */
+    private RoutingDataSource bindMetrics(RoutingDataSource routingDataSource, String dynamicJdbcConfigName) {
+        if (routingDataSource instanceof ReadWriteSplittingDataSource && isPresent(METER_REGISTRY_CLASS_NAME, classLoader)) {
+            ReplicationLagMonitor replicationLagMonitor = ((ReadWriteSplittingDataSource) routingDataSource).getReplicationLagMonitor();
+            if (replicationLagMonitor != null) {
+                ReplicationLagMeterBinder.bind(replicationLagMonitor, dynamicJdbcConfigName, beanFactory);
+            }
+        }
+        return routingDataSource;
+    }
+
+    /**
+     * Bind the metrics of {@link SharedPoolDataSource} if Micrometer is present
+     */
+    private DataSource bindMetrics(DataSource dataSource) {
+        if (dataSource instanceof SharedPoolDataSource && isPresent(METER_REGISTRY_CLASS_NAME, classLoader)) {
+            SharedPoolMeterBinder.bind((SharedPoolDataSource) dataSource, beanFactory);
+        }
+        return dataSource;
+    }
+
+    private static List<Map<String, String>> copy(List<Map<String, String>> dataSourcePropertiesList) {
+        List<Map<String, String>> copy = new ArrayList<>(dataSourcePropertiesList.size());
+        dataSourcePropertiesList.forEach(dataSourceProperties -> copy.add(new LinkedHashMap<>(dataSourceProperties)));
+        return copy;
+    }
+}
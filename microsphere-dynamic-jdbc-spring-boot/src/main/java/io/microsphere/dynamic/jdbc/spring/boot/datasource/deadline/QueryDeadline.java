@@ -0,0 +1,114 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.deadline;
+
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static io.microsphere.text.FormatUtils.format;
+
+/**
+ * The scoped deadline of the queries issued by current thread, e.g. the deadline of the HTTP request, which is applied
+ * as {@link Statement#setQueryTimeout(int) the query timeout} with the remaining time budget on the
+ * {@link Statement statements} created from the connections of DynamicDataSource, the scopes could be nested and the
+ * earlier deadline wins :
+ * <pre>
+ * try (QueryDeadline.Scope scope = QueryDeadline.start(Duration.ofSeconds(2))) {
+ *     // The statements time out within 2 seconds in total
+ * }
+ * </pre>
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public abstract class QueryDeadline {
+
+    private static final ThreadLocal<Long> currentDeadline = new ThreadLocal<>();
+
+    private QueryDeadline() {
+    }
+
+    /**
+     * Start the deadline after the specified timeout until the returned {@link Scope} is closed
+     *
+     * @param timeout the time budget from now on
+     * @return non-null
+     */
+    public static Scope start(Duration timeout) {
+        Long previousDeadline = currentDeadline.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        if (previousDeadline == null || deadline - previousDeadline < 0) {
+            currentDeadline.set(deadline);
+        }
+        return new Scope(previousDeadline);
+    }
+
+    /**
+     * Get the remaining time budget of current thread
+     *
+     * @return <code>null</code> if no deadline, or negative if it was exceeded
+     */
+    public static Duration remaining() {
+        Long deadline = currentDeadline.get();
+        return deadline == null ? null : Duration.ofNanos(deadline - System.nanoTime());
+    }
+
+    /**
+     * Check whether the deadline of current thread has been exceeded
+     *
+     * @throws SQLTimeoutException if exceeded
+     */
+    public static void check() throws SQLTimeoutException {
+        Duration remaining = remaining();
+        if (remaining != null && isExceeded(remaining)) {
+            throw new SQLTimeoutException(format("The query deadline was exceeded {} ms ago", -remaining.toMillis()));
+        }
+    }
+
+    /**
+     * Get the query timeout in seconds, which is the lesser one of the remaining time budget and the default timeout,
+     * and rounded up to the whole second
+     *
+     * @param defaultTimeout the default timeout, <code>null</code> or non-positive means none
+     * @return 0 if neither the deadline nor the default timeout is present
+     * @throws SQLTimeoutException if the deadline was exceeded
+     */
+    public static int getQueryTimeout(Duration defaultTimeout) throws SQLTimeoutException {
+        check();
+        Duration remaining = remaining();
+        Duration timeout = defaultTimeout == null || isExceeded(defaultTimeout) ? null : defaultTimeout;
+        if (remaining != null && (timeout == null || remaining.compareTo(timeout) < 0)) {
+            timeout = remaining;
+        }
+        if (timeout == null) {
+            return 0;
+        }
+        long seconds = (timeout.toNanos() + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, seconds));
+    }
+
+    private static boolean isExceeded(Duration duration) {
+        return duration.isNegative() || duration.isZero();
+    }
+
+    /**
+     * The scope of the deadline, which restores the previous deadline when it's closed
+     */
+    public static class Scope implements AutoCloseable {
+
+        private final Long previousDeadline;
+
+        private Scope(Long previousDeadline) {
+            this.previousDeadline = previousDeadline;
+        }
+
+        @Override
+        public void close() {
+            if (previousDeadline == null) {
+                currentDeadline.remove();
+            } else {
+                currentDeadline.set(previousDeadline);
+            }
+        }
+    }
+}
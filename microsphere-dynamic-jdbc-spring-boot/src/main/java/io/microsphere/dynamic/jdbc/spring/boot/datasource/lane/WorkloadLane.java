@@ -0,0 +1,205 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.lane;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+import static io.microsphere.text.FormatUtils.format;
+
+/**
+ * The bulkhead of a workload, e.g. "oltp" or "batch", which limits the {@link Connection connections} held by the
+ * workload at the same time, the acquisition beyond the limit waits in the bounded queue up to the timeout, or fails
+ * fast if the queue is full.
+ * <p>
+ * The admission is based on {@link Semaphore} rather than the monitor lock, thus the waiting virtual threads don't pin
+ * their carrier threads.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see WorkloadLanes
+ * @see WorkloadLaneContext
+ * @since 1.0.0
+ */
+public class WorkloadLane {
+
+    private final String name;
+
+    private final int maxConcurrency;
+
+    private final int maxQueue;
+
+    private final long timeoutNanos;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger activeConnections = new AtomicInteger();
+
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+
+    private final LongAdder rejections = new LongAdder();
+
+    private final LongAdder timeouts = new LongAdder();
+
+    private final List<LongConsumer> waitTimeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param name           the name of lane
+     * @param maxConcurrency the max count of the {@link Connection connections} held at the same time, 0 means no
+     *                       limit
+     * @param maxQueue       the max count of the waiting threads, negative means no bound
+     * @param timeout        the max time to wait
+     */
+    public WorkloadLane(String name, int maxConcurrency, int maxQueue, Duration timeout) {
+        if (maxConcurrency < 0) {
+            throw new IllegalArgumentException(format("The max concurrency of the workload lane['{}'] must not be negative : {}",
+                    name, maxConcurrency));
+        }
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueue = maxQueue;
+        this.timeoutNanos = Math.max(0, timeout.toNanos());
+        this.permits = maxConcurrency > 0 ? new Semaphore(maxConcurrency) : null;
+    }
+
+    /**
+     * Acquire the admission of a {@link Connection}, which must be {@link #release() released} after the
+     * {@link Connection} is closed
+     *
+     * @throws SQLTransientConnectionException if the queue is full, or it timed out
+     */
+    public void acquire() throws SQLException {
+        if (permits == null || permits.tryAcquire()) {
+            admit(0L);
+            return;
+        }
+        if (waitingThreads.incrementAndGet() > maxQueue && maxQueue >= 0) {
+            waitingThreads.decrementAndGet();
+            rejections.increment();
+            throw new SQLTransientConnectionException(format("The workload lane['{}'] is full , max concurrency : {} , max queue : {}",
+                    name, maxConcurrency, maxQueue));
+        }
+        long startTime = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(format("The workload lane['{}'] was interrupted while waiting", name), e);
+        } finally {
+            waitingThreads.decrementAndGet();
+        }
+        long waitTime = System.nanoTime() - startTime;
+        if (!acquired) {
+            timeouts.increment();
+            notifyWaitTime(waitTime);
+            throw new SQLTransientConnectionException(format("The workload lane['{}'] timed out after {} ms , max concurrency : {}",
+                    name, TimeUnit.NANOSECONDS.toMillis(waitTime), maxConcurrency));
+        }
+        admit(waitTime);
+    }
+
+    /**
+     * Release the admission
+     */
+    public void release() {
+        activeConnections.decrementAndGet();
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    private void admit(long waitTime) {
+        activeConnections.incrementAndGet();
+        notifyWaitTime(waitTime);
+    }
+
+    private void notifyWaitTime(long waitTime) {
+        for (LongConsumer waitTimeListener : waitTimeListeners) {
+            waitTimeListener.accept(waitTime);
+        }
+    }
+
+    /**
+     * Add the listener of the wait time in nanoseconds of each acquisition, e.g. recording the histogram
+     *
+     * @param waitTimeListener the listener
+     */
+    public void addWaitTimeListener(LongConsumer waitTimeListener) {
+        waitTimeListeners.add(waitTimeListener);
+    }
+
+    public void removeWaitTimeListener(LongConsumer waitTimeListener) {
+        waitTimeListeners.remove(waitTimeListener);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 0 means no limit
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * @return negative means no bound
+     */
+    public int getMaxQueue() {
+        return maxQueue;
+    }
+
+    public Duration getTimeout() {
+        return Duration.ofNanos(timeoutNanos);
+    }
+
+    /**
+     * Get the count of the {@link Connection connections} held by the lane
+     *
+     * @return non-negative
+     */
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    /**
+     * Get the count of the threads waiting for the admission
+     *
+     * @return non-negative
+     */
+    public int getWaitingThreads() {
+        return waitingThreads.get();
+    }
+
+    /**
+     * Get the count of the acquisitions rejected for the full queue
+     *
+     * @return non-negative
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * Get the count of the acquisitions that timed out
+     *
+     * @return non-negative
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "WorkloadLane[name : '" + name + "' , max concurrency : " + maxConcurrency + " , max queue : " + maxQueue
+                + " , timeout : " + getTimeout() + "]";
+    }
+}
@@ -0,0 +1,64 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.lane;
+
+/**
+ * The scoped context of the {@link WorkloadLane} that the {@link java.sql.Connection connections} acquired by current
+ * thread are admitted by, the scopes could be nested :
+ * <pre>
+ * try (WorkloadLaneContext.Scope scope = WorkloadLaneContext.enter("batch")) {
+ *     // The connections of DynamicDataSource are admitted by the lane "batch"
+ * }
+ * </pre>
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see WorkloadLanes
+ * @since 1.0.0
+ */
+public abstract class WorkloadLaneContext {
+
+    private static final ThreadLocal<String> currentLaneName = new ThreadLocal<>();
+
+    private WorkloadLaneContext() {
+    }
+
+    /**
+     * Enter the lane until the returned {@link Scope} is closed
+     *
+     * @param laneName the name of lane
+     * @return non-null
+     */
+    public static Scope enter(String laneName) {
+        String previousLaneName = currentLaneName.get();
+        currentLaneName.set(laneName);
+        return new Scope(previousLaneName);
+    }
+
+    /**
+     * Get the name of the lane of current thread
+     *
+     * @return <code>null</code> if not in any lane
+     */
+    public static String current() {
+        return currentLaneName.get();
+    }
+
+    /**
+     * The scope of the lane, which restores the previous lane when it's closed
+     */
+    public static class Scope implements AutoCloseable {
+
+        private final String previousLaneName;
+
+        private Scope(String previousLaneName) {
+            this.previousLaneName = previousLaneName;
+        }
+
+        @Override
+        public void close() {
+            if (previousLaneName == null) {
+                currentLaneName.remove();
+            } else {
+                currentLaneName.set(previousLaneName);
+            }
+        }
+    }
+}
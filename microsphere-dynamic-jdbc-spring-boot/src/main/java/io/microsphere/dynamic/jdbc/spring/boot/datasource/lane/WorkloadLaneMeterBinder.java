@@ -0,0 +1,102 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.lane;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.BeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+/**
+ * {@link MeterBinder} exports the admission of the {@link WorkloadLane lanes} per DynamicJdbcConfig :
+ * <ul>
+ *     <li>"microsphere.dynamic.jdbc.lane.wait" : the histogram of the wait time of the acquisitions</li>
+ *     <li>"microsphere.dynamic.jdbc.lane.active" : the count of the connections held by the lane</li>
+ *     <li>"microsphere.dynamic.jdbc.lane.waiting" : the count of the threads waiting for the admission</li>
+ *     <li>"microsphere.dynamic.jdbc.lane.rejections" : the count of the rejected acquisitions by the reason,
+ *     "queue-full" or "timeout"</li>
+ * </ul>
+ * The meters are removed from the {@link MeterRegistry} once the {@link WorkloadLanes} are closed.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see WorkloadLanes
+ * @since 1.0.0
+ */
+public class WorkloadLaneMeterBinder implements MeterBinder {
+
+    public static final String WAIT_METER_NAME = "microsphere.dynamic.jdbc.lane.wait";
+
+    public static final String ACTIVE_METER_NAME = "microsphere.dynamic.jdbc.lane.active";
+
+    public static final String WAITING_METER_NAME = "microsphere.dynamic.jdbc.lane.waiting";
+
+    public static final String REJECTIONS_METER_NAME = "microsphere.dynamic.jdbc.lane.rejections";
+
+    private final WorkloadLanes workloadLanes;
+
+    private final String dynamicJdbcConfigName;
+
+    public WorkloadLaneMeterBinder(WorkloadLanes workloadLanes, String dynamicJdbcConfigName) {
+        this.workloadLanes = workloadLanes;
+        this.dynamicJdbcConfigName = dynamicJdbcConfigName;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        List<Meter> meters = new ArrayList<>();
+        List<Runnable> unbinders = new ArrayList<>();
+        for (WorkloadLane lane : workloadLanes.getLanes().values()) {
+            Tags tags = Tags.of("config", dynamicJdbcConfigName, "lane", lane.getName());
+            Timer timer = Timer.builder(WAIT_METER_NAME)
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .description("The wait time of the admission of the lane")
+                    .register(registry);
+            LongConsumer waitTimeListener = waitTime -> timer.record(waitTime, TimeUnit.NANOSECONDS);
+            lane.addWaitTimeListener(waitTimeListener);
+            unbinders.add(() -> lane.removeWaitTimeListener(waitTimeListener));
+            meters.add(timer);
+            meters.add(Gauge.builder(ACTIVE_METER_NAME, lane, WorkloadLane::getActiveConnections)
+                    .tags(tags)
+                    .description("The count of the connections held by the lane")
+                    .register(registry));
+            meters.add(Gauge.builder(WAITING_METER_NAME, lane, WorkloadLane::getWaitingThreads)
+                    .tags(tags)
+                    .description("The count of the threads waiting for the admission of the lane")
+                    .register(registry));
+            meters.add(FunctionCounter.builder(REJECTIONS_METER_NAME, lane, WorkloadLane::getRejections)
+                    .tags(tags.and("reason", "queue-full"))
+                    .description("The count of the acquisitions of the lane rejected")
+                    .register(registry));
+            meters.add(FunctionCounter.builder(REJECTIONS_METER_NAME, lane, WorkloadLane::getTimeouts)
+                    .tags(tags.and("reason", "timeout"))
+                    .description("The count of the acquisitions of the lane rejected")
+                    .register(registry));
+        }
+        workloadLanes.addCloseCallback(() -> {
+            unbinders.forEach(Runnable::run);
+            meters.forEach(registry::remove);
+        });
+    }
+
+    /**
+     * Bind the meters to the unique {@link MeterRegistry} of {@link BeanFactory} if present
+     *
+     * @param workloadLanes         {@link WorkloadLanes}
+     * @param dynamicJdbcConfigName the name of DynamicJdbcConfig
+     * @param beanFactory           {@link BeanFactory}
+     */
+    public static void bind(WorkloadLanes workloadLanes, String dynamicJdbcConfigName, BeanFactory beanFactory) {
+        MeterRegistry registry = beanFactory.getBeanProvider(MeterRegistry.class).getIfUnique();
+        if (registry != null) {
+            new WorkloadLaneMeterBinder(workloadLanes, dynamicJdbcConfigName).bindTo(registry);
+        }
+    }
+}
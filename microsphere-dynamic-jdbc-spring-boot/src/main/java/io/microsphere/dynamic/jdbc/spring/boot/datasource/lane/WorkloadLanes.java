@@ -0,0 +1,127 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.lane;
+
+import org.springframework.core.env.Environment;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceWorkloadLaneMaxConcurrency;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceWorkloadLaneMaxQueue;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceWorkloadLaneNames;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceWorkloadLaneTimeout;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * The {@link WorkloadLane lanes} of a DynamicJdbcConfig, the {@link Connection connections} are admitted by the lane of
+ * {@link WorkloadLaneContext}, or the lane "default" if the thread is not in any configured lane, the connections out
+ * of any lane are not limited.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see WorkloadLane
+ * @see WorkloadLaneContext
+ * @since 1.0.0
+ */
+public class WorkloadLanes {
+
+    /**
+     * The name of the lane for the threads that are not in any configured lane
+     */
+    public static final String DEFAULT_LANE_NAME = "default";
+
+    private final Map<String, WorkloadLane> lanes;
+
+    private final List<Runnable> closeCallbacks = new CopyOnWriteArrayList<>();
+
+    public WorkloadLanes(Collection<WorkloadLane> lanes) {
+        Map<String, WorkloadLane> lanesMap = new LinkedHashMap<>();
+        lanes.forEach(lane -> lanesMap.put(lane.getName(), lane));
+        this.lanes = unmodifiableMap(lanesMap);
+    }
+
+    /**
+     * Create the {@link WorkloadLanes} from the properties of DynamicJdbcConfig
+     *
+     * @param environment           {@link Environment}
+     * @param dynamicJdbcConfigName the name of DynamicJdbcConfig
+     * @return non-null
+     */
+    public static WorkloadLanes of(Environment environment, String dynamicJdbcConfigName) {
+        Map<String, WorkloadLane> lanes = new LinkedHashMap<>();
+        for (String laneName : getDynamicDataSourceWorkloadLaneNames(environment, dynamicJdbcConfigName)) {
+            String name = laneName.trim();
+            if (!name.isEmpty()) {
+                lanes.put(name, new WorkloadLane(name,
+                        getDynamicDataSourceWorkloadLaneMaxConcurrency(environment, dynamicJdbcConfigName, name),
+                        getDynamicDataSourceWorkloadLaneMaxQueue(environment, dynamicJdbcConfigName, name),
+                        getDynamicDataSourceWorkloadLaneTimeout(environment, dynamicJdbcConfigName, name)));
+            }
+        }
+        return new WorkloadLanes(lanes.values());
+    }
+
+    /**
+     * Acquire the admission of the lane of current thread
+     *
+     * @return the admitting {@link WorkloadLane}, or <code>null</code> if it's not in any lane
+     * @throws SQLException if the admission is rejected
+     */
+    public WorkloadLane acquire() throws SQLException {
+        if (lanes.isEmpty()) {
+            return null;
+        }
+        String laneName = WorkloadLaneContext.current();
+        WorkloadLane lane = laneName == null ? null : lanes.get(laneName);
+        if (lane == null) {
+            lane = lanes.get(DEFAULT_LANE_NAME);
+        }
+        if (lane != null) {
+            lane.acquire();
+        }
+        return lane;
+    }
+
+    /**
+     * Get the lane by name
+     *
+     * @param name the name of lane
+     * @return <code>null</code> if not found
+     */
+    public WorkloadLane getLane(String name) {
+        return lanes.get(name);
+    }
+
+    /**
+     * Get all lanes
+     *
+     * @return the unmodifiable {@link Map} with the lane names as the keys
+     */
+    public Map<String, WorkloadLane> getLanes() {
+        return lanes;
+    }
+
+    public boolean isEmpty() {
+        return lanes.isEmpty();
+    }
+
+    /**
+     * Add the callback that runs when the lanes are closed, e.g. removing the metrics
+     *
+     * @param callback the callback
+     */
+    void addCloseCallback(Runnable callback) {
+        closeCallbacks.add(callback);
+    }
+
+    /**
+     * Close the lanes, the admitted connections are not affected
+     */
+    public void close() {
+        closeCallbacks.forEach(Runnable::run);
+        closeCallbacks.clear();
+    }
+}
@@ -0,0 +1,33 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+/**
+ * The role of the datasource entry in {@link ReadWriteSplittingDataSource}
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see ReadWriteSplittingDataSource
+ * @since 1.0.0
+ */
+public enum DataSourceRole {
+
+    /**
+     * The primary serves the writes and the read-write transactions
+     */
+    PRIMARY,
+
+    /**
+     * The replica serves the read-only connections
+     */
+    REPLICA;
+
+    public static DataSourceRole resolve(String value, DataSourceRole defaultRole) {
+        if (value == null) {
+            return defaultRole;
+        }
+        for (DataSourceRole role : values()) {
+            if (role.name().equalsIgnoreCase(value.trim())) {
+                return role;
+            }
+        }
+        return defaultRole;
+    }
+}
@@ -0,0 +1,475 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static io.microsphere.multiple.active.zone.ZoneConstants.DEFAULT_ZONE;
+import static io.microsphere.text.FormatUtils.format;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.unmodifiableMap;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+
+/**
+ * The {@link DataSource} of 'ha-datasource' module keeps the pools of the zones, and routes the
+ * {@link Connection connections} to the active zone.
+ * <p>
+ * If the failover is enabled, the {@link Connection connections} fail over to "defaultZone" when the circuit breaker
+ * of the active zone is open, immediately instead of waiting for the connection timeout of the failed pool. The
+ * circuit breaker opens after the consecutive failures of the acquisitions, and of the validations by the latency
+ * probes, reach the threshold, then the zone is probed in the background, and the circuit breaker is closed once a
+ * validated {@link Connection} is acquired.
+ * <p>
+ * If the standby is enabled, the pools of the non-active zones are kept warm with a few idle connections, and the
+ * zone change promotes the standby pool in place via {@link #promote(String)}.
+ * <p>
+ * If the latency-aware routing is enabled via {@link #startLatencyRouting(Duration, double, double)}, all zones are
+ * probed periodically, the EWMA of their round-trip times is kept, and the fastest healthy zone is promoted once it is
+ * faster than the active zone beyond the tolerance, which is the hysteresis that keeps the routing from flapping.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see ZoneCircuitBreaker
+ * @see ZoneLatencyTracker
+ * @since 1.0.0
+ */
+public class HighAvailabilityDataSource extends RoutingDataSource {
+
+    /**
+     * The default pool size of Hikari if neither maximumPoolSize nor minimumIdle is set
+     */
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    /**
+     * The minimum count of samples before the latency of a zone is trusted
+     */
+    static final int MIN_LATENCY_SAMPLES = 3;
+
+    private final boolean failover;
+
+    private final Map<String, ZoneCircuitBreaker> circuitBreakers;
+
+    private final long probeInterval;
+
+    private final int probeTimeout;
+
+    private final int standbyMinimumIdle;
+
+    /**
+     * The configured minimumIdle of the {@link HikariDataSource HikariDataSources} of the zones
+     */
+    private final Map<String, Map<HikariDataSource, Integer>> zoneMinimumIdles;
+
+    private final ScheduledExecutorService probeScheduler;
+
+    /**
+     * The executor of the warmups of the standby pools, which may wait for the connection timeout of an unreachable
+     * zone, thus they never delay the circuit breaker probes and the latency probes on the probe scheduler
+     */
+    private final ExecutorService warmUpExecutor;
+
+    private Map<String, List<Map<String, String>>> zoneDataSourcePropertiesMap = emptyMap();
+
+    private volatile Map<String, ZoneLatencyTracker> latencyTrackers = emptyMap();
+
+    private volatile double latencyTolerance;
+
+    private ScheduledFuture<?> latencyProbe;
+
+    private volatile String activeZone;
+
+    private volatile boolean destroyed;
+
+    /**
+     * @param zoneDataSources  the {@link DataSource DataSources} with the zones as the keys, must contain "defaultZone"
+     * @param activeZone       the active zone
+     * @param failureThreshold the count of the consecutive failures that opens the circuit breaker, the failover is
+     *                         disabled if it's less than 1
+     * @param probeInterval    the interval to probe the zone whose circuit breaker is open
+     * @param probeTimeout     the timeout to validate the {@link Connection} of the probe
+     */
+    public HighAvailabilityDataSource(Map<String, DataSource> zoneDataSources, String activeZone, int failureThreshold,
+                                      Duration probeInterval, Duration probeTimeout) {
+        this(zoneDataSources, activeZone, failureThreshold, probeInterval, probeTimeout, -1);
+    }
+
+    /**
+     * @param zoneDataSources    the {@link DataSource DataSources} with the zones as the keys, must contain "defaultZone"
+     * @param activeZone         the active zone
+     * @param failureThreshold   the count of the consecutive failures that opens the circuit breaker, the failover is
+     *                           disabled if it's less than 1
+     * @param probeInterval      the interval to probe the zone whose circuit breaker is open
+     * @param probeTimeout       the timeout to validate the {@link Connection} of the probe
+     * @param standbyMinimumIdle the minimumIdle of the pools of the non-active zones, the standby is disabled if it's
+     *                           negative
+     */
+    public HighAvailabilityDataSource(Map<String, DataSource> zoneDataSources, String activeZone, int failureThreshold,
+                                      Duration probeInterval, Duration probeTimeout, int standbyMinimumIdle) {
+        super(zoneDataSources);
+        getTargetDataSource(DEFAULT_ZONE);
+        this.failover = failureThreshold > 0;
+        Map<String, ZoneCircuitBreaker> circuitBreakers = new LinkedHashMap<>();
+        Map<String, Map<HikariDataSource, Integer>> zoneMinimumIdles = new LinkedHashMap<>();
+        zoneDataSources.forEach((zone, dataSource) -> {
+            circuitBreakers.put(zone, new ZoneCircuitBreaker(zone, failureThreshold));
+            Map<HikariDataSource, Integer> minimumIdles = new LinkedHashMap<>();
+            findHikariDataSources(dataSource).forEach(hikariDataSource -> minimumIdles.put(hikariDataSource,
+                    resolveMinimumIdle(hikariDataSource)));
+            zoneMinimumIdles.put(zone, minimumIdles);
+        });
+        this.circuitBreakers = unmodifiableMap(circuitBreakers);
+        this.zoneMinimumIdles = unmodifiableMap(zoneMinimumIdles);
+        this.probeInterval = Math.max(1, probeInterval.toMillis());
+        this.probeTimeout = (int) Math.max(1, (probeTimeout.toMillis() + 999) / 1000);
+        this.standbyMinimumIdle = standbyMinimumIdle;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("HighAvailabilityDataSource-Probe-");
+        threadFactory.setDaemon(true);
+        this.probeScheduler = newSingleThreadScheduledExecutor(threadFactory);
+        this.warmUpExecutor = isStandbyEnabled() ? newWarmUpExecutor(zoneDataSources.size() - 1) : null;
+        this.activeZone = zoneDataSources.containsKey(activeZone) ? activeZone : DEFAULT_ZONE;
+        if (isStandbyEnabled()) {
+            warmUpStandbyZones();
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        String zone = this.activeZone;
+        if (!failover || DEFAULT_ZONE.equals(zone)) {
+            return getConnection(getTargetDataSource(zone), username, password);
+        }
+        SQLException failure = null;
+        ZoneCircuitBreaker circuitBreaker = circuitBreakers.get(zone);
+        if (!circuitBreaker.isOpen()) {
+            try {
+                Connection connection = getConnection(getTargetDataSource(zone), username, password);
+                circuitBreaker.onSuccess();
+                return connection;
+            } catch (SQLException e) {
+                failure = e;
+                onFailure(circuitBreaker, e);
+            }
+        }
+        try {
+            return getConnection(getTargetDataSource(DEFAULT_ZONE), username, password);
+        } catch (SQLException e) {
+            if (failure != null) {
+                e.addSuppressed(failure);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Promote the pool of the zone to be active in place, the previous active one becomes the standby if enabled
+     *
+     * @param zone the zone
+     * @return <code>true</code> if promoted, or <code>false</code> if the pool of the zone is absent
+     */
+    public synchronized boolean promote(String zone) {
+        if (!zoneMinimumIdles.containsKey(zone)) {
+            return false;
+        }
+        String previousZone = this.activeZone;
+        if (previousZone.equals(zone)) {
+            return true;
+        }
+        // Restore the configured minimumIdle before the traffic arrives
+        zoneMinimumIdles.get(zone).forEach(HighAvailabilityDataSource::setMinimumIdle);
+        this.activeZone = zone;
+        if (isStandbyEnabled()) {
+            zoneMinimumIdles.get(previousZone).keySet().forEach(hikariDataSource -> setMinimumIdle(hikariDataSource, standbyMinimumIdle));
+        }
+        logger.info("The zone['{}'] was promoted to be active , the previous active zone : '{}'", zone, previousZone);
+        return true;
+    }
+
+    /**
+     * Start probing the round-trip times of all zones at a fixed rate, and routing to the fastest healthy zone
+     *
+     * @param probeInterval the interval of the probes
+     * @param alpha         the weight of the latest round-trip time in the EWMA, in (0, 1]
+     * @param tolerance     the ratio that the candidate zone must be faster than the active zone by, in [0, 1)
+     * @throws IllegalArgumentException if alpha or tolerance is out of range
+     */
+    public synchronized void startLatencyRouting(Duration probeInterval, double alpha, double tolerance) {
+        if (!(tolerance >= 0 && tolerance < 1)) {
+            throw new IllegalArgumentException(format("The tolerance of latency routing must be in [0, 1) : {}", tolerance));
+        }
+        if (latencyProbe != null || destroyed) {
+            return;
+        }
+        Map<String, ZoneLatencyTracker> latencyTrackers = new LinkedHashMap<>();
+        getTargetDataSources().keySet().forEach(zone -> latencyTrackers.put(zone, new ZoneLatencyTracker(zone, alpha)));
+        this.latencyTrackers = unmodifiableMap(latencyTrackers);
+        this.latencyTolerance = tolerance;
+        long period = Math.max(1, probeInterval.toMillis());
+        try {
+            latencyProbe = probeScheduler.scheduleWithFixedDelay(this::probeLatencies, period, period, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("The latency probe was rejected , the DataSource has been destroyed");
+            return;
+        }
+        logger.info("The latency routing of zones {} started , probe interval : {} ms , alpha : {} , tolerance : {}",
+                latencyTrackers.keySet(), period, alpha, tolerance);
+    }
+
+    /**
+     * Probe the round-trip times of all zones, then select the fastest zone
+     */
+    void probeLatencies() {
+        latencyTrackers.values().forEach(this::probeLatency);
+        selectFastestZone();
+    }
+
+    private void probeLatency(ZoneLatencyTracker latencyTracker) {
+        if (destroyed) {
+            return;
+        }
+        String zone = latencyTracker.getZone();
+        try (Connection connection = getTargetDataSource(zone).getConnection()) {
+            // The Connection is pooled, thus the validation is the round trip
+            long start = System.nanoTime();
+            if (!connection.isValid(probeTimeout)) {
+                throw new SQLException(format("The Connection of zone['{}'] is invalid", zone));
+            }
+            latencyTracker.onSuccess(System.nanoTime() - start);
+        } catch (SQLException | RuntimeException e) {
+            latencyTracker.onFailure();
+            logger.debug("The latency probe of zone['{}'] failed", zone, e);
+            if (failover && !DEFAULT_ZONE.equals(zone)) {
+                // The pool hands out the Connections that fail the validation, count them as the acquisitions do
+                ZoneCircuitBreaker circuitBreaker = circuitBreakers.get(zone);
+                if (!circuitBreaker.isOpen()) {
+                    onFailure(circuitBreaker, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Promote the fastest healthy zone if the active zone is unhealthy, or it's slower than the fastest one beyond the
+     * tolerance
+     *
+     * @return the active zone after the selection
+     */
+    synchronized String selectFastestZone() {
+        String activeZone = this.activeZone;
+        ZoneLatencyTracker fastest = null;
+        for (ZoneLatencyTracker latencyTracker : latencyTrackers.values()) {
+            if (isLatencyAvailable(latencyTracker)
+                    && (fastest == null || latencyTracker.getAverageNanos() < fastest.getAverageNanos())) {
+                fastest = latencyTracker;
+            }
+        }
+        if (fastest == null || fastest.getZone().equals(activeZone)) {
+            return activeZone;
+        }
+        ZoneLatencyTracker active = latencyTrackers.get(activeZone);
+        if (active != null && isLatencyAvailable(active)
+                && fastest.getAverageNanos() >= active.getAverageNanos() * (1 - latencyTolerance)) {
+            // Within the tolerance
+            return activeZone;
+        }
+        logger.info("The zone['{}'] is faster than the active zone['{}'] beyond the tolerance {} : {} , {}", fastest.getZone(),
+                activeZone, latencyTolerance, fastest, active);
+        promote(fastest.getZone());
+        return this.activeZone;
+    }
+
+    ZoneLatencyTracker getLatencyTracker(String zone) {
+        return latencyTrackers.get(zone);
+    }
+
+    private boolean isLatencyAvailable(ZoneLatencyTracker latencyTracker) {
+        return latencyTracker.isHealthy() && latencyTracker.getSamples() >= MIN_LATENCY_SAMPLES
+                && !circuitBreakers.get(latencyTracker.getZone()).isOpen();
+    }
+
+    private void warmUpStandbyZones() {
+        zoneMinimumIdles.forEach((zone, minimumIdles) -> {
+            if (zone.equals(activeZone)) {
+                return;
+            }
+            minimumIdles.keySet().forEach(hikariDataSource -> {
+                setMinimumIdle(hikariDataSource, standbyMinimumIdle);
+                // The pool starts on the first acquisition, and keeps the idle connections since then
+                warmUpExecutor.execute(() -> warmUp(zone, hikariDataSource));
+            });
+        });
+    }
+
+    private void warmUp(String zone, HikariDataSource hikariDataSource) {
+        if (destroyed) {
+            return;
+        }
+        try (Connection connection = hikariDataSource.getConnection()) {
+            logger.debug("The standby pool['{}'] of zone['{}'] is warm", hikariDataSource.getPoolName(), zone);
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("The standby pool['{}'] of zone['{}'] failed to warm up", hikariDataSource.getPoolName(), zone, e);
+        }
+    }
+
+    private void onFailure(ZoneCircuitBreaker circuitBreaker, Exception failure) {
+        if (circuitBreaker.onFailure()) {
+            logger.warn("The circuit breaker of zone['{}'] is open , the connections fail over to zone['{}']", circuitBreaker.getZone(),
+                    DEFAULT_ZONE, failure);
+            scheduleProbe(circuitBreaker);
+        } else {
+            logger.warn("The zone['{}'] failed to get the Connection , fail over to zone['{}'] : {}", circuitBreaker.getZone(), DEFAULT_ZONE,
+                    circuitBreaker, failure);
+        }
+    }
+
+    private void scheduleProbe(ZoneCircuitBreaker circuitBreaker) {
+        if (destroyed) {
+            return;
+        }
+        try {
+            probeScheduler.schedule(() -> probe(circuitBreaker), probeInterval, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("The probe of zone['{}'] was rejected , the DataSource has been destroyed", circuitBreaker.getZone());
+        }
+    }
+
+    private void probe(ZoneCircuitBreaker circuitBreaker) {
+        String zone = circuitBreaker.getZone();
+        boolean recovered = false;
+        try (Connection connection = getTargetDataSource(zone).getConnection()) {
+            if (!connection.isValid(probeTimeout)) {
+                throw new SQLException(format("The Connection of zone['{}'] is invalid", zone));
+            }
+            recovered = true;
+        } catch (SQLException | RuntimeException e) {
+            logger.debug("The probe of zone['{}'] failed", zone, e);
+        } finally {
+            // The circuit breaker would stay open forever if the probes stopped
+            if (!recovered) {
+                scheduleProbe(circuitBreaker);
+            }
+        }
+        if (recovered && circuitBreaker.close()) {
+            logger.info("The zone['{}'] recovered , the circuit breaker is closed", zone);
+        }
+    }
+
+    /**
+     * Get the active zone
+     *
+     * @return non-null
+     */
+    public String getActiveZone() {
+        return activeZone;
+    }
+
+    /**
+     * Whether the circuit breaker of the zone is open
+     *
+     * @param zone the zone
+     * @return <code>true</code> if the connections of the zone fail over to "defaultZone"
+     * @throws IllegalArgumentException if the zone is not found
+     */
+    public boolean isCircuitBreakerOpen(String zone) {
+        ZoneCircuitBreaker circuitBreaker = circuitBreakers.get(zone);
+        if (circuitBreaker == null) {
+            throw new IllegalArgumentException(format("The zone['{}'] is not found in {}", zone, circuitBreakers.keySet()));
+        }
+        return circuitBreaker.isOpen();
+    }
+
+    public boolean isFailoverEnabled() {
+        return failover;
+    }
+
+    public boolean isStandbyEnabled() {
+        return standbyMinimumIdle >= 0;
+    }
+
+    public boolean isLatencyRoutingEnabled() {
+        return !latencyTrackers.isEmpty();
+    }
+
+    /**
+     * Get the EWMA of the probed round-trip times of the zone
+     *
+     * @param zone the zone
+     * @return the latency in milliseconds, or {@link Double#NaN} if the zone is not probed
+     */
+    public double getZoneLatency(String zone) {
+        ZoneLatencyTracker latencyTracker = latencyTrackers.get(zone);
+        return latencyTracker == null ? Double.NaN : latencyTracker.getAverageNanos() / 1_000_000;
+    }
+
+    /**
+     * Get the datasource properties lists of all zones that the pools were built from
+     *
+     * @return non-null
+     */
+    public Map<String, List<Map<String, String>>> getZoneDataSourcePropertiesMap() {
+        return zoneDataSourcePropertiesMap;
+    }
+
+    void setZoneDataSourcePropertiesMap(Map<String, List<Map<String, String>>> zoneDataSourcePropertiesMap) {
+        this.zoneDataSourcePropertiesMap = unmodifiableMap(new LinkedHashMap<>(zoneDataSourcePropertiesMap));
+    }
+
+    @Override
+    public void destroy() {
+        destroyed = true;
+        probeScheduler.shutdownNow();
+        if (warmUpExecutor != null) {
+            warmUpExecutor.shutdownNow();
+        }
+        super.destroy();
+    }
+
+    @Override
+    public String toString() {
+        return "HighAvailabilityDataSource[active zone : '" + activeZone + "' , zones : " + circuitBreakers.keySet() + " , failover : "
+                + failover + " , standby : " + isStandbyEnabled() + " , latency routing : " + isLatencyRoutingEnabled() + "]";
+    }
+
+    private static ExecutorService newWarmUpExecutor(int standbyZones) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("HighAvailabilityDataSource-WarmUp-");
+        threadFactory.setDaemon(true);
+        // A thread per standby zone at most, thus an unreachable zone doesn't delay the others
+        int threads = Math.max(1, standbyZones);
+        ThreadPoolExecutor warmUpExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                threadFactory);
+        // The warmups only happen on the startup, the threads are released afterwards
+        warmUpExecutor.allowCoreThreadTimeOut(true);
+        return warmUpExecutor;
+    }
+
+    private static int resolveMinimumIdle(HikariDataSource hikariDataSource) {
+        int minimumIdle = hikariDataSource.getMinimumIdle();
+        if (minimumIdle >= 0) {
+            return minimumIdle;
+        }
+        // The minimumIdle defaults to maximumPoolSize before the pool starts
+        int maximumPoolSize = hikariDataSource.getMaximumPoolSize();
+        return maximumPoolSize > 0 ? maximumPoolSize : DEFAULT_POOL_SIZE;
+    }
+
+    private static void setMinimumIdle(HikariDataSource hikariDataSource, int minimumIdle) {
+        hikariDataSource.getHikariConfigMXBean().setMinimumIdle(minimumIdle);
+    }
+}
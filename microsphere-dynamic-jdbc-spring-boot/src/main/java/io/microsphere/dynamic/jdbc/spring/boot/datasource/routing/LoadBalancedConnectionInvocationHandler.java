@@ -0,0 +1,62 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+
+/**
+ * {@link InvocationHandler} for the {@link Connection} of {@link LoadBalancingDataSource}, which releases the
+ * outstanding count of its target once it's closed.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see LoadBalancingDataSource
+ * @since 1.0.0
+ */
+class LoadBalancedConnectionInvocationHandler implements InvocationHandler {
+
+    private static final Class<?>[] PROXY_INTERFACES = new Class[]{Connection.class};
+
+    private final Connection connection;
+
+    private final LoadBalancingDataSource.Target target;
+
+    private boolean released;
+
+    LoadBalancedConnectionInvocationHandler(Connection connection, LoadBalancingDataSource.Target target) {
+        this.connection = connection;
+        this.target = target;
+    }
+
+    static Connection newProxy(Connection connection, LoadBalancingDataSource.Target target) {
+        ClassLoader classLoader = LoadBalancingDataSource.class.getClassLoader();
+        InvocationHandler invocationHandler = new LoadBalancedConnectionInvocationHandler(connection, target);
+        return (Connection) Proxy.newProxyInstance(classLoader, PROXY_INTERFACES, invocationHandler);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "LoadBalancedConnection[target : " + target.getName() + "]";
+            case "close":
+                if (!released) {
+                    released = true;
+                    target.release();
+                }
+                break;
+            default:
+                break;
+        }
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
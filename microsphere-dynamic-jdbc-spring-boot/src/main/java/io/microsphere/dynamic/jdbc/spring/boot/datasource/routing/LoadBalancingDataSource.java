@@ -0,0 +1,217 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.microsphere.text.FormatUtils.format;
+
+/**
+ * The load balancing {@link DataSource} spreads the {@link Connection connections} across the equivalent target
+ * {@link DataSource DataSources} by the {@link LoadBalancingStrategy}. The weights of the targets could be adjusted at
+ * runtime without rebuilding their pools, and the target whose weight is 0 is drained.
+ * <p>
+ * If the selected target fails to get the {@link Connection}, the remaining ones will be tried in turn.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see LoadBalancingStrategy
+ * @since 1.0.0
+ */
+public class LoadBalancingDataSource extends RoutingDataSource {
+
+    /**
+     * The default weight of the target
+     */
+    public static final int DEFAULT_WEIGHT = 1;
+
+    private final LoadBalancingStrategy strategy;
+
+    private final Target[] targets;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    public LoadBalancingDataSource(Map<String, DataSource> targetDataSources, Map<String, Integer> weights, LoadBalancingStrategy strategy) {
+        super(targetDataSources);
+        this.strategy = strategy;
+        this.targets = new Target[targetDataSources.size()];
+        int index = 0;
+        for (Map.Entry<String, DataSource> entry : targetDataSources.entrySet()) {
+            String name = entry.getKey();
+            Target target = new Target(name, entry.getValue());
+            target.setWeight(weights.getOrDefault(name, DEFAULT_WEIGHT));
+            targets[index++] = target;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Target[] candidates = targets;
+        SQLException failure = null;
+        while (candidates.length > 0) {
+            int index = strategy.select(candidates, sequence.getAndIncrement());
+            if (index < 0) {
+                break;
+            }
+            Target target = candidates[index];
+            target.acquire();
+            try {
+                Connection connection = getConnection(target.getDataSource(), username, password);
+                return LoadBalancedConnectionInvocationHandler.newProxy(connection, target);
+            } catch (SQLException e) {
+                target.release();
+                logger.warn("The target DataSource[name : '{}'] failed to get the Connection , try the others", target.getName(), e);
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+                candidates = remove(candidates, index);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        throw new SQLException(format("No target DataSource is available in {}", this));
+    }
+
+    /**
+     * Adjust the weights of the targets in place
+     *
+     * @param weights the weights with the datasource names as the keys, the absent targets are not affected
+     * @throws IllegalArgumentException if any name is not found or any weight is negative
+     */
+    public void setWeights(Map<String, Integer> weights) {
+        weights.forEach((name, weight) -> {
+            if (weight == null || weight < 0) {
+                throw new IllegalArgumentException(format("The weight of target DataSource[name : '{}'] must not be negative : {}",
+                        name, weight));
+            }
+            getTarget(name);
+        });
+        weights.forEach((name, weight) -> getTarget(name).setWeight(weight));
+        logger.info("{} adjusted the weights : {}", this, weights);
+    }
+
+    /**
+     * Get the weights of the targets
+     *
+     * @return the weights with the datasource names as the keys in the order of the datasource list
+     */
+    public Map<String, Integer> getWeights() {
+        Map<String, Integer> weights = new LinkedHashMap<>(targets.length);
+        for (Target target : targets) {
+            weights.put(target.getName(), target.getWeight());
+        }
+        return weights;
+    }
+
+    /**
+     * Get the count of the outstanding {@link Connection connections} of the target
+     *
+     * @param name the datasource name
+     * @return the count of the acquired and unclosed {@link Connection connections}
+     */
+    public int getOutstandingConnections(String name) {
+        return getTarget(name).getOutstandingConnections();
+    }
+
+    public LoadBalancingStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Parse the weight of the datasource entry
+     *
+     * @param weight the weight property value
+     * @return {@link #DEFAULT_WEIGHT} if <code>null</code>, or <code>null</code> if invalid
+     */
+    public static Integer parseWeight(String weight) {
+        if (weight == null) {
+            return DEFAULT_WEIGHT;
+        }
+        try {
+            int value = Integer.parseInt(weight.trim());
+            return value < 0 ? null : value;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Target getTarget(String name) {
+        for (Target target : targets) {
+            if (target.getName().equals(name)) {
+                return target;
+            }
+        }
+        throw new IllegalArgumentException(format("The target DataSource[name : '{}'] is not found in {}", name,
+                getTargetDataSources().keySet()));
+    }
+
+    private static Target[] remove(Target[] targets, int index) {
+        Target[] remaining = Arrays.copyOf(targets, targets.length - 1);
+        System.arraycopy(targets, index + 1, remaining, index, targets.length - index - 1);
+        return remaining;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadBalancingDataSource[strategy : " + strategy + " , weights : " + getWeights() + "]";
+    }
+
+    /**
+     * The target {@link DataSource} with its weight and outstanding {@link Connection connections}
+     */
+    static class Target {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile int weight;
+
+        private final AtomicInteger outstandingConnections = new AtomicInteger();
+
+        Target(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        DataSource getDataSource() {
+            return dataSource;
+        }
+
+        int getWeight() {
+            return weight;
+        }
+
+        void setWeight(int weight) {
+            this.weight = weight;
+        }
+
+        int getOutstandingConnections() {
+            return outstandingConnections.get();
+        }
+
+        void acquire() {
+            outstandingConnections.incrementAndGet();
+        }
+
+        void release() {
+            outstandingConnections.decrementAndGet();
+        }
+    }
+}
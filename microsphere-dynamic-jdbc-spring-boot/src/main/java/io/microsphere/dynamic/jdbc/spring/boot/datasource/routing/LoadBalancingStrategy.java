@@ -0,0 +1,99 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The strategy of {@link LoadBalancingDataSource} to select the target {@link LoadBalancingDataSource.Target}, the
+ * targets whose weights are 0 are never selected.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see LoadBalancingDataSource
+ * @since 1.0.0
+ */
+public enum LoadBalancingStrategy {
+
+    /**
+     * Select the targets in turn regardless of their weights
+     */
+    ROUND_ROBIN {
+        @Override
+        int select(LoadBalancingDataSource.Target[] targets, long sequence) {
+            int size = targets.length;
+            int start = (int) Math.floorMod(sequence, (long) size);
+            for (int i = 0; i < size; i++) {
+                int index = (start + i) % size;
+                if (targets[index].getWeight() > 0) {
+                    return index;
+                }
+            }
+            return -1;
+        }
+    },
+
+    /**
+     * Select the targets randomly in proportion to their weights
+     */
+    WEIGHTED {
+        @Override
+        int select(LoadBalancingDataSource.Target[] targets, long sequence) {
+            int size = targets.length;
+            int[] weights = new int[size];
+            long totalWeight = 0;
+            for (int i = 0; i < size; i++) {
+                // Read the volatile weights once, they may be adjusted concurrently
+                weights[i] = targets[i].getWeight();
+                totalWeight += weights[i];
+            }
+            if (totalWeight < 1) {
+                return -1;
+            }
+            long random = ThreadLocalRandom.current().nextLong(totalWeight);
+            for (int i = 0; i < size; i++) {
+                random -= weights[i];
+                if (random < 0) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    },
+
+    /**
+     * Select the target with the fewest outstanding connections per weight, the ties are broken in turn
+     */
+    LEAST_OUTSTANDING {
+        @Override
+        int select(LoadBalancingDataSource.Target[] targets, long sequence) {
+            int size = targets.length;
+            int start = (int) Math.floorMod(sequence, (long) size);
+            int selected = -1;
+            long selectedOutstanding = 0;
+            long selectedWeight = 0;
+            for (int i = 0; i < size; i++) {
+                int index = (start + i) % size;
+                LoadBalancingDataSource.Target target = targets[index];
+                long weight = target.getWeight();
+                if (weight < 1) {
+                    continue;
+                }
+                long outstanding = target.getOutstandingConnections();
+                // outstanding / weight < selectedOutstanding / selectedWeight
+                if (selected < 0 || outstanding * selectedWeight < selectedOutstanding * weight) {
+                    selected = index;
+                    selectedOutstanding = outstanding;
+                    selectedWeight = weight;
+                }
+            }
+            return selected;
+        }
+    };
+
+    /**
+     * Select the target
+     *
+     * @param targets  the candidate targets
+     * @param sequence the sequence of the selections
+     * @return the index of the selected target, or -1 if none is available
+     */
+    abstract int select(LoadBalancingDataSource.Target[] targets, long sequence);
+}
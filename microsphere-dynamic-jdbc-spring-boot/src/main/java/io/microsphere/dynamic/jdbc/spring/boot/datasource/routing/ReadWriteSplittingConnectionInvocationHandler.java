@@ -0,0 +1,193 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * {@link InvocationHandler} for the logical {@link Connection} of {@link ReadWriteSplittingDataSource}, which keeps
+ * the read-only flag, auto-commit and transaction isolation until the first use that requires the physical
+ * {@link Connection}, then acquires it from the routed target and replays them. The replica {@link Connection} is
+ * released once the read-only flag is turned off, and the next use is routed to the primary.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see ReadWriteSplittingDataSource
+ * @since 1.0.0
+ */
+class ReadWriteSplittingConnectionInvocationHandler implements InvocationHandler {
+
+    private static final Class<?>[] PROXY_INTERFACES = new Class[]{Connection.class};
+
+    private final ReadWriteSplittingDataSource dataSource;
+
+    private final String username;
+
+    private final String password;
+
+    private boolean readOnly;
+
+    private Boolean autoCommit;
+
+    private Integer transactionIsolation;
+
+    private boolean closed;
+
+    private ReadWriteSplittingDataSource.RoutedConnection target;
+
+    ReadWriteSplittingConnectionInvocationHandler(ReadWriteSplittingDataSource dataSource, String username, String password) {
+        this.dataSource = dataSource;
+        this.username = username;
+        this.password = password;
+    }
+
+    static Connection newProxy(ReadWriteSplittingDataSource dataSource, String username, String password) {
+        ClassLoader classLoader = ReadWriteSplittingDataSource.class.getClassLoader();
+        InvocationHandler invocationHandler = new ReadWriteSplittingConnectionInvocationHandler(dataSource, username, password);
+        return (Connection) Proxy.newProxyInstance(classLoader, PROXY_INTERFACES, invocationHandler);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String methodName = method.getName();
+        switch (methodName) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "ReadWriteSplittingConnection[target : " + (target == null ? "<lazy>" : target.getName()) + "]";
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                break;
+            case "isWrapperFor":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return true;
+                }
+                break;
+            case "isClosed":
+                if (closed || target == null) {
+                    return closed;
+                }
+                break;
+            case "close":
+                close();
+                return null;
+            case "setReadOnly":
+                readOnly = (Boolean) args[0];
+                if (!readOnly && target != null && target.isReplica()) {
+                    // The writes must not go to the replica, re-route to the primary on the next use
+                    releaseTarget();
+                }
+                if (target == null) {
+                    return null;
+                }
+                break;
+            case "isReadOnly":
+                if (target == null) {
+                    return readOnly;
+                }
+                break;
+            case "setAutoCommit":
+                autoCommit = (Boolean) args[0];
+                if (target == null) {
+                    return null;
+                }
+                break;
+            case "getAutoCommit":
+                if (target == null && autoCommit != null) {
+                    return autoCommit;
+                }
+                break;
+            case "setTransactionIsolation":
+                transactionIsolation = (Integer) args[0];
+                if (target == null) {
+                    return null;
+                }
+                break;
+            case "getTransactionIsolation":
+                if (target == null && transactionIsolation != null) {
+                    return transactionIsolation;
+                }
+                break;
+            case "commit":
+            case "rollback":
+            case "clearWarnings":
+                if (target == null && (args == null || args.length == 0)) {
+                    // Nothing to commit or rollback before the physical Connection is acquired
+                    return null;
+                }
+                break;
+            case "getWarnings":
+                if (target == null) {
+                    return null;
+                }
+                break;
+            default:
+                break;
+        }
+        return invokeTarget(method, args);
+    }
+
+    private Object invokeTarget(Method method, Object[] args) throws Throwable {
+        if (closed) {
+            throw new SQLException("The Connection has been closed");
+        }
+        Connection connection = getTargetConnection();
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private Connection getTargetConnection() throws SQLException {
+        if (target == null) {
+            ReadWriteSplittingDataSource.RoutedConnection target = dataSource.getTargetConnection(readOnly, username, password);
+            Connection connection = target.getConnection();
+            try {
+                if (target.isReadOnly()) {
+                    connection.setReadOnly(true);
+                }
+                if (autoCommit != null) {
+                    connection.setAutoCommit(autoCommit);
+                }
+                if (transactionIsolation != null) {
+                    connection.setTransactionIsolation(transactionIsolation);
+                }
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+            this.target = target;
+        }
+        return target.getConnection();
+    }
+
+    private void releaseTarget() throws SQLException {
+        if (closed) {
+            throw new SQLException("The Connection has been closed");
+        }
+        Connection connection = target.getConnection();
+        target = null;
+        connection.close();
+    }
+
+    private void close() throws SQLException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (target != null) {
+            if (!target.isReadOnly()) {
+                // The primary Connection acquired for read-write use may have written
+                dataSource.markWritten();
+            }
+            target.getConnection().close();
+        }
+    }
+}
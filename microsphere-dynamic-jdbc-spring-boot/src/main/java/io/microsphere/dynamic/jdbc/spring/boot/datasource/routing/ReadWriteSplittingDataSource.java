@@ -0,0 +1,244 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.newSetFromMap;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * The read/write splitting {@link DataSource} without SQL parsing, the {@link Connection connections} of the
+ * read-only transactions or marked by {@link Connection#setReadOnly(boolean)} are routed to the replicas, and the
+ * others to the primary.
+ * <p>
+ * The physical {@link Connection} is acquired lazily on the first use, thus the read-only flag set after
+ * {@link #getConnection()} can take effect. The read-only {@link Connection connections} of the thread that wrote
+ * recently stick to the primary within the read-your-writes window.
+ * <p>
+ * The replicas excluded by {@link ReplicationLagMonitor} do not serve the reads until they are included again, the
+ * reads fall back to the primary if all replicas are excluded.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see DataSourceRole
+ * @see ReplicationLagMonitor
+ * @see TransactionSynchronizationManager#isCurrentTransactionReadOnly()
+ * @since 1.0.0
+ */
+public class ReadWriteSplittingDataSource extends RoutingDataSource {
+
+    private final String primaryName;
+
+    private final List<String> replicaNames;
+
+    private final long readYourWritesWindow;
+
+    private final AtomicInteger replicaIndex = new AtomicInteger();
+
+    private final ThreadLocal<Long> lastWriteTime = new ThreadLocal<>();
+
+    private final Set<String> excludedReplicaNames = newSetFromMap(new ConcurrentHashMap<>());
+
+    private volatile ReplicationLagMonitor replicationLagMonitor;
+
+    public ReadWriteSplittingDataSource(Map<String, DataSource> targetDataSources, String primaryName, List<String> replicaNames,
+                                        Duration readYourWritesWindow) {
+        super(targetDataSources);
+        this.primaryName = primaryName;
+        this.replicaNames = unmodifiableList(new ArrayList<>(replicaNames));
+        this.readYourWritesWindow = readYourWritesWindow.toNanos();
+        // Validate the names
+        getTargetDataSource(primaryName);
+        replicaNames.forEach(this::getTargetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return ReadWriteSplittingConnectionInvocationHandler.newProxy(this, null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return ReadWriteSplittingConnectionInvocationHandler.newProxy(this, username, password);
+    }
+
+    /**
+     * Acquire the physical {@link Connection} for the logical one
+     *
+     * @param readOnly whether the logical {@link Connection} is read-only
+     * @return the routed {@link RoutedConnection}
+     * @throws SQLException if the primary {@link Connection} can't be acquired
+     */
+    RoutedConnection getTargetConnection(boolean readOnly, String username, String password) throws SQLException {
+        readOnly = readOnly || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        String replicaName;
+        if (readOnly && !replicaNames.isEmpty() && !isReadingYourWrites() && (replicaName = selectReplica()) != null) {
+            try {
+                return new RoutedConnection(replicaName, getConnection(getTargetDataSource(replicaName), username, password), true, true);
+            } catch (SQLException e) {
+                logger.warn("The replica[name : '{}'] is unavailable , fallback to the primary[name : '{}']", replicaName, primaryName, e);
+            }
+        }
+        return new RoutedConnection(primaryName, getConnection(getTargetDataSource(primaryName), username, password), false, readOnly);
+    }
+
+    /**
+     * Mark current thread has written to the primary
+     */
+    void markWritten() {
+        if (readYourWritesWindow > 0) {
+            lastWriteTime.set(System.nanoTime());
+        }
+    }
+
+    boolean isReadingYourWrites() {
+        Long lastWriteTime = this.lastWriteTime.get();
+        if (lastWriteTime == null) {
+            return false;
+        }
+        if (System.nanoTime() - lastWriteTime < readYourWritesWindow) {
+            return true;
+        }
+        this.lastWriteTime.remove();
+        return false;
+    }
+
+    /**
+     * Select the replica in turn, the excluded ones are skipped
+     *
+     * @return <code>null</code> if all replicas are excluded
+     */
+    private String selectReplica() {
+        int size = replicaNames.size();
+        if (excludedReplicaNames.isEmpty()) {
+            return size == 1 ? replicaNames.get(0) : replicaNames.get(Math.floorMod(replicaIndex.getAndIncrement(), size));
+        }
+        int start = replicaIndex.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            String replicaName = replicaNames.get(Math.floorMod(start + i, size));
+            if (!excludedReplicaNames.contains(replicaName)) {
+                return replicaName;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Exclude the replica from the reads
+     *
+     * @param replicaName the name of replica
+     * @return <code>true</code> if it was not excluded
+     */
+    boolean excludeReplica(String replicaName) {
+        return replicaNames.contains(replicaName) && excludedReplicaNames.add(replicaName);
+    }
+
+    /**
+     * Include the excluded replica into the reads
+     *
+     * @param replicaName the name of replica
+     * @return <code>true</code> if it was excluded
+     */
+    boolean includeReplica(String replicaName) {
+        return excludedReplicaNames.remove(replicaName);
+    }
+
+    /**
+     * Get the names of the replicas excluded from the reads
+     *
+     * @return non-null
+     */
+    public Set<String> getExcludedReplicaNames() {
+        return unmodifiableSet(excludedReplicaNames);
+    }
+
+    /**
+     * Set and start the {@link ReplicationLagMonitor}, which is stopped when this is destroyed
+     *
+     * @param replicationLagMonitor {@link ReplicationLagMonitor}
+     */
+    public void setReplicationLagMonitor(ReplicationLagMonitor replicationLagMonitor) {
+        ReplicationLagMonitor previousMonitor = this.replicationLagMonitor;
+        if (previousMonitor != null) {
+            previousMonitor.stop();
+        }
+        this.replicationLagMonitor = replicationLagMonitor;
+        replicationLagMonitor.start();
+    }
+
+    public ReplicationLagMonitor getReplicationLagMonitor() {
+        return replicationLagMonitor;
+    }
+
+    public String getPrimaryName() {
+        return primaryName;
+    }
+
+    public List<String> getReplicaNames() {
+        return replicaNames;
+    }
+
+    @Override
+    public void destroy() {
+        ReplicationLagMonitor replicationLagMonitor = this.replicationLagMonitor;
+        if (replicationLagMonitor != null) {
+            replicationLagMonitor.stop();
+        }
+        super.destroy();
+    }
+
+    @Override
+    public String toString() {
+        return "ReadWriteSplittingDataSource[primary : '" + primaryName + "' , replicas : " + replicaNames + "]";
+    }
+
+    /**
+     * The physical {@link Connection} with the name of the target {@link DataSource} it was routed to
+     */
+    static class RoutedConnection {
+
+        private final String name;
+
+        private final Connection connection;
+
+        private final boolean replica;
+
+        private final boolean readOnly;
+
+        RoutedConnection(String name, Connection connection, boolean replica, boolean readOnly) {
+            this.name = name;
+            this.connection = connection;
+            this.replica = replica;
+            this.readOnly = readOnly;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Connection getConnection() {
+            return connection;
+        }
+
+        boolean isReplica() {
+            return replica;
+        }
+
+        /**
+         * @return <code>true</code> if it was acquired for read-only use
+         */
+        boolean isReadOnly() {
+            return readOnly;
+        }
+    }
+}
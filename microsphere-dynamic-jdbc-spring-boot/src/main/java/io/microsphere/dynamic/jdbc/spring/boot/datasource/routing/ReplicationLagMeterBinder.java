@@ -0,0 +1,95 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.BeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link MeterBinder} exports the readings of {@link ReplicationLagMonitor} per replica :
+ * <ul>
+ *     <li>"microsphere.dynamic.jdbc.replication.lag" : the last polled lag in seconds, NaN if unknown</li>
+ *     <li>"microsphere.dynamic.jdbc.replication.excluded" : 1 if the replica is excluded from the reads, or 0</li>
+ * </ul>
+ * The meters of the rebuilt {@link ReadWriteSplittingDataSource} replace the ones of the previous monitor, which only
+ * removes the meters still bound to itself once it's stopped.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see ReplicationLagMonitor
+ * @since 1.0.0
+ */
+public class ReplicationLagMeterBinder implements MeterBinder {
+
+    public static final String LAG_METER_NAME = "microsphere.dynamic.jdbc.replication.lag";
+
+    public static final String EXCLUDED_METER_NAME = "microsphere.dynamic.jdbc.replication.excluded";
+
+    private final ReplicationLagMonitor replicationLagMonitor;
+
+    private final String dynamicJdbcConfigName;
+
+    public ReplicationLagMeterBinder(ReplicationLagMonitor replicationLagMonitor, String dynamicJdbcConfigName) {
+        this.replicationLagMonitor = replicationLagMonitor;
+        this.dynamicJdbcConfigName = dynamicJdbcConfigName;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ReadWriteSplittingDataSource dataSource = replicationLagMonitor.getDataSource();
+        List<Meter> meters = new ArrayList<>();
+        // The registrations and the removals of the generations are serialized
+        synchronized (registry) {
+            for (String replicaName : dataSource.getReplicaNames()) {
+                Tags tags = Tags.of("config", dynamicJdbcConfigName, "replica", replicaName);
+                // The registry returns the existing meter of the same id, which is still bound to the previous monitor
+                removeMeters(registry, LAG_METER_NAME, tags);
+                removeMeters(registry, EXCLUDED_METER_NAME, tags);
+                meters.add(Gauge.builder(LAG_METER_NAME, replicationLagMonitor, monitor -> monitor.getLag(replicaName))
+                        .tags(tags)
+                        .baseUnit("seconds")
+                        .description("The replication lag of the replica")
+                        .register(registry));
+                meters.add(Gauge.builder(EXCLUDED_METER_NAME, dataSource,
+                        source -> source.getExcludedReplicaNames().contains(replicaName) ? 1 : 0)
+                        .tags(tags)
+                        .description("Whether the replica is excluded from the reads for the replication lag")
+                        .register(registry));
+            }
+        }
+        replicationLagMonitor.addStopCallback(() -> {
+            synchronized (registry) {
+                // The meters replaced by the next generation are not removed
+                meters.stream().filter(meter -> isRegistered(registry, meter)).forEach(registry::remove);
+            }
+        });
+    }
+
+    private static void removeMeters(MeterRegistry registry, String name, Tags tags) {
+        registry.find(name).tags(tags).meters().forEach(registry::remove);
+    }
+
+    private static boolean isRegistered(MeterRegistry registry, Meter meter) {
+        // The meters are equal by their ids, thus the identity is compared
+        return registry.find(meter.getId().getName()).tags(meter.getId().getTags()).meters().stream()
+                .anyMatch(registered -> registered == meter);
+    }
+
+    /**
+     * Bind the meters to the unique {@link MeterRegistry} of {@link BeanFactory} if present
+     *
+     * @param replicationLagMonitor {@link ReplicationLagMonitor}
+     * @param dynamicJdbcConfigName the name of DynamicJdbcConfig
+     * @param beanFactory           {@link BeanFactory}
+     */
+    public static void bind(ReplicationLagMonitor replicationLagMonitor, String dynamicJdbcConfigName, BeanFactory beanFactory) {
+        MeterRegistry registry = beanFactory.getBeanProvider(MeterRegistry.class).getIfUnique();
+        if (registry != null) {
+            new ReplicationLagMeterBinder(replicationLagMonitor, dynamicJdbcConfigName).bindTo(registry);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.StringUtils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+
+/**
+ * The monitor of the replication lag of the replicas in {@link ReadWriteSplittingDataSource}, which polls the lag of
+ * each replica by the query, e.g. the status query of the driver or the one of the heartbeat table, and excludes the
+ * replicas whose lag exceeds the threshold from the read routing until they catch up.
+ * <p>
+ * The query must return the lag in seconds, from the column of the label if specified, or the first column otherwise.
+ * The replica is regarded as lagging if the lag is <code>null</code> (e.g. the replication of MySQL is stopped), or it
+ * fails to be polled, or its poll doesn't finish within the query timeout, which bounds the wait for the
+ * {@link Connection} of an exhausted pool as well. The monitors of all DynamicJdbcConfigs share a single scheduler
+ * thread, which only dispatches the polls to the pollers, and the lags are applied on the completions of the polls,
+ * thus neither a slow replica nor the monitor of another DynamicJdbcConfig is delayed by the slow ones.
+ * <p>
+ * The default query is "SHOW REPLICA STATUS" of MySQL 8.0.22+, and the replica falls back to "SHOW SLAVE STATUS" if
+ * it doesn't support the former.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see ReadWriteSplittingDataSource
+ * @see ReplicationLagMeterBinder
+ * @since 1.0.0
+ */
+public class ReplicationLagMonitor implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicationLagMonitor.class);
+
+    /**
+     * The default query of MySQL
+     */
+    public static final String DEFAULT_LAG_QUERY = "SHOW REPLICA STATUS";
+
+    /**
+     * The default column label of {@link #DEFAULT_LAG_QUERY}
+     */
+    public static final String DEFAULT_LAG_COLUMN_LABEL = "Seconds_Behind_Source";
+
+    /**
+     * The query of MySQL before 8.0.22
+     */
+    public static final String LEGACY_LAG_QUERY = "SHOW SLAVE STATUS";
+
+    /**
+     * The column label of {@link #LEGACY_LAG_QUERY}, which is also the one of {@link #DEFAULT_LAG_QUERY} in MariaDB
+     */
+    public static final String LEGACY_LAG_COLUMN_LABEL = "Seconds_Behind_Master";
+
+    private static final ScheduledExecutorService scheduler = newScheduler();
+
+    private static final ExecutorService pollers = newPollers();
+
+    private final ReadWriteSplittingDataSource dataSource;
+
+    private final String lagQuery;
+
+    private final String lagColumnLabel;
+
+    private final double maxLagSeconds;
+
+    private final long pollInterval;
+
+    private final int queryTimeout;
+
+    private final long pollTimeout;
+
+    private final boolean defaultLagQuery;
+
+    private final Map<String, Double> lags = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<Double>> pendingPolls = new ConcurrentHashMap<>();
+
+    /**
+     * The names of the replicas that don't support {@link #DEFAULT_LAG_QUERY}
+     */
+    private final Set<String> legacyReplicaNames = ConcurrentHashMap.newKeySet();
+
+    private final List<Runnable> stopCallbacks = new CopyOnWriteArrayList<>();
+
+    private volatile ScheduledFuture<?> future;
+
+    private volatile boolean stopped;
+
+    /**
+     * @param dataSource     {@link ReadWriteSplittingDataSource}
+     * @param lagQuery       the query of the lag in seconds
+     * @param lagColumnLabel the column label of the lag, the first column is read if it's blank
+     * @param maxLag         the max lag of the replicas that serve the reads
+     * @param pollInterval   the interval of the polls
+     * @param queryTimeout   the timeout of the poll, including the wait for the {@link Connection}
+     */
+    public ReplicationLagMonitor(ReadWriteSplittingDataSource dataSource, String lagQuery, String lagColumnLabel, Duration maxLag,
+                                 Duration pollInterval, Duration queryTimeout) {
+        if (!StringUtils.hasText(lagQuery)) {
+            throw new IllegalArgumentException("The query of the replication lag must not be blank");
+        }
+        this.dataSource = dataSource;
+        this.lagQuery = lagQuery;
+        this.lagColumnLabel = StringUtils.hasText(lagColumnLabel) ? lagColumnLabel : null;
+        this.maxLagSeconds = maxLag.toMillis() / 1000d;
+        this.pollInterval = Math.max(1, pollInterval.toMillis());
+        this.queryTimeout = (int) Math.max(1, (queryTimeout.toMillis() + 999) / 1000);
+        this.pollTimeout = Math.max(1, queryTimeout.toMillis());
+        this.defaultLagQuery = DEFAULT_LAG_QUERY.equalsIgnoreCase(lagQuery) && DEFAULT_LAG_COLUMN_LABEL.equals(this.lagColumnLabel);
+    }
+
+    /**
+     * Start polling on the shared scheduler
+     */
+    public synchronized void start() {
+        if (future != null) {
+            return;
+        }
+        stopped = false;
+        try {
+            future = scheduler.scheduleWithFixedDelay(this, 0, pollInterval, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.warn("The replication lag monitor of {} was rejected", dataSource, e);
+            return;
+        }
+        logger.info("The replication lag monitor of {} started , max lag : {} s , poll interval : {} ms", dataSource, maxLagSeconds,
+                pollInterval);
+    }
+
+    /**
+     * Stop polling, the excluded replicas are included again
+     */
+    public synchronized void stop() {
+        ScheduledFuture<?> future = this.future;
+        if (future == null) {
+            return;
+        }
+        future.cancel(false);
+        this.future = null;
+        // The pending polls are not applied since then
+        this.stopped = true;
+        dataSource.getReplicaNames().forEach(dataSource::includeReplica);
+        stopCallbacks.forEach(Runnable::run);
+        stopCallbacks.clear();
+    }
+
+    @Override
+    public void run() {
+        pollReplicas();
+    }
+
+    /**
+     * Dispatch the polls of the replicas to the pollers without waiting for them, the lag of each replica is applied
+     * on the completion of its poll, or it's regarded as lagging once the poll timeout elapses.
+     *
+     * @return the {@link CompletableFuture} completed when the lags of all replicas are applied
+     */
+    CompletableFuture<Void> pollReplicas() {
+        List<CompletableFuture<?>> rounds = new ArrayList<>();
+        for (String replicaName : dataSource.getReplicaNames()) {
+            CompletableFuture<Double> poll = pendingPolls.get(replicaName);
+            if (poll != null && !poll.isDone()) {
+                // The pending poll of the previous round, e.g. waiting for a Connection of the exhausted pool, has been
+                // regarded as lagging, and it will be applied on the completion instead of piling up
+                continue;
+            }
+            try {
+                poll = CompletableFuture.supplyAsync(() -> poll(replicaName), pollers);
+            } catch (RejectedExecutionException e) {
+                logger.warn("The poll of replica[name : '{}'] was rejected", replicaName, e);
+                continue;
+            }
+            pendingPolls.put(replicaName, poll);
+            CompletableFuture<Void> round = new CompletableFuture<>();
+            CompletableFuture<Double> currentPoll = poll;
+            ScheduledFuture<?> timeout = scheduler.schedule(() -> {
+                if (applyTimeout(replicaName, currentPoll)) {
+                    round.complete(null);
+                }
+            }, pollTimeout, TimeUnit.MILLISECONDS);
+            poll.whenComplete((lag, e) -> {
+                timeout.cancel(false);
+                applyLag(replicaName, lag);
+                round.complete(null);
+            });
+            rounds.add(round);
+        }
+        return CompletableFuture.allOf(rounds.toArray(new CompletableFuture[0]));
+    }
+
+    private synchronized boolean applyTimeout(String replicaName, CompletableFuture<Double> poll) {
+        if (poll.isDone()) {
+            return false;
+        }
+        logger.debug("The replication lag of replica[name : '{}'] was not polled within {} ms", replicaName, pollTimeout);
+        applyLag(replicaName, null);
+        return true;
+    }
+
+    private synchronized void applyLag(String replicaName, Double lag) {
+        if (stopped) {
+            return;
+        }
+        lags.put(replicaName, lag == null ? Double.NaN : lag);
+        if (lag == null || lag > maxLagSeconds) {
+            if (dataSource.excludeReplica(replicaName)) {
+                logger.warn("The replica[name : '{}'] is excluded from the reads , lag : {} s , max lag : {} s", replicaName, lag,
+                        maxLagSeconds);
+            }
+        } else if (dataSource.includeReplica(replicaName)) {
+            logger.info("The replica[name : '{}'] caught up , lag : {} s", replicaName, lag);
+        }
+    }
+
+    /**
+     * Poll the lag of the replica
+     *
+     * @param replicaName the name of replica
+     * @return the lag in seconds, or <code>null</code> if unknown
+     */
+    Double poll(String replicaName) {
+        try (Connection connection = dataSource.getTargetDataSource(replicaName).getConnection()) {
+            if (defaultLagQuery && !legacyReplicaNames.contains(replicaName)) {
+                try {
+                    return queryLag(connection, lagQuery, lagColumnLabel);
+                } catch (SQLSyntaxErrorException e) {
+                    // Before MySQL 8.0.22
+                    legacyReplicaNames.add(replicaName);
+                    logger.info("The replica[name : '{}'] doesn't support '{}' , fall back to '{}'", replicaName, DEFAULT_LAG_QUERY,
+                            LEGACY_LAG_QUERY);
+                }
+            }
+            if (defaultLagQuery) {
+                return queryLag(connection, LEGACY_LAG_QUERY, LEGACY_LAG_COLUMN_LABEL);
+            }
+            return queryLag(connection, lagQuery, lagColumnLabel);
+        } catch (SQLException | RuntimeException e) {
+            logger.debug("The replication lag of replica[name : '{}'] failed to be polled", replicaName, e);
+            return null;
+        }
+    }
+
+    private Double queryLag(Connection connection, String lagQuery, String lagColumnLabel) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(queryTimeout);
+            try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                if (!resultSet.next()) {
+                    // e.g. The server is not a replica
+                    return null;
+                }
+                double lag = lagColumnLabel == null ? resultSet.getDouble(1) : getLag(resultSet, lagColumnLabel);
+                return resultSet.wasNull() ? null : lag;
+            }
+        }
+    }
+
+    private double getLag(ResultSet resultSet, String lagColumnLabel) throws SQLException {
+        try {
+            return resultSet.getDouble(lagColumnLabel);
+        } catch (SQLException e) {
+            if (DEFAULT_LAG_COLUMN_LABEL.equals(lagColumnLabel)) {
+                // MariaDB keeps the legacy column in "SHOW REPLICA STATUS"
+                return resultSet.getDouble(LEGACY_LAG_COLUMN_LABEL);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Get the last polled lag of the replica
+     *
+     * @param replicaName the name of replica
+     * @return the lag in seconds, or {@link Double#NaN} if unknown
+     */
+    public double getLag(String replicaName) {
+        return lags.getOrDefault(replicaName, Double.NaN);
+    }
+
+    public double getMaxLagSeconds() {
+        return maxLagSeconds;
+    }
+
+    public ReadWriteSplittingDataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Add the callback that runs when the monitor is stopped, e.g. removing the metrics
+     *
+     * @param callback the callback
+     */
+    void addStopCallback(Runnable callback) {
+        stopCallbacks.add(callback);
+    }
+
+    private static ScheduledExecutorService newScheduler() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ReplicationLagMonitor-");
+        threadFactory.setDaemon(true);
+        return newSingleThreadScheduledExecutor(threadFactory);
+    }
+
+    private static ExecutorService newPollers() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("ReplicationLagMonitor-Poller-");
+        threadFactory.setDaemon(true);
+        // At most one pending poll per replica
+        return newCachedThreadPool(threadFactory);
+    }
+}
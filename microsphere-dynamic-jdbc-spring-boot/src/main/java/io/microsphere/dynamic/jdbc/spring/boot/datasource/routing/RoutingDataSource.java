@@ -0,0 +1,90 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.microsphere.text.FormatUtils.format;
+import static java.util.Collections.unmodifiableMap;
+
+/**
+ * The base {@link DataSource} routes the {@link Connection connections} to the target {@link DataSource DataSources}
+ * built from the entries of the datasource list, which owns the target {@link DataSource DataSources} and closes them
+ * when it's destroyed.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see RoutingDataSourceFactory
+ * @since 1.0.0
+ */
+public abstract class RoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final Map<String, DataSource> targetDataSources;
+
+    protected RoutingDataSource(Map<String, DataSource> targetDataSources) {
+        this.targetDataSources = unmodifiableMap(new LinkedHashMap<>(targetDataSources));
+    }
+
+    /**
+     * Get the target {@link DataSource DataSources}
+     *
+     * @return the unmodifiable {@link Map} with the datasource names as the keys in the order of the datasource list
+     */
+    public Map<String, DataSource> getTargetDataSources() {
+        return targetDataSources;
+    }
+
+    /**
+     * Get the target {@link DataSource} by name
+     *
+     * @param name the datasource name
+     * @return non-null
+     * @throws IllegalArgumentException if not found
+     */
+    public DataSource getTargetDataSource(String name) {
+        DataSource dataSource = targetDataSources.get(name);
+        if (dataSource == null) {
+            throw new IllegalArgumentException(format("The target DataSource[name : '{}'] is not found in {}", name,
+                    targetDataSources.keySet()));
+        }
+        return dataSource;
+    }
+
+    /**
+     * Find the {@link HikariDataSource HikariDataSources} of the {@link DataSource}, including the targets of
+     * {@link RoutingDataSource} recursively
+     *
+     * @param dataSource {@link DataSource}
+     * @return non-null
+     */
+    public static List<HikariDataSource> findHikariDataSources(DataSource dataSource) {
+        List<HikariDataSource> hikariDataSources = new ArrayList<>(1);
+        if (dataSource instanceof HikariDataSource) {
+            hikariDataSources.add((HikariDataSource) dataSource);
+        } else if (dataSource instanceof RoutingDataSource) {
+            ((RoutingDataSource) dataSource).getTargetDataSources().values()
+                    .forEach(targetDataSource -> hikariDataSources.addAll(findHikariDataSources(targetDataSource)));
+        }
+        return hikariDataSources;
+    }
+
+    protected static Connection getConnection(DataSource dataSource, String username, String password) throws SQLException {
+        return username == null && password == null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+    }
+
+    @Override
+    public void destroy() {
+        RoutingDataSourceFactory.closeTargetDataSources(targetDataSources);
+    }
+}
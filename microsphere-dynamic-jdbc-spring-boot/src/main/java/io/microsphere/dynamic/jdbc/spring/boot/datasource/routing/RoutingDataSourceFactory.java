@@ -0,0 +1,322 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertyName;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.core.env.Environment;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DRIVER_CLASS_NAME_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.JDBC_URL_PROPERTY_NAMES;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.NAME_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.PASSWORD_NAME_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.ROLE_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.TYPE_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.USER_NAME_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.WEIGHT_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils.getDataSourceName;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils.getDataSourceType;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils.getDataSourceUrl;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils.getDriverClassName;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceLoadBalancingStrategy;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceReadYourWritesWindow;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceReplicationLagColumnLabel;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceReplicationLagMaxLag;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceReplicationLagPollInterval;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceReplicationLagQuery;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceReplicationLagQueryTimeout;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceZoneFailoverFailureThreshold;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceZoneFailoverProbeInterval;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceZoneFailoverProbeTimeout;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceZoneLatencyAlpha;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceZoneLatencyProbeInterval;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceZoneLatencyTolerance;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.getDynamicDataSourceZoneStandbyMinimumIdle;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isDynamicDataSourceReplicationLagEnabled;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isDynamicDataSourceZoneFailoverEnabled;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isDynamicDataSourceZoneLatencyEnabled;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.isDynamicDataSourceZoneStandbyEnabled;
+import static io.microsphere.multiple.active.zone.ZoneConstants.DEFAULT_ZONE;
+import static io.microsphere.text.FormatUtils.format;
+import static java.util.Collections.singletonMap;
+
+/**
+ * The factory of {@link RoutingDataSource} builds the target {@link DataSource DataSources} from the entries of the
+ * datasource list as Spring Boot does for the single one.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see RoutingDataSource
+ * @since 1.0.0
+ */
+public abstract class RoutingDataSourceFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoutingDataSourceFactory.class);
+
+    /**
+     * The properties that are consumed by the factory rather than bound to the target {@link DataSource}
+     */
+    private static final String[] RESERVED_PROPERTY_NAMES = {NAME_PROPERTY_NAME, TYPE_PROPERTY_NAME, ROLE_PROPERTY_NAME,
+            WEIGHT_PROPERTY_NAME, DRIVER_CLASS_NAME_PROPERTY_NAME, USER_NAME_PROPERTY_NAME, PASSWORD_NAME_PROPERTY_NAME};
+
+    /**
+     * The default maximumPoolSize of Hikari
+     */
+    private static final int DEFAULT_MAXIMUM_POOL_SIZE = 10;
+
+    private RoutingDataSourceFactory() {
+    }
+
+    /**
+     * Create the {@link RoutingDataSource} from the entries of the datasource list
+     *
+     * @param dataSourcePropertiesList the post-processed properties list of the datasource entries
+     * @param dynamicJdbcConfigName    the name of DynamicJdbcConfig
+     * @param environment              {@link Environment}
+     * @param classLoader              {@link ClassLoader}
+     * @return {@link ReadWriteSplittingDataSource} if the entries have roles, or {@link LoadBalancingDataSource}
+     * @throws IllegalStateException if the entries can't be routed
+     */
+    public static RoutingDataSource create(List<Map<String, String>> dataSourcePropertiesList, String dynamicJdbcConfigName,
+                                           Environment environment, ClassLoader classLoader) {
+        Map<String, DataSource> targetDataSources = new LinkedHashMap<>();
+        try {
+            String primaryName = null;
+            List<String> replicaNames = new ArrayList<>();
+            Map<String, Integer> weights = new LinkedHashMap<>();
+            boolean hasRoles = false;
+            for (Map<String, String> dataSourceProperties : dataSourcePropertiesList) {
+                String name = getDataSourceName(dataSourceProperties);
+                targetDataSources.put(name, createTargetDataSource(dataSourceProperties, classLoader));
+                String role = dataSourceProperties.get(ROLE_PROPERTY_NAME);
+                hasRoles |= role != null;
+                DataSourceRole dataSourceRole = DataSourceRole.resolve(role, null);
+                if (dataSourceRole == DataSourceRole.PRIMARY) {
+                    primaryName = name;
+                } else if (dataSourceRole == DataSourceRole.REPLICA) {
+                    replicaNames.add(name);
+                }
+                weights.put(name, getWeight(dataSourceProperties, dynamicJdbcConfigName));
+            }
+            final RoutingDataSource routingDataSource;
+            if (hasRoles) {
+                if (primaryName == null) {
+                    throw new IllegalStateException(format("DynamicJdbcConfig[name : '{}'] must mark one datasource entry with '{}' : '{}'",
+                            dynamicJdbcConfigName, ROLE_PROPERTY_NAME, DataSourceRole.PRIMARY.name().toLowerCase()));
+                }
+                ReadWriteSplittingDataSource readWriteSplittingDataSource = new ReadWriteSplittingDataSource(targetDataSources, primaryName,
+                        replicaNames, getDynamicDataSourceReadYourWritesWindow(environment, dynamicJdbcConfigName));
+                if (!replicaNames.isEmpty() && isDynamicDataSourceReplicationLagEnabled(environment, dynamicJdbcConfigName)) {
+                    readWriteSplittingDataSource.setReplicationLagMonitor(new ReplicationLagMonitor(readWriteSplittingDataSource,
+                            getDynamicDataSourceReplicationLagQuery(environment, dynamicJdbcConfigName),
+                            getDynamicDataSourceReplicationLagColumnLabel(environment, dynamicJdbcConfigName),
+                            getDynamicDataSourceReplicationLagMaxLag(environment, dynamicJdbcConfigName),
+                            getDynamicDataSourceReplicationLagPollInterval(environment, dynamicJdbcConfigName),
+                            getDynamicDataSourceReplicationLagQueryTimeout(environment, dynamicJdbcConfigName)));
+                }
+                routingDataSource = readWriteSplittingDataSource;
+            } else {
+                routingDataSource = new LoadBalancingDataSource(targetDataSources, weights,
+                        getDynamicDataSourceLoadBalancingStrategy(environment, dynamicJdbcConfigName));
+            }
+            logger.info("DynamicJdbcConfig[name : '{}'] creates {}", dynamicJdbcConfigName, routingDataSource);
+            return routingDataSource;
+        } catch (RuntimeException | Error e) {
+            closeTargetDataSources(targetDataSources);
+            throw e;
+        }
+    }
+
+    /**
+     * Create the {@link HighAvailabilityDataSource} from the datasource lists of the zones, the pools of the active
+     * zone and "defaultZone" are built, so are the ones of the other zones if the standby or the latency routing is
+     * enabled, and the pools of the non-active zones are kept at the standby minimumIdle in both cases.
+     *
+     * @param zoneDataSourcePropertiesMap the post-processed properties lists with the zones as the keys
+     * @param activeZone                  the active zone
+     * @param dynamicJdbcConfigName       the name of DynamicJdbcConfig
+     * @param environment                 {@link Environment}
+     * @param classLoader                 {@link ClassLoader}
+     * @return non-null
+     * @throws IllegalStateException if "defaultZone" is absent
+     */
+    public static HighAvailabilityDataSource createHighAvailabilityDataSource(Map<String, List<Map<String, String>>> zoneDataSourcePropertiesMap,
+                                                                              String activeZone, String dynamicJdbcConfigName,
+                                                                              Environment environment, ClassLoader classLoader) {
+        if (CollectionUtils.isEmpty(zoneDataSourcePropertiesMap.get(DEFAULT_ZONE))) {
+            throw new IllegalStateException(format("DynamicJdbcConfig[name : '{}'] must configure the datasource list of zone '{}'",
+                    dynamicJdbcConfigName, DEFAULT_ZONE));
+        }
+        boolean standby = isDynamicDataSourceZoneStandbyEnabled(environment, dynamicJdbcConfigName);
+        boolean latency = isDynamicDataSourceZoneLatencyEnabled(environment, dynamicJdbcConfigName);
+        int failureThreshold = isDynamicDataSourceZoneFailoverEnabled(environment, dynamicJdbcConfigName) ?
+                getDynamicDataSourceZoneFailoverFailureThreshold(environment, dynamicJdbcConfigName) : 0;
+        Map<String, DataSource> zoneDataSources = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, List<Map<String, String>>> entry : zoneDataSourcePropertiesMap.entrySet()) {
+                String zone = entry.getKey();
+                List<Map<String, String>> dataSourcePropertiesList = entry.getValue();
+                if (CollectionUtils.isEmpty(dataSourcePropertiesList)) {
+                    continue;
+                }
+                if (standby || latency || zone.equals(activeZone) || DEFAULT_ZONE.equals(zone)) {
+                    zoneDataSources.put(zone, createZoneDataSource(dataSourcePropertiesList, dynamicJdbcConfigName, environment, classLoader));
+                }
+            }
+            HighAvailabilityDataSource highAvailabilityDataSource = new HighAvailabilityDataSource(zoneDataSources, activeZone,
+                    failureThreshold, getDynamicDataSourceZoneFailoverProbeInterval(environment, dynamicJdbcConfigName),
+                    getDynamicDataSourceZoneFailoverProbeTimeout(environment, dynamicJdbcConfigName),
+                    // The non-active zones of the latency routing are the standbys, grown only once promoted
+                    standby || latency ? getDynamicDataSourceZoneStandbyMinimumIdle(environment, dynamicJdbcConfigName) : -1);
+            highAvailabilityDataSource.setZoneDataSourcePropertiesMap(zoneDataSourcePropertiesMap);
+            if (latency) {
+                highAvailabilityDataSource.startLatencyRouting(getDynamicDataSourceZoneLatencyProbeInterval(environment, dynamicJdbcConfigName),
+                        getDynamicDataSourceZoneLatencyAlpha(environment, dynamicJdbcConfigName),
+                        getDynamicDataSourceZoneLatencyTolerance(environment, dynamicJdbcConfigName));
+            }
+            logger.info("DynamicJdbcConfig[name : '{}'] creates {}", dynamicJdbcConfigName, highAvailabilityDataSource);
+            return highAvailabilityDataSource;
+        } catch (RuntimeException | Error e) {
+            closeTargetDataSources(zoneDataSources);
+            throw e;
+        }
+    }
+
+    /**
+     * Create the {@link StripedDataSource} from the single datasource entry, whose maximumPoolSize and minimumIdle are
+     * split among the stripes, the count of stripes is no more than the maximumPoolSize.
+     *
+     * @param dataSourceProperties  the post-processed properties of the datasource entry
+     * @param dynamicJdbcConfigName the name of DynamicJdbcConfig
+     * @param stripes               the count of stripes
+     * @param classLoader           {@link ClassLoader}
+     * @return non-null
+     * @throws IllegalStateException if the datasource entry is not {@link HikariDataSource}
+     */
+    public static StripedDataSource createStripedDataSource(Map<String, String> dataSourceProperties, String dynamicJdbcConfigName,
+                                                            int stripes, ClassLoader classLoader) {
+        Map<String, HikariDataSource> stripeDataSources = new LinkedHashMap<>();
+        try {
+            String name = getDataSourceName(dataSourceProperties);
+            int count = stripes;
+            for (int i = 0; i < count; i++) {
+                DataSource dataSource = createTargetDataSource(dataSourceProperties, classLoader);
+                if (!(dataSource instanceof HikariDataSource)) {
+                    closeTargetDataSources(singletonMap(name, dataSource));
+                    throw new IllegalStateException(format("DynamicJdbcConfig[name : '{}'] datasource entry[name : '{}'] must be {} to be striped , actual : {}",
+                            dynamicJdbcConfigName, name, HikariDataSource.class.getName(), dataSource.getClass().getName()));
+                }
+                HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
+                // Hikari resolves the unset sizes when the pool starts
+                int maximumPoolSize = hikariDataSource.getMaximumPoolSize() < 1 ? DEFAULT_MAXIMUM_POOL_SIZE : hikariDataSource.getMaximumPoolSize();
+                int minimumIdle = hikariDataSource.getMinimumIdle() < 0 ? maximumPoolSize : Math.min(hikariDataSource.getMinimumIdle(), maximumPoolSize);
+                count = Math.min(stripes, maximumPoolSize);
+                hikariDataSource.setPoolName(hikariDataSource.getPoolName() + "-" + i);
+                hikariDataSource.setMaximumPoolSize(StripedDataSource.split(maximumPoolSize, i, count));
+                hikariDataSource.setMinimumIdle(StripedDataSource.split(minimumIdle, i, count));
+                stripeDataSources.put(name + "-" + i, hikariDataSource);
+            }
+            StripedDataSource stripedDataSource = new StripedDataSource(stripeDataSources);
+            logger.info("DynamicJdbcConfig[name : '{}'] creates {}", dynamicJdbcConfigName, stripedDataSource);
+            return stripedDataSource;
+        } catch (RuntimeException | Error e) {
+            closeTargetDataSources(new LinkedHashMap<>(stripeDataSources));
+            throw e;
+        }
+    }
+
+    /**
+     * Create the {@link DataSource} of a zone, the single datasource entry is not routed
+     */
+    private static DataSource createZoneDataSource(List<Map<String, String>> dataSourcePropertiesList, String dynamicJdbcConfigName,
+                                                   Environment environment, ClassLoader classLoader) {
+        if (dataSourcePropertiesList.size() == 1) {
+            return createTargetDataSource(dataSourcePropertiesList.get(0), classLoader);
+        }
+        return create(dataSourcePropertiesList, dynamicJdbcConfigName, environment, classLoader);
+    }
+
+    /**
+     * Create the target {@link DataSource} from the properties of the datasource entry
+     *
+     * @param dataSourceProperties the properties of the datasource entry
+     * @param classLoader          {@link ClassLoader}
+     * @return non-null
+     */
+    public static DataSource createTargetDataSource(Map<String, String> dataSourceProperties, ClassLoader classLoader) {
+        DataSource dataSource = DataSourceBuilder.create(classLoader)
+                .type(resolveDataSourceType(dataSourceProperties, classLoader))
+                .driverClassName(getDriverClassName(dataSourceProperties))
+                .url(getDataSourceUrl(dataSourceProperties))
+                .username(dataSourceProperties.get(USER_NAME_PROPERTY_NAME))
+                .password(dataSourceProperties.get(PASSWORD_NAME_PROPERTY_NAME))
+                .build();
+        Map<String, String> properties = new LinkedHashMap<>(dataSourceProperties);
+        for (String propertyName : RESERVED_PROPERTY_NAMES) {
+            properties.remove(propertyName);
+        }
+        for (String propertyName : JDBC_URL_PROPERTY_NAMES) {
+            properties.remove(propertyName);
+        }
+        // Bind the pool properties as "spring.datasource.hikari.*" does
+        new Binder(new MapConfigurationPropertySource(properties)).bind(ConfigurationPropertyName.EMPTY, Bindable.ofInstance(dataSource));
+        if (dataSource instanceof HikariDataSource) {
+            HikariDataSource hikariDataSource = (HikariDataSource) dataSource;
+            if (!StringUtils.hasText(hikariDataSource.getPoolName())) {
+                hikariDataSource.setPoolName(getDataSourceName(dataSourceProperties));
+            }
+        }
+        return dataSource;
+    }
+
+    static void closeTargetDataSources(Map<String, DataSource> targetDataSources) {
+        targetDataSources.forEach((name, dataSource) -> {
+            try {
+                if (dataSource instanceof AutoCloseable) {
+                    ((AutoCloseable) dataSource).close();
+                } else if (dataSource instanceof DisposableBean) {
+                    // The nested RoutingDataSource
+                    ((DisposableBean) dataSource).destroy();
+                }
+            } catch (Throwable e) {
+                logger.warn("The target DataSource[name : '{}'] failed to close", name, e);
+            }
+        });
+    }
+
+    private static int getWeight(Map<String, String> dataSourceProperties, String dynamicJdbcConfigName) {
+        String weight = dataSourceProperties.get(WEIGHT_PROPERTY_NAME);
+        Integer value = LoadBalancingDataSource.parseWeight(weight);
+        if (value == null) {
+            throw new IllegalStateException(format("DynamicJdbcConfig[name : '{}'] datasource entry[name : '{}'] has the invalid '{}' : '{}'",
+                    dynamicJdbcConfigName, getDataSourceName(dataSourceProperties), WEIGHT_PROPERTY_NAME, weight));
+        }
+        return value;
+    }
+
+    private static Class<? extends DataSource> resolveDataSourceType(Map<String, String> dataSourceProperties, ClassLoader classLoader) {
+        String type = getDataSourceType(dataSourceProperties);
+        if (!StringUtils.hasText(type)) {
+            return HikariDataSource.class;
+        }
+        Class<?> dataSourceType = ClassUtils.resolveClassName(type, classLoader);
+        if (!DataSource.class.isAssignableFrom(dataSourceType)) {
+            throw new IllegalStateException(format("The datasource entry[name : '{}'] has the type '{}' which is not a DataSource",
+                    getDataSourceName(dataSourceProperties), type));
+        }
+        return dataSourceType.asSubclass(DataSource.class);
+    }
+}
@@ -0,0 +1,130 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.microsphere.text.FormatUtils.format;
+
+/**
+ * The {@link DataSource} backs a single datasource entry with the striped {@link HikariDataSource sub-pools}, in
+ * order to reduce the contention of the connection acquisition of one pool among thousands of threads.
+ * <p>
+ * The thread acquires the {@link Connection} from its home stripe selected by the thread id, and steals an idle one
+ * from the other stripes if the home stripe is exhausted, it waits on the home stripe if all stripes are exhausted.
+ * The maximumPoolSize and minimumIdle of the entry are split among the stripes, thus the total size is preserved.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see RoutingDataSourceFactory#createStripedDataSource
+ * @since 1.0.0
+ */
+public class StripedDataSource extends RoutingDataSource {
+
+    private final HikariDataSource[] stripes;
+
+    private final LongAdder steals = new LongAdder();
+
+    /**
+     * @param stripes the unstarted {@link HikariDataSource sub-pools} with the names as the keys
+     */
+    public StripedDataSource(Map<String, HikariDataSource> stripes) {
+        super(new LinkedHashMap<>(stripes));
+        if (stripes.isEmpty()) {
+            throw new IllegalArgumentException("The stripes must not be empty");
+        }
+        this.stripes = stripes.values().toArray(new HikariDataSource[0]);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        HikariDataSource[] stripes = this.stripes;
+        int size = stripes.length;
+        int home = homeStripe(Thread.currentThread().getId(), size);
+        HikariDataSource homeStripe = stripes[home];
+        if (size == 1 || hasCapacity(homeStripe)) {
+            return getConnection(homeStripe, username, password);
+        }
+        for (int i = 1; i < size; i++) {
+            HikariDataSource stripe = stripes[(home + i) % size];
+            if (hasIdleConnections(stripe)) {
+                try {
+                    Connection connection = getConnection(stripe, username, password);
+                    steals.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    logger.debug("Failed to steal the Connection from the stripe[pool name : '{}']", stripe.getPoolName(), e);
+                }
+            }
+        }
+        // All stripes are exhausted
+        return getConnection(homeStripe, username, password);
+    }
+
+    /**
+     * Get the count of the {@link Connection connections} stolen from the other stripes
+     *
+     * @return non-negative
+     */
+    public long getSteals() {
+        return steals.sum();
+    }
+
+    public int getStripesCount() {
+        return stripes.length;
+    }
+
+    @Override
+    public String toString() {
+        return "StripedDataSource[stripes : " + getTargetDataSources().keySet() + "]";
+    }
+
+    /**
+     * Select the home stripe of the thread, the thread ids are mixed to spread the sequential ids
+     *
+     * @param threadId the id of thread
+     * @param size     the count of stripes
+     * @return the index of stripe
+     */
+    static int homeStripe(long threadId, int size) {
+        long hash = threadId * 0x9E3779B97F4A7C15L;
+        return (int) ((hash >>> 32) % size);
+    }
+
+    /**
+     * Split the size among the stripes, the total is preserved
+     *
+     * @param total  the total size
+     * @param stripe the index of stripe
+     * @param size   the count of stripes
+     * @return the size of the stripe
+     */
+    static int split(int total, int stripe, int size) {
+        if (stripe < 0 || stripe >= size) {
+            throw new IllegalArgumentException(format("The stripe[{}] is out of the range [0 , {})", stripe, size));
+        }
+        return total / size + (stripe < total % size ? 1 : 0);
+    }
+
+    private static boolean hasCapacity(HikariDataSource stripe) {
+        HikariPoolMXBean poolMXBean = stripe.getHikariPoolMXBean();
+        // The pool starts on the first acquisition
+        return poolMXBean == null || poolMXBean.getIdleConnections() > 0
+                || poolMXBean.getTotalConnections() < stripe.getMaximumPoolSize();
+    }
+
+    private static boolean hasIdleConnections(HikariDataSource stripe) {
+        HikariPoolMXBean poolMXBean = stripe.getHikariPoolMXBean();
+        return poolMXBean != null && poolMXBean.getIdleConnections() > 0;
+    }
+}
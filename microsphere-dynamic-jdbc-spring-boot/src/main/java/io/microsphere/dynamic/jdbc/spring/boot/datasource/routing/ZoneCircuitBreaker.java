@@ -0,0 +1,71 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The circuit breaker of a zone in {@link HighAvailabilityDataSource}, which opens after the consecutive failures
+ * reach the threshold, and is closed by the probe once the zone recovers.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see HighAvailabilityDataSource
+ * @since 1.0.0
+ */
+class ZoneCircuitBreaker {
+
+    private final String zone;
+
+    private final int failureThreshold;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private final AtomicBoolean open = new AtomicBoolean();
+
+    ZoneCircuitBreaker(String zone, int failureThreshold) {
+        this.zone = zone;
+        this.failureThreshold = Math.max(1, failureThreshold);
+    }
+
+    boolean isOpen() {
+        return open.get();
+    }
+
+    void onSuccess() {
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    /**
+     * Record a failure
+     *
+     * @return <code>true</code> if this failure opens the circuit breaker
+     */
+    boolean onFailure() {
+        return consecutiveFailures.incrementAndGet() >= failureThreshold && open.compareAndSet(false, true);
+    }
+
+    /**
+     * Close the circuit breaker after the zone recovered
+     *
+     * @return <code>true</code> if it was open
+     */
+    boolean close() {
+        consecutiveFailures.set(0);
+        return open.compareAndSet(true, false);
+    }
+
+    String getZone() {
+        return zone;
+    }
+
+    int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ZoneCircuitBreaker[zone : '" + zone + "' , open : " + open.get() + " , consecutive failures : "
+                + consecutiveFailures.get() + "/" + failureThreshold + "]";
+    }
+}
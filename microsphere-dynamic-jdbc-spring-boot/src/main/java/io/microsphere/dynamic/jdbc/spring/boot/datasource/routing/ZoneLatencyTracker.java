@@ -0,0 +1,78 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+/**
+ * The tracker of the round-trip time of a zone in {@link HighAvailabilityDataSource}, which keeps the exponentially
+ * weighted moving average (EWMA) of the probed round-trip times, and the health of the last probe.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see HighAvailabilityDataSource
+ * @since 1.0.0
+ */
+class ZoneLatencyTracker {
+
+    private final String zone;
+
+    private final double alpha;
+
+    private volatile double averageNanos = Double.NaN;
+
+    private volatile long samples;
+
+    private volatile boolean healthy;
+
+    /**
+     * @param zone  the zone
+     * @param alpha the weight of the latest sample in (0, 1]
+     */
+    ZoneLatencyTracker(String zone, double alpha) {
+        if (!(alpha > 0 && alpha <= 1)) {
+            throw new IllegalArgumentException("The alpha of EWMA must be in (0, 1] : " + alpha);
+        }
+        this.zone = zone;
+        this.alpha = alpha;
+    }
+
+    /**
+     * Record the round-trip time of a successful probe, the zone becomes healthy
+     *
+     * @param nanos the round-trip time in nanoseconds
+     */
+    synchronized void onSuccess(long nanos) {
+        double averageNanos = this.averageNanos;
+        this.averageNanos = Double.isNaN(averageNanos) ? nanos : alpha * nanos + (1 - alpha) * averageNanos;
+        this.samples++;
+        this.healthy = true;
+    }
+
+    /**
+     * Record a failed probe, the zone becomes unhealthy until the next successful probe, the average is kept
+     */
+    void onFailure() {
+        this.healthy = false;
+    }
+
+    String getZone() {
+        return zone;
+    }
+
+    /**
+     * @return the EWMA of the round-trip times in nanoseconds, or {@link Double#NaN} if not sampled
+     */
+    double getAverageNanos() {
+        return averageNanos;
+    }
+
+    long getSamples() {
+        return samples;
+    }
+
+    boolean isHealthy() {
+        return healthy;
+    }
+
+    @Override
+    public String toString() {
+        return "ZoneLatencyTracker[zone : '" + zone + "' , average : " + (averageNanos / 1_000_000) + " ms , samples : " + samples
+                + " , healthy : " + healthy + "]";
+    }
+}
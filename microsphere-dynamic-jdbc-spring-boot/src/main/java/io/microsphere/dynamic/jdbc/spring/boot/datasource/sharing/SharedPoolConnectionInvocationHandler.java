@@ -0,0 +1,77 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.sharing;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link InvocationHandler} for the {@link Connection} of {@link SharedPoolDataSource}, which releases the quota of
+ * the DynamicJdbcConfig once it's closed.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see SharedPoolDataSource
+ * @since 1.0.0
+ */
+class SharedPoolConnectionInvocationHandler implements InvocationHandler {
+
+    private static final Class<?>[] PROXY_INTERFACES = new Class[]{Connection.class};
+
+    private final Connection connection;
+
+    private final SharedPoolDataSource dataSource;
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    SharedPoolConnectionInvocationHandler(Connection connection, SharedPoolDataSource dataSource) {
+        this.connection = connection;
+        this.dataSource = dataSource;
+    }
+
+    static Connection newProxy(Connection connection, SharedPoolDataSource dataSource) {
+        ClassLoader classLoader = SharedPoolDataSource.class.getClassLoader();
+        InvocationHandler invocationHandler = new SharedPoolConnectionInvocationHandler(connection, dataSource);
+        return (Connection) Proxy.newProxyInstance(classLoader, PROXY_INTERFACES, invocationHandler);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "SharedPoolConnection[config : " + dataSource.getDynamicJdbcConfigName() + "]";
+            case "isClosed":
+                if (released.get()) {
+                    return true;
+                }
+                break;
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                break;
+            case "isWrapperFor":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return true;
+                }
+                break;
+            case "close":
+                if (released.compareAndSet(false, true)) {
+                    dataSource.release();
+                }
+                break;
+            default:
+                break;
+        }
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.sharing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.RoutingDataSource;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.sharing.SharedPoolRegistry.SharedPool;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static io.microsphere.text.FormatUtils.format;
+import static java.util.Collections.singletonMap;
+
+/**
+ * The {@link DataSource} of a DynamicJdbcConfig leases the physical pool shared with the other DynamicJdbcConfigs
+ * from {@link SharedPoolRegistry}, which limits the count of the {@link Connection connections} held by the
+ * DynamicJdbcConfig at the same time by the quota, the acquisition waits for the quota up to the connectionTimeout
+ * of the shared pool. The lease is released rather than the pool is closed when it's destroyed.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see SharedPoolRegistry
+ * @see SharedPoolMeterBinder
+ * @since 1.0.0
+ */
+public class SharedPoolDataSource extends RoutingDataSource {
+
+    private final String dynamicJdbcConfigName;
+
+    private final SharedPool sharedPool;
+
+    private final SharedPoolRegistry sharedPoolRegistry;
+
+    private final int quota;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger activeConnections = new AtomicInteger();
+
+    private final LongAdder acquisitions = new LongAdder();
+
+    private final LongAdder rejections = new LongAdder();
+
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private final List<Runnable> destroyCallbacks = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param dynamicJdbcConfigName the name of DynamicJdbcConfig
+     * @param sharedPool            the leased {@link SharedPool}
+     * @param sharedPoolRegistry    {@link SharedPoolRegistry}
+     * @param quota                 the max count of the {@link Connection connections} held at the same time, 0 means
+     *                              no limit
+     */
+    SharedPoolDataSource(String dynamicJdbcConfigName, SharedPool sharedPool, SharedPoolRegistry sharedPoolRegistry, int quota) {
+        super(singletonMap(sharedPool.getIdentity(), sharedPool.getDataSource()));
+        if (quota < 0) {
+            throw new IllegalArgumentException(format("The quota of DynamicJdbcConfig[name : '{}'] must not be negative : {}",
+                    dynamicJdbcConfigName, quota));
+        }
+        this.dynamicJdbcConfigName = dynamicJdbcConfigName;
+        this.sharedPool = sharedPool;
+        this.sharedPoolRegistry = sharedPoolRegistry;
+        this.quota = quota;
+        this.permits = quota > 0 ? new Semaphore(quota) : null;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(null, null);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (released.get()) {
+            throw new SQLException(format("{} has been destroyed", this));
+        }
+        HikariDataSource dataSource = sharedPool.getDataSource();
+        acquirePermit(dataSource.getConnectionTimeout());
+        Connection connection;
+        try {
+            connection = getConnection(dataSource, username, password);
+        } catch (SQLException | RuntimeException e) {
+            releasePermit();
+            throw e;
+        }
+        activeConnections.incrementAndGet();
+        acquisitions.increment();
+        return SharedPoolConnectionInvocationHandler.newProxy(connection, this);
+    }
+
+    private void acquirePermit(long timeout) throws SQLException {
+        if (permits == null) {
+            return;
+        }
+        try {
+            if (permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(format("{} was interrupted while waiting for the quota", this), e);
+        }
+        rejections.increment();
+        throw new SQLTransientConnectionException(format("{} ran out of the quota[{}] after {} ms", this, quota, timeout));
+    }
+
+    private void releasePermit() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Release the quota of the closed {@link Connection}
+     */
+    void release() {
+        activeConnections.decrementAndGet();
+        releasePermit();
+    }
+
+    public String getDynamicJdbcConfigName() {
+        return dynamicJdbcConfigName;
+    }
+
+    public SharedPool getSharedPool() {
+        return sharedPool;
+    }
+
+    /**
+     * Get the quota
+     *
+     * @return 0 means no limit
+     */
+    public int getQuota() {
+        return quota;
+    }
+
+    /**
+     * Get the count of the {@link Connection connections} held by the DynamicJdbcConfig
+     *
+     * @return non-negative
+     */
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    /**
+     * Get the count of the acquired {@link Connection connections}
+     *
+     * @return non-negative
+     */
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    /**
+     * Get the count of the acquisitions that ran out of the quota
+     *
+     * @return non-negative
+     */
+    public long getRejections() {
+        return rejections.sum();
+    }
+
+    /**
+     * Add the callback that runs when it's destroyed, e.g. removing the metrics
+     *
+     * @param callback the callback
+     */
+    void addDestroyCallback(Runnable callback) {
+        destroyCallbacks.add(callback);
+    }
+
+    @Override
+    public void destroy() {
+        if (released.compareAndSet(false, true)) {
+            destroyCallbacks.forEach(Runnable::run);
+            destroyCallbacks.clear();
+            // The shared pool is closed by the last lease
+            sharedPoolRegistry.release(sharedPool);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SharedPoolDataSource[config : '" + dynamicJdbcConfigName + "' , pool : '" + sharedPool.getIdentity()
+                + "' , quota : " + quota + "]";
+    }
+}
@@ -0,0 +1,101 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.sharing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.BeanFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+/**
+ * {@link MeterBinder} exports the usage of the shared pool per DynamicJdbcConfig, the metrics of the physical pool
+ * are exported by HikariCP itself :
+ * <ul>
+ *     <li>"microsphere.dynamic.jdbc.shared-pool.active" : the count of the connections held by the DynamicJdbcConfig</li>
+ *     <li>"microsphere.dynamic.jdbc.shared-pool.quota" : the quota of the DynamicJdbcConfig, 0 means no limit</li>
+ *     <li>"microsphere.dynamic.jdbc.shared-pool.acquisitions" : the count of the acquired connections</li>
+ *     <li>"microsphere.dynamic.jdbc.shared-pool.rejections" : the count of the acquisitions that ran out of the quota</li>
+ * </ul>
+ * The meters of the rebuilt {@link SharedPoolDataSource} replace the ones of the previous one, which only removes the
+ * meters still bound to itself once it's destroyed.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see SharedPoolDataSource
+ * @since 1.0.0
+ */
+public class SharedPoolMeterBinder implements MeterBinder {
+
+    public static final String ACTIVE_METER_NAME = "microsphere.dynamic.jdbc.shared-pool.active";
+
+    public static final String QUOTA_METER_NAME = "microsphere.dynamic.jdbc.shared-pool.quota";
+
+    public static final String ACQUISITIONS_METER_NAME = "microsphere.dynamic.jdbc.shared-pool.acquisitions";
+
+    public static final String REJECTIONS_METER_NAME = "microsphere.dynamic.jdbc.shared-pool.rejections";
+
+    private final SharedPoolDataSource dataSource;
+
+    public SharedPoolMeterBinder(SharedPoolDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Tags tags = Tags.of("config", dataSource.getDynamicJdbcConfigName(), "pool", dataSource.getSharedPool().getDataSource().getPoolName());
+        List<Meter> meters = new ArrayList<>(4);
+        // The registrations and the removals of the generations are serialized
+        synchronized (registry) {
+            // The registry returns the existing meter of the same id, which is still bound to the previous DataSource
+            for (String name : asList(ACTIVE_METER_NAME, QUOTA_METER_NAME, ACQUISITIONS_METER_NAME, REJECTIONS_METER_NAME)) {
+                registry.find(name).tags(tags).meters().forEach(registry::remove);
+            }
+            meters.add(Gauge.builder(ACTIVE_METER_NAME, dataSource, SharedPoolDataSource::getActiveConnections)
+                    .tags(tags)
+                    .description("The count of the connections of the shared pool held by the config")
+                    .register(registry));
+            meters.add(Gauge.builder(QUOTA_METER_NAME, dataSource, SharedPoolDataSource::getQuota)
+                    .tags(tags)
+                    .description("The quota of the connections of the shared pool for the config")
+                    .register(registry));
+            meters.add(FunctionCounter.builder(ACQUISITIONS_METER_NAME, dataSource, SharedPoolDataSource::getAcquisitions)
+                    .tags(tags)
+                    .description("The count of the connections of the shared pool acquired by the config")
+                    .register(registry));
+            meters.add(FunctionCounter.builder(REJECTIONS_METER_NAME, dataSource, SharedPoolDataSource::getRejections)
+                    .tags(tags)
+                    .description("The count of the acquisitions of the config that ran out of the quota")
+                    .register(registry));
+        }
+        dataSource.addDestroyCallback(() -> {
+            synchronized (registry) {
+                // The meters replaced by the next generation are not removed
+                meters.stream().filter(meter -> isRegistered(registry, meter)).forEach(registry::remove);
+            }
+        });
+    }
+
+    private static boolean isRegistered(MeterRegistry registry, Meter meter) {
+        // The meters are equal by their ids, thus the identity is compared
+        return registry.find(meter.getId().getName()).tags(meter.getId().getTags()).meters().stream()
+                .anyMatch(registered -> registered == meter);
+    }
+
+    /**
+     * Bind the meters to the unique {@link MeterRegistry} of {@link BeanFactory} if present
+     *
+     * @param dataSource  {@link SharedPoolDataSource}
+     * @param beanFactory {@link BeanFactory}
+     */
+    public static void bind(SharedPoolDataSource dataSource, BeanFactory beanFactory) {
+        MeterRegistry registry = beanFactory.getBeanProvider(MeterRegistry.class).getIfUnique();
+        if (registry != null) {
+            new SharedPoolMeterBinder(dataSource).bindTo(registry);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.sharing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.config.JdbcURLAssembler;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.RoutingDataSourceFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultSingletonBeanRegistry;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.JDBC_URL_CAMEL_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.JDBC_URL_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.NAME_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.PASSWORD_NAME_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.ROLE_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.URL_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.USER_NAME_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.WEIGHT_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils.getDataSourceName;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils.getDataSourceUrl;
+import static io.microsphere.text.FormatUtils.format;
+import static java.util.Arrays.asList;
+
+/**
+ * The registry of the physical {@link HikariDataSource pools} shared by the DynamicJdbcConfigs of the same Parent
+ * Context that target the same database, which is identified by the
+ * {@link JdbcURLAssembler#canonicalize(String) canonical JDBC URL} and the user name. It's the singleton of the
+ * Parent Context, which closes the pools still leased when it's closing.
+ * <p>
+ * The shared pool is built from the properties of the datasource entry of the first DynamicJdbcConfig, and it's
+ * leased by each DynamicJdbcConfig via {@link SharedPoolDataSource}, the pool is closed once the last lease is
+ * released. The DynamicJdbcConfig whose password or {@link #getSettings(Map) settings}, e.g. autoCommit and
+ * maximumPoolSize, differ from the ones of the shared pool gets its own pool instead, because the connections of the
+ * shared pool are initialized and sized by the first DynamicJdbcConfig.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @see SharedPoolDataSource
+ * @since 1.0.0
+ */
+public class SharedPoolRegistry implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedPoolRegistry.class);
+
+    public static final String BEAN_NAME = "sharedPoolRegistry";
+
+    /**
+     * The normalized names of the properties that are not the settings of the pool
+     */
+    private static final Set<String> NON_SETTING_PROPERTY_NAMES = new HashSet<>(asList(normalize(NAME_PROPERTY_NAME),
+            normalize(ROLE_PROPERTY_NAME), normalize(WEIGHT_PROPERTY_NAME), normalize(USER_NAME_PROPERTY_NAME),
+            normalize(PASSWORD_NAME_PROPERTY_NAME), normalize(URL_PROPERTY_NAME), normalize(JDBC_URL_PROPERTY_NAME),
+            normalize(JDBC_URL_CAMEL_PROPERTY_NAME), normalize("poolName")));
+
+    private final Map<String, SharedPool> sharedPools = new HashMap<>();
+
+    private boolean destroyed;
+
+    /**
+     * Get or register the {@link SharedPoolRegistry} of the {@link ConfigurableListableBeanFactory BeanFactory} of
+     * the Parent Context
+     *
+     * @param beanFactory the {@link ConfigurableListableBeanFactory BeanFactory} of the Parent Context
+     * @return non-null
+     */
+    public static SharedPoolRegistry get(ConfigurableListableBeanFactory beanFactory) {
+        synchronized (beanFactory) {
+            if (beanFactory.containsSingleton(BEAN_NAME)) {
+                return (SharedPoolRegistry) beanFactory.getSingleton(BEAN_NAME);
+            }
+            SharedPoolRegistry sharedPoolRegistry = new SharedPoolRegistry();
+            beanFactory.registerSingleton(BEAN_NAME, sharedPoolRegistry);
+            if (beanFactory instanceof DefaultSingletonBeanRegistry) {
+                // Close the shared pools when the Parent Context is closing
+                ((DefaultSingletonBeanRegistry) beanFactory).registerDisposableBean(BEAN_NAME, sharedPoolRegistry);
+            }
+            return sharedPoolRegistry;
+        }
+    }
+
+    /**
+     * Create the {@link DataSource} of the datasource entry for the DynamicJdbcConfig
+     *
+     * @param dataSourceProperties  the post-processed properties of the datasource entry
+     * @param dynamicJdbcConfigName the name of DynamicJdbcConfig
+     * @param quota                 the max count of the {@link java.sql.Connection connections} of the shared pool
+     *                              that the DynamicJdbcConfig could hold at the same time, 0 means no limit
+     * @param classLoader           {@link ClassLoader}
+     * @return {@link SharedPoolDataSource} if the pool is shared, or the own {@link DataSource} of the datasource entry
+     */
+    public DataSource createDataSource(Map<String, String> dataSourceProperties, String dynamicJdbcConfigName, int quota,
+                                       ClassLoader classLoader) {
+        String identity = identity(getDataSourceUrl(dataSourceProperties), dataSourceProperties.get(USER_NAME_PROPERTY_NAME));
+        String password = dataSourceProperties.get(PASSWORD_NAME_PROPERTY_NAME);
+        Map<String, String> settings = getSettings(dataSourceProperties);
+        SharedPool sharedPool = lease(identity, password, settings, () -> {
+            HikariDataSource pool = createPool(dataSourceProperties, classLoader);
+            pool.setPoolName("shared-" + pool.getPoolName());
+            return pool;
+        });
+        if (sharedPool == null) {
+            logger.warn("DynamicJdbcConfig[name : '{}'] datasource entry[name : '{}'] can't share the pool of '{}' for the different password or settings {}",
+                    dynamicJdbcConfigName, getDataSourceName(dataSourceProperties), identity, settings);
+            return createPool(dataSourceProperties, classLoader);
+        }
+        SharedPoolDataSource sharedPoolDataSource = new SharedPoolDataSource(dynamicJdbcConfigName, sharedPool, this, quota);
+        logger.info("DynamicJdbcConfig[name : '{}'] creates {} , leases : {}", dynamicJdbcConfigName, sharedPoolDataSource,
+                sharedPool.getLeases());
+        return sharedPoolDataSource;
+    }
+
+    /**
+     * Lease the shared pool of the identity, it's created by the supplier if absent
+     *
+     * @param identity     the identity of the database connection
+     * @param password     the password of the database connection
+     * @param settings     the {@link #getSettings(Map) settings} of the pool
+     * @param poolSupplier the supplier of the unstarted {@link HikariDataSource}
+     * @return <code>null</code> if the password or the settings differ from the ones of the shared pool
+     * @throws IllegalStateException if it has been destroyed
+     */
+    synchronized SharedPool lease(String identity, String password, Map<String, String> settings,
+                                  Supplier<HikariDataSource> poolSupplier) {
+        if (destroyed) {
+            throw new IllegalStateException(format("The shared pool of '{}' can't be leased , the registry has been destroyed", identity));
+        }
+        SharedPool sharedPool = sharedPools.get(identity);
+        if (sharedPool == null) {
+            sharedPool = new SharedPool(identity, password, settings, poolSupplier.get());
+            sharedPools.put(identity, sharedPool);
+        } else if (!Objects.equals(sharedPool.password, password)) {
+            // The connections of the shared pool were opened with the previous password
+            logger.warn("The password of '{}' differs from the one of the shared pool , e.g. it was rotated , the pool is not shared " +
+                    "until its {} leases are released", identity, sharedPool.leases);
+            return null;
+        } else if (!Objects.equals(sharedPool.settings, settings)) {
+            logger.debug("The settings {} differ from the ones of the shared pool of '{}' : {}", settings, identity, sharedPool.settings);
+            return null;
+        }
+        sharedPool.leases++;
+        return sharedPool;
+    }
+
+    /**
+     * Release the lease of the shared pool, the pool is closed if it's not leased any more
+     *
+     * @param sharedPool {@link SharedPool}
+     */
+    synchronized void release(SharedPool sharedPool) {
+        if (sharedPools.get(sharedPool.identity) != sharedPool || --sharedPool.leases > 0) {
+            return;
+        }
+        sharedPools.remove(sharedPool.identity);
+        logger.info("The shared pool of '{}' is closing , no lease", sharedPool.identity);
+        sharedPool.dataSource.close();
+    }
+
+    /**
+     * Close the shared pools that are still leased
+     */
+    @Override
+    public synchronized void destroy() {
+        destroyed = true;
+        sharedPools.values().forEach(sharedPool -> {
+            logger.info("The shared pool of '{}' is closing , leases : {}", sharedPool.identity, sharedPool.leases);
+            sharedPool.dataSource.close();
+        });
+        sharedPools.clear();
+    }
+
+    /**
+     * Get the identities of the shared pools
+     *
+     * @return the snapshot
+     */
+    public synchronized Set<String> getIdentities() {
+        return new LinkedHashSet<>(sharedPools.keySet());
+    }
+
+    /**
+     * Build the identity of the database connection
+     *
+     * @param jdbcURL  the JDBC URL
+     * @param userName the user name
+     * @return non-null
+     */
+    public static String identity(String jdbcURL, String userName) {
+        return userName + "@" + JdbcURLAssembler.canonicalize(jdbcURL);
+    }
+
+    /**
+     * Get the settings of the pool that the leases must agree on, which are the properties of the datasource entry
+     * except its name, role, weight, JDBC URL and credentials, e.g. the session defaults and the sizing of the
+     * connections. The names of the properties are normalized, thus "maximum-pool-size" and "maximumPoolSize" are the
+     * same setting.
+     *
+     * @param dataSourceProperties the post-processed properties of the datasource entry
+     * @return non-null
+     */
+    static Map<String, String> getSettings(Map<String, String> dataSourceProperties) {
+        Map<String, String> settings = new TreeMap<>();
+        dataSourceProperties.forEach((propertyName, propertyValue) -> {
+            String settingName = normalize(propertyName);
+            if (!NON_SETTING_PROPERTY_NAMES.contains(settingName)) {
+                settings.put(settingName, propertyValue);
+            }
+        });
+        return settings;
+    }
+
+    private static String normalize(String propertyName) {
+        return propertyName.replace("-", "").replace("_", "").toLowerCase(Locale.ENGLISH);
+    }
+
+    private static HikariDataSource createPool(Map<String, String> dataSourceProperties, ClassLoader classLoader) {
+        DataSource dataSource = RoutingDataSourceFactory.createTargetDataSource(dataSourceProperties, classLoader);
+        if (!(dataSource instanceof HikariDataSource)) {
+            throw new IllegalStateException(format("The datasource entry[name : '{}'] must be {} to be shared , actual : {}",
+                    getDataSourceName(dataSourceProperties), HikariDataSource.class.getName(), dataSource.getClass().getName()));
+        }
+        return (HikariDataSource) dataSource;
+    }
+
+    /**
+     * The physical pool shared by the DynamicJdbcConfigs
+     */
+    public static class SharedPool {
+
+        private final String identity;
+
+        private final String password;
+
+        private final Map<String, String> settings;
+
+        private final HikariDataSource dataSource;
+
+        // Guarded by SharedPoolRegistry
+        private volatile int leases;
+
+        private SharedPool(String identity, String password, Map<String, String> settings, HikariDataSource dataSource) {
+            this.identity = identity;
+            this.password = password;
+            this.settings = settings;
+            this.dataSource = dataSource;
+        }
+
+        public String getIdentity() {
+            return identity;
+        }
+
+        public HikariDataSource getDataSource() {
+            return dataSource;
+        }
+
+        /**
+         * Get the count of the leases
+         *
+         * @return non-negative
+         */
+        public int getLeases() {
+            return leases;
+        }
+    }
+}
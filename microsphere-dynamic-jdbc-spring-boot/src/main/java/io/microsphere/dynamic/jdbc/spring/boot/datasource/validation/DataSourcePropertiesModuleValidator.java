@@ -5,6 +5,8 @@ import io.microsphere.dynamic.jdbc.spring.boot.config.validation.AbstractConfigV
 import io.microsphere.dynamic.jdbc.spring.boot.config.validation.ConfigValidator;
 import io.microsphere.dynamic.jdbc.spring.boot.config.validation.ValidationErrors;
 import io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.DataSourceRole;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.LoadBalancingDataSource;
 import io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils;
 import org.springframework.util.StringUtils;
 
@@ -32,6 +34,8 @@ public class DataSourcePropertiesModuleValidator extends AbstractConfigValidator
     public void validate(DynamicJdbcConfig dynamicJdbcConfig, String shardingJdbConfigPropertyName, ValidationErrors validationErrors) {
         validateDataSource(dynamicJdbcConfig, validationErrors);
         validateDataSourcePropertiesList(dynamicJdbcConfig, validationErrors);
+        validateDataSourceRoles(dynamicJdbcConfig, validationErrors);
+        validateDataSourceWeights(dynamicJdbcConfig, validationErrors);
     }
 
     private void validateDataSource(DynamicJdbcConfig dynamicJdbcConfig, ValidationErrors validationErrors) {
@@ -75,6 +79,47 @@ public class DataSourcePropertiesModuleValidator extends AbstractConfigValidator
         }
     }
 
+    private void validateDataSourceRoles(DynamicJdbcConfig dynamicJdbcConfig, ValidationErrors validationErrors) {
+        List<Map<String, String>> dataSourcePropertiesList = dynamicJdbcConfig.getDataSourcePropertiesList();
+        int size = dataSourcePropertiesList.size();
+        int rolesCount = 0;
+        int primariesCount = 0;
+        for (int index = 0; index < size; index++) {
+            Map<String, String> dataSourceProperties = dataSourcePropertiesList.get(index);
+            String role = dataSourceProperties.get(DataSourceConstants.ROLE_PROPERTY_NAME);
+            if (role == null) {
+                continue;
+            }
+            rolesCount++;
+            DataSourceRole dataSourceRole = DataSourceRole.resolve(role, null);
+            if (dataSourceRole == null) {
+                String info = getDataSourceModuleInfo(dynamicJdbcConfig, dataSourceProperties, index);
+                validationErrors.addError("{} '{}' property -> '{}' must be one of {}", info, DataSourceConstants.ROLE_PROPERTY_NAME, role,
+                        Arrays.asList(DataSourceRole.values()));
+            } else if (dataSourceRole == DataSourceRole.PRIMARY) {
+                primariesCount++;
+            }
+        }
+        if (rolesCount > 0 && primariesCount != 1) {
+            validationErrors.addError("The datasource entries with '{}' property must have only one '{}' , actual : {}",
+                    DataSourceConstants.ROLE_PROPERTY_NAME, DataSourceRole.PRIMARY, primariesCount);
+        }
+    }
+
+    private void validateDataSourceWeights(DynamicJdbcConfig dynamicJdbcConfig, ValidationErrors validationErrors) {
+        List<Map<String, String>> dataSourcePropertiesList = dynamicJdbcConfig.getDataSourcePropertiesList();
+        int size = dataSourcePropertiesList.size();
+        for (int index = 0; index < size; index++) {
+            Map<String, String> dataSourceProperties = dataSourcePropertiesList.get(index);
+            String weight = dataSourceProperties.get(DataSourceConstants.WEIGHT_PROPERTY_NAME);
+            if (LoadBalancingDataSource.parseWeight(weight) == null) {
+                String info = getDataSourceModuleInfo(dynamicJdbcConfig, dataSourceProperties, index);
+                validationErrors.addError("{} '{}' property -> '{}' must be a non-negative integer", info,
+                        DataSourceConstants.WEIGHT_PROPERTY_NAME, weight);
+            }
+        }
+    }
+
     private List<Map<String, String>> getPreviousDataSourcePropertiesList(List<Map<String, String>> dataSourcePropertiesList, int index) {
         if (index < 1) {
             return emptyList();
@@ -213,6 +213,24 @@ public abstract class DynamicJdbcConfigUtils {
         return DYNAMIC_PREFIX + dynamicJdbcConfig.getName() + DYNAMIC_SUFFIX + module;
     }
 
+    /**
+     * Resolve the name of the source {@link DynamicJdbcConfig} from the one generated for the dynamic module
+     *
+     * @param dynamicJdbcConfig {@link DynamicJdbcConfig}
+     * @return the name of the source {@link DynamicJdbcConfig}, or the name of the specified one if it's not generated
+     * @see #generateDynamicModuleDynamicJdbcConfigName(DynamicJdbcConfig, String)
+     */
+    public static String resolveSourceDynamicJdbcConfigName(DynamicJdbcConfig dynamicJdbcConfig) {
+        String name = dynamicJdbcConfig.getName();
+        if (name != null && name.startsWith(DYNAMIC_PREFIX)) {
+            int endIndex = name.lastIndexOf(DYNAMIC_SUFFIX);
+            if (endIndex > DYNAMIC_PREFIX.length()) {
+                return name.substring(DYNAMIC_PREFIX.length(), endIndex);
+            }
+        }
+        return name;
+    }
+
     public static String generateDynamicDataSourceDynamicJdbcChildContextId(DynamicJdbcConfig dynamicJdbcConfig) {
         return generateDynamicDynamicJdbcChildContextId(dynamicJdbcConfig, DATASOURCE_MODULE);
     }
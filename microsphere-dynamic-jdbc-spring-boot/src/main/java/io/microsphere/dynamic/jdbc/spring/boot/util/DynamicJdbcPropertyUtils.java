@@ -1,7 +1,11 @@
 package io.microsphere.dynamic.jdbc.spring.boot.util;
 
 import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.DynamicDataSourceRefreshMode;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.DynamicDataSourceSwapStrategy;
 import io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.LoadBalancingStrategy;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.ReplicationLagMonitor;
 import io.microsphere.spring.util.PropertySourcesUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,10 +33,16 @@ import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConst
 import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.DEFAULT_DYNAMIC_JDBC_ENABLED_PROPERTY_VALUE;
 import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.DEFAULT_PROPERTIES_PROPERTY_NAME;
 import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.DYNAMIC_JDBC_CONFIGS_PROPERTY_NAME_PREFIX;
+import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_DEBOUNCE_WINDOW_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_MAX_WAIT_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_ZONE_HYSTERESIS_PROPERTY_NAME;
 import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.DYNAMIC_JDBC_ENABLED_PROPERTY_NAME;
 import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.DYNAMIC_JDBC_MODULES_PROPERTY_NAME_PREFIX;
 import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.MULTIPLE_CONTEXT_AUTO_CONFIGURATION_EXCLUDED_CLASSES_PROPERTY_NAME;
 import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.MULTIPLE_CONTEXT_EXPOSED_BEAN_CLASSES_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.MULTIPLE_CONTEXT_ON_DEMAND_ENABLED_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.MULTIPLE_CONTEXT_ON_DEMAND_IDLE_TIMEOUT_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.MULTIPLE_CONTEXT_ON_DEMAND_MAX_LIVE_CONTEXTS_PROPERTY_NAME;
 import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.MULTIPLE_CONTEXT_PRIMARY_BEAN_CLASSES_PROPERTY_NAME;
 import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.PROPERTY_NAME_ALIASES_PROPERTY_NAME;
 import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.PROPERTY_NAME_SEPARATOR;
@@ -123,6 +133,18 @@ public abstract class DynamicJdbcPropertyUtils {
         return resolveClassNames(context, classNames);
     }
 
+    public static boolean isMultipleContextOnDemandEnabled(Environment environment) {
+        return environment.getProperty(MULTIPLE_CONTEXT_ON_DEMAND_ENABLED_PROPERTY_NAME, Boolean.class, Boolean.FALSE);
+    }
+
+    public static int getMultipleContextOnDemandMaxLiveContexts(Environment environment) {
+        return environment.getProperty(MULTIPLE_CONTEXT_ON_DEMAND_MAX_LIVE_CONTEXTS_PROPERTY_NAME, Integer.class, 0);
+    }
+
+    public static Duration getMultipleContextOnDemandIdleTimeout(Environment environment) {
+        return environment.getProperty(MULTIPLE_CONTEXT_ON_DEMAND_IDLE_TIMEOUT_PROPERTY_NAME, Duration.class, Duration.ofMinutes(30));
+    }
+
     private static Set<Class<?>> resolveClassNames(ConfigurableApplicationContext context, Set<String> classNames) {
         if (classNames.isEmpty()) {
             return emptySet();
@@ -298,6 +320,323 @@ public abstract class DynamicJdbcPropertyUtils {
         return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_CLOSE_DELAY_PROPERTY_NAME, Duration.class, ofSeconds(60));
     }
 
+    public static DynamicDataSourceRefreshMode getDynamicDataSourceRefreshMode(Environment environment) {
+        String value = environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_REFRESH_MODE_PROPERTY_NAME);
+        return DynamicDataSourceRefreshMode.resolve(value, DynamicDataSourceRefreshMode.SYNC);
+    }
+
+    public static int getDynamicDataSourceRefreshQueueCapacity(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_REFRESH_QUEUE_CAPACITY_PROPERTY_NAME, Integer.class,
+                DataSourceConstants.DEFAULT_DYNAMIC_DATA_SOURCE_REFRESH_QUEUE_CAPACITY);
+    }
+
+    public static Duration getDynamicDataSourceCredentialEvictionInterval(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_CREDENTIAL_EVICTION_INTERVAL_PROPERTY_NAME, Duration.class,
+                ofSeconds(1));
+    }
+
+    public static int getDynamicDataSourceCredentialEvictionBatchSize(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_CREDENTIAL_EVICTION_BATCH_SIZE_PROPERTY_NAME, Integer.class,
+                DataSourceConstants.DEFAULT_DYNAMIC_DATA_SOURCE_CREDENTIAL_EVICTION_BATCH_SIZE);
+    }
+
+    public static Duration getDynamicDataSourceInitializationTimeout(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_INITIALIZATION_TIMEOUT_PROPERTY_NAME, Duration.class,
+                ofSeconds(60));
+    }
+
+    public static DynamicDataSourceSwapStrategy getDynamicDataSourceSwapStrategy(Environment environment) {
+        String value = environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_SWAP_STRATEGY_PROPERTY_NAME);
+        return DynamicDataSourceSwapStrategy.resolve(value, DynamicDataSourceSwapStrategy.IMMEDIATE);
+    }
+
+    public static int getDynamicDataSourceCanaryInitialPercentage(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_CANARY_INITIAL_PERCENTAGE_PROPERTY_NAME, Integer.class, 10);
+    }
+
+    public static int getDynamicDataSourceCanaryStepPercentage(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_CANARY_STEP_PERCENTAGE_PROPERTY_NAME, Integer.class, 20);
+    }
+
+    public static Duration getDynamicDataSourceCanaryStepInterval(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_CANARY_STEP_INTERVAL_PROPERTY_NAME, Duration.class, ofSeconds(10));
+    }
+
+    public static int getDynamicDataSourceCanaryMinSamples(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_CANARY_MIN_SAMPLES_PROPERTY_NAME, Integer.class, 10);
+    }
+
+    public static double getDynamicDataSourceCanaryMaxErrorRate(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_CANARY_MAX_ERROR_RATE_PROPERTY_NAME, Double.class, 0.05d);
+    }
+
+    public static Duration getDynamicDataSourceCanaryMaxAcquireLatency(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_CANARY_MAX_ACQUIRE_LATENCY_PROPERTY_NAME, Duration.class,
+                Duration.ofMillis(500));
+    }
+
+    public static Duration getDynamicDataSourceCanaryMaxHoldTime(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_CANARY_MAX_HOLD_TIME_PROPERTY_NAME, Duration.class, Duration.ZERO);
+    }
+
+    public static boolean isDynamicDataSourceProbeEnabled(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_ENABLED_PROPERTY_NAME, Boolean.class, false);
+    }
+
+    public static String getDynamicDataSourceProbeValidationQuery(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_VALIDATION_QUERY_PROPERTY_NAME);
+    }
+
+    public static Duration getDynamicDataSourceProbeTimeout(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_TIMEOUT_PROPERTY_NAME, Duration.class, ofSeconds(5));
+    }
+
+    public static int getDynamicDataSourceProbeMaxAttempts(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_MAX_ATTEMPTS_PROPERTY_NAME, Integer.class, 3);
+    }
+
+    public static Duration getDynamicDataSourceProbeInitialBackoff(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_INITIAL_BACKOFF_PROPERTY_NAME, Duration.class, ofSeconds(1));
+    }
+
+    public static Duration getDynamicDataSourceProbeMaxBackoff(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_MAX_BACKOFF_PROPERTY_NAME, Duration.class, ofSeconds(30));
+    }
+
+    public static double getDynamicDataSourceProbeBackoffMultiplier(Environment environment) {
+        return environment.getProperty(DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_BACKOFF_MULTIPLIER_PROPERTY_NAME, Double.class, 2.0d);
+    }
+
+    public static Duration getDynamicDataSourceSwapJitter(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName, DataSourceConstants.DYNAMIC_DATA_SOURCE_SWAP_JITTER_PROPERTY_NAME_SUFFIX,
+                Duration.class, Duration.ZERO);
+    }
+
+    public static int getDynamicDataSourceRampUpStep(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName, DataSourceConstants.DYNAMIC_DATA_SOURCE_RAMP_UP_STEP_PROPERTY_NAME_SUFFIX,
+                Integer.class, 0);
+    }
+
+    public static Duration getDynamicDataSourceRampUpInterval(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName, DataSourceConstants.DYNAMIC_DATA_SOURCE_RAMP_UP_INTERVAL_PROPERTY_NAME_SUFFIX,
+                Duration.class, ofSeconds(30));
+    }
+
+    public static Duration getDynamicDataSourceReadYourWritesWindow(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_READ_YOUR_WRITES_WINDOW_PROPERTY_NAME_SUFFIX, Duration.class, ofSeconds(1));
+    }
+
+    public static LoadBalancingStrategy getDynamicDataSourceLoadBalancingStrategy(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_LOAD_BALANCING_STRATEGY_PROPERTY_NAME_SUFFIX, LoadBalancingStrategy.class,
+                LoadBalancingStrategy.ROUND_ROBIN);
+    }
+
+    public static boolean isDynamicDataSourceZoneFailoverEnabled(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_ZONE_FAILOVER_ENABLED_PROPERTY_NAME_SUFFIX, Boolean.class, Boolean.FALSE);
+    }
+
+    public static int getDynamicDataSourceZoneFailoverFailureThreshold(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_ZONE_FAILOVER_FAILURE_THRESHOLD_PROPERTY_NAME_SUFFIX, Integer.class, 3);
+    }
+
+    public static Duration getDynamicDataSourceZoneFailoverProbeInterval(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_ZONE_FAILOVER_PROBE_INTERVAL_PROPERTY_NAME_SUFFIX, Duration.class, ofSeconds(5));
+    }
+
+    public static Duration getDynamicDataSourceZoneFailoverProbeTimeout(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_ZONE_FAILOVER_PROBE_TIMEOUT_PROPERTY_NAME_SUFFIX, Duration.class, ofSeconds(1));
+    }
+
+    public static boolean isDynamicDataSourceZoneStandbyEnabled(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_ZONE_STANDBY_ENABLED_PROPERTY_NAME_SUFFIX, Boolean.class, Boolean.FALSE);
+    }
+
+    public static int getDynamicDataSourceZoneStandbyMinimumIdle(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_ZONE_STANDBY_MINIMUM_IDLE_PROPERTY_NAME_SUFFIX, Integer.class, 1);
+    }
+
+    public static boolean isDynamicDataSourceZoneLatencyEnabled(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_ZONE_LATENCY_ENABLED_PROPERTY_NAME_SUFFIX, Boolean.class, Boolean.FALSE);
+    }
+
+    public static Duration getDynamicDataSourceZoneLatencyProbeInterval(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_ZONE_LATENCY_PROBE_INTERVAL_PROPERTY_NAME_SUFFIX, Duration.class, ofSeconds(5));
+    }
+
+    public static double getDynamicDataSourceZoneLatencyAlpha(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_ZONE_LATENCY_ALPHA_PROPERTY_NAME_SUFFIX, Double.class, 0.3d);
+    }
+
+    public static double getDynamicDataSourceZoneLatencyTolerance(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_ZONE_LATENCY_TOLERANCE_PROPERTY_NAME_SUFFIX, Double.class, 0.2d);
+    }
+
+    public static boolean isDynamicDataSourceReplicationLagEnabled(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_REPLICATION_LAG_ENABLED_PROPERTY_NAME_SUFFIX, Boolean.class, Boolean.FALSE);
+    }
+
+    public static String getDynamicDataSourceReplicationLagQuery(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_REPLICATION_LAG_QUERY_PROPERTY_NAME_SUFFIX, String.class,
+                ReplicationLagMonitor.DEFAULT_LAG_QUERY);
+    }
+
+    /**
+     * Get the column label of the replication lag, which defaults to the one of the default query or the legacy query
+     * of MySQL if the query is not customized
+     *
+     * @param environment           {@link Environment}
+     * @param dynamicJdbcConfigName the name of DynamicJdbcConfig
+     * @return <code>null</code> if the first column is read
+     */
+    public static String getDynamicDataSourceReplicationLagColumnLabel(Environment environment, String dynamicJdbcConfigName) {
+        String lagQuery = getDynamicDataSourceReplicationLagQuery(environment, dynamicJdbcConfigName);
+        String defaultColumnLabel = null;
+        if (ReplicationLagMonitor.DEFAULT_LAG_QUERY.equals(lagQuery)) {
+            defaultColumnLabel = ReplicationLagMonitor.DEFAULT_LAG_COLUMN_LABEL;
+        } else if (ReplicationLagMonitor.LEGACY_LAG_QUERY.equals(lagQuery)) {
+            defaultColumnLabel = ReplicationLagMonitor.LEGACY_LAG_COLUMN_LABEL;
+        }
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_REPLICATION_LAG_COLUMN_LABEL_PROPERTY_NAME_SUFFIX, String.class, defaultColumnLabel);
+    }
+
+    public static Duration getDynamicDataSourceReplicationLagMaxLag(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_REPLICATION_LAG_MAX_LAG_PROPERTY_NAME_SUFFIX, Duration.class, ofSeconds(10));
+    }
+
+    public static Duration getDynamicDataSourceReplicationLagPollInterval(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_REPLICATION_LAG_POLL_INTERVAL_PROPERTY_NAME_SUFFIX, Duration.class, ofSeconds(1));
+    }
+
+    public static Duration getDynamicDataSourceReplicationLagQueryTimeout(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_REPLICATION_LAG_QUERY_TIMEOUT_PROPERTY_NAME_SUFFIX, Duration.class, ofSeconds(1));
+    }
+
+    public static boolean isDynamicDataSourceClusterTopologyEnabled(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_CLUSTER_TOPOLOGY_ENABLED_PROPERTY_NAME_SUFFIX, Boolean.class, Boolean.FALSE);
+    }
+
+    public static Duration getDynamicDataSourceClusterTopologyCheckInterval(Environment environment) {
+        return getDynamicDataSourceProperty(environment, null,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_CLUSTER_TOPOLOGY_CHECK_INTERVAL_PROPERTY_NAME_SUFFIX, Duration.class, ofSeconds(5));
+    }
+
+    public static int getDynamicDataSourceStripes(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_STRIPES_PROPERTY_NAME_SUFFIX, Integer.class, 1);
+    }
+
+    public static boolean isDynamicDataSourceSharedPoolEnabled(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_SHARED_POOL_ENABLED_PROPERTY_NAME_SUFFIX, Boolean.class, Boolean.FALSE);
+    }
+
+    public static int getDynamicDataSourceSharedPoolQuota(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_SHARED_POOL_QUOTA_PROPERTY_NAME_SUFFIX, Integer.class, 0);
+    }
+
+    public static int getDynamicDataSourceConnectionBudgetMaxConnections(Environment environment) {
+        return getDynamicDataSourceProperty(environment, null,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_CONNECTION_BUDGET_MAX_CONNECTIONS_PROPERTY_NAME_SUFFIX, Integer.class, 0);
+    }
+
+    public static Duration getDynamicDataSourceConnectionBudgetRebalanceInterval(Environment environment) {
+        return getDynamicDataSourceProperty(environment, null,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_CONNECTION_BUDGET_REBALANCE_INTERVAL_PROPERTY_NAME_SUFFIX, Duration.class, ofSeconds(10));
+    }
+
+    public static int getDynamicDataSourceConnectionBudgetFloor(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_CONNECTION_BUDGET_FLOOR_PROPERTY_NAME_SUFFIX, Integer.class, 1);
+    }
+
+    public static int getDynamicDataSourceConnectionBudgetCeiling(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_CONNECTION_BUDGET_CEILING_PROPERTY_NAME_SUFFIX, Integer.class, 0);
+    }
+
+    public static String[] getDynamicDataSourceWorkloadLaneNames(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_WORKLOAD_LANES_NAMES_PROPERTY_NAME_SUFFIX, String[].class, new String[0]);
+    }
+
+    public static int getDynamicDataSourceWorkloadLaneMaxConcurrency(Environment environment, String dynamicJdbcConfigName, String laneName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                getWorkloadLanePropertyNameSuffix(laneName, DataSourceConstants.DYNAMIC_DATA_SOURCE_WORKLOAD_LANE_MAX_CONCURRENCY_PROPERTY_NAME_SUFFIX),
+                Integer.class, 0);
+    }
+
+    public static int getDynamicDataSourceWorkloadLaneMaxQueue(Environment environment, String dynamicJdbcConfigName, String laneName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                getWorkloadLanePropertyNameSuffix(laneName, DataSourceConstants.DYNAMIC_DATA_SOURCE_WORKLOAD_LANE_MAX_QUEUE_PROPERTY_NAME_SUFFIX),
+                Integer.class, -1);
+    }
+
+    public static Duration getDynamicDataSourceWorkloadLaneTimeout(Environment environment, String dynamicJdbcConfigName, String laneName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                getWorkloadLanePropertyNameSuffix(laneName, DataSourceConstants.DYNAMIC_DATA_SOURCE_WORKLOAD_LANE_TIMEOUT_PROPERTY_NAME_SUFFIX),
+                Duration.class, ofSeconds(30));
+    }
+
+    public static Duration getDynamicDataSourceStatementQueryTimeout(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_STATEMENT_QUERY_TIMEOUT_PROPERTY_NAME_SUFFIX, Duration.class, Duration.ZERO);
+    }
+
+    public static boolean isDynamicDataSourceLazyConnectionEnabled(Environment environment, String dynamicJdbcConfigName) {
+        return getDynamicDataSourceProperty(environment, dynamicJdbcConfigName,
+                DataSourceConstants.DYNAMIC_DATA_SOURCE_LAZY_CONNECTION_ENABLED_PROPERTY_NAME_SUFFIX, Boolean.class, Boolean.FALSE);
+    }
+
+    private static String getWorkloadLanePropertyNameSuffix(String laneName, String propertyNameSuffix) {
+        return joinPropertyName(DataSourceConstants.DYNAMIC_DATA_SOURCE_WORKLOAD_LANE_PROPERTY_NAME_SUFFIX_PREFIX, laneName, propertyNameSuffix);
+    }
+
+    /**
+     * Get the property of DynamicDataSource, the property of the specified DynamicJdbcConfig
+     * "dynamic-context.${name}.${suffix}" takes precedence over the global one "dynamic-context.${suffix}"
+     */
+    public static <T> T getDynamicDataSourceProperty(Environment environment, String dynamicJdbcConfigName, String propertyNameSuffix,
+                                                     Class<T> propertyValueType, T defaultValue) {
+        String prefix = DataSourceConstants.DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_PROPERTY_NAME_PREFIX;
+        T value = environment.getProperty(joinPropertyName(prefix, propertyNameSuffix), propertyValueType, defaultValue);
+        if (!hasText(dynamicJdbcConfigName)) {
+            return value;
+        }
+        return environment.getProperty(joinPropertyName(prefix, dynamicJdbcConfigName, propertyNameSuffix), propertyValueType, value);
+    }
+
+    public static Duration getDynamicJdbcConfigChangedEventDebounceWindow(Environment environment) {
+        return environment.getProperty(DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_DEBOUNCE_WINDOW_PROPERTY_NAME, Duration.class, Duration.ZERO);
+    }
+
+    public static Duration getDynamicJdbcConfigChangedEventZoneHysteresis(Environment environment) {
+        return environment.getProperty(DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_ZONE_HYSTERESIS_PROPERTY_NAME, Duration.class, Duration.ZERO);
+    }
+
+    public static Duration getDynamicJdbcConfigChangedEventMaxWait(Environment environment) {
+        return environment.getProperty(DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_MAX_WAIT_PROPERTY_NAME, Duration.class, Duration.ZERO);
+    }
+
     public static void appendPropertyValue(Map<String, Object> properties, String propertyName, String appendPropertyValue) {
         Object propertyValue = properties.get(propertyName);
         if (propertyValue == null) { // Not exists
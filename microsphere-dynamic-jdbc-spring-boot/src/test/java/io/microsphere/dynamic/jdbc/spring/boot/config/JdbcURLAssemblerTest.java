@@ -39,4 +39,13 @@ public class JdbcURLAssemblerTest {
         assertEquals("jdbc:mysql://127.0.0.1:3306/demo_ds?characterEncoding=UTF-8&ttl=false&useUnicode=false&useSSL=false",
                 jdbcURL);
     }
+
+    @Test
+    public void testCanonicalize() {
+        assertEquals("jdbc:mysql://db.example.com:3306/demo_ds?characterEncoding=utf-8&useSSL=false",
+                JdbcURLAssembler.canonicalize(" jdbc:MySQL://DB.example.com:3306/demo_ds?useSSL=false&characterEncoding=utf-8 "));
+        assertEquals(JdbcURLAssembler.canonicalize("jdbc:mysql://127.0.0.1:3306/demo_ds?useSSL=false&useUnicode=true"),
+                JdbcURLAssembler.canonicalize("jdbc:mysql://127.0.0.1:3306/demo_ds?useUnicode=true&useSSL=false"));
+        assertEquals("jdbc:h2:mem:demo_ds", JdbcURLAssembler.canonicalize("jdbc:h2:mem:demo_ds"));
+    }
 }
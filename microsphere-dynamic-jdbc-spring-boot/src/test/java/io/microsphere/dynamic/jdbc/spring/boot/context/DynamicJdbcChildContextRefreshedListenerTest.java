@@ -0,0 +1,148 @@
+package io.microsphere.dynamic.jdbc.spring.boot.context;
+
+import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.DynamicDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link DynamicJdbcChildContextRefreshedListener} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class DynamicJdbcChildContextRefreshedListenerTest {
+
+    private static final int CYCLES = 500;
+
+    private static final int GC_ATTEMPTS = 100;
+
+    private final DynamicJdbcConfig dynamicJdbcConfig = new DynamicJdbcConfig();
+
+    private GenericApplicationContext parentContext;
+
+    @Before
+    public void before() {
+        parentContext = new GenericApplicationContext();
+        parentContext.getEnvironment().setConversionService(new ApplicationConversionService());
+        parentContext.refresh();
+    }
+
+    @After
+    public void after() {
+        parentContext.close();
+    }
+
+    @Test
+    public void testCloseWithParentContext() {
+        GenericApplicationContext childContext = refreshChildContext();
+        GenericApplicationContext closedChildContext = refreshChildContext();
+        closedChildContext.close();
+
+        DynamicJdbcChildContextsClosingListener listener = DynamicJdbcChildContextsClosingListener.find(parentContext);
+        assertNotNull(listener);
+        assertEquals(1, listener.getChildContextsCount());
+
+        parentContext.close();
+        assertFalse(childContext.isActive());
+        assertEquals(0, listener.getChildContextsCount());
+    }
+
+    @Test
+    public void testSoak() throws Exception {
+        SoakDynamicDataSource dynamicDataSource = new SoakDynamicDataSource(newDynamicJdbcConfig(), parentContext);
+        dynamicDataSource.afterPropertiesSet();
+        int listenersCount = parentContext.getApplicationListeners().size();
+
+        for (int i = 0; i < CYCLES; i++) {
+            // The previous Child Context is retired by DynamicDataSource after the swap
+            dynamicDataSource.refresh(newDynamicJdbcConfig()).get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(listenersCount, parentContext.getApplicationListeners().size());
+        assertEquals(1, DynamicJdbcChildContextsClosingListener.find(parentContext).getChildContextsCount());
+        // The retired Child Contexts are unreachable, except the current one
+        List<WeakReference<ConfigurableApplicationContext>> retiredChildContexts = dynamicDataSource.childContexts
+                .subList(0, dynamicDataSource.childContexts.size() - 2);
+        assertEquals(2 * CYCLES, retiredChildContexts.size());
+        awaitCollected(retiredChildContexts);
+
+        dynamicDataSource.destroy();
+        assertEquals(0, DynamicJdbcChildContextsClosingListener.find(parentContext).getChildContextsCount());
+    }
+
+    private GenericApplicationContext refreshChildContext() {
+        GenericApplicationContext childContext = new GenericApplicationContext();
+        childContext.addApplicationListener(new DynamicJdbcChildContextRefreshedListener(dynamicJdbcConfig, parentContext,
+                childContext.getBeanFactory(), false));
+        childContext.refresh();
+        return childContext;
+    }
+
+    private static DynamicJdbcConfig newDynamicJdbcConfig() {
+        DynamicJdbcConfig dynamicJdbcConfig = new DynamicJdbcConfig();
+        dynamicJdbcConfig.setName("test");
+        return dynamicJdbcConfig;
+    }
+
+    private static void awaitCollected(List<? extends Reference<?>> references) throws InterruptedException {
+        for (int i = 0; i < GC_ATTEMPTS && references.stream().anyMatch(reference -> reference.get() != null); i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        long reachable = references.stream().filter(reference -> reference.get() != null).count();
+        assertEquals("reachable Child Contexts : " + reachable, 0, reachable);
+    }
+
+    /**
+     * {@link DynamicDataSource} builds the Child Context with {@link DynamicJdbcChildContextRefreshedListener} as
+     * {@link DynamicJdbcChildContext} does, without the Dynamic JDBC modules
+     */
+    class SoakDynamicDataSource extends DynamicDataSource {
+
+        /**
+         * The Child Contexts handed to {@link DynamicDataSource} and their delegates in the order of the builds
+         */
+        final List<WeakReference<ConfigurableApplicationContext>> childContexts = new ArrayList<>();
+
+        SoakDynamicDataSource(DynamicJdbcConfig dynamicJdbcConfig, ConfigurableApplicationContext context) {
+            super(dynamicJdbcConfig, "microsphere.dynamic.jdbc.configs.test", context);
+        }
+
+        @Override
+        protected DynamicJdbcChildContext createDynamicDataSourceChildContext(DynamicJdbcConfig dynamicDataSourceConfig,
+                                                                              String dynamicJdbcConfigPropertyName,
+                                                                              ConfigurableApplicationContext parentContext) {
+            GenericApplicationContext delegate = refreshChildContext();
+            DynamicJdbcChildContext childContext = mock(DynamicJdbcChildContext.class);
+            when(childContext.getBeansOfType(DataSource.class)).thenReturn(singletonMap("dataSource", mock(DataSource.class)));
+            when(childContext.getParentContext()).thenReturn(parentContext);
+            doAnswer(invocation -> {
+                delegate.close();
+                return null;
+            }).when(childContext).close();
+            childContexts.add(new WeakReference<>(delegate));
+            childContexts.add(new WeakReference<>(childContext));
+            return childContext;
+        }
+    }
+}
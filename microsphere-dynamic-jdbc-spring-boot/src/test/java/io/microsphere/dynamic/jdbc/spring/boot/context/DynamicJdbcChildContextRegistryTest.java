@@ -0,0 +1,294 @@
+package io.microsphere.dynamic.jdbc.spring.boot.context;
+
+import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
+import io.microsphere.dynamic.jdbc.spring.boot.context.DynamicJdbcChildContextRegistry.BorrowedChildContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link DynamicJdbcChildContextRegistry} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class DynamicJdbcChildContextRegistryTest {
+
+    private static final String CONFIGS_PREFIX = "microsphere.dynamic.jdbc.configs.";
+
+    private ConfigurableApplicationContext parentContext;
+
+    private Map<String, DynamicJdbcChildContext> createdChildContexts;
+
+    private Set<DynamicJdbcChildContext> closedChildContexts;
+
+    private AtomicInteger creations;
+
+    private volatile long createMillis;
+
+    private DynamicJdbcChildContextRegistry registry;
+
+    @Before
+    public void before() {
+        parentContext = mock(ConfigurableApplicationContext.class);
+        createdChildContexts = new ConcurrentHashMap<>();
+        closedChildContexts = ConcurrentHashMap.newKeySet();
+        creations = new AtomicInteger();
+        registry = newRegistry(2, Duration.ofHours(1));
+    }
+
+    @After
+    public void after() {
+        registry.destroy();
+    }
+
+    @Test
+    public void testGetChildContextOnDemand() {
+        DynamicJdbcChildContext childContext = getChildContext("tenant-a");
+        assertSame(childContext, getChildContext(CONFIGS_PREFIX + "tenant-a"));
+        assertEquals(1, createdChildContexts.size());
+        assertEquals(asList(CONFIGS_PREFIX + "tenant-a"), asList(registry.getLiveChildContextPropertyNames().toArray()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetUnknownChildContext() {
+        getChildContext("tenant-x");
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        DynamicJdbcChildContext tenantA = getChildContext("tenant-a");
+        DynamicJdbcChildContext tenantB = getChildContext("tenant-b");
+        getChildContext("tenant-a");
+        getChildContext("tenant-c");
+
+        // Closed on the scheduler of the registry
+        verify(tenantB, timeout(1000).times(1)).close();
+        verify(tenantA, never()).close();
+        assertEquals(1, registry.getEvictions());
+        assertEquals(asList(CONFIGS_PREFIX + "tenant-a", CONFIGS_PREFIX + "tenant-c"),
+                asList(registry.getLiveChildContextPropertyNames().toArray()));
+    }
+
+    @Test
+    public void testBorrowedChildContextNotEvicted() throws SQLException {
+        Connection connection = registry.getConnection("tenant-a");
+        getChildContext("tenant-b");
+        DynamicJdbcChildContext tenantA = createdChildContexts.get("tenant-a");
+        DynamicJdbcChildContext tenantB = createdChildContexts.get("tenant-b");
+
+        getChildContext("tenant-c");
+        verify(tenantB, timeout(1000).times(1)).close();
+        verify(tenantA, never()).close();
+
+        connection.close();
+        getChildContext("tenant-b");
+        verify(tenantA, timeout(1000).times(1)).close();
+    }
+
+    @Test
+    public void testEvictIdleChildContexts() throws Exception {
+        registry.destroy();
+        registry = newRegistry(0, Duration.ofMillis(1));
+        DynamicJdbcChildContext tenantA = getChildContext("tenant-a");
+        Thread.sleep(5);
+        registry.evictIdleChildContexts();
+        verify(tenantA, times(1)).close();
+        assertEquals(0, registry.getLiveChildContextPropertyNames().size());
+    }
+
+    @Test
+    public void testEvictOffCaller() {
+        DynamicJdbcChildContext tenantA = getChildContext("tenant-a");
+        Thread caller = Thread.currentThread();
+        List<Thread> closingThreads = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            closingThreads.add(Thread.currentThread());
+            return null;
+        }).when(tenantA).close();
+        getChildContext("tenant-b");
+        getChildContext("tenant-c");
+        verify(tenantA, timeout(1000).times(1)).close();
+        assertEquals(1, closingThreads.size());
+        assertNotSame(caller, closingThreads.get(0));
+    }
+
+    @Test
+    public void testCreateOnceConcurrently() throws Exception {
+        createMillis = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<DynamicJdbcChildContext>> futures = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                futures.add(executorService.submit(() -> {
+                    startLatch.await();
+                    return getChildContext("tenant-a");
+                }));
+            }
+            startLatch.countDown();
+            assertSame(futures.get(0).get(), futures.get(1).get());
+            assertEquals(1, creations.get());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testForwardConfigChangedEvent() {
+        DynamicJdbcChildContext tenantA = getChildContext("tenant-a");
+        DynamicJdbcConfig dynamicJdbcConfig = new DynamicJdbcConfig();
+        dynamicJdbcConfig.setName("tenant-a");
+        DynamicJdbcConfigChangedEvent event = new DynamicJdbcConfigChangedEvent(parentContext, dynamicJdbcConfig, CONFIGS_PREFIX + "tenant-a");
+        registry.onApplicationEvent(event);
+        // Propagated to the live Child Context
+        verify(tenantA, times(1)).publishEvent(event);
+
+        // The Child Context to be created uses the latest DynamicJdbcConfig
+        DynamicJdbcConfig tenantBConfig = new DynamicJdbcConfig();
+        tenantBConfig.setName("tenant-b-renamed");
+        registry.onApplicationEvent(new DynamicJdbcConfigChangedEvent(parentContext, tenantBConfig, CONFIGS_PREFIX + "tenant-b"));
+        getChildContext("tenant-b-renamed");
+        assertSame(createdChildContexts.get("tenant-b-renamed"), getChildContext(CONFIGS_PREFIX + "tenant-b"));
+
+        // The events of the other contexts are ignored
+        registry.onApplicationEvent(new DynamicJdbcConfigChangedEvent(mock(ConfigurableApplicationContext.class), dynamicJdbcConfig,
+                CONFIGS_PREFIX + "tenant-a"));
+        verify(tenantA, times(1)).publishEvent(any(DynamicJdbcConfigChangedEvent.class));
+    }
+
+    @Test
+    public void testDestroy() {
+        DynamicJdbcChildContext tenantA = getChildContext("tenant-a");
+        registry.destroy();
+        verify(tenantA, times(1)).close();
+    }
+
+    @Test
+    public void testEvictionRacesGetBean() throws Exception {
+        registry.destroy();
+        registry = newRegistry(1, Duration.ofNanos(1));
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            AtomicBoolean stopped = new AtomicBoolean();
+            AtomicInteger violations = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+            for (String name : asList("tenant-a", "tenant-b", "tenant-c")) {
+                futures.add(executorService.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        try (BorrowedChildContext borrowedChildContext = registry.getChildContext(name)) {
+                            assertNotNull(borrowedChildContext.getBean(DataSource.class));
+                            // Widen the window of the evictions racing against the use of the bean
+                            Thread.yield();
+                            if (closedChildContexts.contains(borrowedChildContext.getChildContext())) {
+                                violations.incrementAndGet();
+                            }
+                        }
+                    }
+                }));
+            }
+            Future<?> evictor = executorService.submit(() -> {
+                while (!stopped.get()) {
+                    registry.evictIdleChildContexts();
+                }
+            });
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            stopped.set(true);
+            evictor.get();
+            assertEquals(0, violations.get());
+            assertTrue(registry.getEvictions() > 0);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGetChildContextAfterClosed() {
+        BorrowedChildContext borrowedChildContext = registry.getChildContext("tenant-a");
+        borrowedChildContext.close();
+        // Idempotent
+        borrowedChildContext.close();
+        borrowedChildContext.getChildContext();
+    }
+
+    /**
+     * Get the Child Context and return it to the registry at once, thus it's evictable
+     */
+    private DynamicJdbcChildContext getChildContext(String name) {
+        try (BorrowedChildContext borrowedChildContext = registry.getChildContext(name)) {
+            return borrowedChildContext.getChildContext();
+        }
+    }
+
+    private DynamicJdbcChildContextRegistry newRegistry(int maxLiveContexts, Duration idleTimeout) {
+        Map<String, DynamicJdbcConfig> dynamicJdbcConfigs = new LinkedHashMap<>();
+        for (String name : asList("tenant-a", "tenant-b", "tenant-c")) {
+            DynamicJdbcConfig dynamicJdbcConfig = new DynamicJdbcConfig();
+            dynamicJdbcConfig.setName(name);
+            dynamicJdbcConfigs.put(CONFIGS_PREFIX + name, dynamicJdbcConfig);
+        }
+        return new DynamicJdbcChildContextRegistry(parentContext, dynamicJdbcConfigs, maxLiveContexts, idleTimeout) {
+            @Override
+            protected DynamicJdbcChildContext createChildContext(DynamicJdbcConfig dynamicJdbcConfig, String dynamicJdbcConfigPropertyName) {
+                creations.incrementAndGet();
+                try {
+                    // Widen the window of the concurrent creation
+                    Thread.sleep(createMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                DynamicJdbcChildContext childContext = mock(DynamicJdbcChildContext.class);
+                DataSource dataSource = mock(DataSource.class);
+                try {
+                    when(dataSource.getConnection()).thenReturn(mock(Connection.class));
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+                when(childContext.getBean(DataSource.class)).thenReturn(dataSource);
+                when(childContext.getId()).thenReturn(dynamicJdbcConfig.getName());
+                doAnswer(invocation -> {
+                    closedChildContexts.add(childContext);
+                    return null;
+                }).when(childContext).close();
+                createdChildContexts.put(dynamicJdbcConfig.getName(), childContext);
+                return childContext;
+            }
+        };
+    }
+}
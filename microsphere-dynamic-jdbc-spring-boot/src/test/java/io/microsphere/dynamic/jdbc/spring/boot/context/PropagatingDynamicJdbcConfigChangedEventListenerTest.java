@@ -0,0 +1,187 @@
+package io.microsphere.dynamic.jdbc.spring.boot.context;
+
+import io.microsphere.spring.config.env.event.PropertySourceChangedEvent;
+import io.microsphere.spring.config.env.event.PropertySourcesChangedEvent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_DEBOUNCE_WINDOW_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_MAX_WAIT_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.constants.DynamicJdbcConstants.DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_ZONE_HYSTERESIS_PROPERTY_NAME;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link PropagatingDynamicJdbcConfigChangedEventListener} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class PropagatingDynamicJdbcConfigChangedEventListenerTest {
+
+    private static final String PROPERTY_NAME = "microsphere.dynamic.jdbc.configs.test";
+
+    private static final String CONFIG = "{\"name\":\"test\",\"ha-datasource\":{\"defaultZone\":[{\"name\":\"ds1\"," +
+            "\"url\":\"jdbc:derby:memory:ds1;create=true\"}]}}";
+
+    private GenericApplicationContext context;
+
+    private List<DynamicJdbcConfigChangedEvent> publishedEvents;
+
+    @Before
+    public void before() {
+        context = new GenericApplicationContext();
+        context.getEnvironment().setConversionService(new ApplicationConversionService());
+        publishedEvents = new CopyOnWriteArrayList<>();
+        context.addApplicationListener((ApplicationListener<ApplicationEvent>) event -> {
+            if (event instanceof DynamicJdbcConfigChangedEvent) {
+                publishedEvents.add((DynamicJdbcConfigChangedEvent) event);
+            }
+        });
+        context.refresh();
+    }
+
+    @After
+    public void after() {
+        context.close();
+    }
+
+    @Test
+    public void testPublishAfterQuietPeriod() throws Exception {
+        PropagatingDynamicJdbcConfigChangedEventListener listener = newListener("200ms", "0", "0");
+        for (int i = 0; i < 3; i++) {
+            listener.onApplicationEvent(newPropertySourcesChangedEvent());
+            Thread.sleep(20);
+        }
+        assertEquals(0, publishedEvents.size());
+
+        awaitPublishedEvents(1);
+        Thread.sleep(300);
+        assertEquals(1, publishedEvents.size());
+        assertEquals(PROPERTY_NAME, publishedEvents.get(0).getPropertyName());
+        assertEquals(2, listener.getCoalescedEventCount());
+    }
+
+    @Test
+    public void testPublishWithinMaxWait() throws Exception {
+        PropagatingDynamicJdbcConfigChangedEventListener listener = newListener("200ms", "0", "300ms");
+        long deadline = System.currentTimeMillis() + 1000;
+        while (System.currentTimeMillis() < deadline) {
+            listener.onApplicationEvent(newPropertySourcesChangedEvent());
+            Thread.sleep(50);
+        }
+        // The continuous burst didn't postpone the publication until its end
+        assertTrue(publishedEvents.size() >= 1);
+    }
+
+    @Test
+    public void testZoneHysteresis() throws Exception {
+        PropagatingDynamicJdbcConfigChangedEventListener listener = newListener("0", "200ms", "0");
+        listener.onZoneChanged("zone-a", "zone-b");
+        Thread.sleep(50);
+        listener.onZoneChanged("zone-b", "zone-a");
+        Thread.sleep(400);
+        assertEquals(0, publishedEvents.size());
+        // A single flapping is counted once
+        assertEquals(1, listener.getCoalescedEventCount());
+
+        listener.onZoneChanged("zone-a", "zone-b");
+        awaitPublishedEvents(1);
+        assertEquals(1, listener.getCoalescedEventCount());
+    }
+
+    @Test
+    public void testCoalesceConfigAndZoneChanges() throws Exception {
+        PropagatingDynamicJdbcConfigChangedEventListener listener = newListener("100ms", "200ms", "0");
+        listener.onZoneChanged("zone-a", "zone-b");
+        listener.onApplicationEvent(newPropertySourcesChangedEvent());
+        listener.onZoneChanged("zone-b", "zone-a");
+        // The config change is not suppressed by the zone flapping back
+        awaitPublishedEvents(1);
+        Thread.sleep(300);
+        assertEquals(1, publishedEvents.size());
+        assertEquals(2, listener.getCoalescedEventCount());
+    }
+
+    @Test
+    public void testPropagateClusterCredentialChanges() throws Exception {
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("application",
+                singletonMap("spring.application.name", "order-service")));
+        String config = "{\"name\":\"test\",\"datasource\":[{\"name\":\"ds1\"," +
+                "\"url\":\"jdbc:mysql://cluster-a.example.com:3306/orders\"}]}";
+        PropagatingDynamicJdbcConfigChangedEventListener listener = newListener(config, "0", "0", "0");
+
+        listener.onApplicationEvent(newPropertySourcesChangedEvent("order-service.cluster-b.password", "secret"));
+        assertEquals(0, publishedEvents.size());
+
+        listener.onApplicationEvent(newPropertySourcesChangedEvent("order-service.cluster-a.password", "secret"));
+        assertEquals(1, publishedEvents.size());
+        assertEquals(PROPERTY_NAME, publishedEvents.get(0).getPropertyName());
+    }
+
+    @Test
+    public void testPropagateClusterCredentialChangesOnce() throws Exception {
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("application",
+                singletonMap("spring.application.name", "order-service")));
+        String config = "{\"name\":\"test\",\"datasource\":[{\"name\":\"ds1\"," +
+                "\"url\":\"jdbc:mysql://cluster-a.example.com:3306/orders\"}]}";
+        PropagatingDynamicJdbcConfigChangedEventListener listener = newListener(config, "0", "0", "0");
+
+        // The username and password are rotated together
+        Map<String, Object> credentials = new HashMap<>();
+        credentials.put("order-service.cluster-a.username", "order");
+        credentials.put("order-service.cluster-a.password", "secret");
+        MapPropertySource propertySource = new MapPropertySource("credentials", credentials);
+        listener.onApplicationEvent(new PropertySourcesChangedEvent(context, PropertySourceChangedEvent.added(context, propertySource)));
+        assertEquals(1, publishedEvents.size());
+        assertEquals(PROPERTY_NAME, publishedEvents.get(0).getPropertyName());
+    }
+
+    private PropagatingDynamicJdbcConfigChangedEventListener newListener(String debounceWindow, String zoneHysteresis, String maxWait) {
+        return newListener(CONFIG, debounceWindow, zoneHysteresis, maxWait);
+    }
+
+    private PropagatingDynamicJdbcConfigChangedEventListener newListener(String config, String debounceWindow, String zoneHysteresis,
+                                                                         String maxWait) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(PROPERTY_NAME, config);
+        properties.put(DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_DEBOUNCE_WINDOW_PROPERTY_NAME, debounceWindow);
+        properties.put(DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_ZONE_HYSTERESIS_PROPERTY_NAME, zoneHysteresis);
+        properties.put(DYNAMIC_JDBC_CONFIG_CHANGED_EVENT_MAX_WAIT_PROPERTY_NAME, maxWait);
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+        PropagatingDynamicJdbcConfigChangedEventListener listener =
+                new PropagatingDynamicJdbcConfigChangedEventListener(singleton(PROPERTY_NAME), context);
+        context.addApplicationListener(listener);
+        return listener;
+    }
+
+    private PropertySourcesChangedEvent newPropertySourcesChangedEvent() {
+        return newPropertySourcesChangedEvent(PROPERTY_NAME, CONFIG);
+    }
+
+    private PropertySourcesChangedEvent newPropertySourcesChangedEvent(String propertyName, String propertyValue) {
+        MapPropertySource propertySource = new MapPropertySource(propertyName, singletonMap(propertyName, propertyValue));
+        return new PropertySourcesChangedEvent(context, PropertySourceChangedEvent.added(context, propertySource));
+    }
+
+    private void awaitPublishedEvents(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (publishedEvents.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, publishedEvents.size());
+    }
+}
@@ -0,0 +1,142 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import io.microsphere.dynamic.jdbc.spring.boot.context.DynamicJdbcChildContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.DynamicDataSourceCanary.Decision.ABORT;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.DynamicDataSourceCanary.Decision.HOLD;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.DynamicDataSourceCanary.Decision.PROMOTE;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.DynamicDataSourceCanary.Decision.RAMP;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_CANARY_INITIAL_PERCENTAGE_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_CANARY_MAX_ACQUIRE_LATENCY_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_CANARY_MAX_HOLD_TIME_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_CANARY_MIN_SAMPLES_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_CANARY_STEP_PERCENTAGE_PROPERTY_NAME;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * {@link DynamicDataSourceCanary} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class DynamicDataSourceCanaryTest {
+
+    private DynamicDataSourceGeneration stable;
+
+    private DynamicDataSourceGeneration canaryGeneration;
+
+    private MockEnvironment environment;
+
+    private DynamicDataSourceCanary canary;
+
+    @Before
+    public void before() {
+        environment = new MockEnvironment();
+        environment.setConversionService(new ApplicationConversionService());
+        environment.setProperty(DYNAMIC_DATA_SOURCE_CANARY_INITIAL_PERCENTAGE_PROPERTY_NAME, "20");
+        environment.setProperty(DYNAMIC_DATA_SOURCE_CANARY_STEP_PERCENTAGE_PROPERTY_NAME, "40");
+        environment.setProperty(DYNAMIC_DATA_SOURCE_CANARY_MIN_SAMPLES_PROPERTY_NAME, "10");
+        environment.setProperty(DYNAMIC_DATA_SOURCE_CANARY_MAX_ACQUIRE_LATENCY_PROPERTY_NAME, "100ms");
+        stable = new DynamicDataSourceGeneration(1, mock(DataSource.class), mock(DynamicJdbcChildContext.class), null);
+        canaryGeneration = new DynamicDataSourceGeneration(2, mock(DataSource.class), mock(DynamicJdbcChildContext.class), null);
+        canary = new DynamicDataSourceCanary(stable, canaryGeneration, environment, new CompletableFuture<>());
+    }
+
+    @Test
+    public void testSelect() {
+        int canaryCount = 0;
+        for (int i = 0; i < 10000; i++) {
+            DynamicDataSourceGeneration generation = canary.select();
+            if (canary.isCanary(generation)) {
+                canaryCount++;
+            } else {
+                assertSame(stable, generation);
+            }
+        }
+        // 20% roughly
+        assertTrue(canaryCount > 1000 && canaryCount < 3000);
+    }
+
+    @Test
+    public void testRampUpAndPromote() {
+        assertEquals(HOLD, canary.step());
+
+        record(10, MILLISECONDS.toNanos(10), 0);
+        assertEquals(RAMP, canary.step());
+        assertEquals(60, canary.getPercentage());
+
+        assertEquals(HOLD, canary.step());
+
+        record(10, MILLISECONDS.toNanos(10), 0);
+        assertEquals(PROMOTE, canary.step());
+    }
+
+    @Test
+    public void testAbortOnErrorRate() {
+        record(10, MILLISECONDS.toNanos(10), 1);
+        assertEquals(ABORT, canary.step());
+        assertNotNull(canary.getAbortReason());
+    }
+
+    @Test
+    public void testAbortOnAcquireLatency() {
+        record(10, MILLISECONDS.toNanos(200), 0);
+        assertEquals(ABORT, canary.step());
+        assertNotNull(canary.getAbortReason());
+    }
+
+    @Test
+    public void testHoldKeepsSamples() {
+        record(5, MILLISECONDS.toNanos(10), 0);
+        assertEquals(HOLD, canary.step());
+        // The samples of the previous steps are accumulated
+        record(5, MILLISECONDS.toNanos(10), 0);
+        assertEquals(RAMP, canary.step());
+    }
+
+    @Test
+    public void testErrorRateWithinSnapshot() {
+        record(10, MILLISECONDS.toNanos(10), 10);
+        assertEquals(ABORT, canary.step());
+        assertEquals("error rate 1.0 exceeds 0.05", canary.getAbortReason());
+    }
+
+    @Test
+    public void testPromoteAfterMaxHoldTime() throws InterruptedException {
+        environment.setProperty(DYNAMIC_DATA_SOURCE_CANARY_MAX_HOLD_TIME_PROPERTY_NAME, "10ms");
+        canary = new DynamicDataSourceCanary(stable, canaryGeneration, environment, new CompletableFuture<>());
+        record(2, MILLISECONDS.toNanos(10), 0);
+        assertEquals(HOLD, canary.step());
+        Thread.sleep(20);
+        // The low traffic can't reach the min samples, the canary is decided by the samples so far
+        assertEquals(PROMOTE, canary.step());
+    }
+
+    @Test
+    public void testAbortAfterMaxHoldTime() throws InterruptedException {
+        environment.setProperty(DYNAMIC_DATA_SOURCE_CANARY_MAX_HOLD_TIME_PROPERTY_NAME, "10ms");
+        canary = new DynamicDataSourceCanary(stable, canaryGeneration, environment, new CompletableFuture<>());
+        record(2, MILLISECONDS.toNanos(10), 1);
+        Thread.sleep(20);
+        assertEquals(ABORT, canary.step());
+        assertNotNull(canary.getAbortReason());
+    }
+
+    private void record(int samples, long latency, int errors) {
+        for (int i = 0; i < samples; i++) {
+            canary.record(latency, i < errors);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import io.microsphere.dynamic.jdbc.spring.boot.context.DynamicJdbcChildContext;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.deadline.QueryDeadline;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link DynamicDataSourceGeneration} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class DynamicDataSourceGenerationTest {
+
+    private DynamicJdbcChildContext childContext;
+
+    private DynamicDataSourceGeneration generation;
+
+    @Before
+    public void before() {
+        childContext = mock(DynamicJdbcChildContext.class);
+        generation = new DynamicDataSourceGeneration(1, mock(DataSource.class), childContext, null);
+    }
+
+    @Test
+    public void testRetireWithoutBorrowed() {
+        generation.retire();
+        assertTrue(generation.isClosed());
+        assertFalse(generation.borrow());
+        verify(childContext, times(1)).close();
+    }
+
+    @Test
+    public void testRetireAfterBorrowedConnectionsReturned() throws Exception {
+        assertTrue(generation.borrow());
+        Connection target = mock(Connection.class);
+        Connection connection = generation.wrap(target);
+
+        assertEquals(1L, ((DynamicConnection) connection).getGeneration());
+        assertSame(target, connection.unwrap(DynamicConnection.class).getTargetConnection());
+
+        generation.retire();
+        assertFalse(generation.isClosed());
+        verify(childContext, never()).close();
+
+        connection.close();
+        // close twice
+        connection.close();
+        assertTrue(connection.isClosed());
+        assertTrue(generation.isClosed());
+        assertEquals(0, generation.getBorrowed());
+        verify(target, times(1)).close();
+        verify(childContext, times(1)).close();
+    }
+
+    @Test
+    public void testCloseCallback() throws Exception {
+        AtomicInteger closed = new AtomicInteger();
+        assertTrue(generation.borrow());
+        Connection connection = generation.wrap(mock(Connection.class), closed::incrementAndGet, null);
+        connection.close();
+        connection.close();
+        assertEquals(1, closed.get());
+        assertEquals(0, generation.getBorrowed());
+    }
+
+    @Test
+    public void testQueryTimeout() throws Exception {
+        Connection target = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        PreparedStatement preparedStatement = mock(PreparedStatement.class);
+        when(target.createStatement()).thenReturn(statement);
+        when(target.prepareStatement("SELECT 1")).thenReturn(preparedStatement);
+        assertTrue(generation.borrow());
+        Connection connection = generation.wrap(target, null, Duration.ofSeconds(30));
+
+        Statement statementProxy = connection.createStatement();
+        statementProxy.execute("SELECT 1");
+        verify(statement, times(1)).setQueryTimeout(30);
+        // The timeout set by the caller is kept if it's less
+        statementProxy.setQueryTimeout(10);
+        statementProxy.executeQuery("SELECT 1");
+        verify(statement, times(1)).setQueryTimeout(10);
+
+        // The statement prepared before the deadline times out with the remaining budget at the execution
+        PreparedStatement preparedStatementProxy = connection.prepareStatement("SELECT 1");
+        verify(preparedStatement, never()).setQueryTimeout(2);
+        try (QueryDeadline.Scope scope = QueryDeadline.start(Duration.ofMillis(1500))) {
+            preparedStatementProxy.executeQuery();
+            verify(preparedStatement, times(1)).setQueryTimeout(2);
+        }
+        preparedStatementProxy.executeQuery();
+        verify(preparedStatement, times(1)).setQueryTimeout(30);
+        try (QueryDeadline.Scope scope = QueryDeadline.start(Duration.ofMillis(-1))) {
+            preparedStatementProxy.executeQuery();
+            fail("The deadline was exceeded");
+        } catch (SQLTimeoutException e) {
+            verify(preparedStatement, times(2)).executeQuery();
+        }
+        connection.close();
+    }
+
+    @Test
+    public void testStatementConnection() throws Exception {
+        AtomicInteger closed = new AtomicInteger();
+        Connection target = mock(Connection.class);
+        CallableStatement callableStatement = mock(CallableStatement.class);
+        when(target.prepareCall("{call p()}")).thenReturn(callableStatement);
+        when(callableStatement.getConnection()).thenReturn(target);
+        assertTrue(generation.borrow());
+        Connection connection = generation.wrap(target, closed::incrementAndGet, null);
+
+        CallableStatement statement = (CallableStatement) connection.prepareCall("{call p()}");
+        assertSame(statement, statement.unwrap(CallableStatement.class));
+        // Closing the connection of the statement releases the generation and runs the callback
+        Connection statementConnection = statement.getConnection();
+        assertSame(connection, statementConnection);
+        statementConnection.close();
+        assertEquals(1, closed.get());
+        assertEquals(0, generation.getBorrowed());
+    }
+
+    @Test
+    public void testCloseOnDeadline() {
+        assertTrue(generation.borrow());
+        generation.retire();
+        assertTrue(generation.close());
+        assertFalse(generation.close());
+        generation.release();
+        verify(childContext, times(1)).close();
+    }
+}
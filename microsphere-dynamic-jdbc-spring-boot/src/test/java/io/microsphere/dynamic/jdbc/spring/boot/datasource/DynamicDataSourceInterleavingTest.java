@@ -0,0 +1,272 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
+import io.microsphere.dynamic.jdbc.spring.boot.context.DynamicJdbcChildContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_CLOSE_DELAY_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_ENABLED_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_TIMEOUT_PROPERTY_NAME;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The deterministic interleavings of {@link DynamicDataSource} : the acquisitions and the swaps are paused at
+ * {@link PausePoint the pause points} inside {@link DataSource#getConnection()} of the delegates, which is called by
+ * the readers and by the readiness probe between the build and the swap, and the competing operations are forced to
+ * run in between.
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class DynamicDataSourceInterleavingTest {
+
+    private GenericApplicationContext context;
+
+    private ExecutorService executorService;
+
+    private InterleavingDynamicDataSource dynamicDataSource;
+
+    @Before
+    public void before() {
+        context = new GenericApplicationContext();
+        context.getEnvironment().setConversionService(new ApplicationConversionService());
+        Map<String, Object> properties = new HashMap<>();
+        // The retired generations are closed only when their borrowed connections are returned
+        properties.put(DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_CLOSE_DELAY_PROPERTY_NAME, "1h");
+        properties.put(DYNAMIC_DATA_SOURCE_PROBE_ENABLED_PROPERTY_NAME, "true");
+        properties.put(DYNAMIC_DATA_SOURCE_PROBE_TIMEOUT_PROPERTY_NAME, "1m");
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", properties));
+        context.refresh();
+        executorService = Executors.newSingleThreadExecutor();
+        dynamicDataSource = new InterleavingDynamicDataSource(newDynamicJdbcConfig(), context);
+        dynamicDataSource.afterPropertiesSet();
+    }
+
+    @After
+    public void after() {
+        dynamicDataSource.pausePoints.values().forEach(PausePoint::resume);
+        dynamicDataSource.destroy();
+        executorService.shutdownNow();
+        context.close();
+    }
+
+    /**
+     * The generation built earlier reaches the swap after the newer one, it must be retired rather than overwriting
+     */
+    @Test
+    public void testOlderGenerationLosesTheSwap() throws Exception {
+        PausePoint beforeSwap = dynamicDataSource.pauseAt(2);
+        Future<CompletableFuture<DataSource>> olderRefresh = executorService.submit(() -> dynamicDataSource.refresh(newDynamicJdbcConfig()));
+        beforeSwap.awaitReached();
+
+        DataSource newerDataSource = dynamicDataSource.refresh(newDynamicJdbcConfig()).get();
+        assertEquals(3L, dynamicDataSource.getDelegateGeneration());
+        assertTrue(dynamicDataSource.isClosed(1));
+
+        beforeSwap.resume();
+        assertSame(newerDataSource, olderRefresh.get(5, TimeUnit.SECONDS).get());
+        assertEquals(3L, dynamicDataSource.getDelegateGeneration());
+        assertTrue(dynamicDataSource.isClosed(2));
+        assertFalse(dynamicDataSource.isClosed(3));
+    }
+
+    /**
+     * The generation is swapped while a reader is acquiring from it, it must not be closed until the reader returns
+     * the connection
+     */
+    @Test
+    public void testSwapWhileAcquiring() throws Exception {
+        PausePoint acquiring = dynamicDataSource.pauseAt(1);
+        Future<Connection> reader = executorService.submit(() -> dynamicDataSource.getConnection());
+        acquiring.awaitReached();
+
+        dynamicDataSource.refresh(newDynamicJdbcConfig()).get();
+        assertFalse(dynamicDataSource.isClosed(1));
+        // The new readers are served by the latest generation
+        try (Connection connection = dynamicDataSource.getConnection()) {
+            assertEquals(2L, connection.unwrap(DynamicConnection.class).getGeneration());
+        }
+
+        acquiring.resume();
+        Connection connection = reader.get(5, TimeUnit.SECONDS);
+        assertEquals(1L, connection.unwrap(DynamicConnection.class).getGeneration());
+        assertFalse(dynamicDataSource.isClosed(1));
+        connection.close();
+        assertTrue(dynamicDataSource.isClosed(1));
+        assertFalse(dynamicDataSource.isClosed(2));
+    }
+
+    /**
+     * destroy() runs between the build and the swap, the built generation must not be leaked
+     */
+    @Test
+    public void testDestroyWhileSwapping() throws Exception {
+        PausePoint beforeSwap = dynamicDataSource.pauseAt(2);
+        Future<CompletableFuture<DataSource>> refresh = executorService.submit(() -> dynamicDataSource.refresh(newDynamicJdbcConfig()));
+        beforeSwap.awaitReached();
+
+        dynamicDataSource.destroy();
+        assertTrue(dynamicDataSource.isClosed(1));
+
+        beforeSwap.resume();
+        try {
+            refresh.get(5, TimeUnit.SECONDS);
+            fail("The swap after destroy should fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertTrue(dynamicDataSource.isClosed(2));
+        verify(dynamicDataSource.childContexts.get(1), times(1)).close();
+    }
+
+    /**
+     * destroy() runs while a reader is acquiring, the generation is closed at once, and closing the connection later
+     * must not close it again
+     */
+    @Test
+    public void testDestroyWhileAcquiring() throws Exception {
+        PausePoint acquiring = dynamicDataSource.pauseAt(1);
+        Future<Connection> reader = executorService.submit(() -> dynamicDataSource.getConnection());
+        acquiring.awaitReached();
+
+        dynamicDataSource.destroy();
+        assertTrue(dynamicDataSource.isClosed(1));
+
+        acquiring.resume();
+        reader.get(5, TimeUnit.SECONDS).close();
+        verify(dynamicDataSource.childContexts.get(0), times(1)).close();
+        try {
+            dynamicDataSource.getConnection();
+            fail("DynamicDataSource has been destroyed");
+        } catch (SQLException e) {
+            // expected
+        }
+    }
+
+    private static DynamicJdbcConfig newDynamicJdbcConfig() {
+        DynamicJdbcConfig dynamicJdbcConfig = new DynamicJdbcConfig();
+        dynamicJdbcConfig.setName("test");
+        return dynamicJdbcConfig;
+    }
+
+    /**
+     * The point where the thread pauses until it's resumed
+     */
+    static class PausePoint {
+
+        private final CountDownLatch reached = new CountDownLatch(1);
+
+        private final CountDownLatch resumed = new CountDownLatch(1);
+
+        void pause() throws InterruptedException {
+            reached.countDown();
+            assertTrue(resumed.await(5, TimeUnit.SECONDS));
+        }
+
+        void awaitReached() throws InterruptedException {
+            assertTrue(reached.await(5, TimeUnit.SECONDS));
+        }
+
+        void resume() {
+            resumed.countDown();
+        }
+    }
+
+    static class InterleavingDynamicDataSource extends DynamicDataSource {
+
+        /**
+         * The child contexts in the order of the builds, the build n is the generation n
+         */
+        final List<DynamicJdbcChildContext> childContexts = new CopyOnWriteArrayList<>();
+
+        final List<AtomicBoolean> closedFlags = new CopyOnWriteArrayList<>();
+
+        final Map<Integer, PausePoint> pausePoints = new ConcurrentHashMap<>();
+
+        InterleavingDynamicDataSource(DynamicJdbcConfig dynamicJdbcConfig, ConfigurableApplicationContext context) {
+            super(dynamicJdbcConfig, "microsphere.dynamic.jdbc.configs.test", context);
+        }
+
+        /**
+         * Pause the next acquisition from the generation
+         *
+         * @param generation the generation, starts with 1
+         * @return {@link PausePoint}
+         */
+        PausePoint pauseAt(int generation) {
+            PausePoint pausePoint = new PausePoint();
+            pausePoints.put(generation, pausePoint);
+            return pausePoint;
+        }
+
+        boolean isClosed(int generation) {
+            return closedFlags.get(generation - 1).get();
+        }
+
+        @Override
+        protected DynamicJdbcChildContext createDynamicDataSourceChildContext(DynamicJdbcConfig dynamicDataSourceConfig,
+                                                                              String dynamicJdbcConfigPropertyName,
+                                                                              ConfigurableApplicationContext parentContext) {
+            int generation = childContexts.size() + 1;
+            DynamicJdbcChildContext childContext = mock(DynamicJdbcChildContext.class);
+            try {
+                DataSource dataSource = mock(DataSource.class);
+                when(dataSource.getConnection()).thenAnswer(invocation -> {
+                    PausePoint pausePoint = pausePoints.remove(generation);
+                    if (pausePoint != null) {
+                        pausePoint.pause();
+                    }
+                    Connection connection = mock(Connection.class);
+                    when(connection.isValid(anyInt())).thenReturn(true);
+                    return connection;
+                });
+                when(childContext.getBeansOfType(DataSource.class)).thenReturn(singletonMap("dataSource", dataSource));
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            when(childContext.getParentContext()).thenReturn(parentContext);
+            AtomicBoolean closed = new AtomicBoolean();
+            doAnswer(invocation -> {
+                closed.set(true);
+                return null;
+            }).when(childContext).close();
+            closedFlags.add(closed);
+            childContexts.add(childContext);
+            return childContext;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.mock.env.MockEnvironment;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_ENABLED_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_INITIAL_BACKOFF_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_MAX_ATTEMPTS_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_MAX_BACKOFF_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_PROBE_VALIDATION_QUERY_PROPERTY_NAME;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link DynamicDataSourceReadinessProbe} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class DynamicDataSourceReadinessProbeTest {
+
+    private MockEnvironment environment;
+
+    @Before
+    public void before() {
+        environment = new MockEnvironment();
+        environment.setConversionService(new ApplicationConversionService());
+        environment.setProperty(DYNAMIC_DATA_SOURCE_PROBE_ENABLED_PROPERTY_NAME, "true");
+        environment.setProperty(DYNAMIC_DATA_SOURCE_PROBE_MAX_ATTEMPTS_PROPERTY_NAME, "5");
+        environment.setProperty(DYNAMIC_DATA_SOURCE_PROBE_INITIAL_BACKOFF_PROPERTY_NAME, "100ms");
+        environment.setProperty(DYNAMIC_DATA_SOURCE_PROBE_MAX_BACKOFF_PROPERTY_NAME, "500ms");
+    }
+
+    @Test
+    public void testDisabled() {
+        DynamicDataSourceReadinessProbe probe = new DynamicDataSourceReadinessProbe(new MockEnvironment());
+        assertFalse(probe.isEnabled());
+        assertEquals(1, probe.getMaxAttempts());
+    }
+
+    @Test
+    public void testBackoff() {
+        DynamicDataSourceReadinessProbe probe = new DynamicDataSourceReadinessProbe(environment);
+        assertTrue(probe.isEnabled());
+        assertEquals(5, probe.getMaxAttempts());
+        assertEquals(100, probe.getBackoff(1));
+        assertEquals(200, probe.getBackoff(2));
+        assertEquals(400, probe.getBackoff(3));
+        assertEquals(500, probe.getBackoff(4));
+    }
+
+    @Test
+    public void testProbeByIsValid() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(anyInt())).thenReturn(true);
+
+        DynamicDataSourceReadinessProbe probe = new DynamicDataSourceReadinessProbe(environment);
+        probe.probe(dataSource);
+        verify(connection).close();
+
+        when(connection.isValid(anyInt())).thenReturn(false);
+        try {
+            probe.probe(dataSource);
+            fail();
+        } catch (SQLException expected) {
+        }
+    }
+
+    @Test
+    public void testProbeByValidationQuery() throws SQLException {
+        environment.setProperty(DYNAMIC_DATA_SOURCE_PROBE_VALIDATION_QUERY_PROPERTY_NAME, "SELECT 1");
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+
+        DynamicDataSourceReadinessProbe probe = new DynamicDataSourceReadinessProbe(environment);
+        probe.probe(dataSource);
+        verify(statement).setQueryTimeout(5);
+        verify(statement).execute("SELECT 1");
+        verify(statement).close();
+        verify(connection).close();
+    }
+}
@@ -0,0 +1,440 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
+import io.microsphere.dynamic.jdbc.spring.boot.context.DynamicJdbcChildContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_CLOSE_DELAY_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_PROPERTY_NAME_PREFIX;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_LAZY_CONNECTION_ENABLED_PROPERTY_NAME_SUFFIX;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_REFRESH_MODE_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_REFRESH_QUEUE_CAPACITY_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.constants.DataSourceConstants.DYNAMIC_DATA_SOURCE_SWAP_JITTER_PROPERTY_NAME_SUFFIX;
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcPropertyUtils.joinPropertyName;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link DynamicDataSource} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class DynamicDataSourceTest {
+
+    private static final int CONCURRENCY = 32;
+
+    private GenericApplicationContext context;
+
+    private ExecutorService executorService;
+
+    @Before
+    public void before() {
+        context = new GenericApplicationContext();
+        context.getEnvironment().setConversionService(new ApplicationConversionService());
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test",
+                singletonMap(DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_CLOSE_DELAY_PROPERTY_NAME, "500ms")));
+        context.refresh();
+        executorService = Executors.newFixedThreadPool(CONCURRENCY);
+    }
+
+    @After
+    public void after() {
+        executorService.shutdownNow();
+        context.close();
+    }
+
+    @Test
+    public void testSingleFlightInitialization() throws Exception {
+        CountingDynamicDataSource dynamicDataSource = new CountingDynamicDataSource(newDynamicJdbcConfig(), context);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<DataSource>> futures = new ArrayList<>(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            futures.add(executorService.submit(() -> {
+                startLatch.await();
+                return dynamicDataSource.getDelegate();
+            }));
+        }
+        startLatch.countDown();
+
+        DataSource dataSource = null;
+        for (Future<DataSource> future : futures) {
+            DataSource delegate = future.get();
+            if (dataSource == null) {
+                dataSource = delegate;
+            }
+            assertSame(dataSource, delegate);
+        }
+        assertEquals(1, dynamicDataSource.createdChildContexts.get());
+        assertEquals(1L, dynamicDataSource.getDelegateGeneration());
+        dynamicDataSource.destroy();
+    }
+
+    @Test
+    public void testRetryAfterInitializationFailure() {
+        CountingDynamicDataSource dynamicDataSource = new CountingDynamicDataSource(newDynamicJdbcConfig(), context);
+        dynamicDataSource.failures.set(1);
+        try {
+            dynamicDataSource.getDelegate();
+            fail("The first initialization should fail");
+        } catch (IllegalStateException e) {
+            assertEquals("failure", e.getMessage());
+        }
+        dynamicDataSource.getDelegate();
+        assertEquals(2, dynamicDataSource.createdChildContexts.get());
+        assertEquals(1L, dynamicDataSource.getDelegateGeneration());
+        dynamicDataSource.destroy();
+    }
+
+    /**
+     * Stress {@link DynamicDataSource#getConnection()} concurrently with the swaps and destroy, a borrowed
+     * {@link Connection} must never observe its {@link DynamicJdbcChildContext} closed before destroy, and no
+     * {@link DynamicJdbcChildContext} is leaked after destroy.
+     */
+    @Test
+    public void testGetConnectionConcurrentlyWithSwapsAndDestroy() throws Exception {
+        DynamicJdbcConfig dynamicJdbcConfig = newDynamicJdbcConfig();
+        CountingDynamicDataSource dynamicDataSource = new CountingDynamicDataSource(dynamicJdbcConfig, context);
+        dynamicDataSource.buildMillis = 0;
+        dynamicDataSource.afterPropertiesSet();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicBoolean destroying = new AtomicBoolean();
+        AtomicInteger violations = new AtomicInteger();
+        AtomicInteger borrowed = new AtomicInteger();
+        AtomicReference<Throwable> unexpectedFailure = new AtomicReference<>();
+
+        List<Future<?>> workers = new ArrayList<>(CONCURRENCY - 1);
+        for (int i = 0; i < CONCURRENCY - 1; i++) {
+            workers.add(executorService.submit(() -> {
+                while (running.get()) {
+                    try (Connection connection = dynamicDataSource.getConnection()) {
+                        AtomicBoolean closed = dynamicDataSource.closedFlags.get(((DynamicConnection) connection).getTargetConnection());
+                        for (int j = 0; j < 3; j++) {
+                            if (closed.get() && !destroying.get()) {
+                                violations.incrementAndGet();
+                            }
+                            Thread.yield();
+                        }
+                        borrowed.incrementAndGet();
+                    } catch (SQLException e) {
+                        if (!destroying.get()) {
+                            unexpectedFailure.compareAndSet(null, e);
+                        }
+                    } catch (Throwable e) {
+                        unexpectedFailure.compareAndSet(null, e);
+                    }
+                }
+            }));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            dynamicDataSource.refresh(dynamicJdbcConfig);
+        }
+        destroying.set(true);
+        dynamicDataSource.destroy();
+        TimeUnit.MILLISECONDS.sleep(50);
+        running.set(false);
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+
+        assertNull(unexpectedFailure.get());
+        assertEquals(0, violations.get());
+        assertTrue(borrowed.get() > 0);
+        assertEquals(201, dynamicDataSource.createdChildContexts.get());
+        assertEquals(201, dynamicDataSource.closedFlags.size());
+        dynamicDataSource.closedFlags.values().forEach(closed -> assertTrue(closed.get()));
+
+        try {
+            dynamicDataSource.getConnection();
+            fail("DynamicDataSource has been destroyed");
+        } catch (SQLException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testAsyncRefresh() throws Exception {
+        setProperty(DYNAMIC_DATA_SOURCE_REFRESH_MODE_PROPERTY_NAME, "async");
+        List<DynamicDataSourceRefreshedEvent> events = new CopyOnWriteArrayList<>();
+        addRefreshedEventListener(events);
+        CountingDynamicDataSource dynamicDataSource = new CountingDynamicDataSource(newDynamicJdbcConfig(), context);
+        dynamicDataSource.afterPropertiesSet();
+        DataSource previousDataSource = dynamicDataSource.getDelegate();
+
+        CompletableFuture<DataSource> future = dynamicDataSource.refresh(newDynamicJdbcConfig());
+        // The caller is not blocked by the rebuilding
+        assertFalse(future.isDone());
+        assertSame(previousDataSource, dynamicDataSource.getDelegate());
+
+        DataSource dataSource = future.get(2, TimeUnit.SECONDS);
+        assertNotSame(previousDataSource, dataSource);
+        assertSame(dataSource, dynamicDataSource.getDelegate());
+        assertEquals(2L, dynamicDataSource.getDelegateGeneration());
+
+        // The event is published after the future is completed
+        awaitEvents(events, 1);
+        DynamicDataSourceRefreshedEvent event = events.get(0);
+        assertTrue(event.isSuccess());
+        assertSame(dynamicDataSource, event.getSource());
+        assertEquals(2L, event.getGeneration());
+        assertSame(dataSource, event.getDataSource());
+        dynamicDataSource.destroy();
+    }
+
+    @Test
+    public void testAsyncRefreshFailure() throws Exception {
+        setProperty(DYNAMIC_DATA_SOURCE_REFRESH_MODE_PROPERTY_NAME, "async");
+        List<DynamicDataSourceRefreshedEvent> events = new CopyOnWriteArrayList<>();
+        addRefreshedEventListener(events);
+        CountingDynamicDataSource dynamicDataSource = new CountingDynamicDataSource(newDynamicJdbcConfig(), context);
+        dynamicDataSource.afterPropertiesSet();
+        DataSource previousDataSource = dynamicDataSource.getDelegate();
+
+        dynamicDataSource.failures.set(1);
+        CompletableFuture<DataSource> future = dynamicDataSource.refresh(newDynamicJdbcConfig());
+        try {
+            future.get(2, TimeUnit.SECONDS);
+            fail("The refresh should fail");
+        } catch (ExecutionException e) {
+            assertEquals("failure", e.getCause().getMessage());
+        }
+        // The last-known-good delegate keeps serving
+        assertSame(previousDataSource, dynamicDataSource.getDelegate());
+        awaitEvents(events, 1);
+        assertFalse(events.get(0).isSuccess());
+        assertEquals(1L, events.get(0).getGeneration());
+        dynamicDataSource.destroy();
+    }
+
+    @Test
+    public void testSkipSupersededRefresh() throws Exception {
+        setProperty(DYNAMIC_DATA_SOURCE_REFRESH_MODE_PROPERTY_NAME, "async");
+        CountingDynamicDataSource dynamicDataSource = new CountingDynamicDataSource(newDynamicJdbcConfig(), context);
+        dynamicDataSource.afterPropertiesSet();
+
+        CompletableFuture<DataSource> first = dynamicDataSource.refresh(newDynamicJdbcConfig());
+        awaitCreatedChildContexts(dynamicDataSource, 2);
+        // Queued behind the first one, and superseded by the third one
+        CompletableFuture<DataSource> second = dynamicDataSource.refresh(newDynamicJdbcConfig());
+        CompletableFuture<DataSource> third = dynamicDataSource.refresh(newDynamicJdbcConfig());
+
+        DataSource dataSource = third.get(2, TimeUnit.SECONDS);
+        assertSame(dataSource, second.get(2, TimeUnit.SECONDS));
+        assertNotSame(dataSource, first.get(2, TimeUnit.SECONDS));
+        assertSame(dataSource, dynamicDataSource.getDelegate());
+        assertEquals(3, dynamicDataSource.createdChildContexts.get());
+        dynamicDataSource.destroy();
+    }
+
+    @Test
+    public void testRejectRefreshWhenQueueIsFull() throws Exception {
+        setProperty(DYNAMIC_DATA_SOURCE_REFRESH_MODE_PROPERTY_NAME, "async");
+        setProperty(DYNAMIC_DATA_SOURCE_REFRESH_QUEUE_CAPACITY_PROPERTY_NAME, "1");
+        CountingDynamicDataSource dynamicDataSource = new CountingDynamicDataSource(newDynamicJdbcConfig(), context);
+        dynamicDataSource.afterPropertiesSet();
+
+        CompletableFuture<DataSource> first = dynamicDataSource.refresh(newDynamicJdbcConfig());
+        awaitCreatedChildContexts(dynamicDataSource, 2);
+        dynamicDataSource.refresh(newDynamicJdbcConfig());
+        CompletableFuture<DataSource> rejected = dynamicDataSource.refresh(newDynamicJdbcConfig());
+
+        assertTrue(rejected.isCompletedExceptionally());
+        try {
+            rejected.get();
+            fail("The refresh should be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        assertNotNull(first.get(2, TimeUnit.SECONDS));
+        dynamicDataSource.destroy();
+    }
+
+    @Test
+    public void testSwapJitter() throws Exception {
+        long jitter = 300;
+        setProperty(joinPropertyName(DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_PROPERTY_NAME_PREFIX, "test",
+                DYNAMIC_DATA_SOURCE_SWAP_JITTER_PROPERTY_NAME_SUFFIX), jitter + "ms");
+        CountingDynamicDataSource dynamicDataSource = new CountingDynamicDataSource(newDynamicJdbcConfig(), context);
+        dynamicDataSource.afterPropertiesSet();
+
+        long maxDelay = 0;
+        for (int i = 0; i < 5; i++) {
+            long startTime = System.nanoTime();
+            CompletableFuture<DataSource> future = dynamicDataSource.refresh(newDynamicJdbcConfig());
+            // The jittered refresh is deferred even in sync mode
+            assertFalse(future.isDone());
+            assertSame(future.get(2, TimeUnit.SECONDS), dynamicDataSource.getDelegate());
+            long delay = TimeUnit.NANOSECONDS.toMillis(dynamicDataSource.buildStartTime - startTime);
+            // The slack covers the scheduling
+            assertTrue("delay " + delay + " ms exceeds the jitter", delay <= jitter + 100);
+            maxDelay = Math.max(maxDelay, delay);
+            // The rebuilding is off the close scheduler
+            assertTrue(dynamicDataSource.buildThreadName.startsWith("DynamicDataSource-Refresher-"));
+        }
+        // The delays are random within the jitter, all of five can hardly be immediate
+        assertTrue(maxDelay > 0);
+        assertEquals(6, dynamicDataSource.createdChildContexts.get());
+        dynamicDataSource.destroy();
+    }
+
+    @Test
+    public void testLazyConnection() throws Exception {
+        setProperty(joinPropertyName(DYNAMIC_DATA_SOURCE_CHILD_CONTEXT_PROPERTY_NAME_PREFIX, "test",
+                DYNAMIC_DATA_SOURCE_LAZY_CONNECTION_ENABLED_PROPERTY_NAME_SUFFIX), "true");
+        CountingDynamicDataSource dynamicDataSource = new CountingDynamicDataSource(newDynamicJdbcConfig(), context);
+        dynamicDataSource.afterPropertiesSet();
+        Connection target = dynamicDataSource.closedFlags.keySet().iterator().next();
+
+        // The transaction that never issues SQL doesn't acquire the physical Connection
+        Connection connection = dynamicDataSource.getConnection();
+        connection.setAutoCommit(true);
+        connection.commit();
+        connection.close();
+        verify(target, never()).setAutoCommit(anyBoolean());
+        verify(target, never()).close();
+
+        // The settings are replayed on the first use
+        connection = dynamicDataSource.getConnection();
+        connection.setAutoCommit(true);
+        connection.createStatement();
+        verify(target, times(1)).setAutoCommit(true);
+        assertTrue(connection.unwrap(ConnectionProxy.class).getTargetConnection() instanceof DynamicConnection);
+        connection.close();
+        verify(target, times(1)).close();
+        dynamicDataSource.destroy();
+    }
+
+    private void setProperty(String name, String value) {
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource(name, singletonMap(name, value)));
+    }
+
+    private void addRefreshedEventListener(List<DynamicDataSourceRefreshedEvent> events) {
+        context.addApplicationListener((ApplicationListener<ApplicationEvent>) event -> {
+            if (event instanceof DynamicDataSourceRefreshedEvent) {
+                events.add((DynamicDataSourceRefreshedEvent) event);
+            }
+        });
+    }
+
+    private static void awaitEvents(List<?> events, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, events.size());
+    }
+
+    private static void awaitCreatedChildContexts(CountingDynamicDataSource dynamicDataSource, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (dynamicDataSource.createdChildContexts.get() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, dynamicDataSource.createdChildContexts.get());
+    }
+
+    private static DynamicJdbcConfig newDynamicJdbcConfig() {
+        DynamicJdbcConfig dynamicJdbcConfig = new DynamicJdbcConfig();
+        dynamicJdbcConfig.setName("test");
+        return dynamicJdbcConfig;
+    }
+
+    static class CountingDynamicDataSource extends DynamicDataSource {
+
+        final AtomicInteger createdChildContexts = new AtomicInteger();
+
+        final AtomicInteger failures = new AtomicInteger();
+
+        final Map<Connection, AtomicBoolean> closedFlags = new ConcurrentHashMap<>();
+
+        volatile long buildMillis = 100;
+
+        volatile long buildStartTime;
+
+        volatile String buildThreadName;
+
+        CountingDynamicDataSource(DynamicJdbcConfig dynamicJdbcConfig, ConfigurableApplicationContext context) {
+            super(dynamicJdbcConfig, "microsphere.dynamic.jdbc.configs.test", context);
+        }
+
+        @Override
+        protected DynamicJdbcChildContext createDynamicDataSourceChildContext(DynamicJdbcConfig dynamicDataSourceConfig,
+                                                                              String dynamicJdbcConfigPropertyName,
+                                                                              ConfigurableApplicationContext parentContext) {
+            createdChildContexts.incrementAndGet();
+            buildStartTime = System.nanoTime();
+            buildThreadName = Thread.currentThread().getName();
+            try {
+                // Widen the window of the concurrent initialization
+                Thread.sleep(buildMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failures.getAndDecrement() > 0) {
+                throw new IllegalStateException("failure");
+            }
+            try {
+                // Every child context has its own target connection to track whether it's closed
+                Connection connection = mock(Connection.class);
+                AtomicBoolean closed = new AtomicBoolean();
+                closedFlags.put(connection, closed);
+                DataSource dataSource = mock(DataSource.class);
+                when(dataSource.getConnection()).thenReturn(connection);
+                DynamicJdbcChildContext childContext = mock(DynamicJdbcChildContext.class);
+                when(childContext.getBeansOfType(DataSource.class)).thenReturn(singletonMap("dataSource", dataSource));
+                when(childContext.getParentContext()).thenReturn(parentContext);
+                doAnswer(invocation -> {
+                    closed.set(true);
+                    return null;
+                }).when(childContext).close();
+                return childContext;
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.pool.HikariPool;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link HikariConnectionEvictor} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class HikariConnectionEvictorTest {
+
+    private ScheduledExecutorService scheduler;
+
+    private HikariDataSource dataSource;
+
+    private HikariPool pool;
+
+    private List<Long> evictionTimes;
+
+    @Before
+    public void before() throws Exception {
+        scheduler = newSingleThreadScheduledExecutor();
+        dataSource = mock(HikariDataSource.class);
+        pool = mock(HikariPool.class);
+        evictionTimes = new CopyOnWriteArrayList<>();
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        when(dataSource.getPoolName()).thenReturn("test-pool");
+        when(pool.getTotalConnections()).thenReturn(6);
+        when(pool.getIdleConnections()).thenReturn(6);
+        when(pool.getConnection(anyLong())).thenAnswer(invocation -> mock(Connection.class));
+        doAnswer(invocation -> evictionTimes.add(System.currentTimeMillis())).when(pool).evictConnection(any(Connection.class));
+    }
+
+    @After
+    public void after() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testEvictInBatches() throws Exception {
+        long startTime = System.currentTimeMillis();
+        HikariConnectionEvictor evictor = HikariConnectionEvictor.schedule(dataSource, scheduler, Duration.ofMillis(100), 2);
+        awaitEvictions(evictor);
+        assertEquals(6, evictionTimes.size());
+        // 3 batches of 2 connections, 100 ms apart, after the jittered delay of 100 ~ 200 ms
+        assertTrue(evictionTimes.get(0) - startTime >= 100);
+        assertTrue(evictionTimes.get(2) - evictionTimes.get(0) >= 80);
+        assertTrue(evictionTimes.get(4) - evictionTimes.get(2) >= 80);
+        // The idle connections are borrowed without waiting
+        verify(pool, never()).getConnection();
+        verify(pool, times(6)).getConnection(0);
+        verify(dataSource, never()).getConnection();
+    }
+
+    @Test
+    public void testSkipInUseConnections() throws Exception {
+        when(pool.getIdleConnections()).thenReturn(0);
+        HikariConnectionEvictor evictor = HikariConnectionEvictor.schedule(dataSource, scheduler, Duration.ofMillis(10), 2);
+        Thread.sleep(100);
+        verify(pool, never()).getConnection(anyLong());
+        assertEquals(6, evictor.getRemaining());
+
+        // The connections are returned
+        when(pool.getIdleConnections()).thenReturn(6);
+        awaitEvictions(evictor);
+        assertEquals(6, evictionTimes.size());
+    }
+
+    @Test
+    public void testIdleConnectionBorrowedConcurrently() throws Exception {
+        when(pool.getConnection(anyLong())).thenThrow(new SQLTransientConnectionException("timeout"));
+        HikariConnectionEvictor evictor = HikariConnectionEvictor.schedule(dataSource, scheduler, Duration.ofMillis(10), 2);
+        evictor.run();
+        assertEquals(6, evictor.getRemaining());
+        evictor.cancel();
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        HikariConnectionEvictor evictor = HikariConnectionEvictor.schedule(dataSource, scheduler, Duration.ofMillis(200), 2);
+        evictor.cancel();
+        Thread.sleep(500);
+        verify(pool, never()).evictConnection(any(Connection.class));
+        assertEquals(6, evictor.getRemaining());
+    }
+
+    @Test
+    public void testSkipClosedDataSource() {
+        when(dataSource.isClosed()).thenReturn(true);
+        HikariConnectionEvictor evictor = HikariConnectionEvictor.schedule(dataSource, scheduler, Duration.ofMillis(200), 2);
+        evictor.run();
+        verify(pool, never()).evictConnection(any(Connection.class));
+        assertEquals(6, evictor.getRemaining());
+    }
+
+    private void awaitEvictions(HikariConnectionEvictor evictor) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3000;
+        while (evictor.getRemaining() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(0, evictor.getRemaining());
+    }
+}
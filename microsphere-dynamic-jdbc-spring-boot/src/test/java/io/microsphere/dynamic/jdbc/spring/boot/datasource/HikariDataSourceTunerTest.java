@@ -0,0 +1,115 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.HikariDataSourceTuner.MAXIMUM_POOL_SIZE_PROPERTY_NAME;
+import static io.microsphere.dynamic.jdbc.spring.boot.datasource.HikariDataSourceTuner.MINIMUM_IDLE_PROPERTY_NAME;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link HikariDataSourceTuner} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class HikariDataSourceTunerTest {
+
+    @Test
+    public void testDiff() {
+        Map<String, String> previous = new HashMap<>();
+        previous.put("url", "jdbc:mysql://127.0.0.1:3306/test");
+        previous.put("maximum-pool-size", "10");
+        previous.put("idleTimeout", "60000");
+
+        Map<String, String> current = new HashMap<>();
+        current.put("url", "jdbc:mysql://127.0.0.1:3306/test");
+        current.put("maximumPoolSize", "20");
+        current.put("minimum-idle", "5");
+
+        Map<String, String> changes = HikariDataSourceTuner.diff(previous, current);
+        assertEquals(3, changes.size());
+        assertEquals("20", changes.get(MAXIMUM_POOL_SIZE_PROPERTY_NAME));
+        assertEquals("5", changes.get(MINIMUM_IDLE_PROPERTY_NAME));
+        assertTrue(changes.containsKey("idletimeout"));
+        assertNull(changes.get("idletimeout"));
+    }
+
+    @Test
+    public void testIsTunable() {
+        Map<String, String> changes = new HashMap<>();
+        assertFalse(HikariDataSourceTuner.isTunable(changes));
+
+        changes.put(MAXIMUM_POOL_SIZE_PROPERTY_NAME, "20");
+        assertTrue(HikariDataSourceTuner.isTunable(changes));
+
+        changes.put("connectiontimeout", "30s");
+        assertFalse(HikariDataSourceTuner.isTunable(changes));
+
+        changes.put("connectiontimeout", "30000");
+        changes.put("url", "jdbc:mysql://127.0.0.1:3307/test");
+        assertFalse(HikariDataSourceTuner.isTunable(changes));
+    }
+
+    @Test
+    public void testCredentials() {
+        Map<String, String> previous = new HashMap<>();
+        previous.put("username", "root");
+        previous.put("password", "old-secret");
+
+        Map<String, String> current = new HashMap<>(previous);
+        current.put("password", "new-secret");
+
+        Map<String, String> changes = HikariDataSourceTuner.diff(previous, current);
+        assertTrue(HikariDataSourceTuner.isTunable(changes));
+        assertTrue(HikariDataSourceTuner.hasCredentialChanges(changes));
+
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setUsername("root");
+        dataSource.setPassword("old-secret");
+        HikariDataSourceTuner.tune(dataSource, changes);
+        assertEquals("root", dataSource.getUsername());
+        assertEquals("new-secret", dataSource.getPassword());
+        dataSource.close();
+
+        current.remove("password");
+        changes = HikariDataSourceTuner.diff(previous, current);
+        assertFalse(HikariDataSourceTuner.isTunable(changes));
+    }
+
+    @Test
+    public void testTune() {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(10);
+        dataSource.setMinimumIdle(10);
+        assertSame(dataSource, HikariDataSourceTuner.findHikariDataSource(dataSource));
+
+        Map<String, String> changes = new HashMap<>();
+        changes.put(MAXIMUM_POOL_SIZE_PROPERTY_NAME, "2");
+        changes.put(MINIMUM_IDLE_PROPERTY_NAME, "1");
+        changes.put("connectiontimeout", "5000");
+        changes.put("idletimeout", "20000");
+        HikariDataSourceTuner.tune(dataSource, changes);
+
+        assertEquals(2, dataSource.getMaximumPoolSize());
+        assertEquals(1, dataSource.getMinimumIdle());
+        assertEquals(5000L, dataSource.getConnectionTimeout());
+        assertEquals(20000L, dataSource.getIdleTimeout());
+
+        changes.clear();
+        changes.put(MAXIMUM_POOL_SIZE_PROPERTY_NAME, "30");
+        changes.put(MINIMUM_IDLE_PROPERTY_NAME, "20");
+        HikariDataSourceTuner.tune(dataSource, changes);
+
+        assertEquals(30, dataSource.getMaximumPoolSize());
+        assertEquals(20, dataSource.getMinimumIdle());
+        dataSource.close();
+    }
+}
@@ -0,0 +1,72 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link HikariPoolRamper} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class HikariPoolRamperTest {
+
+    private ScheduledExecutorService scheduler;
+
+    private HikariDataSource dataSource;
+
+    @Before
+    public void before() {
+        scheduler = newSingleThreadScheduledExecutor();
+        dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(20);
+        dataSource.setMinimumIdle(10);
+    }
+
+    @After
+    public void after() {
+        dataSource.close();
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testRampUp() {
+        HikariPoolRamper ramper = HikariPoolRamper.schedule(dataSource, scheduler, 4, Duration.ofHours(1));
+        assertNotNull(ramper);
+        assertEquals(10, ramper.getTargetMinimumIdle());
+        assertEquals(4, dataSource.getMinimumIdle());
+
+        ramper.run();
+        assertEquals(8, dataSource.getMinimumIdle());
+        ramper.run();
+        assertEquals(10, dataSource.getMinimumIdle());
+        ramper.run();
+        assertEquals(10, dataSource.getMinimumIdle());
+    }
+
+    @Test
+    public void testNoRampUp() {
+        assertNull(HikariPoolRamper.schedule(dataSource, scheduler, 0, Duration.ofHours(1)));
+        assertNull(HikariPoolRamper.schedule(dataSource, scheduler, 10, Duration.ofHours(1)));
+        assertEquals(10, dataSource.getMinimumIdle());
+    }
+
+    @Test
+    public void testResolveMinimumIdle() {
+        HikariDataSource dataSource = new HikariDataSource();
+        assertEquals(10, HikariPoolRamper.resolveMinimumIdle(dataSource));
+        dataSource.setMaximumPoolSize(5);
+        assertEquals(5, HikariPoolRamper.resolveMinimumIdle(dataSource));
+        dataSource.close();
+    }
+}
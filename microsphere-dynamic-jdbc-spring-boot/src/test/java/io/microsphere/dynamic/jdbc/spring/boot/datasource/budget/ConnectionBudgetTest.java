@@ -0,0 +1,226 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.budget;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ConnectionBudget} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class ConnectionBudgetTest {
+
+    private static final String HOUSEKEEPING_PERIOD_PROPERTY_NAME = "com.zaxxer.hikari.housekeeping.periodMs";
+
+    private ConnectionBudget connectionBudget;
+
+    @Before
+    public void before() {
+        connectionBudget = new ConnectionBudget(12, Duration.ofHours(1));
+    }
+
+    @After
+    public void after() {
+        connectionBudget.destroy();
+    }
+
+    @Test
+    public void testAllocate() {
+        int[] sizes = ConnectionBudget.allocate(20, new int[]{1, 1, 1}, new int[]{10, 10, 10}, new int[]{8, 2, 1});
+        assertEquals(20, sizes[0] + sizes[1] + sizes[2]);
+        // The demands are met first
+        assertTrue(sizes[0] >= 8 && sizes[1] >= 2 && sizes[2] >= 1);
+        for (int size : sizes) {
+            assertTrue(size <= 10);
+        }
+    }
+
+    @Test
+    public void testAllocateInProportionToDemands() {
+        assertArrayEquals(new int[]{8, 2}, ConnectionBudget.allocate(10, new int[]{2, 2}, new int[]{20, 20}, new int[]{20, 4}));
+        // Capped by the ceilings
+        assertArrayEquals(new int[]{5, 3}, ConnectionBudget.allocate(100, new int[]{1, 1}, new int[]{5, 3}, new int[]{50, 1}));
+    }
+
+    @Test
+    public void testAllocateWhenFloorsExceedBudget() {
+        assertArrayEquals(new int[]{2, 2}, ConnectionBudget.allocate(3, new int[]{2, 2}, new int[]{5, 5}, new int[]{5, 5}));
+    }
+
+    @Test
+    public void testDemand() {
+        HikariDataSource dataSource = mock(HikariDataSource.class);
+        HikariPoolMXBean poolMXBean = mock(HikariPoolMXBean.class);
+        // Not started
+        assertEquals(2, ConnectionBudget.demand(dataSource, 2));
+
+        when(dataSource.getHikariPoolMXBean()).thenReturn(poolMXBean);
+        when(dataSource.getMaximumPoolSize()).thenReturn(5);
+        when(poolMXBean.getActiveConnections()).thenReturn(8);
+        assertEquals(10, ConnectionBudget.demand(dataSource, 2));
+
+        // The threads awaiting the connections
+        when(poolMXBean.getThreadsAwaitingConnection()).thenReturn(3);
+        assertEquals(8, ConnectionBudget.demand(dataSource, 2));
+    }
+
+    @Test
+    public void testRegisterAndUnregister() {
+        HikariDataSource dataSource = newPool(10);
+        HikariDataSource otherDataSource = newPool(10);
+        try {
+            connectionBudget.register(dataSource, "tenant-a", 1, 0);
+            assertEquals(10, connectionBudget.getMaximumPoolSize(dataSource));
+            connectionBudget.register(otherDataSource, "tenant-b", 1, 0);
+            assertEquals(6, dataSource.getMaximumPoolSize());
+            assertEquals(6, otherDataSource.getMaximumPoolSize());
+
+            // The shared pool is registered twice
+            connectionBudget.register(otherDataSource, "tenant-c", 1, 0);
+            connectionBudget.unregister(otherDataSource);
+            connectionBudget.rebalance();
+            assertEquals(6, connectionBudget.getMaximumPoolSize(otherDataSource));
+
+            connectionBudget.unregister(otherDataSource);
+            assertEquals(-1, connectionBudget.getMaximumPoolSize(otherDataSource));
+            connectionBudget.rebalance();
+            // Up to the ceiling
+            assertEquals(10, dataSource.getMaximumPoolSize());
+        } finally {
+            dataSource.close();
+            otherDataSource.close();
+        }
+    }
+
+    @Test
+    public void testFollowConfiguredMaximumPoolSize() {
+        HikariDataSource dataSource = newPool(10);
+        HikariDataSource otherDataSource = newPool(4);
+        try {
+            connectionBudget.register(dataSource, "tenant-a", 1, 0);
+            connectionBudget.register(otherDataSource, "tenant-b", 1, 0);
+            assertEquals(9, dataSource.getMaximumPoolSize());
+            assertEquals(3, otherDataSource.getMaximumPoolSize());
+
+            // Tuned out of the budget, e.g. by HikariDataSourceTuner
+            otherDataSource.setMaximumPoolSize(2);
+            connectionBudget.rebalance();
+            assertEquals(2, otherDataSource.getMaximumPoolSize());
+            assertEquals(10, dataSource.getMaximumPoolSize());
+
+            // The specified ceiling is kept
+            HikariDataSource specifiedDataSource = newPool(10);
+            try {
+                connectionBudget.unregister(dataSource);
+                connectionBudget.register(specifiedDataSource, "tenant-c", 1, 6);
+                specifiedDataSource.setMaximumPoolSize(10);
+                connectionBudget.rebalance();
+                assertEquals(6, specifiedDataSource.getMaximumPoolSize());
+            } finally {
+                specifiedDataSource.close();
+            }
+        } finally {
+            dataSource.close();
+            otherDataSource.close();
+        }
+    }
+
+    @Test
+    public void testShrinkStartedPool() throws Exception {
+        String housekeepingPeriod = System.setProperty(HOUSEKEEPING_PERIOD_PROPERTY_NAME, "100");
+        HikariDataSource dataSource = newPool(10);
+        HikariDataSource otherDataSource = newPool(10);
+        try {
+            dataSource.setDataSource(mockDataSource());
+            // Started with the minimumIdle which is equal to the maximumPoolSize
+            dataSource.getConnection().close();
+            awaitTotalConnections(dataSource, 10);
+            connectionBudget.register(dataSource, "tenant-a", 1, 0);
+            connectionBudget.register(otherDataSource, "tenant-b", 1, 0);
+            assertEquals(6, dataSource.getMaximumPoolSize());
+            assertEquals(6, dataSource.getMinimumIdle());
+            // The surplus connections are closed
+            awaitTotalConnections(dataSource, 6);
+
+            connectionBudget.unregister(otherDataSource);
+            connectionBudget.rebalance();
+            assertEquals(10, dataSource.getMaximumPoolSize());
+            // The minimumIdle is restored
+            assertEquals(10, dataSource.getMinimumIdle());
+            awaitTotalConnections(dataSource, 10);
+        } finally {
+            if (housekeepingPeriod == null) {
+                System.clearProperty(HOUSEKEEPING_PERIOD_PROPERTY_NAME);
+            } else {
+                System.setProperty(HOUSEKEEPING_PERIOD_PROPERTY_NAME, housekeepingPeriod);
+            }
+            dataSource.close();
+            otherDataSource.close();
+        }
+    }
+
+    @Test
+    public void testKeepConfiguredMinimumIdle() {
+        HikariDataSource dataSource = newPool(10);
+        HikariDataSource otherDataSource = newPool(10);
+        try {
+            dataSource.setMinimumIdle(2);
+            connectionBudget.register(dataSource, "tenant-a", 1, 0);
+            connectionBudget.register(otherDataSource, "tenant-b", 1, 0);
+            assertEquals(2, dataSource.getMinimumIdle());
+            assertEquals(6, otherDataSource.getMinimumIdle());
+
+            // Tuned out of the budget
+            dataSource.setMinimumIdle(8);
+            connectionBudget.rebalance();
+            assertEquals(6, dataSource.getMinimumIdle());
+            connectionBudget.unregister(otherDataSource);
+            connectionBudget.rebalance();
+            assertEquals(8, dataSource.getMinimumIdle());
+        } finally {
+            dataSource.close();
+            otherDataSource.close();
+        }
+    }
+
+    private static void awaitTotalConnections(HikariDataSource dataSource, int totalConnections) throws InterruptedException {
+        HikariPoolMXBean poolMXBean = dataSource.getHikariPoolMXBean();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (poolMXBean.getTotalConnections() != totalConnections && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(totalConnections, poolMXBean.getTotalConnections());
+    }
+
+    private static DataSource mockDataSource() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> {
+            Connection connection = mock(Connection.class);
+            when(connection.isValid(anyInt())).thenReturn(true);
+            return connection;
+        });
+        return dataSource;
+    }
+
+    private static HikariDataSource newPool(int maximumPoolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        return dataSource;
+    }
+}
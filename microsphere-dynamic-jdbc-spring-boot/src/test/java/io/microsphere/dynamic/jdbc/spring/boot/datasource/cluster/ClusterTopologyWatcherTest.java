@@ -0,0 +1,104 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.cluster;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ClusterTopologyWatcher} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class ClusterTopologyWatcherTest {
+
+    private static final String CLUSTER_ID = "asset";
+
+    private static final String CLUSTER_URL = "jdbc:mysql://asset.cluster-ct1wbptr1zqn.ap-northeast-1.rds.amazonaws.com/asset";
+
+    private StaticClusterWriterResolver resolver;
+
+    private ClusterTopologyWatcher watcher;
+
+    @Before
+    public void before() {
+        resolver = new StaticClusterWriterResolver();
+        watcher = new ClusterTopologyWatcher(resolver, Duration.ofHours(1));
+    }
+
+    @After
+    public void after() {
+        watcher.destroy();
+    }
+
+    @Test
+    public void testSoftEvictOnWriterChange() {
+        HikariPoolMXBean poolMXBean = mock(HikariPoolMXBean.class);
+        HikariDataSource dataSource = mockDataSource(CLUSTER_URL, poolMXBean);
+        assertTrue(watcher.register(dataSource));
+        assertEquals(singleton(CLUSTER_ID), watcher.getClusterIds());
+
+        // Unknown writer
+        watcher.run();
+        assertNull(watcher.getWriter(CLUSTER_ID));
+
+        resolver.setWriter(CLUSTER_ID, "10.0.0.1");
+        watcher.run();
+        watcher.run();
+        assertEquals("10.0.0.1", watcher.getWriter(CLUSTER_ID));
+        verify(poolMXBean, never()).softEvictConnections();
+
+        // Failover
+        resolver.setWriter(CLUSTER_ID, "10.0.0.2");
+        watcher.run();
+        watcher.run();
+        assertEquals("10.0.0.2", watcher.getWriter(CLUSTER_ID));
+        verify(poolMXBean, times(1)).softEvictConnections();
+
+        watcher.unregister(dataSource);
+        assertTrue(watcher.getClusterIds().isEmpty());
+    }
+
+    @Test
+    public void testResolverFailure() {
+        HikariPoolMXBean poolMXBean = mock(HikariPoolMXBean.class);
+        watcher.destroy();
+        watcher = new ClusterTopologyWatcher((clusterId, clusterEndpoint) -> {
+            throw new IllegalStateException("unavailable");
+        }, Duration.ofHours(1));
+        watcher.register(mockDataSource(CLUSTER_URL, poolMXBean));
+        watcher.run();
+        assertNull(watcher.getWriter(CLUSTER_ID));
+        verify(poolMXBean, never()).softEvictConnections();
+    }
+
+    @Test
+    public void testNonClusterEndpoint() {
+        assertFalse(watcher.register(mockDataSource("jdbc:mysql://127.0.0.1:3306/test", null)));
+        assertFalse(watcher.register(mockDataSource("jdbc:mysql://asset.cluster-ro-ct1wbptr1zqn.rds.amazonaws.com/asset", null)));
+        assertFalse(watcher.register(mockDataSource(null, null)));
+        assertTrue(watcher.getClusterIds().isEmpty());
+    }
+
+    private static HikariDataSource mockDataSource(String jdbcUrl, HikariPoolMXBean poolMXBean) {
+        HikariDataSource dataSource = mock(HikariDataSource.class);
+        when(dataSource.getJdbcUrl()).thenReturn(jdbcUrl);
+        when(dataSource.getHikariPoolMXBean()).thenReturn(poolMXBean);
+        return dataSource;
+    }
+}
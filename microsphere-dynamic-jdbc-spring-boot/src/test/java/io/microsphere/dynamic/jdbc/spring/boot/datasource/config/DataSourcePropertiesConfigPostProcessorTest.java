@@ -0,0 +1,72 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.config;
+
+import io.microsphere.dynamic.jdbc.spring.boot.config.DynamicJdbcConfig;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.microsphere.dynamic.jdbc.spring.boot.util.DynamicJdbcConfigUtils.parseDynamicJdbcConfig;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link DataSourcePropertiesConfigPostProcessor} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class DataSourcePropertiesConfigPostProcessorTest {
+
+    private static final String PROPERTY_NAME = "microsphere.dynamic.jdbc.configs.test";
+
+    private MockEnvironment environment;
+
+    private DataSourcePropertiesConfigPostProcessor postProcessor;
+
+    @Before
+    public void before() throws Exception {
+        environment = new MockEnvironment();
+        environment.setProperty("spring.application.name", "order-service");
+        environment.setProperty("order-service.cluster-a.username", "cluster-user");
+        environment.setProperty("order-service.cluster-a.password", "cluster-secret");
+        postProcessor = new DataSourcePropertiesConfigPostProcessor();
+        postProcessor.setEnvironment(environment);
+        postProcessor.afterPropertiesSet();
+    }
+
+    @Test
+    public void testClusterCredentials() {
+        DynamicJdbcConfig dynamicJdbcConfig = parseDynamicJdbcConfig(PROPERTY_NAME, "{\"name\":\"test\",\"datasource\":[" +
+                "{\"name\":\"ds1\",\"url\":\"jdbc:mysql://cluster-a.example.com:3306/orders\"}," +
+                "{\"name\":\"ds2\",\"url\":\"jdbc:mysql://cluster-a.example.com:3306/orders\",\"username\":\"own-user\",\"password\":\"own-secret\"}," +
+                "{\"name\":\"ds3\",\"url\":\"jdbc:mysql://cluster-b.example.com:3306/orders\"}]}");
+        postProcessor.postProcess(dynamicJdbcConfig, PROPERTY_NAME);
+
+        List<Map<String, String>> dataSourcePropertiesList = dynamicJdbcConfig.getDataSourcePropertiesList();
+        // The cluster credentials are resolved if the DataSource doesn't declare its own
+        assertEquals("cluster-user", dataSourcePropertiesList.get(0).get("username"));
+        assertEquals("cluster-secret", dataSourcePropertiesList.get(0).get("password"));
+        // The declared credentials take precedence
+        assertEquals("own-user", dataSourcePropertiesList.get(1).get("username"));
+        assertEquals("own-secret", dataSourcePropertiesList.get(1).get("password"));
+        // The credentials of the other cluster are not configured, the previous ones are inherited
+        assertEquals("own-user", dataSourcePropertiesList.get(2).get("username"));
+        assertEquals("own-secret", dataSourcePropertiesList.get(2).get("password"));
+    }
+
+    @Test
+    public void testRotatedClusterCredentials() {
+        String content = "{\"name\":\"test\",\"datasource\":[{\"name\":\"ds1\",\"url\":\"jdbc:mysql://cluster-a.example.com:3306/orders\"}]}";
+        DynamicJdbcConfig dynamicJdbcConfig = parseDynamicJdbcConfig(PROPERTY_NAME, content);
+        postProcessor.postProcess(dynamicJdbcConfig, PROPERTY_NAME);
+        assertEquals("cluster-secret", dynamicJdbcConfig.getDataSourcePropertiesList().get(0).get("password"));
+
+        environment.setProperty("order-service.cluster-a.password", "rotated-secret");
+        dynamicJdbcConfig = parseDynamicJdbcConfig(PROPERTY_NAME, content);
+        postProcessor.postProcess(dynamicJdbcConfig, PROPERTY_NAME);
+        assertEquals("cluster-user", dynamicJdbcConfig.getDataSourcePropertiesList().get(0).get("username"));
+        assertEquals("rotated-secret", dynamicJdbcConfig.getDataSourcePropertiesList().get(0).get("password"));
+    }
+}
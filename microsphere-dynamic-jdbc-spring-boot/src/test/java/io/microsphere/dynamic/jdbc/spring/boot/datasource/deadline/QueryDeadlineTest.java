@@ -0,0 +1,55 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.deadline;
+
+import org.junit.Test;
+
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link QueryDeadline} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class QueryDeadlineTest {
+
+    @Test
+    public void testGetQueryTimeoutWithoutDeadline() throws Exception {
+        assertNull(QueryDeadline.remaining());
+        assertEquals(0, QueryDeadline.getQueryTimeout(null));
+        assertEquals(0, QueryDeadline.getQueryTimeout(Duration.ZERO));
+        assertEquals(5, QueryDeadline.getQueryTimeout(Duration.ofSeconds(5)));
+        // Rounded up
+        assertEquals(1, QueryDeadline.getQueryTimeout(Duration.ofMillis(10)));
+    }
+
+    @Test
+    public void testGetQueryTimeoutWithinDeadline() throws Exception {
+        try (QueryDeadline.Scope scope = QueryDeadline.start(Duration.ofSeconds(3))) {
+            assertEquals(3, QueryDeadline.getQueryTimeout(null));
+            assertEquals(3, QueryDeadline.getQueryTimeout(Duration.ofSeconds(10)));
+            assertEquals(2, QueryDeadline.getQueryTimeout(Duration.ofSeconds(2)));
+            // The earlier deadline wins
+            try (QueryDeadline.Scope laterScope = QueryDeadline.start(Duration.ofSeconds(60))) {
+                assertEquals(3, QueryDeadline.getQueryTimeout(null));
+            }
+            try (QueryDeadline.Scope earlierScope = QueryDeadline.start(Duration.ofSeconds(1))) {
+                assertEquals(1, QueryDeadline.getQueryTimeout(null));
+            }
+            assertEquals(3, QueryDeadline.getQueryTimeout(null));
+        }
+        assertNull(QueryDeadline.remaining());
+    }
+
+    @Test(expected = SQLTimeoutException.class)
+    public void testCheckWhenDeadlineExceeded() throws Exception {
+        try (QueryDeadline.Scope scope = QueryDeadline.start(Duration.ofMillis(-1))) {
+            assertTrue(QueryDeadline.remaining().isNegative());
+            QueryDeadline.check();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.lane;
+
+import org.junit.Test;
+
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link WorkloadLane} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class WorkloadLaneTest {
+
+    @Test
+    public void testAcquireWithoutLimit() throws Exception {
+        WorkloadLane lane = new WorkloadLane("oltp", 0, -1, Duration.ofSeconds(1));
+        lane.acquire();
+        lane.acquire();
+        assertEquals(2, lane.getActiveConnections());
+        lane.release();
+        lane.release();
+        assertEquals(0, lane.getActiveConnections());
+    }
+
+    @Test
+    public void testAcquireWhenQueueIsFull() throws Exception {
+        WorkloadLane lane = new WorkloadLane("batch", 1, 0, Duration.ofSeconds(10));
+        lane.acquire();
+        try {
+            lane.acquire();
+            fail();
+        } catch (SQLTransientConnectionException e) {
+            assertEquals(1, lane.getRejections());
+            assertEquals(0, lane.getWaitingThreads());
+        }
+        lane.release();
+        lane.acquire();
+        assertEquals(1, lane.getActiveConnections());
+    }
+
+    @Test
+    public void testAcquireTimeout() throws Exception {
+        WorkloadLane lane = new WorkloadLane("batch", 1, 1, Duration.ofMillis(10));
+        List<Long> waitTimes = new CopyOnWriteArrayList<>();
+        lane.addWaitTimeListener(waitTimes::add);
+        lane.acquire();
+        try {
+            lane.acquire();
+            fail();
+        } catch (SQLTransientConnectionException e) {
+            assertEquals(1, lane.getTimeouts());
+            assertEquals(0, lane.getRejections());
+        }
+        assertEquals(2, waitTimes.size());
+        assertEquals(0L, waitTimes.get(0).longValue());
+        assertTrue(waitTimes.get(1) >= TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    public void testAcquireAfterWaiting() throws Exception {
+        WorkloadLane lane = new WorkloadLane("batch", 1, 1, Duration.ofSeconds(10));
+        lane.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            try {
+                lane.acquire();
+                acquired.countDown();
+            } catch (Exception ignored) {
+            }
+        });
+        thread.start();
+        while (lane.getWaitingThreads() == 0) {
+            Thread.sleep(1);
+        }
+        lane.release();
+        assertTrue(acquired.await(10, TimeUnit.SECONDS));
+        assertEquals(1, lane.getActiveConnections());
+        assertEquals(0, lane.getWaitingThreads());
+        thread.join();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeMaxConcurrency() {
+        new WorkloadLane("batch", -1, -1, Duration.ofSeconds(1));
+    }
+}
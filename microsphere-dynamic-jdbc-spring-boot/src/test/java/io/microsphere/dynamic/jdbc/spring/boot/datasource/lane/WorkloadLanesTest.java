@@ -0,0 +1,73 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.lane;
+
+import org.junit.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link WorkloadLanes} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class WorkloadLanesTest {
+
+    @Test
+    public void testOf() {
+        MockEnvironment environment = new MockEnvironment();
+        environment.setConversionService(new ApplicationConversionService());
+        environment.setProperty("microsphere.dynamic.jdbc.modules.datasource.dynamic-context.workload-lanes.names", "oltp, batch");
+        environment.setProperty("microsphere.dynamic.jdbc.modules.datasource.dynamic-context.workload-lanes.batch.max-concurrency", "2");
+        environment.setProperty("microsphere.dynamic.jdbc.modules.datasource.dynamic-context.test.workload-lanes.batch.max-queue", "5");
+        environment.setProperty("microsphere.dynamic.jdbc.modules.datasource.dynamic-context.workload-lanes.batch.timeout", "1s");
+
+        WorkloadLanes workloadLanes = WorkloadLanes.of(environment, "test");
+        assertEquals(2, workloadLanes.getLanes().size());
+        WorkloadLane oltp = workloadLanes.getLane("oltp");
+        assertEquals(0, oltp.getMaxConcurrency());
+        assertEquals(-1, oltp.getMaxQueue());
+        assertEquals(Duration.ofSeconds(30), oltp.getTimeout());
+        WorkloadLane batch = workloadLanes.getLane("batch");
+        assertEquals(2, batch.getMaxConcurrency());
+        assertEquals(5, batch.getMaxQueue());
+        assertEquals(Duration.ofSeconds(1), batch.getTimeout());
+
+        assertTrue(WorkloadLanes.of(environment, "other").getLane("batch").getMaxQueue() < 0);
+        assertTrue(WorkloadLanes.of(new MockEnvironment(), "test").isEmpty());
+    }
+
+    @Test
+    public void testAcquire() throws Exception {
+        WorkloadLane batch = new WorkloadLane("batch", 1, 0, Duration.ofSeconds(1));
+        WorkloadLane defaultLane = new WorkloadLane(WorkloadLanes.DEFAULT_LANE_NAME, 0, -1, Duration.ofSeconds(1));
+        WorkloadLanes workloadLanes = new WorkloadLanes(asList(batch, defaultLane));
+
+        assertSame(defaultLane, workloadLanes.acquire());
+        try (WorkloadLaneContext.Scope scope = WorkloadLaneContext.enter("batch")) {
+            assertSame(batch, workloadLanes.acquire());
+            try (WorkloadLaneContext.Scope unknownScope = WorkloadLaneContext.enter("unknown")) {
+                assertSame(defaultLane, workloadLanes.acquire());
+            }
+            assertEquals("batch", WorkloadLaneContext.current());
+        }
+        assertNull(WorkloadLaneContext.current());
+        assertEquals(1, batch.getActiveConnections());
+        assertEquals(2, defaultLane.getActiveConnections());
+    }
+
+    @Test
+    public void testAcquireWithoutDefaultLane() throws Exception {
+        WorkloadLanes workloadLanes = new WorkloadLanes(singleton(
+                new WorkloadLane("batch", 1, 0, Duration.ofSeconds(1))));
+        assertNull(workloadLanes.acquire());
+    }
+}
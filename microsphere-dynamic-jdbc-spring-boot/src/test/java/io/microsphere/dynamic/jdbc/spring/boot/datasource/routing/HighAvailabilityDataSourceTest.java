@@ -0,0 +1,332 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static io.microsphere.multiple.active.zone.ZoneConstants.DEFAULT_ZONE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link HighAvailabilityDataSource} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class HighAvailabilityDataSourceTest {
+
+    private static final String LOCAL_ZONE = "us-east-1a";
+
+    private DataSource localDataSource;
+
+    private DataSource defaultDataSource;
+
+    private Connection localConnection;
+
+    private Connection defaultConnection;
+
+    private HighAvailabilityDataSource dataSource;
+
+    @Before
+    public void before() throws SQLException {
+        localDataSource = mock(DataSource.class);
+        defaultDataSource = mock(DataSource.class);
+        localConnection = mock(Connection.class);
+        defaultConnection = mock(Connection.class);
+        when(localDataSource.getConnection()).thenReturn(localConnection);
+        when(defaultDataSource.getConnection()).thenReturn(defaultConnection);
+        when(localConnection.isValid(anyInt())).thenReturn(true);
+
+        Map<String, DataSource> zoneDataSources = new LinkedHashMap<>();
+        zoneDataSources.put(LOCAL_ZONE, localDataSource);
+        zoneDataSources.put(DEFAULT_ZONE, defaultDataSource);
+        dataSource = new HighAvailabilityDataSource(zoneDataSources, LOCAL_ZONE, 2, Duration.ofMillis(10), Duration.ofSeconds(1));
+    }
+
+    @After
+    public void after() {
+        dataSource.destroy();
+    }
+
+    @Test
+    public void testActiveZone() throws SQLException {
+        assertEquals(LOCAL_ZONE, dataSource.getActiveZone());
+        assertSame(localConnection, dataSource.getConnection());
+        assertFalse(dataSource.isCircuitBreakerOpen(LOCAL_ZONE));
+    }
+
+    @Test
+    public void testFailoverAndRecovery() throws Exception {
+        when(localDataSource.getConnection()).thenThrow(new SQLException("down"));
+        // The failed acquisitions fail over to defaultZone
+        assertSame(defaultConnection, dataSource.getConnection());
+        assertFalse(dataSource.isCircuitBreakerOpen(LOCAL_ZONE));
+        assertSame(defaultConnection, dataSource.getConnection());
+        assertTrue(dataSource.isCircuitBreakerOpen(LOCAL_ZONE));
+
+        // Fail fast while the circuit breaker is open
+        assertSame(defaultConnection, dataSource.getConnection());
+        verify(localDataSource, times(2)).getConnection();
+
+        // Recover
+        reset(localDataSource);
+        when(localDataSource.getConnection()).thenReturn(localConnection);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dataSource.isCircuitBreakerOpen(LOCAL_ZONE) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(dataSource.isCircuitBreakerOpen(LOCAL_ZONE));
+        assertSame(localConnection, dataSource.getConnection());
+    }
+
+    @Test
+    public void testProbeFailedWithRuntimeException() throws Exception {
+        when(localDataSource.getConnection()).thenThrow(new SQLException("down"));
+        dataSource.getConnection();
+        dataSource.getConnection();
+        assertTrue(dataSource.isCircuitBreakerOpen(LOCAL_ZONE));
+
+        // The pool was closed, the probes go on
+        reset(localDataSource);
+        when(localDataSource.getConnection()).thenThrow(new IllegalStateException("closed"));
+        Thread.sleep(100);
+        assertTrue(dataSource.isCircuitBreakerOpen(LOCAL_ZONE));
+
+        reset(localDataSource);
+        when(localDataSource.getConnection()).thenReturn(localConnection);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (dataSource.isCircuitBreakerOpen(LOCAL_ZONE) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(dataSource.isCircuitBreakerOpen(LOCAL_ZONE));
+    }
+
+    @Test
+    public void testValidationFailuresOpenCircuitBreaker() throws SQLException {
+        when(localConnection.isValid(anyInt())).thenReturn(false);
+        when(defaultConnection.isValid(anyInt())).thenReturn(true);
+        dataSource.startLatencyRouting(Duration.ofHours(1), 0.5, 0.2);
+        dataSource.probeLatencies();
+        assertFalse(dataSource.isCircuitBreakerOpen(LOCAL_ZONE));
+        dataSource.probeLatencies();
+        assertTrue(dataSource.isCircuitBreakerOpen(LOCAL_ZONE));
+        assertFalse(dataSource.isCircuitBreakerOpen(DEFAULT_ZONE));
+        assertSame(defaultConnection, dataSource.getConnection());
+    }
+
+    @Test
+    public void testDefaultZoneFailure() throws SQLException {
+        when(localDataSource.getConnection()).thenThrow(new SQLException("local down"));
+        when(defaultDataSource.getConnection()).thenThrow(new SQLException("default down"));
+        try {
+            dataSource.getConnection();
+            fail();
+        } catch (SQLException e) {
+            assertEquals("default down", e.getMessage());
+            assertEquals("local down", e.getSuppressed()[0].getMessage());
+        }
+    }
+
+    @Test
+    public void testUnknownActiveZone() throws SQLException {
+        Map<String, DataSource> zoneDataSources = new LinkedHashMap<>();
+        zoneDataSources.put(DEFAULT_ZONE, defaultDataSource);
+        HighAvailabilityDataSource dataSource = new HighAvailabilityDataSource(zoneDataSources, LOCAL_ZONE, 2, Duration.ofMillis(10),
+                Duration.ofSeconds(1));
+        assertEquals(DEFAULT_ZONE, dataSource.getActiveZone());
+        assertSame(defaultConnection, dataSource.getConnection());
+        dataSource.destroy();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWithoutDefaultZone() {
+        Map<String, DataSource> zoneDataSources = new LinkedHashMap<>();
+        zoneDataSources.put(LOCAL_ZONE, localDataSource);
+        new HighAvailabilityDataSource(zoneDataSources, LOCAL_ZONE, 2, Duration.ofMillis(10), Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void testPromoteWithStandby() {
+        HikariDataSource localHikariDataSource = new HikariDataSource();
+        localHikariDataSource.setMinimumIdle(5);
+        HikariDataSource defaultHikariDataSource = new HikariDataSource();
+        defaultHikariDataSource.setMaximumPoolSize(8);
+        Map<String, DataSource> zoneDataSources = new LinkedHashMap<>();
+        zoneDataSources.put(LOCAL_ZONE, localHikariDataSource);
+        zoneDataSources.put(DEFAULT_ZONE, defaultHikariDataSource);
+        HighAvailabilityDataSource dataSource = new HighAvailabilityDataSource(zoneDataSources, LOCAL_ZONE, 0, Duration.ofMillis(10),
+                Duration.ofSeconds(1), 1);
+        try {
+            assertTrue(dataSource.isStandbyEnabled());
+            assertFalse(dataSource.isFailoverEnabled());
+            assertEquals(5, localHikariDataSource.getMinimumIdle());
+            assertEquals(1, defaultHikariDataSource.getMinimumIdle());
+
+            assertTrue(dataSource.promote(DEFAULT_ZONE));
+            assertEquals(DEFAULT_ZONE, dataSource.getActiveZone());
+            // The configured minimumIdle is restored, and the previous active pool becomes the standby
+            assertEquals(8, defaultHikariDataSource.getMinimumIdle());
+            assertEquals(1, localHikariDataSource.getMinimumIdle());
+
+            assertTrue(dataSource.promote(LOCAL_ZONE));
+            assertEquals(5, localHikariDataSource.getMinimumIdle());
+            assertEquals(1, defaultHikariDataSource.getMinimumIdle());
+
+            assertFalse(dataSource.promote("unknown"));
+            assertEquals(LOCAL_ZONE, dataSource.getActiveZone());
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    public void testWarmUpNotDelayProbes() throws Exception {
+        CountDownLatch warmUpLatch = new CountDownLatch(1);
+        // The standby zone is unreachable, its warmup waits until the latch is released
+        HikariDataSource standbyHikariDataSource = new HikariDataSource() {
+            @Override
+            public Connection getConnection() throws SQLException {
+                try {
+                    warmUpLatch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new SQLException("unreachable");
+            }
+        };
+        Map<String, DataSource> zoneDataSources = new LinkedHashMap<>();
+        zoneDataSources.put(LOCAL_ZONE, localDataSource);
+        zoneDataSources.put("us-east-1b", standbyHikariDataSource);
+        zoneDataSources.put(DEFAULT_ZONE, defaultDataSource);
+        when(localDataSource.getConnection()).thenThrow(new SQLException("down"));
+        HighAvailabilityDataSource dataSource = new HighAvailabilityDataSource(zoneDataSources, LOCAL_ZONE, 1, Duration.ofMillis(10),
+                Duration.ofSeconds(1), 1);
+        try {
+            assertSame(defaultConnection, dataSource.getConnection());
+            assertTrue(dataSource.isCircuitBreakerOpen(LOCAL_ZONE));
+
+            reset(localDataSource);
+            when(localDataSource.getConnection()).thenReturn(localConnection);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (dataSource.isCircuitBreakerOpen(LOCAL_ZONE) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            // The probe recovered the zone while the warmup is still pending
+            assertEquals(1, warmUpLatch.getCount());
+            assertFalse(dataSource.isCircuitBreakerOpen(LOCAL_ZONE));
+        } finally {
+            warmUpLatch.countDown();
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    public void testPromoteWithoutStandby() throws SQLException {
+        assertFalse(dataSource.isStandbyEnabled());
+        assertTrue(dataSource.promote(DEFAULT_ZONE));
+        assertSame(defaultConnection, dataSource.getConnection());
+        assertTrue(dataSource.promote(LOCAL_ZONE));
+        assertSame(localConnection, dataSource.getConnection());
+    }
+
+    @Test
+    public void testLatencyRouting() throws SQLException {
+        dataSource.startLatencyRouting(Duration.ofHours(1), 1, 0.2);
+        assertTrue(dataSource.isLatencyRoutingEnabled());
+        ZoneLatencyTracker local = dataSource.getLatencyTracker(LOCAL_ZONE);
+        ZoneLatencyTracker defaultZone = dataSource.getLatencyTracker(DEFAULT_ZONE);
+
+        // Not enough samples
+        local.onSuccess(30_000_000);
+        defaultZone.onSuccess(10_000_000);
+        assertEquals(LOCAL_ZONE, dataSource.selectFastestZone());
+
+        for (int i = 1; i < HighAvailabilityDataSource.MIN_LATENCY_SAMPLES; i++) {
+            local.onSuccess(30_000_000);
+            defaultZone.onSuccess(10_000_000);
+        }
+        assertEquals(30, dataSource.getZoneLatency(LOCAL_ZONE), 0.001);
+        assertEquals(DEFAULT_ZONE, dataSource.selectFastestZone());
+        assertSame(defaultConnection, dataSource.getConnection());
+
+        // Within the tolerance
+        local.onSuccess(9_000_000);
+        assertEquals(DEFAULT_ZONE, dataSource.selectFastestZone());
+
+        // Beyond the tolerance
+        local.onSuccess(7_000_000);
+        assertEquals(LOCAL_ZONE, dataSource.selectFastestZone());
+
+        // The unhealthy active zone is left
+        local.onFailure();
+        assertEquals(DEFAULT_ZONE, dataSource.selectFastestZone());
+    }
+
+    @Test
+    public void testLatencyRoutingWithStandby() {
+        HikariDataSource localHikariDataSource = new HikariDataSource();
+        localHikariDataSource.setMinimumIdle(5);
+        HikariDataSource defaultHikariDataSource = new HikariDataSource();
+        defaultHikariDataSource.setMinimumIdle(8);
+        Map<String, DataSource> zoneDataSources = new LinkedHashMap<>();
+        zoneDataSources.put(LOCAL_ZONE, localHikariDataSource);
+        zoneDataSources.put(DEFAULT_ZONE, defaultHikariDataSource);
+        HighAvailabilityDataSource dataSource = new HighAvailabilityDataSource(zoneDataSources, LOCAL_ZONE, 0, Duration.ofMillis(10),
+                Duration.ofSeconds(1), 1);
+        try {
+            dataSource.startLatencyRouting(Duration.ofHours(1), 1, 0.2);
+            // The probed zones other than the active one are not warmed to their full minimumIdle
+            assertEquals(5, localHikariDataSource.getMinimumIdle());
+            assertEquals(1, defaultHikariDataSource.getMinimumIdle());
+
+            for (int i = 0; i < HighAvailabilityDataSource.MIN_LATENCY_SAMPLES; i++) {
+                dataSource.getLatencyTracker(LOCAL_ZONE).onSuccess(30_000_000);
+                dataSource.getLatencyTracker(DEFAULT_ZONE).onSuccess(10_000_000);
+            }
+            assertEquals(DEFAULT_ZONE, dataSource.selectFastestZone());
+            // The pool grows once its zone becomes active
+            assertEquals(8, defaultHikariDataSource.getMinimumIdle());
+            assertEquals(1, localHikariDataSource.getMinimumIdle());
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    @Test
+    public void testProbeLatencies() throws SQLException {
+        when(defaultConnection.isValid(anyInt())).thenReturn(true);
+        dataSource.startLatencyRouting(Duration.ofHours(1), 0.5, 0.2);
+        dataSource.probeLatencies();
+        assertEquals(1, dataSource.getLatencyTracker(LOCAL_ZONE).getSamples());
+        assertTrue(dataSource.getLatencyTracker(DEFAULT_ZONE).isHealthy());
+
+        when(localDataSource.getConnection()).thenThrow(new SQLException("down"));
+        dataSource.probeLatencies();
+        assertFalse(dataSource.getLatencyTracker(LOCAL_ZONE).isHealthy());
+        assertEquals(2, dataSource.getLatencyTracker(DEFAULT_ZONE).getSamples());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLatencyRoutingWithInvalidTolerance() {
+        dataSource.startLatencyRouting(Duration.ofHours(1), 0.5, 1);
+    }
+}
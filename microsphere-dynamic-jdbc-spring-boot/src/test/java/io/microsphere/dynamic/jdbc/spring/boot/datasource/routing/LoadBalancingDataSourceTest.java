@@ -0,0 +1,170 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link LoadBalancingDataSource} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class LoadBalancingDataSourceTest {
+
+    private final Map<String, DataSource> targetDataSources = new LinkedHashMap<>();
+
+    @Before
+    public void before() throws SQLException {
+        for (String name : new String[]{"ds0", "ds1", "ds2"}) {
+            DataSource dataSource = mock(DataSource.class);
+            Connection connection = mock(Connection.class);
+            when(dataSource.getConnection()).thenReturn(connection);
+            targetDataSources.put(name, dataSource);
+        }
+    }
+
+    @Test
+    public void testRoundRobin() throws SQLException {
+        LoadBalancingDataSource dataSource = new LoadBalancingDataSource(targetDataSources, emptyMap(), LoadBalancingStrategy.ROUND_ROBIN);
+        assertEquals(3, count(dataSource, 300).size());
+        Map<String, Integer> counts = count(dataSource, 300);
+        assertEquals(Integer.valueOf(100), counts.get("ds0"));
+        assertEquals(Integer.valueOf(100), counts.get("ds1"));
+        assertEquals(Integer.valueOf(100), counts.get("ds2"));
+    }
+
+    @Test
+    public void testWeighted() throws SQLException {
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put("ds0", 8);
+        weights.put("ds1", 2);
+        weights.put("ds2", 0);
+        LoadBalancingDataSource dataSource = new LoadBalancingDataSource(targetDataSources, weights, LoadBalancingStrategy.WEIGHTED);
+        Map<String, Integer> counts = count(dataSource, 10000);
+        assertNull(counts.get("ds2"));
+        assertTrue(counts.toString(), counts.get("ds0") > 7000 && counts.get("ds0") < 9000);
+
+        // Adjust the weights in place
+        dataSource.setWeights(singletonMap("ds0", 0));
+        counts = count(dataSource, 100);
+        assertEquals(singletonMap("ds1", 100), counts);
+    }
+
+    @Test
+    public void testLeastOutstanding() throws SQLException {
+        LoadBalancingDataSource dataSource = new LoadBalancingDataSource(targetDataSources, singletonMap("ds2", 2),
+                LoadBalancingStrategy.LEAST_OUTSTANDING);
+        List<Connection> connections = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            connections.add(dataSource.getConnection());
+        }
+        assertEquals(2, dataSource.getOutstandingConnections("ds0"));
+        assertEquals(2, dataSource.getOutstandingConnections("ds1"));
+        assertEquals(4, dataSource.getOutstandingConnections("ds2"));
+
+        for (Connection connection : connections) {
+            connection.close();
+            // Closing twice releases once
+            connection.close();
+        }
+        assertEquals(0, dataSource.getOutstandingConnections("ds0"));
+        assertEquals(0, dataSource.getOutstandingConnections("ds1"));
+        assertEquals(0, dataSource.getOutstandingConnections("ds2"));
+    }
+
+    @Test
+    public void testFailover() throws SQLException {
+        when(targetDataSources.get("ds0").getConnection()).thenThrow(new SQLException("down"));
+        LoadBalancingDataSource dataSource = new LoadBalancingDataSource(targetDataSources, emptyMap(), LoadBalancingStrategy.ROUND_ROBIN);
+        Map<String, Integer> counts = count(dataSource, 30);
+        assertNull(counts.get("ds0"));
+        assertEquals(0, dataSource.getOutstandingConnections("ds0"));
+
+        when(targetDataSources.get("ds1").getConnection()).thenThrow(new SQLException("down"));
+        when(targetDataSources.get("ds2").getConnection()).thenThrow(new SQLException("down"));
+        try {
+            dataSource.getConnection();
+            fail();
+        } catch (SQLException e) {
+            assertEquals(2, e.getSuppressed().length);
+        }
+    }
+
+    @Test
+    public void testDrained() throws SQLException {
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put("ds0", 0);
+        weights.put("ds1", 0);
+        weights.put("ds2", 0);
+        LoadBalancingDataSource dataSource = new LoadBalancingDataSource(targetDataSources, weights, LoadBalancingStrategy.ROUND_ROBIN);
+        try {
+            dataSource.getConnection();
+            fail();
+        } catch (SQLException expected) {
+        }
+        verify(targetDataSources.get("ds0"), never()).getConnection();
+    }
+
+    @Test
+    public void testSetWeights() {
+        LoadBalancingDataSource dataSource = new LoadBalancingDataSource(targetDataSources, emptyMap(), LoadBalancingStrategy.WEIGHTED);
+        try {
+            dataSource.setWeights(singletonMap("ds3", 1));
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            dataSource.setWeights(singletonMap("ds0", -1));
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        dataSource.setWeights(singletonMap("ds0", 5));
+        assertEquals(Integer.valueOf(5), dataSource.getWeights().get("ds0"));
+        assertEquals(Integer.valueOf(1), dataSource.getWeights().get("ds1"));
+    }
+
+    @Test
+    public void testParseWeight() {
+        assertEquals(Integer.valueOf(LoadBalancingDataSource.DEFAULT_WEIGHT), LoadBalancingDataSource.parseWeight(null));
+        assertEquals(Integer.valueOf(3), LoadBalancingDataSource.parseWeight(" 3 "));
+        assertNull(LoadBalancingDataSource.parseWeight("-1"));
+        assertNull(LoadBalancingDataSource.parseWeight("heavy"));
+    }
+
+    private Map<String, Integer> count(LoadBalancingDataSource dataSource, int times) throws SQLException {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < times; i++) {
+            Connection connection = dataSource.getConnection();
+            String name = resolveName(connection);
+            counts.merge(name, 1, Integer::sum);
+            connection.close();
+        }
+        return counts;
+    }
+
+    private String resolveName(Connection connection) {
+        // LoadBalancedConnection[target : ${name}]
+        String value = connection.toString();
+        return value.substring(value.indexOf(": ") + 2, value.length() - 1);
+    }
+}
@@ -0,0 +1,201 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ReadWriteSplittingDataSource} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class ReadWriteSplittingDataSourceTest {
+
+    private DataSource primary;
+
+    private DataSource replica;
+
+    private Connection primaryConnection;
+
+    private Connection replicaConnection;
+
+    private ReadWriteSplittingDataSource dataSource;
+
+    @Before
+    public void before() throws SQLException {
+        primary = mock(DataSource.class);
+        replica = mock(DataSource.class);
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        dataSource = newDataSource(Duration.ofMinutes(1));
+    }
+
+    @After
+    public void after() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void testLazyConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        assertFalse(connection.getAutoCommit());
+        connection.commit();
+        connection.close();
+        verify(primary, never()).getConnection();
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    public void testWriteToPrimary() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        connection.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        connection.createStatement();
+        connection.close();
+
+        verify(primaryConnection).setAutoCommit(false);
+        verify(primaryConnection).setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        verify(primaryConnection).createStatement();
+        verify(primaryConnection).close();
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    public void testReadOnlyToReplica() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setReadOnly(true);
+        connection.createStatement();
+        connection.close();
+
+        verify(replicaConnection).setReadOnly(true);
+        verify(replicaConnection).createStatement();
+        verify(replicaConnection).close();
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    public void testReadWriteAfterReadOnly() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        connection.setReadOnly(true);
+        connection.createStatement();
+        connection.setReadOnly(false);
+        // The replica Connection is released, and the writes go to the primary
+        verify(replicaConnection).close();
+        verify(replicaConnection, never()).setReadOnly(false);
+        assertFalse(connection.isReadOnly());
+        connection.createStatement();
+        connection.close();
+
+        verify(primaryConnection).setAutoCommit(false);
+        verify(primaryConnection).createStatement();
+        verify(primaryConnection).close();
+        verify(replicaConnection, times(1)).createStatement();
+        assertTrue(dataSource.isReadingYourWrites());
+    }
+
+    @Test
+    public void testReadOnlyTransactionToReplica() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Connection connection = dataSource.getConnection();
+        connection.createStatement();
+        connection.close();
+
+        verify(replicaConnection).createStatement();
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    public void testReadYourWrites() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.createStatement();
+        connection.close();
+        assertTrue(dataSource.isReadingYourWrites());
+
+        connection = dataSource.getConnection();
+        connection.setReadOnly(true);
+        connection.createStatement();
+        connection.close();
+
+        verify(primaryConnection).setReadOnly(true);
+        verify(replica, never()).getConnection();
+    }
+
+    @Test
+    public void testReadYourWritesDisabled() throws SQLException {
+        dataSource = newDataSource(Duration.ZERO);
+        Connection connection = dataSource.getConnection();
+        connection.createStatement();
+        connection.close();
+        assertFalse(dataSource.isReadingYourWrites());
+
+        connection = dataSource.getConnection();
+        connection.setReadOnly(true);
+        connection.createStatement();
+        connection.close();
+        verify(replicaConnection).createStatement();
+    }
+
+    @Test
+    public void testFallbackToPrimary() throws SQLException {
+        when(replica.getConnection()).thenThrow(new SQLException("down"));
+        Connection connection = dataSource.getConnection();
+        connection.setReadOnly(true);
+        connection.createStatement();
+        connection.close();
+
+        verify(primaryConnection).setReadOnly(true);
+        verify(primaryConnection).createStatement();
+        // The read-only Connection doesn't mark written
+        assertFalse(dataSource.isReadingYourWrites());
+    }
+
+    @Test
+    public void testWithoutReplicas() throws SQLException {
+        Map<String, DataSource> targetDataSources = new LinkedHashMap<>();
+        targetDataSources.put("primary", primary);
+        dataSource = new ReadWriteSplittingDataSource(targetDataSources, "primary", asList(), Duration.ZERO);
+        Connection connection = dataSource.getConnection();
+        connection.setReadOnly(true);
+        connection.createStatement();
+        verify(primaryConnection).createStatement();
+        verify(replica, never()).getConnection();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownReplica() {
+        Map<String, DataSource> targetDataSources = new LinkedHashMap<>();
+        targetDataSources.put("primary", primary);
+        new ReadWriteSplittingDataSource(targetDataSources, "primary", singletonList("replica"), Duration.ZERO);
+    }
+
+    private ReadWriteSplittingDataSource newDataSource(Duration readYourWritesWindow) {
+        Map<String, DataSource> targetDataSources = new LinkedHashMap<>();
+        targetDataSources.put("primary", primary);
+        targetDataSources.put("replica", replica);
+        return new ReadWriteSplittingDataSource(targetDataSources, "primary", singletonList("replica"), readYourWritesWindow);
+    }
+}
@@ -0,0 +1,205 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link ReplicationLagMonitor} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class ReplicationLagMonitorTest {
+
+    private ResultSet replica1ResultSet;
+
+    private ResultSet replica2ResultSet;
+
+    private ReadWriteSplittingDataSource dataSource;
+
+    private ReplicationLagMonitor monitor;
+
+    @Before
+    public void before() throws SQLException {
+        Map<String, DataSource> targetDataSources = new LinkedHashMap<>();
+        targetDataSources.put("primary", mock(DataSource.class));
+        replica1ResultSet = mock(ResultSet.class);
+        replica2ResultSet = mock(ResultSet.class);
+        targetDataSources.put("replica1", mockDataSource(replica1ResultSet));
+        targetDataSources.put("replica2", mockDataSource(replica2ResultSet));
+        dataSource = new ReadWriteSplittingDataSource(targetDataSources, "primary", asList("replica1", "replica2"), Duration.ZERO);
+        monitor = new ReplicationLagMonitor(dataSource, ReplicationLagMonitor.DEFAULT_LAG_QUERY,
+                ReplicationLagMonitor.DEFAULT_LAG_COLUMN_LABEL, Duration.ofSeconds(5), Duration.ofHours(1), Duration.ofSeconds(1));
+    }
+
+    @Test
+    public void testExcludeAndInclude() throws Exception {
+        mockLag(replica1ResultSet, 1);
+        mockLag(replica2ResultSet, 30);
+        monitor.pollReplicas().get();
+        assertEquals(1, monitor.getLag("replica1"), 0);
+        assertEquals(30, monitor.getLag("replica2"), 0);
+        assertEquals(singleton("replica2"), dataSource.getExcludedReplicaNames());
+        for (int i = 0; i < 4; i++) {
+            assertEquals("replica1", dataSource.getTargetConnection(true, null, null).getName());
+        }
+
+        // Caught up
+        mockLag(replica2ResultSet, 2);
+        monitor.pollReplicas().get();
+        assertTrue(dataSource.getExcludedReplicaNames().isEmpty());
+    }
+
+    @Test
+    public void testFallbackToPrimary() throws Exception {
+        // The replication is stopped
+        mockLag(replica1ResultSet, 0);
+        when(replica1ResultSet.wasNull()).thenReturn(true);
+        // Not a replica
+        when(replica2ResultSet.next()).thenReturn(false);
+        monitor.pollReplicas().get();
+        assertTrue(Double.isNaN(monitor.getLag("replica1")));
+        assertEquals(2, dataSource.getExcludedReplicaNames().size());
+        assertEquals("primary", dataSource.getTargetConnection(true, null, null).getName());
+    }
+
+    @Test
+    public void testPollFailure() throws SQLException {
+        when(replica1ResultSet.next()).thenThrow(new SQLException("timeout"));
+        assertNull(monitor.poll("replica1"));
+    }
+
+    @Test
+    public void testMetrics() throws Exception {
+        mockLag(replica1ResultSet, 1);
+        mockLag(replica2ResultSet, 30);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new ReplicationLagMeterBinder(monitor, "test").bindTo(registry);
+        monitor.start();
+        monitor.pollReplicas().get();
+        assertEquals(30, registry.get(ReplicationLagMeterBinder.LAG_METER_NAME).tag("replica", "replica2").gauge().value(), 0);
+        assertEquals(1, registry.get(ReplicationLagMeterBinder.EXCLUDED_METER_NAME).tag("replica", "replica2").gauge().value(), 0);
+
+        // The meters are removed, and the replicas are included
+        monitor.stop();
+        assertTrue(registry.getMeters().isEmpty());
+        assertTrue(dataSource.getExcludedReplicaNames().isEmpty());
+    }
+
+    @Test
+    public void testFallbackToLegacyQuery() throws SQLException {
+        DataSource replicaDataSource = dataSource.getTargetDataSource("replica1");
+        Statement statement = replicaDataSource.getConnection().createStatement();
+        when(statement.executeQuery(ReplicationLagMonitor.DEFAULT_LAG_QUERY)).thenThrow(new SQLSyntaxErrorException("syntax error"));
+        ResultSet legacyResultSet = mock(ResultSet.class);
+        when(legacyResultSet.next()).thenReturn(true);
+        when(legacyResultSet.getDouble(ReplicationLagMonitor.LEGACY_LAG_COLUMN_LABEL)).thenReturn(3d);
+        when(statement.executeQuery(ReplicationLagMonitor.LEGACY_LAG_QUERY)).thenReturn(legacyResultSet);
+
+        assertEquals(3, monitor.poll("replica1"), 0);
+        // The legacy query is used since then
+        assertEquals(3, monitor.poll("replica1"), 0);
+        verify(statement, times(1)).executeQuery(ReplicationLagMonitor.DEFAULT_LAG_QUERY);
+    }
+
+    @Test
+    public void testPollTimeout() throws Exception {
+        CountDownLatch connectionLatch = new CountDownLatch(1);
+        DataSource replicaDataSource = dataSource.getTargetDataSource("replica2");
+        Connection replicaConnection = replicaDataSource.getConnection();
+        // The pool of replica2 is exhausted
+        when(replicaDataSource.getConnection()).thenAnswer(invocation -> {
+            connectionLatch.await();
+            return replicaConnection;
+        });
+        clearInvocations(replicaDataSource);
+        mockLag(replica1ResultSet, 1);
+        mockLag(replica2ResultSet, 1);
+        try {
+            long startTime = System.currentTimeMillis();
+            // The scheduler thread doesn't wait for the polls
+            monitor.run();
+            assertTrue(System.currentTimeMillis() - startTime < 500);
+            assertTrue(Double.isNaN(monitor.getLag("replica2")));
+
+            monitor = new ReplicationLagMonitor(dataSource, ReplicationLagMonitor.DEFAULT_LAG_QUERY,
+                    ReplicationLagMonitor.DEFAULT_LAG_COLUMN_LABEL, Duration.ofSeconds(5), Duration.ofHours(1), Duration.ofSeconds(1));
+            monitor.pollReplicas().get(3, TimeUnit.SECONDS);
+            // The wait is bounded by the query timeout, and replica1 is polled in parallel
+            assertTrue(System.currentTimeMillis() - startTime < 3000);
+            assertEquals(1, monitor.getLag("replica1"), 0);
+            assertTrue(Double.isNaN(monitor.getLag("replica2")));
+            assertEquals(singleton("replica2"), dataSource.getExcludedReplicaNames());
+
+            // The pending poll is applied on the completion instead of piling up
+            monitor.pollReplicas().get();
+            verify(replicaDataSource, times(2)).getConnection();
+        } finally {
+            connectionLatch.countDown();
+        }
+        long deadline = System.currentTimeMillis() + 3000;
+        while (!dataSource.getExcludedReplicaNames().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, monitor.getLag("replica2"), 0);
+        assertTrue(dataSource.getExcludedReplicaNames().isEmpty());
+    }
+
+    @Test
+    public void testMetricsOfRebuiltDataSource() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new ReplicationLagMeterBinder(monitor, "test").bindTo(registry);
+        monitor.start();
+
+        ReplicationLagMonitor rebuiltMonitor = new ReplicationLagMonitor(dataSource, ReplicationLagMonitor.DEFAULT_LAG_QUERY,
+                ReplicationLagMonitor.DEFAULT_LAG_COLUMN_LABEL, Duration.ofSeconds(5), Duration.ofHours(1), Duration.ofSeconds(1));
+        new ReplicationLagMeterBinder(rebuiltMonitor, "test").bindTo(registry);
+        rebuiltMonitor.start();
+        // The previous monitor is stopped after the swap
+        monitor.stop();
+        assertEquals(4, registry.getMeters().size());
+
+        rebuiltMonitor.stop();
+        assertTrue(registry.getMeters().isEmpty());
+    }
+
+    private static DataSource mockDataSource(ResultSet resultSet) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        return dataSource;
+    }
+
+    private static void mockLag(ResultSet resultSet, double lag) throws SQLException {
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getDouble(ReplicationLagMonitor.DEFAULT_LAG_COLUMN_LABEL)).thenReturn(lag);
+    }
+}
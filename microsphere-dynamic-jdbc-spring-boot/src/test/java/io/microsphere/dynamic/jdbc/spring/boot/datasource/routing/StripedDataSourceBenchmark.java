@@ -0,0 +1,164 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The benchmark of the connection acquisition of {@link StripedDataSource} against the single {@link HikariDataSource}
+ * with the same total size, the physical connections are the in-memory stubs, thus only the contention of the pools is
+ * measured. It's not run as a unit test :
+ * <pre>
+ * java -cp ... io.microsphere.dynamic.jdbc.spring.boot.datasource.routing.StripedDataSourceBenchmark [threads] [pool size] [stripes] [seconds]
+ * </pre>
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class StripedDataSourceBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+        int poolSize = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int stripes = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        long seconds = args.length > 3 ? Long.parseLong(args[3]) : 10;
+
+        HikariDataSource single = newPool("single", poolSize);
+        try {
+            run("single pool", single, threads, seconds);
+        } finally {
+            single.close();
+        }
+
+        Map<String, HikariDataSource> stripeDataSources = new LinkedHashMap<>();
+        for (int i = 0; i < stripes; i++) {
+            stripeDataSources.put("striped-" + i, newPool("striped-" + i, StripedDataSource.split(poolSize, i, stripes)));
+        }
+        StripedDataSource striped = new StripedDataSource(stripeDataSources);
+        try {
+            run(stripes + " striped pools", striped, threads, seconds);
+            System.out.printf("steals : %d%n", striped.getSteals());
+        } finally {
+            striped.destroy();
+        }
+    }
+
+    private static void run(String name, DataSource dataSource, int threads, long seconds) throws InterruptedException {
+        // Warm up
+        measure(dataSource, threads, 2);
+        Result result = measure(dataSource, threads, seconds);
+        System.out.printf("%-20s : %,12.0f ops/s , acquisition p50 : %,8d ns , p99 : %,10d ns , errors : %d%n", name,
+                result.operations / (double) seconds, result.percentile(0.50), result.percentile(0.99), result.errors);
+    }
+
+    private static Result measure(DataSource dataSource, int threads, long seconds) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch latch = new CountDownLatch(threads);
+        LongAdder operations = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long[][] samples = new long[threads][];
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            Thread thread = new Thread(() -> {
+                long[] latencies = new long[1 << 14];
+                int count = 0;
+                while (running.get()) {
+                    long start = System.nanoTime();
+                    try (Connection connection = dataSource.getConnection()) {
+                        long latency = System.nanoTime() - start;
+                        latencies[count++ & (latencies.length - 1)] = latency;
+                        operations.increment();
+                    } catch (SQLException e) {
+                        errors.increment();
+                    }
+                }
+                samples[index] = Arrays.copyOf(latencies, Math.min(count, latencies.length));
+                latch.countDown();
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+        TimeUnit.SECONDS.sleep(seconds);
+        running.set(false);
+        latch.await();
+        return new Result(operations.sum(), errors.sum(), samples);
+    }
+
+    private static HikariDataSource newPool(String poolName, int size) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
+        dataSource.setMaximumPoolSize(size);
+        dataSource.setMinimumIdle(size);
+        dataSource.setConnectionTimeout(30000);
+        dataSource.setDataSource(new StubDataSource());
+        return dataSource;
+    }
+
+    private static class Result {
+
+        private final long operations;
+
+        private final long errors;
+
+        private final long[] latencies;
+
+        private Result(long operations, long errors, long[][] samples) {
+            this.operations = operations;
+            this.errors = errors;
+            this.latencies = Arrays.stream(samples).flatMapToLong(Arrays::stream).sorted().toArray();
+        }
+
+        private long percentile(double percentile) {
+            return latencies.length == 0 ? 0 : latencies[(int) Math.min(latencies.length - 1, latencies.length * percentile)];
+        }
+    }
+
+    /**
+     * The {@link DataSource} of the in-memory stub {@link Connection connections}
+     */
+    private static class StubDataSource extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() {
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Class<?> returnType = method.getReturnType();
+                        switch (method.getName()) {
+                            case "isValid":
+                            case "getAutoCommit":
+                                return true;
+                            case "toString":
+                                return "StubConnection";
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                        }
+                        if (returnType == boolean.class) {
+                            return false;
+                        } else if (returnType == int.class) {
+                            return 0;
+                        } else if (returnType == long.class) {
+                            return 0L;
+                        }
+                        return null;
+                    });
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+    }
+}
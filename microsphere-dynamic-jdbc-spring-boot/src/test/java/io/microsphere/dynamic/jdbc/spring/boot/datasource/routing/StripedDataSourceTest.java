@@ -0,0 +1,129 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link StripedDataSource} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class StripedDataSourceTest {
+
+    private HikariDataSource homeStripe;
+
+    private HikariDataSource otherStripe;
+
+    private Connection homeConnection;
+
+    private Connection otherConnection;
+
+    private StripedDataSource dataSource;
+
+    @Before
+    public void before() throws SQLException {
+        HikariDataSource stripe0 = mock(HikariDataSource.class);
+        HikariDataSource stripe1 = mock(HikariDataSource.class);
+        boolean homeIs0 = StripedDataSource.homeStripe(Thread.currentThread().getId(), 2) == 0;
+        homeStripe = homeIs0 ? stripe0 : stripe1;
+        otherStripe = homeIs0 ? stripe1 : stripe0;
+        homeConnection = mock(Connection.class);
+        otherConnection = mock(Connection.class);
+        when(homeStripe.getConnection()).thenReturn(homeConnection);
+        when(otherStripe.getConnection()).thenReturn(otherConnection);
+        when(homeStripe.getMaximumPoolSize()).thenReturn(2);
+        when(otherStripe.getMaximumPoolSize()).thenReturn(2);
+
+        Map<String, HikariDataSource> stripes = new LinkedHashMap<>();
+        stripes.put("test-0", stripe0);
+        stripes.put("test-1", stripe1);
+        dataSource = new StripedDataSource(stripes);
+    }
+
+    @Test
+    public void testSplit() {
+        assertEquals(4, StripedDataSource.split(10, 0, 3));
+        assertEquals(3, StripedDataSource.split(10, 1, 3));
+        assertEquals(3, StripedDataSource.split(10, 2, 3));
+        assertEquals(1, StripedDataSource.split(2, 1, 3));
+        assertEquals(0, StripedDataSource.split(2, 2, 3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSplitOutOfRange() {
+        StripedDataSource.split(10, 3, 3);
+    }
+
+    @Test
+    public void testHomeStripe() {
+        Set<Integer> stripes = new HashSet<>();
+        for (long threadId = 1; threadId <= 64; threadId++) {
+            int stripe = StripedDataSource.homeStripe(threadId, 4);
+            assertTrue(stripe >= 0 && stripe < 4);
+            stripes.add(stripe);
+        }
+        // The sequential thread ids are spread
+        assertEquals(4, stripes.size());
+        assertEquals(StripedDataSource.homeStripe(7, 4), StripedDataSource.homeStripe(7, 4));
+    }
+
+    @Test
+    public void testHomeStripeNotStarted() throws SQLException {
+        assertSame(homeConnection, dataSource.getConnection());
+        assertEquals(0, dataSource.getSteals());
+        assertEquals(2, dataSource.getStripesCount());
+    }
+
+    @Test
+    public void testHomeStripeWithCapacity() throws SQLException {
+        mockPool(homeStripe, 0, 1);
+        mockPool(otherStripe, 2, 2);
+        assertSame(homeConnection, dataSource.getConnection());
+        assertEquals(0, dataSource.getSteals());
+    }
+
+    @Test
+    public void testSteal() throws SQLException {
+        mockPool(homeStripe, 0, 2);
+        mockPool(otherStripe, 1, 2);
+        assertSame(otherConnection, dataSource.getConnection());
+        assertEquals(1, dataSource.getSteals());
+
+        // The stealing failed
+        when(otherStripe.getConnection()).thenThrow(new SQLException("timeout"));
+        assertSame(homeConnection, dataSource.getConnection());
+        assertEquals(1, dataSource.getSteals());
+    }
+
+    @Test
+    public void testAllStripesExhausted() throws SQLException {
+        mockPool(homeStripe, 0, 2);
+        mockPool(otherStripe, 0, 2);
+        // Waits on the home stripe
+        assertSame(homeConnection, dataSource.getConnection());
+        assertEquals(0, dataSource.getSteals());
+    }
+
+    private static void mockPool(HikariDataSource stripe, int idleConnections, int totalConnections) {
+        HikariPoolMXBean poolMXBean = mock(HikariPoolMXBean.class);
+        when(poolMXBean.getIdleConnections()).thenReturn(idleConnections);
+        when(poolMXBean.getTotalConnections()).thenReturn(totalConnections);
+        when(stripe.getHikariPoolMXBean()).thenReturn(poolMXBean);
+    }
+}
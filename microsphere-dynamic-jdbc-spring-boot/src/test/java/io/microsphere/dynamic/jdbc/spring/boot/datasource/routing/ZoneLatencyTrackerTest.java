@@ -0,0 +1,41 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.routing;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ZoneLatencyTracker} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class ZoneLatencyTrackerTest {
+
+    @Test
+    public void testEwma() {
+        ZoneLatencyTracker tracker = new ZoneLatencyTracker("zone", 0.5);
+        assertTrue(Double.isNaN(tracker.getAverageNanos()));
+        assertFalse(tracker.isHealthy());
+
+        tracker.onSuccess(100);
+        assertEquals(100, tracker.getAverageNanos(), 0);
+        tracker.onSuccess(200);
+        assertEquals(150, tracker.getAverageNanos(), 0);
+        tracker.onSuccess(50);
+        assertEquals(100, tracker.getAverageNanos(), 0);
+        assertEquals(3, tracker.getSamples());
+        assertTrue(tracker.isHealthy());
+
+        tracker.onFailure();
+        assertFalse(tracker.isHealthy());
+        assertEquals(100, tracker.getAverageNanos(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidAlpha() {
+        new ZoneLatencyTracker("zone", 0);
+    }
+}
@@ -0,0 +1,135 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.sharing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.sharing.SharedPoolRegistry.SharedPool;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+
+import static java.util.Collections.emptyMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link SharedPoolDataSource} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class SharedPoolDataSourceTest {
+
+    private static final String IDENTITY = SharedPoolRegistry.identity("jdbc:mysql://127.0.0.1:3306/demo_ds", "root");
+
+    private static final Map<String, String> SETTINGS = SharedPoolRegistry.getSettings(emptyMap());
+
+    private SharedPoolRegistry registry;
+
+    private HikariDataSource pool;
+
+    @Before
+    public void before() throws SQLException {
+        registry = new SharedPoolRegistry();
+        pool = mock(HikariDataSource.class);
+        when(pool.getConnectionTimeout()).thenReturn(10L);
+        when(pool.getPoolName()).thenReturn("shared-ds");
+        when(pool.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+    }
+
+    @Test
+    public void testQuota() throws SQLException {
+        SharedPoolDataSource dataSource = newDataSource("tenant-a", 1);
+        Connection connection = dataSource.getConnection();
+        assertEquals(1, dataSource.getActiveConnections());
+        try {
+            dataSource.getConnection();
+            fail();
+        } catch (SQLTransientConnectionException e) {
+            assertEquals(1, dataSource.getRejections());
+        }
+        // Closing twice releases the quota once
+        connection.close();
+        connection.close();
+        assertEquals(0, dataSource.getActiveConnections());
+        dataSource.getConnection().close();
+        assertEquals(2, dataSource.getAcquisitions());
+    }
+
+    @Test
+    public void testClosedConnection() throws SQLException {
+        SharedPoolDataSource dataSource = newDataSource("tenant-a", 1);
+        Connection connection = dataSource.getConnection();
+        assertSame(connection, connection.unwrap(Connection.class));
+        assertTrue(connection.isWrapperFor(Connection.class));
+        connection.close();
+        assertTrue(connection.isClosed());
+    }
+
+    @Test
+    public void testQuotaIsPerConfig() throws SQLException {
+        SharedPoolDataSource dataSource = newDataSource("tenant-a", 1);
+        SharedPoolDataSource otherDataSource = newDataSource("tenant-b", 0);
+        dataSource.getConnection();
+        for (int i = 0; i < 3; i++) {
+            otherDataSource.getConnection();
+        }
+        assertEquals(1, dataSource.getActiveConnections());
+        assertEquals(3, otherDataSource.getActiveConnections());
+    }
+
+    @Test
+    public void testDestroy() throws SQLException {
+        SharedPoolDataSource dataSource = newDataSource("tenant-a", 0);
+        SharedPoolDataSource otherDataSource = newDataSource("tenant-b", 0);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        new SharedPoolMeterBinder(dataSource).bindTo(meterRegistry);
+        dataSource.getConnection();
+        assertEquals(1, meterRegistry.get(SharedPoolMeterBinder.ACTIVE_METER_NAME).tag("config", "tenant-a").gauge().value(), 0);
+
+        dataSource.destroy();
+        assertTrue(meterRegistry.getMeters().isEmpty());
+        // The pool is still leased by tenant-b
+        verify(pool, never()).close();
+        try {
+            dataSource.getConnection();
+            fail();
+        } catch (SQLException e) {
+            // destroyed
+        }
+        otherDataSource.destroy();
+        verify(pool).close();
+    }
+
+    @Test
+    public void testMetricsOfRebuiltDataSource() throws SQLException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SharedPoolDataSource dataSource = newDataSource("tenant-a", 0);
+        new SharedPoolMeterBinder(dataSource).bindTo(meterRegistry);
+        SharedPoolDataSource rebuiltDataSource = newDataSource("tenant-a", 0);
+        new SharedPoolMeterBinder(rebuiltDataSource).bindTo(meterRegistry);
+        rebuiltDataSource.getConnection();
+
+        // The previous DataSource is destroyed after the swap
+        dataSource.destroy();
+        assertEquals(4, meterRegistry.getMeters().size());
+        assertEquals(1, meterRegistry.get(SharedPoolMeterBinder.ACTIVE_METER_NAME).tag("config", "tenant-a").gauge().value(), 0);
+
+        rebuiltDataSource.destroy();
+        assertTrue(meterRegistry.getMeters().isEmpty());
+    }
+
+    private SharedPoolDataSource newDataSource(String dynamicJdbcConfigName, int quota) {
+        SharedPool sharedPool = registry.lease(IDENTITY, "123456", SETTINGS, () -> pool);
+        return new SharedPoolDataSource(dynamicJdbcConfigName, sharedPool, registry, quota);
+    }
+}
@@ -0,0 +1,120 @@
+package io.microsphere.dynamic.jdbc.spring.boot.datasource.sharing;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.microsphere.dynamic.jdbc.spring.boot.datasource.sharing.SharedPoolRegistry.SharedPool;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * {@link SharedPoolRegistry} Test
+ *
+ * @author <a href="mailto:mercyblitz@gmail.com">Mercy<a/>
+ * @since 1.0.0
+ */
+public class SharedPoolRegistryTest {
+
+    private static final String IDENTITY = SharedPoolRegistry.identity("jdbc:mysql://127.0.0.1:3306/demo_ds", "root");
+
+    private static final Map<String, String> SETTINGS = SharedPoolRegistry.getSettings(singletonMap("maximum-pool-size", "10"));
+
+    private SharedPoolRegistry registry;
+
+    private HikariDataSource pool;
+
+    @Before
+    public void before() {
+        registry = new SharedPoolRegistry();
+        pool = mock(HikariDataSource.class);
+    }
+
+    @Test
+    public void testIdentity() {
+        assertEquals(SharedPoolRegistry.identity("jdbc:mysql://127.0.0.1:3306/demo_ds?useSSL=false&useUnicode=true", "root"),
+                SharedPoolRegistry.identity("jdbc:mysql://127.0.0.1:3306/demo_ds?useUnicode=true&useSSL=false", "root"));
+        assertNotEquals(IDENTITY, SharedPoolRegistry.identity("jdbc:mysql://127.0.0.1:3306/demo_ds", "admin"));
+    }
+
+    @Test
+    public void testLeaseAndRelease() {
+        SharedPool sharedPool = registry.lease(IDENTITY, "123456", SETTINGS, () -> pool);
+        // The pool is created once
+        assertSame(sharedPool, registry.lease(IDENTITY, "123456", SETTINGS, () -> mock(HikariDataSource.class)));
+        assertSame(pool, sharedPool.getDataSource());
+        assertEquals(2, sharedPool.getLeases());
+        assertEquals(singleton(IDENTITY), registry.getIdentities());
+
+        registry.release(sharedPool);
+        verify(pool, never()).close();
+        registry.release(sharedPool);
+        verify(pool).close();
+        assertTrue(registry.getIdentities().isEmpty());
+    }
+
+    @Test
+    public void testLeaseWithDifferentPassword() {
+        registry.lease(IDENTITY, "123456", SETTINGS, () -> pool);
+        assertNull(registry.lease(IDENTITY, "654321", SETTINGS, () -> mock(HikariDataSource.class)));
+    }
+
+    @Test
+    public void testLeaseWithDifferentSettings() {
+        registry.lease(IDENTITY, "123456", SETTINGS, () -> pool);
+        Map<String, String> readOnlyProperties = new HashMap<>();
+        readOnlyProperties.put("maximum-pool-size", "10");
+        readOnlyProperties.put("read-only", "true");
+        assertNull(registry.lease(IDENTITY, "123456", SharedPoolRegistry.getSettings(readOnlyProperties), () -> pool));
+        assertNull(registry.lease(IDENTITY, "123456", SharedPoolRegistry.getSettings(singletonMap("maximum-pool-size", "50")), () -> pool));
+        // The same settings share the pool
+        assertEquals(2, registry.lease(IDENTITY, "123456", SharedPoolRegistry.getSettings(singletonMap("maximumPoolSize", "10")),
+                () -> pool).getLeases());
+    }
+
+    @Test
+    public void testGetSettings() {
+        Map<String, String> dataSourceProperties = new HashMap<>();
+        dataSourceProperties.put("name", "ds1");
+        dataSourceProperties.put("url", "jdbc:mysql://127.0.0.1:3306/demo_ds");
+        dataSourceProperties.put("username", "root");
+        dataSourceProperties.put("password", "123456");
+        dataSourceProperties.put("pool-name", "ds1");
+        dataSourceProperties.put("auto-commit", "false");
+        // The settings are derived from the properties, the credentials and the name are excluded
+        assertEquals(singletonMap("autocommit", "false"), SharedPoolRegistry.getSettings(dataSourceProperties));
+    }
+
+    @Test
+    public void testGetFromBeanFactory() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        SharedPoolRegistry registry = SharedPoolRegistry.get(beanFactory);
+        assertSame(registry, SharedPoolRegistry.get(beanFactory));
+        SharedPool sharedPool = registry.lease(IDENTITY, "123456", SETTINGS, () -> pool);
+
+        // The pools still leased are closed with the BeanFactory
+        beanFactory.destroySingletons();
+        verify(pool).close();
+        assertTrue(registry.getIdentities().isEmpty());
+        assertEquals(1, sharedPool.getLeases());
+        try {
+            registry.lease(IDENTITY, "123456", SETTINGS, () -> pool);
+            fail("The registry has been destroyed");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+}